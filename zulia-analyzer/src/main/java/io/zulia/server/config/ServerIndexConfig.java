@@ -2,6 +2,8 @@ package io.zulia.server.config;
 
 import io.zulia.message.ZuliaIndex.AnalyzerSettings;
 import io.zulia.message.ZuliaIndex.IndexSettings;
+import io.zulia.message.ZuliaIndex.StoredDocumentFormat;
+import io.zulia.message.ZuliaIndex.VectorConfig;
 import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
 
 import java.util.Collection;
@@ -41,6 +43,13 @@ public class ServerIndexConfig {
 		return serverIndexConfigData.getIndexFieldInfo(field);
 	}
 
+	/**
+	 * @return the vector config of a vector index field or null if the field is not quantized
+	 */
+	public VectorConfig getVectorConfig(String indexField) {
+		return serverIndexConfigData.getVectorConfig(indexField);
+	}
+
 	public Collection<String> getIndexedFields() {
 		return serverIndexConfigData.getIndexedFields();
 	}
@@ -69,6 +78,30 @@ public class ServerIndexConfig {
 		return getIndexSettings().getDefaultConcurrency();
 	}
 
+	public int getSegmentQueryCacheSize() {
+		return getIndexSettings().getSegmentQueryCacheSize();
+	}
+
+	public int getFilterCacheSizeMB() {
+		return getIndexSettings().getFilterCacheSizeMB();
+	}
+
+	public int getFacetCountCacheOrdinals() {
+		return getIndexSettings().getFacetCountCacheOrdinals();
+	}
+
+	public int getDefaultTotalHitsThreshold() {
+		return getIndexSettings().getDefaultTotalHitsThreshold();
+	}
+
+	public int getTaxonomyCacheSizeMB() {
+		return getIndexSettings().getTaxonomyCacheSizeMB();
+	}
+
+	public StoredDocumentFormat getStoredDocumentFormat() {
+		return getIndexSettings().getStoredDocumentFormat();
+	}
+
 	public List<QueryRequest> getWarmingSearches() {
 		return serverIndexConfigData.getWarmingSearches();
 	}
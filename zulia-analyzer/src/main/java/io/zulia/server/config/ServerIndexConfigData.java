@@ -14,6 +14,7 @@ import io.zulia.message.ZuliaIndex.IndexAs;
 import io.zulia.message.ZuliaIndex.IndexSettings;
 import io.zulia.message.ZuliaIndex.SortAs;
 import io.zulia.message.ZuliaIndex.SortAs.StringHandling;
+import io.zulia.message.ZuliaIndex.VectorConfig;
 import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
 import io.zulia.server.field.FieldTypeUtil;
 import org.slf4j.Logger;
@@ -44,6 +45,7 @@ public class ServerIndexConfigData {
 	private final Map<String, Set<String>> fieldMappingToFields;
 	private final LinkedHashMap<String, Set<String>> facetGroupToFacets;
 	private final Set<String> individualFacets;
+	private final Map<String, VectorConfig> vectorConfigMap;
 
 	public ServerIndexConfigData(IndexSettings indexSettings) {
 		this.indexSettings = indexSettings;
@@ -53,6 +55,7 @@ public class ServerIndexConfigData {
 		this.facetAsMap = new HashMap<>();
 		HashMap<String, Set<String>> facetGroupToFacetsTemp = new HashMap<>();
 		this.individualFacets = new HashSet<>();
+		this.vectorConfigMap = new HashMap<>();
 
 		for (FieldConfig fc : indexSettings.getFieldConfigList()) {
 			String storedFieldName = fc.getStoredFieldName();
@@ -116,6 +119,10 @@ public class ServerIndexConfigData {
 				String indexField = FieldTypeUtil.getIndexField(indexFieldName, fieldType);
 				IndexFieldInfo indexFieldInfo = new IndexFieldInfo(storedFieldName, indexField, internalSortFieldName, fieldType, indexAs);
 				indexFieldMapping.put(indexFieldName, indexFieldInfo);
+
+				if (fc.hasVectorConfig()) {
+					vectorConfigMap.put(indexFieldName, fc.getVectorConfig());
+				}
 			}
 
 			for (FacetAs facetAs : fc.getFacetAsList()) {
@@ -269,6 +276,10 @@ public class ServerIndexConfigData {
 		return sortFieldMapping.get(sortField);
 	}
 
+	public VectorConfig getVectorConfig(String indexField) {
+		return vectorConfigMap.get(indexField);
+	}
+
 	public IndexFieldInfo getIndexFieldInfo(String field) {
 		return indexFieldMapping.get(field);
 	}
@@ -0,0 +1,23 @@
+plugins {
+    alias(libs.plugins.jmh)
+}
+
+description = "Zulia Benchmarks"
+
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+}
+
+dependencies {
+    jmhImplementation(projects.zuliaServer)
+    jmhImplementation(projects.zuliaClient)
+    jmhImplementation(projects.zuliaQueryParser)
+}
+
+// benchmarks are run from the source tree and are not released
+tasks.withType<AbstractPublishToMaven>().configureEach {
+    enabled = false
+}
@@ -0,0 +1,137 @@
+package io.zulia.benchmarks;
+
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.search.aggregation.AggregationHandler;
+import io.zulia.util.pool.TaskExecutor;
+import io.zulia.util.pool.VirtualThreadPerTaskTaskExecutor;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count facets and numeric stats (global and per facet with DDSketch precision) over the matching docs of a collected search
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AggregationBenchmark {
+
+	@Param({ "100000" })
+	public int documentCount;
+
+	@Param({ "1", "4" })
+	public int concurrency;
+
+	@Param({ "0.001", "0.01" })
+	public double precision;
+
+	private SyntheticShard syntheticShard;
+	private DirectoryReader indexReader;
+	private DirectoryTaxonomyReader taxoReader;
+	private TaskExecutor taskExecutor;
+
+	private FacetsCollector allDocs;
+	private FacetsCollector termDocs;
+
+	private List<ZuliaQuery.CountRequest> countRequests;
+	private List<ZuliaQuery.StatRequest> statRequests;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		syntheticShard = SyntheticShard.create(documentCount, 1234L);
+		indexReader = DirectoryReader.open(FSDirectory.open(syntheticShard.getIndexPath()));
+		taxoReader = new DirectoryTaxonomyReader(FSDirectory.open(syntheticShard.getTaxoIndexPath()));
+		taskExecutor = new VirtualThreadPerTaskTaskExecutor();
+
+		IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+		allDocs = collect(indexSearcher, new MatchAllDocsQuery());
+		termDocs = collect(indexSearcher, new TermQuery(new Term(SyntheticShard.TITLE, "search")));
+
+		countRequests = List.of(createCountRequest(SyntheticShard.CATEGORY), createCountRequest(SyntheticShard.TAG));
+
+		statRequests = List.of(ZuliaQuery.StatRequest.newBuilder().setNumericField(SyntheticShard.RATING).setPrecision(precision).build(),
+				ZuliaQuery.StatRequest.newBuilder().setNumericField(SyntheticShard.RATING)
+						.setFacetField(ZuliaQuery.Facet.newBuilder().setLabel(SyntheticShard.CATEGORY)).setPrecision(precision).build(),
+				ZuliaQuery.StatRequest.newBuilder().setNumericField(SyntheticShard.YEAR)
+						.setFacetField(ZuliaQuery.Facet.newBuilder().setLabel(SyntheticShard.CATEGORY)).setPrecision(precision).build());
+	}
+
+	private static FacetsCollector collect(IndexSearcher indexSearcher, Query query) throws Exception {
+		return indexSearcher.search(query, new FacetsCollectorManager());
+	}
+
+	private static ZuliaQuery.CountRequest createCountRequest(String label) {
+		return ZuliaQuery.CountRequest.newBuilder().setFacetField(ZuliaQuery.Facet.newBuilder().setLabel(label)).setMaxFacets(10).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		taskExecutor.close();
+		taxoReader.close();
+		indexReader.close();
+		syntheticShard.close();
+	}
+
+	@Benchmark
+	public void countAllDocs(Blackhole blackhole) throws Exception {
+		count(allDocs, blackhole);
+	}
+
+	@Benchmark
+	public void countTermDocs(Blackhole blackhole) throws Exception {
+		count(termDocs, blackhole);
+	}
+
+	@Benchmark
+	public void statAllDocs(Blackhole blackhole) throws Exception {
+		stat(allDocs, blackhole);
+	}
+
+	@Benchmark
+	public void statTermDocs(Blackhole blackhole) throws Exception {
+		stat(termDocs, blackhole);
+	}
+
+	private void count(FacetsCollector facetsCollector, Blackhole blackhole) throws Exception {
+		AggregationHandler aggregationHandler = new AggregationHandler(taxoReader, facetsCollector, List.of(), countRequests,
+				syntheticShard.getServerIndexConfig(), taskExecutor, concurrency);
+		for (ZuliaQuery.CountRequest countRequest : countRequests) {
+			blackhole.consume(aggregationHandler.getTopChildren(countRequest.getMaxFacets(), countRequest.getFacetField().getLabel()).build());
+		}
+	}
+
+	private void stat(FacetsCollector facetsCollector, Blackhole blackhole) throws Exception {
+		AggregationHandler aggregationHandler = new AggregationHandler(taxoReader, facetsCollector, statRequests, List.of(),
+				syntheticShard.getServerIndexConfig(), taskExecutor, concurrency);
+		for (ZuliaQuery.StatRequest statRequest : statRequests) {
+			String label = statRequest.getFacetField().getLabel();
+			if (label.isEmpty()) {
+				blackhole.consume(aggregationHandler.getGlobalStatsForNumericField(statRequest.getNumericField()));
+			}
+			else {
+				blackhole.consume(aggregationHandler.getTopChildren(statRequest.getNumericField(), 10, label));
+			}
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package io.zulia.benchmarks;
+
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.index.DocumentScoredDocLeafHandler;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and converting the stored documents of a page of results spread across the shard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentFetchBenchmark {
+
+	@Param({ "100000" })
+	public int documentCount;
+
+	@Param({ "10", "100" })
+	public int amount;
+
+	@Param({ "FULL", "META", "NONE" })
+	public ZuliaQuery.FetchType fetchType;
+
+	private SyntheticShard syntheticShard;
+	private DirectoryReader indexReader;
+	private ScoreDoc[] scoreDocs;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		syntheticShard = SyntheticShard.create(documentCount, 1234L);
+		indexReader = DirectoryReader.open(FSDirectory.open(syntheticShard.getIndexPath()));
+
+		// random docs in score order like a real result page instead of sequential doc ids
+		ScoreDoc[] allDocs = new IndexSearcher(indexReader).search(new MatchAllDocsQuery(), indexReader.maxDoc()).scoreDocs;
+		SplittableRandom random = new SplittableRandom(1234L);
+		scoreDocs = new ScoreDoc[amount];
+		for (int i = 0; i < amount; i++) {
+			ScoreDoc scoreDoc = allDocs[random.nextInt(allDocs.length)];
+			scoreDocs[i] = new ScoreDoc(scoreDoc.doc, amount - i, scoreDoc.shardIndex);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		indexReader.close();
+		syntheticShard.close();
+	}
+
+	@Benchmark
+	public ZuliaQuery.ScoredResult[] fetchDocuments() throws Exception {
+		return fetch(List.of());
+	}
+
+	@Benchmark
+	public ZuliaQuery.ScoredResult[] fetchDocumentsWithFieldsToReturn() throws Exception {
+		return fetch(List.of(SyntheticShard.TITLE, SyntheticShard.RATING));
+	}
+
+	private ZuliaQuery.ScoredResult[] fetch(List<String> fieldsToReturn) throws Exception {
+		DocumentScoredDocLeafHandler documentScoredDocLeafHandler = new DocumentScoredDocLeafHandler(SyntheticShard.INDEX_NAME, 0, fetchType,
+				fieldsToReturn, List.of(), List.of(), List.of(), List.of());
+		return documentScoredDocLeafHandler.handle(indexReader, scoreDocs, ZuliaQuery.ScoredResult[]::new);
+	}
+}
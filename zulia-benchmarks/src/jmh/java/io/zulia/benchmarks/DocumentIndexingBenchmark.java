@@ -0,0 +1,65 @@
+package io.zulia.benchmarks;
+
+import io.zulia.server.index.DocumentContainer;
+import io.zulia.server.index.ShardDocumentIndexer;
+import io.zulia.server.index.cache.ZuliaTaxonomyWriterCache;
+import io.zulia.util.ZuliaUtil;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a stored document into a lucene document (field extraction, sort and facet fields, taxonomy ordinals) without the index writer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentIndexingBenchmark {
+
+	private static final int DOCUMENT_COUNT = 10000;
+
+	private ShardDocumentIndexer shardDocumentIndexer;
+	private DirectoryTaxonomyWriter taxoWriter;
+	private byte[][] documents;
+	private DocumentContainer metadata;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		shardDocumentIndexer = new ShardDocumentIndexer(SyntheticShard.createIndexConfig(1));
+		taxoWriter = new DirectoryTaxonomyWriter(new ByteBuffersDirectory(), IndexWriterConfig.OpenMode.CREATE, new ZuliaTaxonomyWriterCache());
+
+		SplittableRandom random = new SplittableRandom(1234L);
+		documents = new byte[DOCUMENT_COUNT][];
+		for (int id = 0; id < DOCUMENT_COUNT; id++) {
+			documents[id] = ZuliaUtil.mongoDocumentToByteArray(SyntheticShard.createDocument(random, id));
+		}
+		metadata = SyntheticShard.toDocumentContainer(new org.bson.Document());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		taxoWriter.close();
+	}
+
+	@Benchmark
+	public Document getIndexDocument() throws Exception {
+		int id = next;
+		next = (id + 1) % DOCUMENT_COUNT;
+		// the stored bytes are parsed as part of the conversion like a store request
+		return shardDocumentIndexer.getIndexDocument(String.valueOf(id), 0, new DocumentContainer(documents[id]), metadata, taxoWriter);
+	}
+}
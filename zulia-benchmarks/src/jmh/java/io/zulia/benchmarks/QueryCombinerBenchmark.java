@@ -0,0 +1,120 @@
+package io.zulia.benchmarks;
+
+import io.zulia.message.ZuliaQuery;
+import io.zulia.message.ZuliaServiceOuterClass.InternalQueryResponse;
+import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
+import io.zulia.message.ZuliaServiceOuterClass.QueryResponse;
+import io.zulia.server.config.ZuliaConfig;
+import io.zulia.server.index.ZuliaIndex;
+import io.zulia.server.search.QueryCombiner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging the results and facets returned by every shard of an index into the final query response
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryCombinerBenchmark {
+
+	@Param({ "4", "16" })
+	public int shardCount;
+
+	@Param({ "10", "100" })
+	public int amount;
+
+	private ZuliaIndex zuliaIndex;
+
+	private QueryRequest scoredRequest;
+	private QueryRequest sortedRequest;
+	private List<InternalQueryResponse> scoredResponses;
+	private List<InternalQueryResponse> sortedResponses;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		zuliaIndex = new ZuliaIndex(new ZuliaConfig(), SyntheticShard.createIndexConfig(shardCount), null, null, null, null);
+
+		ZuliaQuery.CountRequest countRequest = ZuliaQuery.CountRequest.newBuilder().setFacetField(ZuliaQuery.Facet.newBuilder().setLabel(SyntheticShard.TAG))
+				.setMaxFacets(10).build();
+		ZuliaQuery.SortRequest sortRequest = ZuliaQuery.SortRequest.newBuilder()
+				.addFieldSort(ZuliaQuery.FieldSort.newBuilder().setSortField(SyntheticShard.RATING).setDirection(ZuliaQuery.FieldSort.Direction.DESCENDING))
+				.build();
+
+		scoredRequest = QueryRequest.newBuilder().addIndex(SyntheticShard.INDEX_NAME).setAmount(amount)
+				.setFacetRequest(ZuliaQuery.FacetRequest.newBuilder().addCountRequest(countRequest)).build();
+		sortedRequest = scoredRequest.toBuilder().setSortRequest(sortRequest).build();
+
+		scoredResponses = createResponses(countRequest, false);
+		sortedResponses = createResponses(countRequest, true);
+	}
+
+	private List<InternalQueryResponse> createResponses(ZuliaQuery.CountRequest countRequest, boolean sorted) {
+		SplittableRandom random = new SplittableRandom(1234L);
+
+		List<InternalQueryResponse> responses = new ArrayList<>();
+		for (int shard = 0; shard < shardCount; shard++) {
+			ZuliaQuery.ShardQueryResponse.Builder shardQueryResponse = ZuliaQuery.ShardQueryResponse.newBuilder().setIndexName(SyntheticShard.INDEX_NAME)
+					.setShardNumber(shard).setTotalHits(100000);
+
+			// each shard returns its results in descending score or rating order like a shard query
+			double value = 5;
+			for (int i = 0; i < amount; i++) {
+				value -= random.nextDouble() * 5.0 / amount;
+				ZuliaQuery.ScoredResult.Builder scoredResult = ZuliaQuery.ScoredResult.newBuilder().setUniqueId(shard + ":" + i)
+						.setIndexName(SyntheticShard.INDEX_NAME).setShard(shard).setLuceneShardId(i).setResultIndex(i);
+				if (sorted) {
+					scoredResult.setScore(Float.NaN);
+					scoredResult.setSortValues(
+							ZuliaQuery.SortValues.newBuilder().addSortValue(ZuliaQuery.SortValue.newBuilder().setExists(true).setDoubleValue(value)));
+				}
+				else {
+					scoredResult.setScore((float) value);
+				}
+				shardQueryResponse.addScoredResult(scoredResult);
+			}
+
+			ZuliaQuery.FacetGroup.Builder facetGroup = ZuliaQuery.FacetGroup.newBuilder().setCountRequest(countRequest);
+			int firstTag = random.nextInt(SyntheticShard.TAG_COUNT);
+			for (int i = 0; i < 100; i++) {
+				String tag = "tag" + ((firstTag + i) % SyntheticShard.TAG_COUNT);
+				facetGroup.addFacetCount(ZuliaQuery.FacetCount.newBuilder().setFacet(tag).setCount(100 - i));
+			}
+			shardQueryResponse.addFacetGroup(facetGroup);
+
+			// one response per shard as if every shard was on a different node
+			ZuliaQuery.IndexShardResponse.Builder indexShardResponse = ZuliaQuery.IndexShardResponse.newBuilder().setIndexName(SyntheticShard.INDEX_NAME)
+					.addShardQueryResponse(shardQueryResponse);
+			responses.add(InternalQueryResponse.newBuilder().addIndexShardResponse(indexShardResponse).build());
+		}
+		return responses;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		zuliaIndex.unload(true);
+	}
+
+	@Benchmark
+	public QueryResponse combineScored() throws Exception {
+		return new QueryCombiner(List.of(zuliaIndex), scoredRequest, scoredResponses).getQueryResponse();
+	}
+
+	@Benchmark
+	public QueryResponse combineSorted() throws Exception {
+		return new QueryCombiner(List.of(zuliaIndex), sortedRequest, sortedResponses).getQueryResponse();
+	}
+}
@@ -0,0 +1,101 @@
+package io.zulia.benchmarks;
+
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.index.ShardReader;
+import io.zulia.server.search.QueryConcurrencyController;
+import io.zulia.server.search.ShardQuery;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full shard query path (search, sort, facets and fetch) with the query caches bypassed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShardQueryBenchmark {
+
+	@Param({ "100000" })
+	public int documentCount;
+
+	@Param({ "1", "4" })
+	public int concurrency;
+
+	private SyntheticShard syntheticShard;
+	private ShardReader shardReader;
+	private QueryConcurrencyController queryConcurrencyController;
+
+	private ShardQuery scoredQuery;
+	private ShardQuery sortedQuery;
+	private ShardQuery facetQuery;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		syntheticShard = SyntheticShard.create(documentCount, 1234L);
+		shardReader = syntheticShard.createShardReader();
+		queryConcurrencyController = new QueryConcurrencyController(Runtime.getRuntime().availableProcessors());
+
+		ZuliaQuery.SortRequest ratingSort = ZuliaQuery.SortRequest.newBuilder()
+				.addFieldSort(ZuliaQuery.FieldSort.newBuilder().setSortField(SyntheticShard.RATING).setDirection(ZuliaQuery.FieldSort.Direction.DESCENDING))
+				.build();
+
+		ZuliaQuery.FacetRequest facetRequest = ZuliaQuery.FacetRequest.newBuilder().addCountRequest(
+						ZuliaQuery.CountRequest.newBuilder().setFacetField(ZuliaQuery.Facet.newBuilder().setLabel(SyntheticShard.CATEGORY)).setMaxFacets(10))
+				.addCountRequest(ZuliaQuery.CountRequest.newBuilder().setFacetField(ZuliaQuery.Facet.newBuilder().setLabel(SyntheticShard.TAG)).setMaxFacets(10))
+				.build();
+
+		Query titleQuery = new TermQuery(new Term(SyntheticShard.TITLE, "search"));
+
+		scoredQuery = createShardQuery(titleQuery, ZuliaQuery.FacetRequest.getDefaultInstance(), ZuliaQuery.SortRequest.getDefaultInstance(),
+				ZuliaQuery.FetchType.FULL);
+		sortedQuery = createShardQuery(new MatchAllDocsQuery(), ZuliaQuery.FacetRequest.getDefaultInstance(), ratingSort, ZuliaQuery.FetchType.FULL);
+		facetQuery = createShardQuery(titleQuery, facetRequest, ZuliaQuery.SortRequest.getDefaultInstance(), ZuliaQuery.FetchType.NONE);
+	}
+
+	private ShardQuery createShardQuery(Query query, ZuliaQuery.FacetRequest facetRequest, ZuliaQuery.SortRequest sortRequest,
+			ZuliaQuery.FetchType fetchType) {
+		// no query cache key so every invocation runs the search instead of reading the shard or segment caches
+		ShardQuery shardQuery = new ShardQuery(query, Collections.emptyMap(), 10, Collections.emptyMap(), facetRequest, sortRequest, null, fetchType,
+				List.of(), List.of(), List.of(), List.of(), false, 0, "", false, concurrency);
+		shardQuery.setQueryConcurrencyController(queryConcurrencyController);
+		return shardQuery;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		shardReader.close();
+		syntheticShard.close();
+		queryConcurrencyController.close();
+	}
+
+	@Benchmark
+	public ZuliaQuery.ShardQueryResponse scoredQuery() throws Exception {
+		return shardReader.queryShard(scoredQuery);
+	}
+
+	@Benchmark
+	public ZuliaQuery.ShardQueryResponse sortedQuery() throws Exception {
+		return shardReader.queryShard(sortedQuery);
+	}
+
+	@Benchmark
+	public ZuliaQuery.ShardQueryResponse facetQuery() throws Exception {
+		return shardReader.queryShard(facetQuery);
+	}
+}
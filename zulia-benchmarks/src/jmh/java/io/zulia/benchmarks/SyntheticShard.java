@@ -0,0 +1,138 @@
+package io.zulia.benchmarks;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.message.ZuliaIndex.IndexSettings;
+import io.zulia.server.analysis.ZuliaPerFieldAnalyzer;
+import io.zulia.server.config.ServerIndexConfig;
+import io.zulia.server.connection.server.validation.CreateIndexRequestValidator;
+import io.zulia.server.index.DocumentContainer;
+import io.zulia.server.index.ShardReader;
+import io.zulia.server.index.ShardWriteManager;
+import io.zulia.util.ZuliaUtil;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * A single shard on a temp directory filled with seeded random documents so every benchmark run searches the same data
+ */
+public class SyntheticShard implements AutoCloseable {
+
+	public static final String INDEX_NAME = "benchmark";
+
+	public static final String ID = "id";
+	public static final String TITLE = "title";
+	public static final String CATEGORY = "category";
+	public static final String TAG = "tag";
+	public static final String RATING = "rating";
+	public static final String YEAR = "year";
+
+	public static final int CATEGORY_COUNT = 50;
+	public static final int TAG_COUNT = 20000;
+
+	private static final String[] WORDS = { "search", "index", "shard", "segment", "facet", "query", "score", "merge", "term", "vector", "field", "cache",
+			"node", "reader", "writer", "commit" };
+
+	private final Path directory;
+	private final ServerIndexConfig serverIndexConfig;
+	private final ShardWriteManager shardWriteManager;
+
+	private SyntheticShard(Path directory, ServerIndexConfig serverIndexConfig, ShardWriteManager shardWriteManager) {
+		this.directory = directory;
+		this.serverIndexConfig = serverIndexConfig;
+		this.shardWriteManager = shardWriteManager;
+	}
+
+	public static ServerIndexConfig createIndexConfig(int numberOfShards) {
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField(TITLE);
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString(ID).indexAs(DefaultAnalyzers.LC_KEYWORD).sort());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString(TITLE).indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString(CATEGORY).indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString(TAG).indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createDouble(RATING).index().sort());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createInt(YEAR).index().sort());
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(numberOfShards);
+
+		IndexSettings.Builder indexSettings = indexConfig.getIndexSettings().toBuilder();
+		CreateIndexRequestValidator.validateIndexSettingsAndSetDefaults(indexSettings);
+		return new ServerIndexConfig(indexSettings.build());
+	}
+
+	public static Document createDocument(SplittableRandom random, int id) {
+		Document document = new Document();
+		document.put(ID, String.valueOf(id));
+
+		StringBuilder title = new StringBuilder();
+		int titleLength = 4 + random.nextInt(8);
+		for (int i = 0; i < titleLength; i++) {
+			if (i > 0) {
+				title.append(' ');
+			}
+			title.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		document.put(TITLE, title.toString());
+
+		document.put(CATEGORY, "category" + random.nextInt(CATEGORY_COUNT));
+		document.put(TAG, "tag" + random.nextInt(TAG_COUNT));
+		document.put(RATING, random.nextDouble() * 5);
+		document.put(YEAR, 1950 + random.nextInt(75));
+		return document;
+	}
+
+	public static DocumentContainer toDocumentContainer(Document document) {
+		return new DocumentContainer(ZuliaUtil.mongoDocumentToByteArray(document));
+	}
+
+	public static SyntheticShard create(int documentCount, long seed) throws Exception {
+		Path directory = Files.createTempDirectory("zulia-benchmark");
+		ServerIndexConfig serverIndexConfig = createIndexConfig(1);
+		ShardWriteManager shardWriteManager = new ShardWriteManager(0, directory.resolve("idx"), directory.resolve("facets"), serverIndexConfig,
+				new ZuliaPerFieldAnalyzer(serverIndexConfig));
+
+		SplittableRandom random = new SplittableRandom(seed);
+		DocumentContainer metadata = toDocumentContainer(new Document());
+		long timestamp = System.currentTimeMillis();
+		for (int id = 0; id < documentCount; id++) {
+			Document document = createDocument(random, id);
+			shardWriteManager.indexDocument(String.valueOf(id), timestamp, toDocumentContainer(document), metadata);
+		}
+		shardWriteManager.commit();
+
+		return new SyntheticShard(directory, serverIndexConfig, shardWriteManager);
+	}
+
+	public ServerIndexConfig getServerIndexConfig() {
+		return serverIndexConfig;
+	}
+
+	public Path getIndexPath() {
+		return directory.resolve("idx");
+	}
+
+	public Path getTaxoIndexPath() {
+		return directory.resolve("facets");
+	}
+
+	public ShardReader createShardReader() throws IOException {
+		return shardWriteManager.createShardReader();
+	}
+
+	@Override
+	public void close() throws Exception {
+		shardWriteManager.close();
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
+}
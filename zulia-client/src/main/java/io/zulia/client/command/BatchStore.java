@@ -0,0 +1,89 @@
+package io.zulia.client.command;
+
+import io.grpc.stub.StreamObserver;
+import io.zulia.client.command.base.GrpcCommand;
+import io.zulia.client.pool.ZuliaConnection;
+import io.zulia.client.result.BatchStoreResult;
+import io.zulia.message.ZuliaServiceOuterClass.BatchStoreResponse;
+import io.zulia.message.ZuliaServiceOuterClass.StoreRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streams many stores to a single node which groups them by shard and indexes each group as a batch
+ */
+public class BatchStore extends GrpcCommand<BatchStoreResult> {
+
+	private final List<Store> stores;
+
+	public BatchStore() {
+		stores = new ArrayList<>();
+	}
+
+	public BatchStore addStore(Store store) {
+		stores.add(store);
+		return this;
+	}
+
+	public BatchStore addStores(Collection<Store> stores) {
+		this.stores.addAll(stores);
+		return this;
+	}
+
+	public int size() {
+		return stores.size();
+	}
+
+	@Override
+	public BatchStoreResult execute(ZuliaConnection zuliaConnection) {
+
+		CompletableFuture<BatchStoreResponse> response = new CompletableFuture<>();
+
+		StreamObserver<StoreRequest> requestObserver = zuliaConnection.getAsyncService().batchStore(new StreamObserver<>() {
+			@Override
+			public void onNext(BatchStoreResponse batchStoreResponse) {
+				response.complete(batchStoreResponse);
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				response.completeExceptionally(t);
+			}
+
+			@Override
+			public void onCompleted() {
+
+			}
+		});
+
+		try {
+			for (Store store : stores) {
+				if (response.isDone()) {
+					// the server failed the batch, stop sending
+					break;
+				}
+				requestObserver.onNext(store.getRequest());
+			}
+		}
+		catch (RuntimeException e) {
+			requestObserver.onError(e);
+			throw e;
+		}
+		requestObserver.onCompleted();
+
+		try {
+			return new BatchStoreResult(response.join());
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+
+}
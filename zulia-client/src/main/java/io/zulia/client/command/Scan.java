@@ -0,0 +1,136 @@
+package io.zulia.client.command;
+
+import io.zulia.client.command.base.SimpleCommand;
+import io.zulia.client.command.base.SingleIndexRoutableCommand;
+import io.zulia.client.command.builder.QueryBuilder;
+import io.zulia.client.pool.ZuliaConnection;
+import io.zulia.client.result.ScanResult;
+import io.zulia.message.ZuliaBase.MasterSlaveSettings;
+import io.zulia.message.ZuliaQuery.FetchType;
+import io.zulia.message.ZuliaServiceGrpc.ZuliaServiceBlockingStub;
+import io.zulia.message.ZuliaServiceOuterClass.ScanRequest;
+import io.zulia.message.ZuliaServiceOuterClass.ScanResponse;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams every document of an index, or the documents matching the queries, shard by shard in index order.  Each shard is read from a single point in
+ * time and there is no sorting or paging, so it is meant for exports and dumps.  Setting a shard number per scan lets the shards be read in parallel.
+ */
+public class Scan extends SimpleCommand<ScanRequest, ScanResult> implements SingleIndexRoutableCommand {
+
+	private final ScanRequest.Builder scanRequest = ScanRequest.newBuilder();
+
+	public Scan(String indexName) {
+		scanRequest.setIndexName(indexName);
+	}
+
+	@Override
+	public String getIndexName() {
+		return scanRequest.getIndexName();
+	}
+
+	public List<Integer> getShardNumbers() {
+		return scanRequest.getShardNumberList();
+	}
+
+	/**
+	 * Only scans the given shards, all shards are scanned when none are set
+	 */
+	public Scan addShardNumber(int shardNumber) {
+		scanRequest.addShardNumber(shardNumber);
+		return this;
+	}
+
+	public Scan clearShardNumbers() {
+		scanRequest.clearShardNumber();
+		return this;
+	}
+
+	/**
+	 * Only documents matching all the queries are returned, scores are not computed
+	 */
+	public Scan addQuery(QueryBuilder queryBuilder) {
+		scanRequest.addQuery(queryBuilder.getQuery());
+		return this;
+	}
+
+	public Scan clearQueries() {
+		scanRequest.clearQuery();
+		return this;
+	}
+
+	public FetchType getResultFetchType() {
+		return scanRequest.getResultFetchType();
+	}
+
+	public Scan setResultFetchType(FetchType resultFetchType) {
+		scanRequest.setResultFetchType(resultFetchType);
+		return this;
+	}
+
+	public Scan addDocumentField(String documentField) {
+		scanRequest.addDocumentFields(documentField);
+		return this;
+	}
+
+	public Scan addDocumentFields(String... documentFields) {
+		scanRequest.addAllDocumentFields(List.of(documentFields));
+		return this;
+	}
+
+	public Scan addDocumentMaskedField(String documentMaskedField) {
+		scanRequest.addDocumentMaskedFields(documentMaskedField);
+		return this;
+	}
+
+	public int getBatchSize() {
+		return scanRequest.getBatchSize();
+	}
+
+	/**
+	 * @param batchSize documents in each response from the server, 0 uses the server default of 500, at most 5000
+	 */
+	public Scan setBatchSize(int batchSize) {
+		scanRequest.setBatchSize(batchSize);
+		return this;
+	}
+
+	public MasterSlaveSettings getMasterSlaveSettings() {
+		return scanRequest.getMasterSlaveSettings();
+	}
+
+	public Scan setMasterSlaveSettings(MasterSlaveSettings masterSlaveSettings) {
+		scanRequest.setMasterSlaveSettings(masterSlaveSettings);
+		return this;
+	}
+
+	/**
+	 * @return a copy of this scan limited to one shard
+	 */
+	public Scan forShard(int shardNumber) {
+		Scan scan = new Scan(getIndexName());
+		scan.scanRequest.mergeFrom(scanRequest.build()).clearShardNumber().addShardNumber(shardNumber);
+		return scan;
+	}
+
+	@Override
+	public ScanRequest getRequest() {
+		return scanRequest.build();
+	}
+
+	@Override
+	public ScanResult execute(ZuliaConnection zuliaConnection) {
+		ZuliaServiceBlockingStub service = zuliaConnection.getService();
+
+		Iterator<ScanResponse> scanResponses = service.scan(getRequest());
+
+		return new ScanResult(scanResponses);
+	}
+
+	@Override
+	public String toString() {
+		return getRequest().toString();
+	}
+}
@@ -0,0 +1,50 @@
+package io.zulia.client.command;
+
+import io.zulia.client.command.base.MultiIndexRoutableCommand;
+import io.zulia.client.command.base.SimpleCommand;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.pool.ZuliaConnection;
+import io.zulia.client.result.SearchStreamResult;
+import io.zulia.message.ZuliaServiceGrpc.ZuliaServiceBlockingStub;
+import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
+import io.zulia.message.ZuliaServiceOuterClass.QueryStreamResponse;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Runs a search and streams the results back in chunks instead of a single response.  Meant for large amounts such as exports where the documents of
+ * the whole result set do not fit in one response.
+ */
+public class SearchStream extends SimpleCommand<QueryRequest, SearchStreamResult> implements MultiIndexRoutableCommand {
+
+	private final Search search;
+
+	public SearchStream(Search search) {
+		this.search = search;
+	}
+
+	@Override
+	public Collection<String> getIndexNames() {
+		return search.getIndexNames();
+	}
+
+	@Override
+	public QueryRequest getRequest() {
+		return search.getRequest();
+	}
+
+	@Override
+	public SearchStreamResult execute(ZuliaConnection zuliaConnection) {
+		ZuliaServiceBlockingStub service = zuliaConnection.getService();
+
+		Iterator<QueryStreamResponse> queryStreamResponses = service.queryStream(getRequest());
+
+		return new SearchStreamResult(queryStreamResponses);
+	}
+
+	@Override
+	public String toString() {
+		return getRequest().toString();
+	}
+}
@@ -48,6 +48,13 @@ public class UpdateIndex extends SimpleCommand<UpdateIndexRequest, UpdateIndexRe
 
 	private Boolean disableCompression;
 	private Integer defaultConcurrency;
+	private Integer segmentQueryCacheSize;
+	private Integer filterCacheSizeMB;
+	private Integer facetCountCacheOrdinals;
+	private List<ZuliaIndex.IndexSortField> indexSort;
+	private Integer defaultTotalHitsThreshold;
+	private Integer taxonomyCacheSizeMB;
+	private ZuliaIndex.StoredDocumentFormat storedDocumentFormat;
 
 	private final UpdateIndexSettings.Operation.Builder analyzerSettingsOperation = UpdateIndexSettings.Operation.newBuilder();
 	private List<ZuliaIndex.AnalyzerSettings> analyzerSettingsList = Collections.emptyList();
@@ -336,6 +343,78 @@ public class UpdateIndex extends SimpleCommand<UpdateIndexRequest, UpdateIndexRe
 		return this;
 	}
 
+	public Integer getSegmentQueryCacheSize() {
+		return segmentQueryCacheSize;
+	}
+
+	public UpdateIndex setSegmentQueryCacheSize(Integer segmentQueryCacheSize) {
+		this.segmentQueryCacheSize = segmentQueryCacheSize;
+		return this;
+	}
+
+	public Integer getFilterCacheSizeMB() {
+		return filterCacheSizeMB;
+	}
+
+	public UpdateIndex setFilterCacheSizeMB(Integer filterCacheSizeMB) {
+		this.filterCacheSizeMB = filterCacheSizeMB;
+		return this;
+	}
+
+	public Integer getFacetCountCacheOrdinals() {
+		return facetCountCacheOrdinals;
+	}
+
+	public UpdateIndex setFacetCountCacheOrdinals(Integer facetCountCacheOrdinals) {
+		this.facetCountCacheOrdinals = facetCountCacheOrdinals;
+		return this;
+	}
+
+	public List<ZuliaIndex.IndexSortField> getIndexSort() {
+		return indexSort;
+	}
+
+	/**
+	 * Replaces the index sort, existing shards are rewritten in the new order on their next load or on a reindex
+	 */
+	public UpdateIndex setIndexSort(List<ZuliaIndex.IndexSortField> indexSort) {
+		this.indexSort = indexSort;
+		return this;
+	}
+
+	public Integer getDefaultTotalHitsThreshold() {
+		return defaultTotalHitsThreshold;
+	}
+
+	public UpdateIndex setDefaultTotalHitsThreshold(Integer defaultTotalHitsThreshold) {
+		this.defaultTotalHitsThreshold = defaultTotalHitsThreshold;
+		return this;
+	}
+
+	public Integer getTaxonomyCacheSizeMB() {
+		return taxonomyCacheSizeMB;
+	}
+
+	/**
+	 * Takes effect on primary shards the next time they are loaded
+	 */
+	public UpdateIndex setTaxonomyCacheSizeMB(Integer taxonomyCacheSizeMB) {
+		this.taxonomyCacheSizeMB = taxonomyCacheSizeMB;
+		return this;
+	}
+
+	public ZuliaIndex.StoredDocumentFormat getStoredDocumentFormat() {
+		return storedDocumentFormat;
+	}
+
+	/**
+	 * Applies to documents stored after the update, reindex to convert the existing documents
+	 */
+	public UpdateIndex setStoredDocumentFormat(ZuliaIndex.StoredDocumentFormat storedDocumentFormat) {
+		this.storedDocumentFormat = storedDocumentFormat;
+		return this;
+	}
+
 	public Integer getNumberOfReplicas() {
 		return numberOfReplicas;
 	}
@@ -525,6 +604,41 @@ public class UpdateIndex extends SimpleCommand<UpdateIndexRequest, UpdateIndexRe
 			updateIndexSettings.setDefaultConcurrency(defaultConcurrency);
 		}
 
+		if (segmentQueryCacheSize != null) {
+			updateIndexSettings.setSetSegmentQueryCacheSize(true);
+			updateIndexSettings.setSegmentQueryCacheSize(segmentQueryCacheSize);
+		}
+
+		if (filterCacheSizeMB != null) {
+			updateIndexSettings.setSetFilterCacheSizeMB(true);
+			updateIndexSettings.setFilterCacheSizeMB(filterCacheSizeMB);
+		}
+
+		if (facetCountCacheOrdinals != null) {
+			updateIndexSettings.setSetFacetCountCacheOrdinals(true);
+			updateIndexSettings.setFacetCountCacheOrdinals(facetCountCacheOrdinals);
+		}
+
+		if (indexSort != null) {
+			updateIndexSettings.setSetIndexSort(true);
+			updateIndexSettings.addAllIndexSort(indexSort);
+		}
+
+		if (defaultTotalHitsThreshold != null) {
+			updateIndexSettings.setSetDefaultTotalHitsThreshold(true);
+			updateIndexSettings.setDefaultTotalHitsThreshold(defaultTotalHitsThreshold);
+		}
+
+		if (taxonomyCacheSizeMB != null) {
+			updateIndexSettings.setSetTaxonomyCacheSizeMB(true);
+			updateIndexSettings.setTaxonomyCacheSizeMB(taxonomyCacheSizeMB);
+		}
+
+		if (storedDocumentFormat != null) {
+			updateIndexSettings.setSetStoredDocumentFormat(true);
+			updateIndexSettings.setStoredDocumentFormat(storedDocumentFormat);
+		}
+
 		updateIndexSettings.setMetaUpdateOperation(metaDataOperation);
 		if (!metadata.isEmpty()) {
 			updateIndexSettings.setMetadata(ZuliaUtil.mongoDocumentToByteString(metadata));
@@ -37,6 +37,15 @@ public class Highlight implements HighlightBuilder {
 		return this;
 	}
 
+	public int getFragmentLength() {
+		return highlightBuilder.getFragmentLength();
+	}
+
+	public Highlight setFragmentLength(int fragmentLength) {
+		highlightBuilder.setFragmentLength(fragmentLength);
+		return this;
+	}
+
 	@Override
 	public ZuliaQuery.HighlightRequest getHighlight() {
 		return highlightBuilder.build();
@@ -285,6 +285,59 @@ public class Search extends SimpleCommand<QueryRequest, SearchResult> implements
 		return queryRequest.getConcurrency();
 	}
 
+	/**
+	 * Stops counting hits once this many are found, the total hits is a lower bound when it reaches the threshold.  Lets scored queries skip
+	 * documents that cannot make the page and sorts on the index sort end early.  Default 0 uses the index default, use Integer.MAX_VALUE to
+	 * always count every hit
+	 */
+	public Search setTotalHitsThreshold(int totalHitsThreshold) {
+		queryRequest.setTotalHitsThreshold(totalHitsThreshold);
+		return this;
+	}
+
+	public int getTotalHitsThreshold() {
+		return queryRequest.getTotalHitsThreshold();
+	}
+
+	/**
+	 * Shards stop searching once the timeout passes and return the hits, counts and facets found so far, which marks the result as timed out.
+	 * Default 0 is no limit
+	 */
+	public Search setTimeoutMs(int timeoutMs) {
+		queryRequest.setTimeoutMs(timeoutMs);
+		return this;
+	}
+
+	public int getTimeoutMs() {
+		return queryRequest.getTimeoutMs();
+	}
+
+	/**
+	 * Fraction of the shards of each index that must respond for the search to succeed, shards that fail or do not respond within the timeout are
+	 * left out and listed in the result instead of failing the search.  Requires {@link #setTimeoutMs(int)}.  Default 0 requires every shard
+	 */
+	public Search setMinShardResponseRatio(double minShardResponseRatio) {
+		queryRequest.setMinShardResponseRatio(minShardResponseRatio);
+		return this;
+	}
+
+	public double getMinShardResponseRatio() {
+		return queryRequest.getMinShardResponseRatio();
+	}
+
+	/**
+	 * With {@link MasterSlaveSettings#FASTEST_AVAILABLE} the shards of a node that has not responded after this percentile (i.e. 0.95) of recent node
+	 * latencies are also requested from other copies of the shards and the first answer is used.  Default 0 does not hedge
+	 */
+	public Search setHedgePercentile(double hedgePercentile) {
+		queryRequest.setHedgePercentile(hedgePercentile);
+		return this;
+	}
+
+	public double getHedgePercentile() {
+		return queryRequest.getHedgePercentile();
+	}
+
 	@Override
 	public QueryRequest getRequest() {
 		queryRequest.setFacetRequest(facetRequest);
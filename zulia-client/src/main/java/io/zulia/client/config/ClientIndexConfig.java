@@ -38,6 +38,12 @@ public class ClientIndexConfig {
 	private Integer ramBufferMB;
 	private Integer numberOfReplicas;
 	private Integer defaultConcurrency;
+	private Integer segmentQueryCacheSize;
+	private Integer filterCacheSizeMB;
+	private Integer facetCountCacheOrdinals;
+	private Integer defaultTotalHitsThreshold;
+	private Integer taxonomyCacheSizeMB;
+	private ZuliaIndex.StoredDocumentFormat storedDocumentFormat;
 
 	private Boolean disableCompression;
 
@@ -50,11 +56,14 @@ public class ClientIndexConfig {
 
 	private List<QueryRequest> warmingSearches;
 
+	private List<ZuliaIndex.IndexSortField> indexSort;
+
 	public ClientIndexConfig() {
 		this.fieldMap = new TreeMap<>();
 		this.analyzerSettingsMap = new TreeMap<>();
 		this.fieldMappingMap = new TreeMap<>();
 		this.warmingSearches = new ArrayList<>();
+		this.indexSort = new ArrayList<>();
 
 	}
 
@@ -137,6 +146,73 @@ public class ClientIndexConfig {
 		return this;
 	}
 
+	public Integer getSegmentQueryCacheSize() {
+		return segmentQueryCacheSize;
+	}
+
+	public ClientIndexConfig setSegmentQueryCacheSize(Integer segmentQueryCacheSize) {
+		this.segmentQueryCacheSize = segmentQueryCacheSize;
+		return this;
+	}
+
+	public Integer getFilterCacheSizeMB() {
+		return filterCacheSizeMB;
+	}
+
+	public ClientIndexConfig setFilterCacheSizeMB(Integer filterCacheSizeMB) {
+		this.filterCacheSizeMB = filterCacheSizeMB;
+		return this;
+	}
+
+	public Integer getFacetCountCacheOrdinals() {
+		return facetCountCacheOrdinals;
+	}
+
+	/**
+	 * Bounds the facet counts cached per shard for facet requests of match all and filter only queries by the number of ordinals counted
+	 */
+	public ClientIndexConfig setFacetCountCacheOrdinals(Integer facetCountCacheOrdinals) {
+		this.facetCountCacheOrdinals = facetCountCacheOrdinals;
+		return this;
+	}
+
+	public Integer getDefaultTotalHitsThreshold() {
+		return defaultTotalHitsThreshold;
+	}
+
+	/**
+	 * Hits are only counted exactly up to this threshold for queries that do not set their own, which lets scored and sorted queries skip
+	 * documents that cannot make the page.  0 counts every hit
+	 */
+	public ClientIndexConfig setDefaultTotalHitsThreshold(Integer defaultTotalHitsThreshold) {
+		this.defaultTotalHitsThreshold = defaultTotalHitsThreshold;
+		return this;
+	}
+
+	public Integer getTaxonomyCacheSizeMB() {
+		return taxonomyCacheSizeMB;
+	}
+
+	/**
+	 * Bounds the heap used to cache facet label ordinals while indexing a shard, labels that do not fit are looked up in the taxonomy.  0 is unbounded
+	 */
+	public ClientIndexConfig setTaxonomyCacheSizeMB(Integer taxonomyCacheSizeMB) {
+		this.taxonomyCacheSizeMB = taxonomyCacheSizeMB;
+		return this;
+	}
+
+	public ZuliaIndex.StoredDocumentFormat getStoredDocumentFormat() {
+		return storedDocumentFormat;
+	}
+
+	/**
+	 * Format the metadata and document of each record are stored in, applies to documents stored after it is set so reindex to convert existing documents
+	 */
+	public ClientIndexConfig setStoredDocumentFormat(ZuliaIndex.StoredDocumentFormat storedDocumentFormat) {
+		this.storedDocumentFormat = storedDocumentFormat;
+		return this;
+	}
+
 	public String getIndexName() {
 		return indexName;
 	}
@@ -232,6 +308,24 @@ public class ClientIndexConfig {
 		return this;
 	}
 
+	public List<ZuliaIndex.IndexSortField> getIndexSort() {
+		return indexSort;
+	}
+
+	public ClientIndexConfig setIndexSort(List<ZuliaIndex.IndexSortField> indexSort) {
+		this.indexSort = indexSort;
+		return this;
+	}
+
+	public ClientIndexConfig addIndexSort(String sortField) {
+		return addIndexSort(sortField, false);
+	}
+
+	public ClientIndexConfig addIndexSort(String sortField, boolean descending) {
+		this.indexSort.add(ZuliaIndex.IndexSortField.newBuilder().setSortField(sortField).setDescending(descending).build());
+		return this;
+	}
+
 	public ClientIndexConfig addAnalyzerSetting(String name, AnalyzerSettings.Tokenizer tokenizer, Iterable<AnalyzerSettings.Filter> filterList,
 			Similarity similarity) {
 
@@ -370,6 +464,30 @@ public class ClientIndexConfig {
 			isb.setDefaultConcurrency(defaultConcurrency);
 		}
 
+		if (segmentQueryCacheSize != null) {
+			isb.setSegmentQueryCacheSize(segmentQueryCacheSize);
+		}
+
+		if (filterCacheSizeMB != null) {
+			isb.setFilterCacheSizeMB(filterCacheSizeMB);
+		}
+
+		if (facetCountCacheOrdinals != null) {
+			isb.setFacetCountCacheOrdinals(facetCountCacheOrdinals);
+		}
+
+		if (defaultTotalHitsThreshold != null) {
+			isb.setDefaultTotalHitsThreshold(defaultTotalHitsThreshold);
+		}
+
+		if (taxonomyCacheSizeMB != null) {
+			isb.setTaxonomyCacheSizeMB(taxonomyCacheSizeMB);
+		}
+
+		if (storedDocumentFormat != null) {
+			isb.setStoredDocumentFormat(storedDocumentFormat);
+		}
+
 		if (meta != null) {
 			isb.setMeta(ZuliaUtil.mongoDocumentToByteString(meta));
 		}
@@ -381,6 +499,10 @@ public class ClientIndexConfig {
 
 		}
 
+		if (indexSort != null) {
+			isb.addAllIndexSort(indexSort);
+		}
+
 		if (fieldMappingMap != null) {
 			for (String alias : fieldMappingMap.keySet()) {
 				ZuliaIndex.FieldMapping fieldMapping = fieldMappingMap.get(alias);
@@ -429,6 +551,12 @@ public class ClientIndexConfig {
 		this.ramBufferMB = indexSettings.getRamBufferMB();
 		this.disableCompression = indexSettings.getDisableCompression();
 		this.defaultConcurrency = indexSettings.getDefaultConcurrency();
+		this.segmentQueryCacheSize = indexSettings.getSegmentQueryCacheSize();
+		this.filterCacheSizeMB = indexSettings.getFilterCacheSizeMB();
+		this.facetCountCacheOrdinals = indexSettings.getFacetCountCacheOrdinals();
+		this.defaultTotalHitsThreshold = indexSettings.getDefaultTotalHitsThreshold();
+		this.taxonomyCacheSizeMB = indexSettings.getTaxonomyCacheSizeMB();
+		this.storedDocumentFormat = indexSettings.getStoredDocumentFormat();
 
 		this.meta = ZuliaUtil.byteStringToMongoDocument(indexSettings.getMeta());
 
@@ -443,6 +571,8 @@ public class ClientIndexConfig {
 			}
 		}
 
+		this.indexSort = new ArrayList<>(indexSettings.getIndexSortList());
+
 		this.fieldMappingMap = new TreeMap<>();
 		for (ZuliaIndex.FieldMapping fieldMapping : indexSettings.getFieldMappingList()) {
 			fieldMappingMap.put(fieldMapping.getAlias(), fieldMapping);
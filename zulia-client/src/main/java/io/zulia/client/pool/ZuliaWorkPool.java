@@ -7,12 +7,18 @@ import io.zulia.client.config.ClientIndexConfig;
 import io.zulia.client.config.ZuliaPoolConfig;
 import io.zulia.client.result.*;
 import io.zulia.fields.GsonDocumentMapper;
+import io.zulia.message.ZuliaBase.ResultDocument;
 import io.zulia.message.ZuliaIndex.IndexAlias;
 import io.zulia.message.ZuliaQuery.ScoredResult;
 import io.zulia.util.ResultHelper;
 import org.bson.Document;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 public class ZuliaWorkPool extends ZuliaBaseWorkPool {
@@ -29,6 +35,14 @@ public class ZuliaWorkPool extends ZuliaBaseWorkPool {
 		return executeAsync(batchFetch);
 	}
 
+	public BatchStoreResult batchStore(BatchStore batchStore) throws Exception {
+		return execute(batchStore);
+	}
+
+	public ListenableFuture<BatchStoreResult> batchStoreAsync(BatchStore batchStore) {
+		return executeAsync(batchStore);
+	}
+
 	public ClearIndexResult clearIndex(String index) throws Exception {
 		return clearIndex(new ClearIndex(index));
 	}
@@ -262,6 +276,50 @@ public class ZuliaWorkPool extends ZuliaBaseWorkPool {
 		return executeAsync(search);
 	}
 
+	/**
+	 * Streams the results of the search in chunks instead of returning a single response.  The result must be fully consumed to complete the call.
+	 */
+	public SearchStreamResult searchStream(Search search) throws Exception {
+		return execute(new SearchStream(search));
+	}
+
+	/**
+	 * Streams the documents of the scan.  The result must be fully consumed to complete the call.
+	 */
+	public ScanResult scan(Scan scan) throws Exception {
+		return execute(scan);
+	}
+
+	/**
+	 * Scans every shard of the index with its own call at the same time.  The handler is called from multiple threads.
+	 */
+	public void scanShardsInParallel(Scan scan, Consumer<ResultDocument> resultDocumentHandler) throws Exception {
+		int numberOfShards = getIndexConfig(scan.getIndexName()).getIndexConfig().getNumberOfShards();
+
+		try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int shardNumber = 0; shardNumber < numberOfShards; shardNumber++) {
+				Scan shardScan = scan.forShard(shardNumber);
+				futures.add(executorService.submit(() -> {
+					scan(shardScan).getResultDocuments(resultDocumentHandler);
+					return null;
+				}));
+			}
+
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				}
+				catch (ExecutionException e) {
+					if (e.getCause() instanceof Exception cause) {
+						throw cause;
+					}
+					throw e;
+				}
+			}
+		}
+	}
+
 	public StoreResult store(Store store) throws Exception {
 		return execute(store);
 	}
@@ -0,0 +1,17 @@
+package io.zulia.client.result;
+
+import io.zulia.message.ZuliaServiceOuterClass.BatchStoreResponse;
+
+public class BatchStoreResult extends Result {
+
+	private final BatchStoreResponse batchStoreResponse;
+
+	public BatchStoreResult(BatchStoreResponse batchStoreResponse) {
+		this.batchStoreResponse = batchStoreResponse;
+	}
+
+	public int getStoredCount() {
+		return batchStoreResponse.getStoredCount();
+	}
+
+}
@@ -0,0 +1,40 @@
+package io.zulia.client.result;
+
+import io.zulia.fields.GsonDocumentMapper;
+import io.zulia.message.ZuliaBase.ResultDocument;
+import io.zulia.message.ZuliaServiceOuterClass.ScanResponse;
+import io.zulia.util.ResultHelper;
+import org.bson.Document;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public class ScanResult extends Result {
+
+	private final Iterator<ScanResponse> scanResponses;
+
+	public ScanResult(Iterator<ScanResponse> scanResponses) {
+		this.scanResponses = scanResponses;
+	}
+
+	public void getResultDocuments(Consumer<ResultDocument> resultDocumentHandler) {
+		while (scanResponses.hasNext()) {
+			scanResponses.next().getDocumentList().forEach(resultDocumentHandler);
+		}
+	}
+
+	public void getDocuments(Consumer<Document> documentHandler) {
+		getResultDocuments(resultDocument -> {
+			Document document = ResultHelper.getDocumentFromResultDocument(resultDocument);
+			if (document == null) {
+				throw new IllegalStateException("Cannot get documents without fetch type of full");
+			}
+			documentHandler.accept(document);
+		});
+	}
+
+	public <T> void getMappedDocuments(GsonDocumentMapper<T> mapper, Consumer<T> mappedDocumentHandler) {
+		getDocuments(document -> mappedDocumentHandler.accept(mapper.fromDocument(document)));
+	}
+
+}
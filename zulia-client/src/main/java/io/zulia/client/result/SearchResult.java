@@ -7,6 +7,7 @@ import io.zulia.message.ZuliaQuery.FacetCount;
 import io.zulia.message.ZuliaQuery.FacetGroup;
 import io.zulia.message.ZuliaQuery.FacetStats;
 import io.zulia.message.ZuliaQuery.LastResult;
+import io.zulia.message.ZuliaQuery.MissingShard;
 import io.zulia.message.ZuliaQuery.ScoredResult;
 import io.zulia.message.ZuliaQuery.StatGroup;
 import io.zulia.message.ZuliaServiceOuterClass.QueryResponse;
@@ -30,6 +31,32 @@ public class SearchResult extends Result {
 		return queryResponse.getTotalHits();
 	}
 
+	/**
+	 * @return true when the total hits stopped counting at the total hits threshold and is only a lower bound
+	 */
+	public boolean isTotalHitsLowerBound() {
+		return queryResponse.getTotalHitsLowerBound();
+	}
+
+	/**
+	 * @return true when a shard stopped searching at the query timeout so the results, total hits, facets and stats are partial
+	 */
+	public boolean isTimedOut() {
+		return queryResponse.getTimedOut();
+	}
+
+	/**
+	 * @return true when shards are missing from the result because they failed or did not respond in time, see
+	 * {@link io.zulia.client.command.builder.Search#setMinShardResponseRatio(double)}
+	 */
+	public boolean isPartial() {
+		return queryResponse.getMissingShardCount() > 0;
+	}
+
+	public List<MissingShard> getMissingShards() {
+		return queryResponse.getMissingShardList();
+	}
+
 	public boolean hasResults() {
 		return !queryResponse.getResultsList().isEmpty();
 	}
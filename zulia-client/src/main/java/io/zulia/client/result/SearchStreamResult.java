@@ -0,0 +1,67 @@
+package io.zulia.client.result;
+
+import io.zulia.fields.GsonDocumentMapper;
+import io.zulia.message.ZuliaQuery.ScoredResult;
+import io.zulia.message.ZuliaServiceOuterClass.QueryStreamResponse;
+import io.zulia.util.ResultHelper;
+import org.bson.Document;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public class SearchStreamResult extends Result {
+
+	private final SearchResult searchResult;
+
+	private final Iterator<QueryStreamResponse> queryStreamResponses;
+
+	public SearchStreamResult(Iterator<QueryStreamResponse> queryStreamResponses) {
+		this.queryStreamResponses = queryStreamResponses;
+		// the first response has the total hits, facets, stats and last result but none of the results
+		this.searchResult = new SearchResult(queryStreamResponses.next().getQueryResponse());
+	}
+
+	/**
+	 * @return the search result without the results, the results are only available through the handlers
+	 */
+	public SearchResult getSearchResult() {
+		return searchResult;
+	}
+
+	public long getTotalHits() {
+		return searchResult.getTotalHits();
+	}
+
+	public void getScoredResults(Consumer<ScoredResult> scoredResultHandler) {
+		while (queryStreamResponses.hasNext()) {
+			queryStreamResponses.next().getResultsList().forEach(scoredResultHandler);
+		}
+	}
+
+	public void getCompleteResults(Consumer<CompleteResult> completeResultHandler) {
+		getScoredResults(scoredResult -> completeResultHandler.accept(new CompleteResult(scoredResult)));
+	}
+
+	public void getDocuments(Consumer<Document> documentHandler) {
+		getScoredResults(scoredResult -> {
+			Document document = ResultHelper.getDocumentFromScoredResult(scoredResult);
+			if (document == null) {
+				throw new IllegalStateException("Cannot get results without fetch type of full");
+			}
+			documentHandler.accept(document);
+		});
+	}
+
+	public <T> void getMappedDocuments(GsonDocumentMapper<T> mapper, Consumer<T> mappedDocumentHandler) throws Exception {
+		while (queryStreamResponses.hasNext()) {
+			for (ScoredResult scoredResult : queryStreamResponses.next().getResultsList()) {
+				T item = mapper.fromScoredResult(scoredResult);
+				if (item == null) {
+					throw new IllegalStateException("Cannot get results without fetch type of full");
+				}
+				mappedDocumentHandler.accept(item);
+			}
+		}
+	}
+
+}
@@ -8,6 +8,7 @@ import static io.zulia.message.ZuliaIndex.FieldConfig;
 import static io.zulia.message.ZuliaIndex.GeoPointConfig;
 import static io.zulia.message.ZuliaIndex.IndexAs;
 import static io.zulia.message.ZuliaIndex.SortAs;
+import static io.zulia.message.ZuliaIndex.VectorConfig;
 
 public class FieldConfigBuilder {
 	private final FieldConfig.FieldType fieldType;
@@ -16,6 +17,7 @@ public class FieldConfigBuilder {
 	private final List<FacetAs> facetAsList;
 	private final List<SortAs> sortAsList;
 	private GeoPointConfig geoPointConfig;
+	private VectorConfig vectorConfig;
 	private String description;
 	private String displayName;
 
@@ -113,6 +115,18 @@ public class FieldConfigBuilder {
 		return indexAs(builder.build());
 	}
 
+	/**
+	 * Indexes with character offsets in the postings so highlighting reads the offsets instead of reanalyzing the stored text.  Must be set before the
+	 * field is first indexed because the index options of an existing field cannot change.
+	 */
+	public FieldConfigBuilder indexWithOffsets(String analyzerName) {
+		IndexAs.Builder builder = IndexAs.newBuilder().setIndexFieldName(storedFieldName).setStoreOffsets(true);
+		if (analyzerName != null) {
+			builder.setAnalyzerName(analyzerName);
+		}
+		return indexAs(builder.build());
+	}
+
 	public FieldConfigBuilder indexAs(IndexAs indexAs) {
 		this.indexAsList.add(indexAs);
 		return this;
@@ -213,6 +227,21 @@ public class FieldConfigBuilder {
 		return this;
 	}
 
+	/**
+	 * Stores the HNSW graph of a vector field quantized to use less memory and page cache, the full vectors are kept for re-ranking
+	 */
+	public FieldConfigBuilder vectorQuantization(VectorConfig.Quantization quantization) {
+		return vectorQuantization(quantization, 0);
+	}
+
+	/**
+	 * @param rescoreFactor re-ranks topN * rescoreFactor nearest neighbors of the quantized graph with the full vectors, 0 or 1 to not re-rank
+	 */
+	public FieldConfigBuilder vectorQuantization(VectorConfig.Quantization quantization, int rescoreFactor) {
+		this.vectorConfig = VectorConfig.newBuilder().setQuantization(quantization).setRescoreFactor(rescoreFactor).build();
+		return this;
+	}
+
 	public FieldConfigBuilder description(String description) {
 		this.description = description;
 		return this;
@@ -233,6 +262,9 @@ public class FieldConfigBuilder {
 		if (geoPointConfig != null) {
 			fcBuilder.setGeoPointConfig(geoPointConfig);
 		}
+		if (vectorConfig != null) {
+			fcBuilder.setVectorConfig(vectorConfig);
+		}
 		if (description != null) {
 			fcBuilder.setDescription(description);
 		}
@@ -151,7 +151,7 @@ public class FieldConfigMapper<T> {
 			indexedFieldName = in.fieldName();
 		}
 
-		IndexAs.Builder builder = IndexAs.newBuilder().setIndexFieldName(indexedFieldName);
+		IndexAs.Builder builder = IndexAs.newBuilder().setIndexFieldName(indexedFieldName).setStoreOffsets(in.storeOffsets());
 		if (!analyzerName.isEmpty()) {
 			builder.setAnalyzerName(analyzerName);
 		}
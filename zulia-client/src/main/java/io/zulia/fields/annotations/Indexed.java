@@ -23,4 +23,9 @@ public @interface Indexed {
 	String analyzerName() default "";
 
 	String fieldName() default "";
+
+	/**
+	 * Indexes character offsets in the postings for highlighting without reanalyzing the text
+	 */
+	boolean storeOffsets() default false;
 }
@@ -9,6 +9,9 @@ public interface ZuliaFieldConstants {
 	String STORED_ID_FIELD = "_zsi_";
 	String STORED_META_FIELD = "_zsmf_";
 	String STORED_DOC_FIELD = "_zsdf_";
+	// the stored fields format keeps the metadata and document under their own names because a field cannot be both doc values and only stored
+	String STORED_FIELDS_META_FIELD = "_zssmf_";
+	String STORED_FIELDS_DOC_FIELD = "_zssdf_";
 
 	String FIELDS_LIST_FIELD = "_zflf_";
 	String CHAR_LENGTH_PREFIX = "_zcl_";
@@ -0,0 +1,19 @@
+package io.zulia.server.analysis.highlight;
+
+import org.apache.lucene.index.LeafReader;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface DocumentHighlighter {
+
+	String getStoredFieldName();
+
+	/**
+	 * @param leafReader        segment of the document
+	 * @param docId             doc id within the segment
+	 * @param storedFieldValues value or list of values of the stored field taken from the document
+	 * @return the highlighted fragments
+	 */
+	List<String> getFragments(LeafReader leafReader, int docId, Object storedFieldValues) throws IOException;
+}
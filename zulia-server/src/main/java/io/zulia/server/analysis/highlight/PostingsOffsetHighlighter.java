@@ -0,0 +1,116 @@
+package io.zulia.server.analysis.highlight;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.FieldHighlighter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.Passage;
+import org.apache.lucene.search.uhighlight.PassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+
+import java.io.IOException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Highlights a field indexed with offsets in its postings.  Passages are built from the offsets of the matching terms read from the postings of the
+ * document so the stored text is only scanned for passage boundaries instead of being reanalyzed.  Falls back to analysis like the unified highlighter
+ * when the field was indexed without offsets.
+ */
+public class PostingsOffsetHighlighter implements DocumentHighlighter {
+
+	// the unified highlighter splits the values of a multivalued field on this character, with the default offset gap of one the offsets line up
+	private static final char MULTI_VALUE_SEPARATOR = (char) 0;
+
+	private final String storedFieldName;
+	private final FieldHighlighter fieldHighlighter;
+
+	public PostingsOffsetHighlighter(IndexSearcher indexSearcher, Analyzer analyzer, Query query, String highlightField, String storedFieldName,
+			String preTag, String postTag, int numberOfFragments, int fragmentLength) {
+		this.storedFieldName = storedFieldName;
+
+		UnifiedHighlighter.Builder builder = UnifiedHighlighter.builder(indexSearcher, analyzer)
+				.withFormatter(new FragmentPassageFormatter(new DefaultPassageFormatter(preTag, postTag, "", false)))
+				.withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(BreakIterator.getSentenceInstance(Locale.ROOT), fragmentLength))
+				.withMaxNoHighlightPassages(0);
+
+		Set<Term> queryTerms = new HashSet<>();
+		query.visit(QueryVisitor.termCollector(queryTerms));
+		this.fieldHighlighter = new FieldHighlighterFactory(builder).getFieldHighlighter(highlightField, query, queryTerms, numberOfFragments);
+	}
+
+	@Override
+	public String getStoredFieldName() {
+		return storedFieldName;
+	}
+
+	@Override
+	public List<String> getFragments(LeafReader leafReader, int docId, Object storedFieldValues) throws IOException {
+		String content;
+		if (storedFieldValues instanceof Iterable<?> values) {
+			StringBuilder sb = new StringBuilder();
+			for (Object value : values) {
+				if (!sb.isEmpty()) {
+					sb.append(MULTI_VALUE_SEPARATOR);
+				}
+				sb.append(value);
+			}
+			content = sb.toString();
+		}
+		else {
+			content = storedFieldValues.toString();
+		}
+
+		Object fragments = fieldHighlighter.highlightFieldForDoc(leafReader, docId, content);
+		if (fragments == null) {
+			return Collections.emptyList();
+		}
+		return List.of((String[]) fragments);
+	}
+
+	private static class FieldHighlighterFactory extends UnifiedHighlighter {
+
+		public FieldHighlighterFactory(Builder builder) {
+			super(builder);
+		}
+
+		@Override
+		protected FieldHighlighter getFieldHighlighter(String field, Query query, Set<Term> allTerms, int maxPassages) {
+			return super.getFieldHighlighter(field, query, allTerms, maxPassages);
+		}
+	}
+
+	/**
+	 * Formats each passage as its own fragment to match the fragments returned by the analyzing highlighter
+	 */
+	private static class FragmentPassageFormatter extends PassageFormatter {
+
+		private final DefaultPassageFormatter passageFormatter;
+
+		public FragmentPassageFormatter(DefaultPassageFormatter passageFormatter) {
+			this.passageFormatter = passageFormatter;
+		}
+
+		@Override
+		public Object format(Passage[] passages, String content) {
+			List<String> fragments = new ArrayList<>(passages.length);
+			for (Passage passage : passages) {
+				if (passage.getNumMatches() > 0) {
+					// trim also drops a multivalue separator at the edge of the passage
+					fragments.add(passageFormatter.format(new Passage[] { passage }, content).trim());
+				}
+			}
+			return fragments.toArray(new String[0]);
+		}
+	}
+}
@@ -1,17 +1,23 @@
 package io.zulia.server.analysis.highlight;
 
 import io.zulia.server.analysis.ZuliaPerFieldAnalyzer;
+import io.zulia.util.ZuliaUtil;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.highlight.Formatter;
 import org.apache.lucene.search.highlight.Highlighter;
 import org.apache.lucene.search.highlight.Scorer;
+import org.apache.lucene.search.highlight.TextFragment;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by Matt Davis on 6/21/16.
  *
  * @author mdavis
  */
-public class ZuliaHighlighter extends Highlighter {
+public class ZuliaHighlighter extends Highlighter implements DocumentHighlighter {
 	private final String highlightField;
 	private final String storedFieldName;
 	private final int numberOfFragments;
@@ -26,6 +32,7 @@ public class ZuliaHighlighter extends Highlighter {
 		this.zuliaPerFieldAnalyzer = zuliaPerFieldAnalyzer;
 	}
 
+	@Override
 	public String getStoredFieldName() {
 		return storedFieldName;
 	}
@@ -37,4 +44,26 @@ public class ZuliaHighlighter extends Highlighter {
 	public TokenStream getTokenStream(String content) {
 		return zuliaPerFieldAnalyzer.tokenStream(highlightField, content);
 	}
+
+	@Override
+	public List<String> getFragments(LeafReader leafReader, int docId, Object storedFieldValues) {
+		List<String> fragments = new ArrayList<>();
+		ZuliaUtil.handleLists(storedFieldValues, (value) -> {
+			String content = value.toString();
+
+			try (TokenStream tokenStream = getTokenStream(content)) {
+				TextFragment[] bestTextFragments = getBestTextFragments(tokenStream, content, false, numberOfFragments);
+				for (TextFragment bestTextFragment : bestTextFragments) {
+					if (bestTextFragment != null && bestTextFragment.getScore() > 0) {
+						fragments.add(bestTextFragment.toString());
+					}
+				}
+			}
+			catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+
+		});
+		return fragments;
+	}
 }
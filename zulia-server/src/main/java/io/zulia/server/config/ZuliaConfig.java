@@ -36,6 +36,12 @@ public class ZuliaConfig {
 
 	private int defaultConcurrency;
 
+	private int maxSegmentTasks;
+
+	private int maxConcurrentQueries;
+
+	private int maxQueuedQueries;
+
 	private boolean debug;
 
 	public ZuliaConfig() {
@@ -153,6 +159,30 @@ public class ZuliaConfig {
 		this.defaultConcurrency = defaultConcurrency;
 	}
 
+	public int getMaxSegmentTasks() {
+		return maxSegmentTasks;
+	}
+
+	public void setMaxSegmentTasks(int maxSegmentTasks) {
+		this.maxSegmentTasks = maxSegmentTasks;
+	}
+
+	public int getMaxConcurrentQueries() {
+		return maxConcurrentQueries;
+	}
+
+	public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+		this.maxConcurrentQueries = maxConcurrentQueries;
+	}
+
+	public int getMaxQueuedQueries() {
+		return maxQueuedQueries;
+	}
+
+	public void setMaxQueuedQueries(int maxQueuedQueries) {
+		this.maxQueuedQueries = maxQueuedQueries;
+	}
+
 	public boolean isDebug() {
 		return debug;
 	}
@@ -174,7 +204,7 @@ public class ZuliaConfig {
 		return "ZuliaConfig{" + "dataPath='" + dataPath + '\'' + ", cluster=" + cluster + ", clusterName='" + clusterName + '\'' + ", clusterStorageEngine='"
 				+ clusterStorageEngine + '\'' + ", s3=" + s3 + ", mongoServers=" + mongoServers + ", mongoConnection=" + mongoConnection + ", mongoAuth="
 				+ mongoAuth + ", serverAddress='" + serverAddress + '\'' + ", servicePort=" + servicePort + ", restPort=" + restPort + ", health=" + health
-				+ ", responseCompression=" + responseCompression + ", rpcWorkers=" + rpcWorkers + ", defaultConcurrency=" + defaultConcurrency + ", debug="
-				+ debug + '}';
+				+ ", responseCompression=" + responseCompression + ", rpcWorkers=" + rpcWorkers + ", defaultConcurrency=" + defaultConcurrency + ", maxSegmentTasks="
+				+ maxSegmentTasks + ", maxConcurrentQueries=" + maxConcurrentQueries + ", maxQueuedQueries=" + maxQueuedQueries + ", debug=" + debug + '}';
 	}
 }
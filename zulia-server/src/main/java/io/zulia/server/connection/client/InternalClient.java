@@ -4,6 +4,7 @@ import io.zulia.message.ZuliaBase.Node;
 import io.zulia.message.ZuliaServiceOuterClass.*;
 import io.zulia.server.connection.client.handler.InternalBatchDeleteHandler;
 import io.zulia.server.connection.client.handler.InternalBatchFetchHandler;
+import io.zulia.server.connection.client.handler.InternalBatchStoreHandler;
 import io.zulia.server.connection.client.handler.InternalClearHandler;
 import io.zulia.server.connection.client.handler.InternalCreateIndexAliasHandler;
 import io.zulia.server.connection.client.handler.InternalCreateOrUpdateIndexHandler;
@@ -17,12 +18,16 @@ import io.zulia.server.connection.client.handler.InternalGetTermsHandler;
 import io.zulia.server.connection.client.handler.InternalOptimizeHandler;
 import io.zulia.server.connection.client.handler.InternalQueryHandler;
 import io.zulia.server.connection.client.handler.InternalReindexHandler;
+import io.zulia.server.connection.client.handler.InternalReplicateShardHandler;
+import io.zulia.server.connection.client.handler.InternalScanHandler;
 import io.zulia.server.connection.client.handler.InternalStoreHandler;
+import io.zulia.server.index.ShardReplicaManager.ShardCommitReceiver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class InternalClient {
 	private final static Logger LOG = LoggerFactory.getLogger(InternalClient.class);
@@ -33,6 +38,7 @@ public class InternalClient {
 	private final AtomicInteger roundRobin;
 	private final InternalQueryHandler internalQueryHandler;
 	private final InternalStoreHandler internalStoreHandler;
+	private final InternalBatchStoreHandler internalBatchStoreHandler;
 	private final InternalDeleteHandler internalDeleteHandler;
 	private final InternalFetchHandler internalFetchHandler;
 	private final InternalBatchFetchHandler internalBatchFetchHandler;
@@ -45,6 +51,8 @@ public class InternalClient {
 	private final InternalCreateOrUpdateIndexHandler internalCreateIndexHandler;
 	private final InternalDeleteIndexHandler internalDeleteIndexHandler;
 	private final InternalReindexHandler internalReindexHandler;
+	private final InternalReplicateShardHandler internalReplicateShardHandler;
+	private final InternalScanHandler internalScanHandler;
 	private final InternalCreateIndexAliasHandler internalCreateIndexAliasHandler;
 	private final InternalDeleteIndexAliasHandler internalDeleteIndexAliasHandler;
 
@@ -55,6 +63,7 @@ public class InternalClient {
 
 		internalQueryHandler = new InternalQueryHandler(this);
 		internalStoreHandler = new InternalStoreHandler(this);
+		internalBatchStoreHandler = new InternalBatchStoreHandler(this);
 		internalDeleteHandler = new InternalDeleteHandler(this);
 		internalFetchHandler = new InternalFetchHandler(this);
 		internalBatchFetchHandler = new InternalBatchFetchHandler(this);
@@ -67,6 +76,8 @@ public class InternalClient {
 		internalCreateIndexHandler = new InternalCreateOrUpdateIndexHandler(this);
 		internalDeleteIndexHandler = new InternalDeleteIndexHandler(this);
 		internalReindexHandler = new InternalReindexHandler(this);
+		internalReplicateShardHandler = new InternalReplicateShardHandler(this);
+		internalScanHandler = new InternalScanHandler(this);
 		internalCreateIndexAliasHandler = new InternalCreateIndexAliasHandler(this);
 		internalDeleteIndexAliasHandler = new InternalDeleteIndexAliasHandler(this);
 	}
@@ -137,6 +148,10 @@ public class InternalClient {
 		return internalStoreHandler.handleRequest(node, request);
 	}
 
+	public BatchStoreResponse executeBatchStore(Node node, InternalBatchStoreRequest request) throws Exception {
+		return internalBatchStoreHandler.handleRequest(node, request);
+	}
+
 	public DeleteResponse executeDelete(Node node, DeleteRequest request) throws Exception {
 		return internalDeleteHandler.handleRequest(node, request);
 	}
@@ -185,6 +200,14 @@ public class InternalClient {
 		return internalReindexHandler.handleRequest(node, request);
 	}
 
+	public void replicateShard(Node node, InternalReplicateShardRequest request, ShardCommitReceiver receiver) throws Exception {
+		internalReplicateShardHandler.handleRequest(node, request, receiver);
+	}
+
+	public void scan(Node node, ScanRequest request, Consumer<ScanResponse> responseConsumer) throws Exception {
+		internalScanHandler.handleRequest(node, request, responseConsumer);
+	}
+
 	public CreateIndexAliasResponse createIndexAlias(Node node, InternalCreateIndexAliasRequest request) throws Exception {
 		return internalCreateIndexAliasHandler.handleRequest(node, request);
 	}
@@ -0,0 +1,17 @@
+package io.zulia.server.connection.client.handler;
+
+import io.zulia.message.ZuliaServiceOuterClass.BatchStoreResponse;
+import io.zulia.message.ZuliaServiceOuterClass.InternalBatchStoreRequest;
+import io.zulia.server.connection.client.InternalClient;
+import io.zulia.server.connection.client.InternalRpcConnection;
+
+public class InternalBatchStoreHandler extends InternalRequestHandler<BatchStoreResponse, InternalBatchStoreRequest> {
+	public InternalBatchStoreHandler(InternalClient internalClient) {
+		super(internalClient);
+	}
+
+	@Override
+	protected BatchStoreResponse getResponse(InternalBatchStoreRequest request, InternalRpcConnection rpcConnection) {
+		return rpcConnection.getService().internalBatchStore(request);
+	}
+}
@@ -4,14 +4,22 @@ import io.zulia.message.ZuliaServiceOuterClass.InternalQueryRequest;
 import io.zulia.message.ZuliaServiceOuterClass.InternalQueryResponse;
 import io.zulia.server.connection.client.InternalClient;
 import io.zulia.server.connection.client.InternalRpcConnection;
+import io.zulia.server.search.QueryDeadline;
+
+import java.util.concurrent.TimeUnit;
 
 public class InternalQueryHandler extends InternalRequestHandler<InternalQueryResponse, InternalQueryRequest> {
+
 	public InternalQueryHandler(InternalClient internalClient) {
 		super(internalClient);
 	}
 
 	@Override
 	protected InternalQueryResponse getResponse(InternalQueryRequest queryRequest, InternalRpcConnection rpcConnection) {
+		if (queryRequest.getTimeoutMs() > 0) {
+			return rpcConnection.getService().withDeadlineAfter(queryRequest.getTimeoutMs() + QueryDeadline.RESPONSE_GRACE_MS, TimeUnit.MILLISECONDS)
+					.internalQuery(queryRequest);
+		}
 		return rpcConnection.getService().internalQuery(queryRequest);
 	}
 }
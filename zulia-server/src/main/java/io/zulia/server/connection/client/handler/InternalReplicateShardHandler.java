@@ -0,0 +1,51 @@
+package io.zulia.server.connection.client.handler;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.StatusRuntimeException;
+import io.zulia.cache.MetaKeys;
+import io.zulia.message.ZuliaBase.Node;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardRequest;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardResponse;
+import io.zulia.server.connection.client.InternalClient;
+import io.zulia.server.connection.client.InternalRpcConnection;
+import io.zulia.server.index.ShardReplicaManager.ShardCommitReceiver;
+
+import java.util.Iterator;
+
+public class InternalReplicateShardHandler {
+
+	private final InternalClient internalClient;
+
+	public InternalReplicateShardHandler(InternalClient internalClient) {
+		this.internalClient = internalClient;
+	}
+
+	public void handleRequest(Node node, InternalReplicateShardRequest request, ShardCommitReceiver receiver) throws Exception {
+		Context.CancellableContext context = Context.current().withCancellation();
+		try {
+			context.call(() -> {
+				InternalRpcConnection rpcConnection = internalClient.getConnection(node);
+				Iterator<InternalReplicateShardResponse> responses = rpcConnection.getService().internalReplicateShard(request);
+				while (responses.hasNext()) {
+					receiver.receive(responses.next());
+				}
+				return null;
+			});
+		}
+		catch (StatusRuntimeException e) {
+			Metadata trailers = e.getTrailers();
+			if (trailers != null && trailers.containsKey(MetaKeys.ERROR_KEY)) {
+				throw new Exception(trailers.get(MetaKeys.ERROR_KEY));
+			}
+			else {
+				throw e;
+			}
+		}
+		finally {
+			// stops the stream on the primary if the receiver failed before the end of the stream
+			context.cancel(null);
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package io.zulia.server.connection.client.handler;
+
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.StatusRuntimeException;
+import io.zulia.cache.MetaKeys;
+import io.zulia.message.ZuliaBase.Node;
+import io.zulia.message.ZuliaServiceOuterClass.ScanRequest;
+import io.zulia.message.ZuliaServiceOuterClass.ScanResponse;
+import io.zulia.server.connection.client.InternalClient;
+import io.zulia.server.connection.client.InternalRpcConnection;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public class InternalScanHandler {
+
+	private final InternalClient internalClient;
+
+	public InternalScanHandler(InternalClient internalClient) {
+		this.internalClient = internalClient;
+	}
+
+	public void handleRequest(Node node, ScanRequest request, Consumer<ScanResponse> responseConsumer) throws Exception {
+		Context.CancellableContext context = Context.current().withCancellation();
+		try {
+			context.call(() -> {
+				InternalRpcConnection rpcConnection = internalClient.getConnection(node);
+				Iterator<ScanResponse> responses = rpcConnection.getService().internalScan(request);
+				while (responses.hasNext()) {
+					responseConsumer.accept(responses.next());
+				}
+				return null;
+			});
+		}
+		catch (StatusRuntimeException e) {
+			Metadata trailers = e.getTrailers();
+			if (trailers != null && trailers.containsKey(MetaKeys.ERROR_KEY)) {
+				throw new Exception(trailers.get(MetaKeys.ERROR_KEY));
+			}
+			else {
+				throw e;
+			}
+		}
+		finally {
+			// stops the scan on the other node if the client went away before the end of the stream
+			context.cancel(null);
+		}
+	}
+
+}
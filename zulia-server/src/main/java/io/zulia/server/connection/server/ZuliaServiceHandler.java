@@ -10,8 +10,11 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 
 	private final InternalQueryServerRequest internalQueryServerRequest;
 	private final QueryServerRequest queryServerRequest;
+	private final QueryStreamServerRequest queryStreamServerRequest;
 	private final StoreServerRequest storeServerRequest;
 	private final InternalStoreServerRequest internalStoreServerRequest;
+	private final BatchStoreServerRequest batchStoreServerRequest;
+	private final InternalBatchStoreServerRequest internalBatchStoreServerRequest;
 	private final DeleteServerRequest deleteServerRequest;
 	private final InternalDeleteServerRequest internalDeleteServerRequest;
 	private final BatchDeleteServerRequest batchDeleteServerRequest;
@@ -41,6 +44,9 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 	private final GetIndexSettingsServerRequest getIndexSettingsServerRequest;
 	private final ReindexServerRequest reindexServerRequest;
 	private final InternalReindexServerRequest internalReindexRequest;
+	private final InternalReplicateShardServerRequest internalReplicateShardServerRequest;
+	private final ScanServerRequest scanServerRequest;
+	private final InternalScanServerRequest internalScanServerRequest;
 	private final DeleteIndexAliasServerRequest deleteIndexAliasServerRequest;
 	private final CreateIndexAliasServerRequest createIndexAliasServerRequest;
 	private final InternalCreateIndexAliasServerRequest internalCreateIndexAliasServerRequest;
@@ -49,8 +55,11 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 	public ZuliaServiceHandler(ZuliaIndexManager indexManager) {
 		internalQueryServerRequest = new InternalQueryServerRequest(indexManager);
 		queryServerRequest = new QueryServerRequest(indexManager);
+		queryStreamServerRequest = new QueryStreamServerRequest(indexManager);
 		storeServerRequest = new StoreServerRequest(indexManager);
 		internalStoreServerRequest = new InternalStoreServerRequest(indexManager);
+		batchStoreServerRequest = new BatchStoreServerRequest(indexManager);
+		internalBatchStoreServerRequest = new InternalBatchStoreServerRequest(indexManager);
 		deleteServerRequest = new DeleteServerRequest(indexManager);
 		internalDeleteServerRequest = new InternalDeleteServerRequest(indexManager);
 		batchDeleteServerRequest = new BatchDeleteServerRequest(indexManager);
@@ -79,6 +88,9 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 		getIndexSettingsServerRequest = new GetIndexSettingsServerRequest(indexManager);
 		reindexServerRequest = new ReindexServerRequest(indexManager);
 		internalReindexRequest = new InternalReindexServerRequest(indexManager);
+		internalReplicateShardServerRequest = new InternalReplicateShardServerRequest(indexManager);
+		scanServerRequest = new ScanServerRequest(indexManager);
+		internalScanServerRequest = new InternalScanServerRequest(indexManager);
 		deleteIndexAliasServerRequest = new DeleteIndexAliasServerRequest(indexManager);
 		createIndexAliasServerRequest = new CreateIndexAliasServerRequest(indexManager);
 		internalCreateIndexAliasServerRequest = new InternalCreateIndexAliasServerRequest(indexManager);
@@ -95,6 +107,11 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 		queryServerRequest.handleRequest(request, responseObserver);
 	}
 
+	@Override
+	public void queryStream(QueryRequest request, StreamObserver<QueryStreamResponse> responseObserver) {
+		queryStreamServerRequest.handleRequest(request, responseObserver);
+	}
+
 	@Override
 	public void store(StoreRequest request, StreamObserver<StoreResponse> responseObserver) {
 		storeServerRequest.handleRequest(request, responseObserver);
@@ -105,6 +122,16 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 		internalStoreServerRequest.handleRequest(request, responseObserver);
 	}
 
+	@Override
+	public StreamObserver<StoreRequest> batchStore(StreamObserver<BatchStoreResponse> responseObserver) {
+		return batchStoreServerRequest.handleRequest(responseObserver);
+	}
+
+	@Override
+	public void internalBatchStore(InternalBatchStoreRequest request, StreamObserver<BatchStoreResponse> responseObserver) {
+		internalBatchStoreServerRequest.handleRequest(request, responseObserver);
+	}
+
 	@Override
 	public void delete(DeleteRequest request, StreamObserver<DeleteResponse> responseObserver) {
 		deleteServerRequest.handleRequest(request, responseObserver);
@@ -240,6 +267,21 @@ public class ZuliaServiceHandler extends ZuliaServiceImplBase {
 		internalReindexRequest.handleRequest(request, responseObserver);
 	}
 
+	@Override
+	public void internalReplicateShard(InternalReplicateShardRequest request, StreamObserver<InternalReplicateShardResponse> responseObserver) {
+		internalReplicateShardServerRequest.handleRequest(request, responseObserver);
+	}
+
+	@Override
+	public void scan(ScanRequest request, StreamObserver<ScanResponse> responseObserver) {
+		scanServerRequest.handleRequest(request, responseObserver);
+	}
+
+	@Override
+	public void internalScan(ScanRequest request, StreamObserver<ScanResponse> responseObserver) {
+		internalScanServerRequest.handleRequest(request, responseObserver);
+	}
+
 	@Override
 	public void reindex(ReindexRequest request, StreamObserver<ReindexResponse> responseObserver) {
 		reindexServerRequest.handleRequest(request, responseObserver);
@@ -0,0 +1,87 @@
+package io.zulia.server.connection.server.handler;
+
+import io.grpc.stub.StreamObserver;
+import io.zulia.message.ZuliaServiceOuterClass.BatchStoreResponse;
+import io.zulia.message.ZuliaServiceOuterClass.StoreRequest;
+import io.zulia.server.index.ZuliaIndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchStoreServerRequest {
+
+	private final static Logger LOG = LoggerFactory.getLogger(BatchStoreServerRequest.class);
+
+	private static final int MAX_BATCH_DOCUMENTS = 1000;
+	private static final long MAX_BATCH_BYTES = 32L * 1024 * 1024;
+
+	private final ZuliaIndexManager indexManager;
+
+	public BatchStoreServerRequest(ZuliaIndexManager indexManager) {
+		this.indexManager = indexManager;
+	}
+
+	public StreamObserver<StoreRequest> handleRequest(StreamObserver<BatchStoreResponse> responseObserver) {
+		return new StreamObserver<>() {
+
+			private final List<StoreRequest> batch = new ArrayList<>();
+			private long batchBytes;
+			private int storedCount;
+			private boolean failed;
+
+			@Override
+			public void onNext(StoreRequest storeRequest) {
+				if (failed) {
+					return;
+				}
+
+				batch.add(storeRequest);
+				batchBytes += storeRequest.getSerializedSize();
+				if (batch.size() >= MAX_BATCH_DOCUMENTS || batchBytes >= MAX_BATCH_BYTES) {
+					flush();
+				}
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				LOG.error("Batch store cancelled by client after storing {} documents", storedCount, t);
+			}
+
+			@Override
+			public void onCompleted() {
+				if (failed) {
+					return;
+				}
+
+				flush();
+				if (!failed) {
+					responseObserver.onNext(BatchStoreResponse.newBuilder().setStoredCount(storedCount).build());
+					responseObserver.onCompleted();
+				}
+			}
+
+			// the batch is stored on the calling thread so grpc flow control pushes back on the client while the shards are indexing
+			private void flush() {
+				if (batch.isEmpty()) {
+					return;
+				}
+
+				try {
+					storedCount += indexManager.batchStore(batch);
+				}
+				catch (Throwable e) {
+					failed = true;
+					responseObserver.onError(ServerRequestHandler.toStatusException(e));
+					LOG.error("Failed to handle batch store after storing {} documents", storedCount, e);
+				}
+				finally {
+					batch.clear();
+					batchBytes = 0;
+				}
+			}
+		};
+	}
+
+}
@@ -0,0 +1,65 @@
+package io.zulia.server.connection.server.handler;
+
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Blocks in {@link #onNext(Object)} until the client is ready for more messages so a slow client does not cause the whole response to be buffered in
+ * memory.  The on ready handler of the call runs on the serialized call executor so the responses have to be produced on another thread, see
+ * {@link #start(Runnable)}, and the handler has to return for readiness to be signaled.
+ */
+public class FlowControlledStreamObserver<T> implements StreamObserver<T> {
+
+	private static final ThreadFactory PRODUCER_THREAD_FACTORY = Thread.ofVirtual().name("stream-", 0).factory();
+
+	private final ServerCallStreamObserver<T> serverCallStreamObserver;
+	private final Semaphore readySignal;
+
+	public FlowControlledStreamObserver(StreamObserver<T> responseObserver) {
+		this.serverCallStreamObserver = (ServerCallStreamObserver<T>) responseObserver;
+		this.readySignal = new Semaphore(0);
+		// the handlers can only be set before the call handler returns
+		this.serverCallStreamObserver.setOnReadyHandler(readySignal::release);
+		this.serverCallStreamObserver.setOnCancelHandler(readySignal::release);
+	}
+
+	/**
+	 * Runs the producer of the responses on its own thread in the context of the call, the call handler should return after starting it
+	 */
+	public void start(Runnable producer) {
+		PRODUCER_THREAD_FACTORY.newThread(Context.current().wrap(producer)).start();
+	}
+
+	@Override
+	public void onNext(T value) {
+		// signals left from earlier readiness changes only cause readiness to be checked again
+		while (!serverCallStreamObserver.isReady()) {
+			if (serverCallStreamObserver.isCancelled()) {
+				throw Status.CANCELLED.withDescription("Call cancelled by client").asRuntimeException();
+			}
+			try {
+				readySignal.acquire();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw Status.CANCELLED.withDescription("Interrupted waiting for client").withCause(e).asRuntimeException();
+			}
+		}
+		serverCallStreamObserver.onNext(value);
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		serverCallStreamObserver.onError(t);
+	}
+
+	@Override
+	public void onCompleted() {
+		serverCallStreamObserver.onCompleted();
+	}
+}
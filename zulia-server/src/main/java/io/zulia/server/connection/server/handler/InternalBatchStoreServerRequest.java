@@ -0,0 +1,26 @@
+package io.zulia.server.connection.server.handler;
+
+import io.zulia.message.ZuliaServiceOuterClass.BatchStoreResponse;
+import io.zulia.message.ZuliaServiceOuterClass.InternalBatchStoreRequest;
+import io.zulia.server.index.ZuliaIndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class InternalBatchStoreServerRequest extends ServerRequestHandler<BatchStoreResponse, InternalBatchStoreRequest> {
+
+	private final static Logger LOG = LoggerFactory.getLogger(InternalBatchStoreServerRequest.class);
+
+	public InternalBatchStoreServerRequest(ZuliaIndexManager indexManager) {
+		super(indexManager);
+	}
+
+	@Override
+	protected BatchStoreResponse handleCall(ZuliaIndexManager indexManager, InternalBatchStoreRequest request) throws Exception {
+		return BatchStoreResponse.newBuilder().setStoredCount(indexManager.internalBatchStore(request)).build();
+	}
+
+	@Override
+	protected void onError(Throwable e) {
+		LOG.error("Failed to handle internal batch store", e);
+	}
+}
@@ -0,0 +1,37 @@
+package io.zulia.server.connection.server.handler;
+
+import io.grpc.stub.StreamObserver;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardRequest;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardResponse;
+import io.zulia.server.index.ZuliaIndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class InternalReplicateShardServerRequest {
+
+	private final static Logger LOG = LoggerFactory.getLogger(InternalReplicateShardServerRequest.class);
+	private final ZuliaIndexManager indexManager;
+
+	public InternalReplicateShardServerRequest(ZuliaIndexManager indexManager) {
+		this.indexManager = indexManager;
+	}
+
+	public void handleRequest(InternalReplicateShardRequest request, StreamObserver<InternalReplicateShardResponse> responseObserver) {
+		// segment files can be large so responses are only sent as fast as the replica reads them
+		FlowControlledStreamObserver<InternalReplicateShardResponse> flowControlledObserver = new FlowControlledStreamObserver<>(responseObserver);
+		flowControlledObserver.start(() -> {
+			try {
+				indexManager.internalReplicateShard(request, flowControlledObserver::onNext);
+				responseObserver.onCompleted();
+			}
+			catch (Exception e) {
+				responseObserver.onError(ServerRequestHandler.toStatusException(e));
+				onError(e);
+			}
+		});
+	}
+
+	protected void onError(Exception e) {
+		LOG.error("Failed to handle internal replicate shard", e);
+	}
+}
@@ -0,0 +1,36 @@
+package io.zulia.server.connection.server.handler;
+
+import io.grpc.stub.StreamObserver;
+import io.zulia.message.ZuliaServiceOuterClass.ScanRequest;
+import io.zulia.message.ZuliaServiceOuterClass.ScanResponse;
+import io.zulia.server.index.ZuliaIndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class InternalScanServerRequest {
+
+	private final static Logger LOG = LoggerFactory.getLogger(InternalScanServerRequest.class);
+	private final ZuliaIndexManager indexManager;
+
+	public InternalScanServerRequest(ZuliaIndexManager indexManager) {
+		this.indexManager = indexManager;
+	}
+
+	public void handleRequest(ScanRequest request, StreamObserver<ScanResponse> responseObserver) {
+		FlowControlledStreamObserver<ScanResponse> flowControlledObserver = new FlowControlledStreamObserver<>(responseObserver);
+		flowControlledObserver.start(() -> {
+			try {
+				indexManager.internalScan(request, flowControlledObserver::onNext);
+				responseObserver.onCompleted();
+			}
+			catch (Exception e) {
+				responseObserver.onError(ServerRequestHandler.toStatusException(e));
+				onError(e);
+			}
+		});
+	}
+
+	protected void onError(Exception e) {
+		LOG.error("Failed to handle internal scan", e);
+	}
+}
@@ -0,0 +1,36 @@
+package io.zulia.server.connection.server.handler;
+
+import io.grpc.stub.StreamObserver;
+import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
+import io.zulia.message.ZuliaServiceOuterClass.QueryStreamResponse;
+import io.zulia.server.index.ZuliaIndexManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class QueryStreamServerRequest {
+
+	private final static Logger LOG = LoggerFactory.getLogger(QueryStreamServerRequest.class);
+	private final ZuliaIndexManager indexManager;
+
+	public QueryStreamServerRequest(ZuliaIndexManager indexManager) {
+		this.indexManager = indexManager;
+	}
+
+	public void handleRequest(QueryRequest request, StreamObserver<QueryStreamResponse> responseObserver) {
+		FlowControlledStreamObserver<QueryStreamResponse> flowControlledObserver = new FlowControlledStreamObserver<>(responseObserver);
+		flowControlledObserver.start(() -> {
+			try {
+				indexManager.queryStream(request, flowControlledObserver);
+				responseObserver.onCompleted();
+			}
+			catch (Exception e) {
+				responseObserver.onError(ServerRequestHandler.toStatusException(e));
+				onError(e);
+			}
+		});
+	}
+
+	protected void onError(Exception e) {
+		LOG.error("Failed to handle query stream", e);
+	}
+}
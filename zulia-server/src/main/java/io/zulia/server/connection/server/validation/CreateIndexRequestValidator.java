@@ -4,13 +4,16 @@ import com.google.protobuf.ByteString;
 import io.zulia.DefaultAnalyzers;
 import io.zulia.message.ZuliaIndex;
 import io.zulia.message.ZuliaIndex.IndexSettings;
+import io.zulia.message.ZuliaIndex.IndexSettingsOrBuilder;
 import io.zulia.message.ZuliaServiceOuterClass.CreateIndexRequest;
 import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
 import io.zulia.server.field.FieldTypeUtil;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class CreateIndexRequestValidator implements DefaultValidator<CreateIndexRequest> {
@@ -27,6 +30,29 @@ public class CreateIndexRequestValidator implements DefaultValidator<CreateIndex
 		return requestBuilder.build();
 	}
 
+	/**
+	 * Lucene does not allow the index options of a field to change once it is indexed, so a field already indexed by the existing settings cannot start
+	 * or stop storing offsets (every later store of the field would fail)
+	 */
+	public static void validateIndexAsChanges(IndexSettings existingSettings, IndexSettingsOrBuilder indexSettings) {
+		Map<String, Boolean> existingStoreOffsets = new HashMap<>();
+		for (ZuliaIndex.FieldConfig fieldConfig : existingSettings.getFieldConfigList()) {
+			for (ZuliaIndex.IndexAs indexAs : fieldConfig.getIndexAsList()) {
+				existingStoreOffsets.put(indexAs.getIndexFieldName(), indexAs.getStoreOffsets());
+			}
+		}
+
+		for (ZuliaIndex.FieldConfig fieldConfig : indexSettings.getFieldConfigList()) {
+			for (ZuliaIndex.IndexAs indexAs : fieldConfig.getIndexAsList()) {
+				Boolean storeOffsets = existingStoreOffsets.get(indexAs.getIndexFieldName());
+				if (storeOffsets != null && storeOffsets != indexAs.getStoreOffsets()) {
+					throw new IllegalArgumentException(
+							"Cannot change store offsets of existing index field <" + indexAs.getIndexFieldName() + ">.  Index the offsets as a new field instead");
+				}
+			}
+		}
+	}
+
 	public static void validateIndexSettingsAndSetDefaults(IndexSettings.Builder indexSettings) {
 		if (indexSettings.getIndexName().isEmpty()) {
 			throw new IllegalArgumentException("Index name must be provided");
@@ -88,6 +114,35 @@ public class CreateIndexRequestValidator implements DefaultValidator<CreateIndex
 			indexSettings.setShardQueryCacheMaxAmount(256);
 		}
 
+		if (indexSettings.getSegmentQueryCacheSize() < 0) {
+			throw new IllegalArgumentException("Segment Query Cache Size must be positive or zero to use for default values");
+		}
+		else if (indexSettings.getSegmentQueryCacheSize() == 0) {
+			indexSettings.setSegmentQueryCacheSize(4096);
+		}
+
+		if (indexSettings.getFilterCacheSizeMB() < 0) {
+			throw new IllegalArgumentException("Filter Cache Size MB must be positive or zero to use for default values");
+		}
+		else if (indexSettings.getFilterCacheSizeMB() == 0) {
+			indexSettings.setFilterCacheSizeMB(32);
+		}
+
+		if (indexSettings.getFacetCountCacheOrdinals() < 0) {
+			throw new IllegalArgumentException("Facet Count Cache Ordinals must be positive or zero to use for default values");
+		}
+		else if (indexSettings.getFacetCountCacheOrdinals() == 0) {
+			indexSettings.setFacetCountCacheOrdinals(2097152);
+		}
+
+		if (indexSettings.getDefaultTotalHitsThreshold() < 0) {
+			throw new IllegalArgumentException("Default Total Hits Threshold must be positive or zero to count every hit");
+		}
+
+		if (indexSettings.getTaxonomyCacheSizeMB() < 0) {
+			throw new IllegalArgumentException("Taxonomy Cache Size MB must be positive or zero for unbounded");
+		}
+
 		if (indexSettings.getShardCommitInterval() < 0) {
 			throw new IllegalArgumentException("Shard Commit Interval must be positive");
 		}
@@ -103,6 +158,7 @@ public class CreateIndexRequestValidator implements DefaultValidator<CreateIndex
 		}
 
 		HashSet<String> storedFields = new HashSet<>();
+		Map<String, ZuliaIndex.FieldConfig.FieldType> sortFieldTypes = new HashMap<>();
 
 		Set<String> analyzerNames = new HashSet<>(indexSettings.getAnalyzerSettingsList().stream().map(ZuliaIndex.AnalyzerSettings::getName).toList());
 		analyzerNames.addAll(DefaultAnalyzers.ALL_ANALYZERS);
@@ -129,6 +185,11 @@ public class CreateIndexRequestValidator implements DefaultValidator<CreateIndex
 				}
 			}
 
+			if (builder.hasVectorConfig() && !FieldTypeUtil.isVectorFieldType(builder.getFieldType())) {
+				throw new IllegalArgumentException(
+						"Vector config is only supported on VECTOR and UNIT_VECTOR fields, found on <" + builder.getStoredFieldName() + ">");
+			}
+
 			for (ZuliaIndex.IndexAs indexAs : builder.getIndexAsList()) {
 				if (indexAs.getIndexFieldName().contains(",")) {
 					throw new IllegalArgumentException(
@@ -157,10 +218,26 @@ public class CreateIndexRequestValidator implements DefaultValidator<CreateIndex
 							+ "> in the field config");
 				}
 				sorts.add(sortAs.getSortFieldName());
+				sortFieldTypes.put(sortAs.getSortFieldName(), builder.getFieldType());
 			}
 
 		}
 
+		HashSet<String> indexSortFields = new HashSet<>();
+		for (ZuliaIndex.IndexSortField indexSortField : indexSettings.getIndexSortList()) {
+			String sortField = indexSortField.getSortField();
+			ZuliaIndex.FieldConfig.FieldType fieldType = sortFieldTypes.get(sortField);
+			if (fieldType == null) {
+				throw new IllegalArgumentException("Index sort field <" + sortField + "> must be a sortable field");
+			}
+			if (FieldTypeUtil.isGeoPointFieldType(fieldType)) {
+				throw new IllegalArgumentException("Index sort field <" + sortField + "> can not be a GEO_POINT field");
+			}
+			if (!indexSortFields.add(sortField)) {
+				throw new IllegalArgumentException("Index sort field <" + sortField + "> is duplicated in the index sort");
+			}
+		}
+
 		HashSet<String> searchLabels = new HashSet<>();
 		List<ByteString> warmingSearchesList = new ArrayList<>();
 		for (ByteString bytes : indexSettings.getWarmingSearchesList()) {
@@ -123,6 +123,19 @@ public class QueryRequestValidator implements DefaultValidator<QueryRequest> {
 
 		}
 
+		if (queryRequestBuilder.getMinShardResponseRatio() < 0 || queryRequestBuilder.getMinShardResponseRatio() > 1) {
+			throw new IllegalArgumentException("Minimum shard response ratio must be in the range [0.0, 1.0]");
+		}
+
+		// without a time limit a slow node holds up the query the same as when every shard is required
+		if (queryRequestBuilder.getMinShardResponseRatio() > 0 && queryRequestBuilder.getTimeoutMs() == 0) {
+			throw new IllegalArgumentException("Minimum shard response ratio requires a timeout");
+		}
+
+		if (queryRequestBuilder.getHedgePercentile() < 0 || queryRequestBuilder.getHedgePercentile() > 1) {
+			throw new IllegalArgumentException("Hedge percentile must be in the range [0.0, 1.0]");
+		}
+
 		return queryRequestBuilder.build();
 
 	}
@@ -0,0 +1,29 @@
+package io.zulia.server.connection.server.validation;
+
+import io.zulia.message.ZuliaServiceOuterClass.ScanRequest;
+
+public class ScanRequestValidator implements DefaultValidator<ScanRequest> {
+
+	public static final int DEFAULT_BATCH_SIZE = 500;
+	// each shard collects a batch of hits in an array sized from the request before sending it
+	public static final int MAX_BATCH_SIZE = 5000;
+
+	@Override
+	public ScanRequest validateAndSetDefault(ScanRequest request) {
+		ScanRequest.Builder scanRequestBuilder = request.toBuilder();
+
+		if (scanRequestBuilder.getIndexName().isEmpty()) {
+			throw new IllegalArgumentException("Index name is required for scan");
+		}
+
+		if (scanRequestBuilder.getBatchSize() == 0) {
+			scanRequestBuilder.setBatchSize(DEFAULT_BATCH_SIZE);
+		}
+		// batch size is unsigned so anything over the max int is negative here
+		else if (scanRequestBuilder.getBatchSize() < 0 || scanRequestBuilder.getBatchSize() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("Batch size for scan must be at most " + MAX_BATCH_SIZE);
+		}
+
+		return scanRequestBuilder.build();
+	}
+}
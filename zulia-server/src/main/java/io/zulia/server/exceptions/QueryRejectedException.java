@@ -0,0 +1,18 @@
+package io.zulia.server.exceptions;
+
+import java.io.IOException;
+
+public class QueryRejectedException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+	private final String indexName;
+
+	public QueryRejectedException(String indexName, String reason) {
+		super("Query for index <" + indexName + "> was rejected because the node is saturated: " + reason);
+		this.indexName = indexName;
+	}
+
+	public String getIndexName() {
+		return indexName;
+	}
+}
@@ -5,41 +5,24 @@ import io.zulia.ZuliaFieldConstants;
 import io.zulia.message.ZuliaBase;
 import io.zulia.message.ZuliaIndex;
 import io.zulia.message.ZuliaQuery;
-import io.zulia.server.analysis.highlight.ZuliaHighlighter;
+import io.zulia.server.analysis.highlight.DocumentHighlighter;
 import io.zulia.server.field.FieldTypeUtil;
+import io.zulia.server.util.BsonFieldProjection;
 import io.zulia.server.util.BytesRefUtil;
-import io.zulia.server.util.FieldAndSubFields;
-import io.zulia.util.ResultHelper;
 import io.zulia.util.ZuliaUtil;
 import io.zulia.util.document.DocumentHelper;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.index.BinaryDocValues;
-import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.ScoreDoc;
-import org.apache.lucene.search.highlight.TextFragment;
 import org.apache.lucene.util.BytesRef;
 import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
-import static io.zulia.ZuliaFieldConstants.STORED_DOC_FIELD;
-import static io.zulia.ZuliaFieldConstants.STORED_ID_FIELD;
-import static io.zulia.ZuliaFieldConstants.STORED_META_FIELD;
 
 public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuery.ScoredResult> {
-	private BinaryDocValues idDocValues;
-
-	private BinaryDocValues metaDocValues;
-
-	private BinaryDocValues fullDocValues;
+	private StoredDocumentReader storedDocumentReader;
 
 	private final String indexName;
 	private final int shardNumber;
@@ -51,43 +34,33 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 
 	private final boolean needsAnalysis;
 
-	private final List<String> fieldsToReturn;
-	private final List<String> fieldsToMask;
+	private final BsonFieldProjection bsonFieldProjection;
 	private final List<SortMeta> sortMetas;
-	private final List<ZuliaHighlighter> highlighterList;
+	private final List<DocumentHighlighter> highlighterList;
 	private final List<AnalysisHandler> analysisHandlerList;
 
+	private byte[] uncompressBuffer;
+
 	public DocumentScoredDocLeafHandler(String indexName, int shardNumber, ZuliaQuery.FetchType fetchType, List<String> fieldsToReturn,
-			List<String> fieldsToMask, List<SortMeta> sortMetas, List<ZuliaHighlighter> highlighterList, List<AnalysisHandler> analysisHandlerList) {
+			List<String> fieldsToMask, List<SortMeta> sortMetas, List<DocumentHighlighter> highlighterList, List<AnalysisHandler> analysisHandlerList) {
 
 		this.indexName = indexName;
 		this.shardNumber = shardNumber;
 		meta = ZuliaQuery.FetchType.META.equals(fetchType) || ZuliaQuery.FetchType.ALL.equals(fetchType);
 		full = ZuliaQuery.FetchType.FULL.equals(fetchType) || ZuliaQuery.FetchType.ALL.equals(fetchType);
-		this.fieldsToReturn = fieldsToReturn;
-		this.fieldsToMask = fieldsToMask;
 		this.highlighterList = highlighterList;
 		this.analysisHandlerList = analysisHandlerList;
 		this.needsHighlight = !highlighterList.isEmpty();
 		this.needsAnalysis = !analysisHandlerList.isEmpty();
 		this.sortMetas = sortMetas;
 		this.needsDocFiltering = !fieldsToMask.isEmpty() || !fieldsToReturn.isEmpty();
+		this.bsonFieldProjection = needsDocFiltering ? new BsonFieldProjection(fieldsToReturn, fieldsToMask) : null;
 
 	}
 
 	@Override
 	protected void handleNewLeaf(LeafReaderContext currentLeaf) throws IOException {
-		LeafReader leafReader = currentLeaf.reader();
-
-		idDocValues = leafReader.getBinaryDocValues(STORED_ID_FIELD);
-
-		if (meta) {
-			metaDocValues = leafReader.getBinaryDocValues(STORED_META_FIELD);
-		}
-
-		if (full) {
-			fullDocValues = leafReader.getBinaryDocValues(STORED_DOC_FIELD);
-		}
+		storedDocumentReader = new StoredDocumentReader(currentLeaf.reader(), meta, full);
 	}
 
 	@Override
@@ -101,10 +74,8 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 
 		int localDocId = docId - docBase;
 		ZuliaBase.IdInfo idInfo;
-		if (idDocValues.advanceExact(localDocId)) {
-			byte[] idInfoBytes = BytesRefUtil.getByteArray(idDocValues.binaryValue());
-
-			idInfo = ZuliaBase.IdInfo.parseFrom(idInfoBytes);
+		if (storedDocumentReader.advanceExact(localDocId)) {
+			idInfo = storedDocumentReader.getIdInfo();
 			srBuilder.setUniqueId(idInfo.getId());
 			srBuilder.setTimestamp(idInfo.getTimestamp());
 		}
@@ -119,8 +90,9 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 			rdBuilder.setUniqueId(idInfo.getId());
 			rdBuilder.setTimestamp(idInfo.getTimestamp());
 			if (meta) {
-				if (metaDocValues != null && metaDocValues.advanceExact(localDocId)) {
-					byte[] metaBytes = BytesRefUtil.getByteArray(metaDocValues.binaryValue());
+				BytesRef metaBytesRef = storedDocumentReader.getMeta();
+				if (metaBytesRef != null) {
+					byte[] metaBytes = BytesRefUtil.getByteArray(metaBytesRef);
 					if (idInfo.getCompressedDoc()) {
 						metaBytes = Snappy.uncompress(metaBytes);
 					}
@@ -129,30 +101,39 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 			}
 
 			if (full) {
-				if (fullDocValues != null && fullDocValues.advanceExact(localDocId)) {
-					byte[] docBytes = BytesRefUtil.getByteArray(fullDocValues.binaryValue());
+				BytesRef docBytesRef = storedDocumentReader.getFullDoc();
+				if (docBytesRef != null) {
+					byte[] docBytes = docBytesRef.bytes;
+					int docOffset = docBytesRef.offset;
+					int docLength = docBytesRef.length;
 					if (idInfo.getCompressedDoc()) {
-						docBytes = Snappy.uncompress(docBytes);
+						// snappy blocks can not be read partially so compressed documents are always fully uncompressed
+						docLength = Snappy.uncompressedLength(docBytes, docOffset, docLength);
+						if (uncompressBuffer == null || uncompressBuffer.length < docLength) {
+							uncompressBuffer = new byte[Math.max(docLength, uncompressBuffer == null ? 0 : uncompressBuffer.length * 2)];
+						}
+						Snappy.uncompress(docBytesRef.bytes, docBytesRef.offset, docBytesRef.length, uncompressBuffer, 0);
+						docBytes = uncompressBuffer;
+						docOffset = 0;
 					}
-					rdBuilder.setDocument(ByteString.copyFrom(docBytes));
-
-					if (needsHighlight || needsAnalysis || needsDocFiltering) {
-						org.bson.Document mongoDoc = ResultHelper.getDocumentFromResultDocument(rdBuilder);
-						if (mongoDoc != null) {
-							if (needsHighlight) {
-								handleHighlight(highlighterList, srBuilder, mongoDoc);
-							}
-							if (needsAnalysis) {
-								AnalysisHandler.handleDocument(mongoDoc, analysisHandlerList, srBuilder);
-							}
-
-							if (needsDocFiltering) {
-								filterDocument(fieldsToReturn, fieldsToMask, mongoDoc);
-								ByteString document = ZuliaUtil.mongoDocumentToByteString(mongoDoc);
-								rdBuilder.setDocument(document);
-							}
+
+					if (needsHighlight || needsAnalysis) {
+						org.bson.Document mongoDoc = ZuliaUtil.byteArrayToMongoDocument(Arrays.copyOfRange(docBytes, docOffset, docOffset + docLength));
+						if (needsHighlight) {
+							handleHighlight(highlighterList, srBuilder, mongoDoc, currentLeaf, localDocId);
+						}
+						if (needsAnalysis) {
+							AnalysisHandler.handleDocument(mongoDoc, analysisHandlerList, srBuilder);
 						}
 					}
+
+					if (needsDocFiltering && docLength > 0) {
+						// copies only the requested fields from the stored bytes instead of parsing and reencoding the whole document
+						rdBuilder.setDocument(bsonFieldProjection.project(docBytes, docOffset, docLength));
+					}
+					else {
+						rdBuilder.setDocument(ByteString.copyFrom(docBytes, docOffset, docLength));
+					}
 				}
 
 			}
@@ -167,80 +148,6 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 		return srBuilder.build();
 	}
 
-	private void filterDocument(Collection<String> fieldsToReturn, Collection<String> fieldsToMask, org.bson.Document mongoDocument) {
-
-		if (fieldsToReturn.isEmpty() && !fieldsToMask.isEmpty()) {
-			FieldAndSubFields fieldsToMaskObj = new FieldAndSubFields(fieldsToMask);
-			for (String topLevelField : fieldsToMaskObj.getTopLevelFields()) {
-				Map<String, Set<String>> topLevelToChildren = fieldsToMaskObj.getTopLevelToChildren();
-				if (!topLevelToChildren.containsKey(topLevelField)) {
-					mongoDocument.remove(topLevelField);
-				}
-				else {
-					Object subDoc = mongoDocument.get(topLevelField);
-					ZuliaUtil.handleLists(subDoc, subDocItem -> {
-						if (subDocItem instanceof org.bson.Document) {
-
-							Collection<String> subFieldsToMask =
-									topLevelToChildren.get(topLevelField) != null ? topLevelToChildren.get(topLevelField) : Collections.emptyList();
-
-							filterDocument(Collections.emptyList(), subFieldsToMask, (org.bson.Document) subDocItem);
-						}
-						else if (subDocItem == null) {
-
-						}
-						else {
-							//TODO: warn user?
-						}
-					});
-				}
-			}
-		}
-		else if (!fieldsToReturn.isEmpty()) {
-			FieldAndSubFields fieldsToReturnObj = new FieldAndSubFields(fieldsToReturn);
-			FieldAndSubFields fieldsToMaskObj = new FieldAndSubFields(fieldsToMask);
-
-			Set<String> topLevelFieldsToReturn = fieldsToReturnObj.getTopLevelFields();
-			Set<String> topLevelFieldsToMask = fieldsToMaskObj.getTopLevelFields();
-			Map<String, Set<String>> topLevelToChildrenToMask = fieldsToMaskObj.getTopLevelToChildren();
-			Map<String, Set<String>> topLevelToChildrenToReturn = fieldsToReturnObj.getTopLevelToChildren();
-
-			ArrayList<String> allDocumentKeys = new ArrayList<>(mongoDocument.keySet());
-			for (String topLevelField : allDocumentKeys) {
-
-				if ((!topLevelFieldsToReturn.contains(topLevelField) && !topLevelToChildrenToMask.containsKey(topLevelField))
-						|| topLevelFieldsToMask.contains(topLevelField) && !topLevelToChildrenToMask.containsKey(topLevelField)) {
-					mongoDocument.remove(topLevelField);
-				}
-
-				if (topLevelToChildrenToReturn.containsKey(topLevelField) || topLevelToChildrenToMask.containsKey(topLevelField)) {
-					Object subDoc = mongoDocument.get(topLevelField);
-					ZuliaUtil.handleLists(subDoc, subDocItem -> {
-						if (subDocItem instanceof org.bson.Document) {
-
-							Collection<String> subFieldsToReturn = topLevelToChildrenToReturn.get(topLevelField) != null ?
-									topLevelToChildrenToReturn.get(topLevelField) :
-									Collections.emptyList();
-
-							Collection<String> subFieldsToMask =
-									topLevelToChildrenToMask.get(topLevelField) != null ? topLevelToChildrenToMask.get(topLevelField) : Collections.emptyList();
-
-							filterDocument(subFieldsToReturn, subFieldsToMask, (org.bson.Document) subDocItem);
-						}
-						else if (subDocItem == null) {
-
-						}
-						else {
-							//TODO: warn user?
-						}
-					});
-
-				}
-			}
-		}
-
-	}
-
 	private void handleSortValues(List<SortMeta> sortMetas, ScoreDoc scoreDoc, ZuliaQuery.ScoredResult.Builder srBuilder) {
 		FieldDoc result = (FieldDoc) scoreDoc;
 
@@ -301,9 +208,10 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 		srBuilder.setSortValues(sortValues);
 	}
 
-	private void handleHighlight(List<ZuliaHighlighter> highlighterList, ZuliaQuery.ScoredResult.Builder srBuilder, org.bson.Document doc) {
+	private void handleHighlight(List<DocumentHighlighter> highlighterList, ZuliaQuery.ScoredResult.Builder srBuilder, org.bson.Document doc,
+			LeafReaderContext currentLeaf, int localDocId) throws IOException {
 
-		for (ZuliaHighlighter highlighter : highlighterList) {
+		for (DocumentHighlighter highlighter : highlighterList) {
 
 			String storedFieldName = highlighter.getStoredFieldName();
 
@@ -313,23 +221,9 @@ public class DocumentScoredDocLeafHandler extends ScoredDocLeafHandler<ZuliaQuer
 				highLightResult.setField(storedFieldName);
 
 				Object storeFieldValues = DocumentHelper.getValueFromMongoDocument(doc, storedFieldName);
-
-				ZuliaUtil.handleLists(storeFieldValues, (value) -> {
-					String content = value.toString();
-
-					try (TokenStream tokenStream = highlighter.getTokenStream(content)) {
-						TextFragment[] bestTextFragments = highlighter.getBestTextFragments(tokenStream, content, false, highlighter.getNumberOfFragments());
-						for (TextFragment bestTextFragment : bestTextFragments) {
-							if (bestTextFragment != null && bestTextFragment.getScore() > 0) {
-								highLightResult.addFragments(bestTextFragment.toString());
-							}
-						}
-					}
-					catch (Exception e) {
-						throw new RuntimeException(e);
-					}
-
-				});
+				if (storeFieldValues != null) {
+					highLightResult.addAllFragments(highlighter.getFragments(currentLeaf.reader(), localDocId, storeFieldValues));
+				}
 
 				srBuilder.addHighlightResult(highLightResult);
 			}
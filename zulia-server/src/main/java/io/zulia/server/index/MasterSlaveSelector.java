@@ -10,6 +10,7 @@ import io.zulia.server.exceptions.ShardOfflineException;
 import io.zulia.server.node.ZuliaNode;
 import io.zulia.util.ShardUtil;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,7 @@ public class MasterSlaveSelector {
 	private final MasterSlaveSettings masterSlaveSettings;
 	private final List<Node> nodes;
 	private final IndexShardMapping indexShardMapping;
+	private final NodeLatencyTracker nodeLatencyTracker;
 
 	/**
 	 * @param masterSlaveSettings - the master slave preference
@@ -26,9 +28,18 @@ public class MasterSlaveSelector {
 	 * @param indexShardMapping   -
 	 */
 	public MasterSlaveSelector(MasterSlaveSettings masterSlaveSettings, List<Node> nodes, IndexShardMapping indexShardMapping) {
+		this(masterSlaveSettings, nodes, indexShardMapping, null);
+	}
+
+	/**
+	 * @param nodeLatencyTracker - latencies for picking the copy of each shard with FASTEST_AVAILABLE, when null FASTEST_AVAILABLE prefers the primary
+	 */
+	public MasterSlaveSelector(MasterSlaveSettings masterSlaveSettings, List<Node> nodes, IndexShardMapping indexShardMapping,
+			NodeLatencyTracker nodeLatencyTracker) {
 		this.masterSlaveSettings = masterSlaveSettings;
 		this.nodes = nodes;
 		this.indexShardMapping = indexShardMapping;
+		this.nodeLatencyTracker = nodeLatencyTracker;
 	}
 
 	public Node getNodeForUniqueId(String uniqueId) throws ShardDoesNotExistException, ShardOfflineException {
@@ -44,6 +55,16 @@ public class MasterSlaveSelector {
 
 	}
 
+	public Node getNodeForShard(int shardNumber) throws ShardDoesNotExistException, ShardOfflineException {
+		for (ShardMapping shardMapping : indexShardMapping.getShardMappingList()) {
+			if (shardMapping.getShardNumber() == shardNumber) {
+				return getNodeFromShardMapping(shardMapping);
+			}
+		}
+
+		throw new ShardDoesNotExistException(indexShardMapping.getIndexName(), shardNumber);
+	}
+
 	public Map<Node, IndexRouting.Builder> getNodesForIndex() throws ShardOfflineException {
 
 		Map<Node, IndexRouting.Builder> map = new HashMap<>();
@@ -79,12 +100,48 @@ public class MasterSlaveSelector {
 				}
 			}
 		}
+		else if (MasterSlaveSettings.FASTEST_AVAILABLE.equals(masterSlaveSettings)) {
+			List<Node> onlineCopies = getOnlineCopies(shardMapping);
+			if (onlineCopies.isEmpty()) {
+				throw new ShardOfflineException(indexShardMapping.getIndexName(), shardMapping.getShardNumber(), masterSlaveSettings);
+			}
+			selectedNode = nodeLatencyTracker != null ? nodeLatencyTracker.selectFastest(onlineCopies) : onlineCopies.getFirst();
+		}
 		else {
 			throw new IllegalArgumentException("Unknown master slave setting");
 		}
 		return selectedNode;
 	}
 
+	/**
+	 * @return the online nodes with a copy of the shard, the primary first then the replicas
+	 */
+	public List<Node> getOnlineCopies(int shardNumber) throws ShardDoesNotExistException {
+		for (ShardMapping shardMapping : indexShardMapping.getShardMappingList()) {
+			if (shardMapping.getShardNumber() == shardNumber) {
+				return getOnlineCopies(shardMapping);
+			}
+		}
+		throw new ShardDoesNotExistException(indexShardMapping.getIndexName(), shardNumber);
+	}
+
+	protected List<Node> getOnlineCopies(ShardMapping shardMapping) {
+		List<Node> onlineCopies = new ArrayList<>();
+		Node masterNode = getSelectMasterNode(shardMapping);
+		if (masterNode != null) {
+			onlineCopies.add(masterNode);
+		}
+		for (Node secondaryNode : shardMapping.getReplicaNodeList()) {
+			for (Node onlineNode : nodes) {
+				if (ZuliaNode.isEqual(onlineNode, secondaryNode)) {
+					onlineCopies.add(onlineNode);
+					break;
+				}
+			}
+		}
+		return onlineCopies;
+	}
+
 	protected Node getSelectMasterNode(ShardMapping shardMapping) {
 		Node selectedNode = null;
 
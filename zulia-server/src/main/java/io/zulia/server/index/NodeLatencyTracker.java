@@ -0,0 +1,128 @@
+package io.zulia.server.index;
+
+import io.zulia.message.ZuliaBase.Node;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks the latency (exponentially weighted moving average) and in flight requests of every node this node sends queries to, and the latency of the
+ * recent requests to all nodes for picking when to hedge a slow request.
+ */
+public class NodeLatencyTracker {
+
+	private static final double EWMA_ALPHA = 0.3;
+
+	// a node that has not answered a request recently is probed again instead of being avoided on an old average (i.e. from a GC pause)
+	private static final long STALE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	private static final int RECENT_LATENCIES = 512;
+	private static final int MIN_SAMPLES_FOR_PERCENTILE = 32;
+
+	private static class NodeLatency {
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private double ewmaNanos;
+		private long lastUpdateNanos;
+
+		private synchronized void update(long latencyNanos, long now) {
+			ewmaNanos = lastUpdateNanos == 0 ? latencyNanos : EWMA_ALPHA * latencyNanos + (1 - EWMA_ALPHA) * ewmaNanos;
+			lastUpdateNanos = now;
+		}
+
+		private synchronized double getScore(long now) {
+			if (lastUpdateNanos == 0 || now - lastUpdateNanos > STALE_NANOS) {
+				return 0;
+			}
+			// requests already waiting on the node queue ahead of a new one
+			return ewmaNanos * (inFlight.get() + 1);
+		}
+	}
+
+	private final ConcurrentHashMap<Node, NodeLatency> nodeLatencyMap;
+	private final AtomicLongArray recentLatencies;
+	private final AtomicLong sampleCount;
+
+	public NodeLatencyTracker() {
+		this.nodeLatencyMap = new ConcurrentHashMap<>();
+		this.recentLatencies = new AtomicLongArray(RECENT_LATENCIES);
+		this.sampleCount = new AtomicLong();
+	}
+
+	/**
+	 * @return the start time to pass to {@link #finish(Node, long)} when the request completes, a failed request is passed to {@link #fail(Node)}
+	 */
+	public long start(Node node) {
+		getNodeLatency(node).inFlight.incrementAndGet();
+		return System.nanoTime();
+	}
+
+	public void finish(Node node, long startNanos) {
+		long now = System.nanoTime();
+		long latencyNanos = now - startNanos;
+
+		NodeLatency nodeLatency = getNodeLatency(node);
+		nodeLatency.inFlight.decrementAndGet();
+		nodeLatency.update(latencyNanos, now);
+
+		recentLatencies.set((int) (sampleCount.getAndIncrement() % RECENT_LATENCIES), latencyNanos);
+	}
+
+	/**
+	 * Ends a request without recording its latency, failures (i.e. refused connections or rejected requests) and cancelled requests end early and
+	 * would make the node look fast
+	 */
+	public void fail(Node node) {
+		getNodeLatency(node).inFlight.decrementAndGet();
+	}
+
+	/**
+	 * @param nodes copies to choose from in order of preference, ties go to the first
+	 * @return the node expected to answer first from its average latency and in flight requests, nodes without a recent latency are preferred so they
+	 * are measured
+	 */
+	public Node selectFastest(List<Node> nodes) {
+		long now = System.nanoTime();
+		Node fastest = null;
+		double fastestScore = Double.MAX_VALUE;
+		for (Node node : nodes) {
+			double score = getNodeLatency(node).getScore(now);
+			if (score < fastestScore) {
+				fastest = node;
+				fastestScore = score;
+			}
+		}
+		return fastest;
+	}
+
+	/**
+	 * @param percentile in the range (0.0, 1.0]
+	 * @return latency of the recent requests to all nodes at the percentile, -1 until enough requests are tracked
+	 */
+	public long getLatencyPercentileNanos(double percentile) {
+		int samples = (int) Math.min(sampleCount.get(), RECENT_LATENCIES);
+		if (samples < MIN_SAMPLES_FOR_PERCENTILE) {
+			return -1;
+		}
+
+		long[] latencies = new long[samples];
+		for (int i = 0; i < samples; i++) {
+			latencies[i] = recentLatencies.get(i);
+		}
+		Arrays.sort(latencies);
+		int index = (int) Math.ceil(percentile * samples) - 1;
+		return latencies[Math.clamp(index, 0, samples - 1)];
+	}
+
+	private NodeLatency getNodeLatency(Node node) {
+		return nodeLatencyMap.computeIfAbsent(getNodeKey(node), k -> new NodeLatency());
+	}
+
+	private Node getNodeKey(Node node) {
+		return Node.newBuilder().setServerAddress(node.getServerAddress()).setServicePort(node.getServicePort()).build();
+	}
+}
@@ -1,6 +1,7 @@
 package io.zulia.server.index;
 
+import io.zulia.message.ZuliaBase;
 import org.apache.lucene.util.BytesRef;
 
-public record ReIndexContainer(BytesRef idInfo, BytesRef meta, BytesRef fullDoc) {
+public record ReIndexContainer(ZuliaBase.IdInfo idInfo, BytesRef meta, BytesRef fullDoc) {
 }
@@ -0,0 +1,69 @@
+package io.zulia.server.index;
+
+import io.zulia.message.ZuliaServiceOuterClass.ShardCommit;
+import io.zulia.message.ZuliaServiceOuterClass.ShardFile;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The files of the last taxonomy and index commit of a primary shard.  The files are protected from deletion until the snapshot is closed.
+ */
+public class ShardCommitSnapshot implements AutoCloseable {
+
+	private final ShardWriteManager shardWriteManager;
+	private final IndexCommit indexCommit;
+	private final IndexCommit taxoCommit;
+	private final ShardCommit shardCommit;
+
+	ShardCommitSnapshot(ShardWriteManager shardWriteManager, IndexCommit indexCommit, IndexCommit taxoCommit, Map<String, ShardFile> indexFileCache,
+			Map<String, ShardFile> taxoFileCache) throws IOException {
+		this.shardWriteManager = shardWriteManager;
+		this.indexCommit = indexCommit;
+		this.taxoCommit = taxoCommit;
+
+		ShardCommit.Builder shardCommitBuilder = ShardCommit.newBuilder();
+		shardCommitBuilder.setTaxoSegmentsFileName(taxoCommit.getSegmentsFileName());
+		shardCommitBuilder.setIndexSegmentsFileName(indexCommit.getSegmentsFileName());
+		addShardFiles(shardCommitBuilder, taxoCommit, true, taxoFileCache);
+		addShardFiles(shardCommitBuilder, indexCommit, false, indexFileCache);
+		this.shardCommit = shardCommitBuilder.build();
+	}
+
+	private static void addShardFiles(ShardCommit.Builder shardCommitBuilder, IndexCommit commit, boolean taxonomy, Map<String, ShardFile> fileCache)
+			throws IOException {
+		Collection<String> fileNames = commit.getFileNames();
+		// segment files are write once so the checksum is only read from the footer the first time a file is seen
+		fileCache.keySet().retainAll(fileNames);
+		for (String fileName : fileNames) {
+			ShardFile shardFile = fileCache.get(fileName);
+			if (shardFile == null) {
+				try (IndexInput input = commit.getDirectory().openInput(fileName, IOContext.READONCE)) {
+					shardFile = ShardFile.newBuilder().setFileName(fileName).setTaxonomy(taxonomy).setLength(input.length())
+							.setChecksum(CodecUtil.retrieveChecksum(input)).build();
+				}
+				fileCache.put(fileName, shardFile);
+			}
+			shardCommitBuilder.addShardFile(shardFile);
+		}
+	}
+
+	public ShardCommit getShardCommit() {
+		return shardCommit;
+	}
+
+	public IndexInput openInput(ShardFile shardFile) throws IOException {
+		IndexCommit commit = shardFile.getTaxonomy() ? taxoCommit : indexCommit;
+		return commit.getDirectory().openInput(shardFile.getFileName(), IOContext.READONCE);
+	}
+
+	@Override
+	public void close() throws IOException {
+		shardWriteManager.releaseCommit(indexCommit, taxoCommit);
+	}
+}
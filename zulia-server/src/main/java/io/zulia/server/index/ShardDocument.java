@@ -0,0 +1,5 @@
+package io.zulia.server.index;
+
+public record ShardDocument(String uniqueId, DocumentContainer document, DocumentContainer metadata) {
+
+}
@@ -20,6 +20,7 @@ import io.zulia.server.index.field.FloatFieldIndexer;
 import io.zulia.server.index.field.IntFieldIndexer;
 import io.zulia.server.index.field.LongFieldIndexer;
 import io.zulia.server.index.field.StringFieldIndexer;
+import io.zulia.server.search.aggregation.ordinal.CompactOrdinalEncoding;
 import io.zulia.util.BooleanUtil;
 import io.zulia.util.ZuliaUtil;
 import io.zulia.util.ZuliaVersion;
@@ -34,6 +35,7 @@ import org.apache.lucene.document.LatLonPoint;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.facet.taxonomy.FacetLabel;
@@ -44,8 +46,6 @@ import org.apache.lucene.util.NumericUtils;
 import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Collection;
@@ -56,7 +56,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.function.IntConsumer;
 
 public class ShardDocumentIndexer {
 
@@ -81,9 +80,11 @@ public class ShardDocumentIndexer {
 		luceneDocument.add(new SortedSetDocValuesField(idSortField, new BytesRef(uniqueId)));
 		luceneDocument.add(new LongPoint(ZuliaFieldConstants.TIMESTAMP_FIELD, timestamp));
 
-		boolean compressionEnabled = indexConfig.isCompressionEnabled();
+		// stored fields are block compressed by the codec so the documents are not snappy compressed as well
+		boolean storedFields = indexConfig.getStoredDocumentFormat() != ZuliaIndex.StoredDocumentFormat.DOC_VALUES;
+		boolean compressionEnabled = indexConfig.isCompressionEnabled() && !storedFields;
 		ZuliaBase.IdInfo idInfo = ZuliaBase.IdInfo.newBuilder().setId(uniqueId).setTimestamp(timestamp).setMajorVersion(majorVersion)
-				.setMinorVersion(minorVersion).setCompressedDoc(compressionEnabled).build();
+				.setMinorVersion(minorVersion).setCompressedDoc(compressionEnabled).setStoredFields(storedFields).build();
 
 		byte[] idInfoBytes = idInfo.toByteArray();
 
@@ -91,11 +92,15 @@ public class ShardDocumentIndexer {
 
 		if (metadata.hasDocument()) {
 			byte[] bytes = compressionEnabled ? Snappy.compress(metadata.getByteArray()) : metadata.getByteArray();
-			luceneDocument.add(new BinaryDocValuesField(ZuliaFieldConstants.STORED_META_FIELD, new BytesRef(bytes)));
+			luceneDocument.add(storedFields ?
+					new StoredField(ZuliaFieldConstants.STORED_FIELDS_META_FIELD, bytes) :
+					new BinaryDocValuesField(ZuliaFieldConstants.STORED_META_FIELD, new BytesRef(bytes)));
 		}
 		if (mongoDocument.hasDocument()) {
 			byte[] bytes = compressionEnabled ? Snappy.compress(mongoDocument.getByteArray()) : mongoDocument.getByteArray();
-			luceneDocument.add(new BinaryDocValuesField(ZuliaFieldConstants.STORED_DOC_FIELD, new BytesRef(bytes)));
+			luceneDocument.add(storedFields ?
+					new StoredField(ZuliaFieldConstants.STORED_FIELDS_DOC_FIELD, bytes) :
+					new BinaryDocValuesField(ZuliaFieldConstants.STORED_DOC_FIELD, new BytesRef(bytes)));
 			addUserFields(mongoDocument.getDocument(), luceneDocument, taxoWriter);
 		}
 
@@ -132,7 +137,6 @@ public class ShardDocumentIndexer {
 
 		IntObjMap<IntSet> facetDimToOrdinal = HashIntObjMaps.newMutableMap();
 
-		int fieldOrdinalCount = 0;
 		for (String facetField : facetFieldToFacetLabels.keySet()) {
 
 			Set<FacetLabel> facetLabels = facetFieldToFacetLabels.get(facetField);
@@ -162,8 +166,6 @@ public class ShardDocumentIndexer {
 			if (indexConfig.isStoredIndividually(facetField)) {
 				storeIndividualFacets(luceneDocument, facetField, fieldOrdinals);
 			}
-
-			fieldOrdinalCount += fieldOrdinals.size();
 		}
 
 		Map<String, Set<String>> facetGroupToFacets = indexConfig.getFacetGroups();
@@ -174,12 +176,11 @@ public class ShardDocumentIndexer {
 				Integer i = getOrdinalForFacetField(taxoWriter, facet);
 				orderedDimOrdinalsForGroup.add(i);
 			}
-			storeOrderedFacetsAsDocValue(luceneDocument, orderedDimOrdinalsForGroup, fieldOrdinalCount, facetDimToOrdinal,
-					ZuliaFieldConstants.FACET_STORAGE_GROUP + facetGroup);
+			storeOrderedFacetsAsDocValue(luceneDocument, orderedDimOrdinalsForGroup, facetDimToOrdinal, ZuliaFieldConstants.FACET_STORAGE_GROUP + facetGroup);
 		}
 
 		TreeSet<Integer> orderedDimOrdinals = new TreeSet<>(facetDimToOrdinal.keySet());
-		storeOrderedFacetsAsDocValue(luceneDocument, orderedDimOrdinals, fieldOrdinalCount, facetDimToOrdinal, ZuliaFieldConstants.FACET_STORAGE);
+		storeOrderedFacetsAsDocValue(luceneDocument, orderedDimOrdinals, facetDimToOrdinal, ZuliaFieldConstants.FACET_STORAGE);
 	}
 
 	private int getOrdinalForFacetField(DirectoryTaxonomyWriter taxoWriter, String facetField) throws IOException {
@@ -187,31 +188,23 @@ public class ShardDocumentIndexer {
 	}
 
 	private static void storeIndividualFacets(Document luceneDocument, String facetField, HashIntSet fieldOrdinals) {
-		ByteBuffer byteBuffer = ByteBuffer.allocate((fieldOrdinals.size() + 1) * 4);
-		IntBuffer ordinalBuffer = byteBuffer.asIntBuffer();
-		ordinalBuffer.put(fieldOrdinals.size());
-		fieldOrdinals.forEach((IntConsumer) ordinalBuffer::put);
-		luceneDocument.add(new BinaryDocValuesField(ZuliaFieldConstants.FACET_STORAGE_INDIVIDUAL + facetField, new BytesRef(byteBuffer.array())));
+		BytesRef ordinals = CompactOrdinalEncoding.encodeOrdinals(fieldOrdinals.toIntArray());
+		luceneDocument.add(new BinaryDocValuesField(ZuliaFieldConstants.FACET_STORAGE_INDIVIDUAL + facetField, ordinals));
 	}
 
-	private static void storeOrderedFacetsAsDocValue(Document luceneDocument, SortedSet<Integer> orderedDimOrdinals, int fieldOrdinalCount,
-			IntObjMap<IntSet> facetDimToOrdinal, String field) {
-		ByteBuffer byteBuffer = ByteBuffer.allocate(((orderedDimOrdinals.size() * 2) + fieldOrdinalCount) * 4);
-
-		IntBuffer ordinalBuffer = byteBuffer.asIntBuffer();
+	private static void storeOrderedFacetsAsDocValue(Document luceneDocument, SortedSet<Integer> orderedDimOrdinals, IntObjMap<IntSet> facetDimToOrdinal,
+			String field) {
+		int[] dimOrdinals = new int[orderedDimOrdinals.size()];
+		int[][] ordinals = new int[orderedDimOrdinals.size()][];
+		int i = 0;
 		for (int dimOrdinal : orderedDimOrdinals) {
 			IntSet fieldOrdinals = facetDimToOrdinal.get(dimOrdinal);
-			ordinalBuffer.put(dimOrdinal);
-			if (fieldOrdinals != null) {
-				ordinalBuffer.put(fieldOrdinals.size());
-				fieldOrdinals.forEach((IntConsumer) ordinalBuffer::put);
-			}
-			else {
-				ordinalBuffer.put(0);
-			}
+			dimOrdinals[i] = dimOrdinal;
+			ordinals[i] = fieldOrdinals != null ? fieldOrdinals.toIntArray() : null;
+			i++;
 		}
 
-		luceneDocument.add(new BinaryDocValuesField(field, new BytesRef(byteBuffer.array())));
+		luceneDocument.add(new BinaryDocValuesField(field, CompactOrdinalEncoding.encodeDimensions(dimOrdinals, ordinals)));
 	}
 
 	private void addIndexingForStoredField(Document luceneDocument, String storedFieldName, FieldConfig fc, FieldConfig.FieldType fieldType, Object o) {
@@ -239,7 +232,8 @@ public class ShardDocumentIndexer {
 				BooleanFieldIndexer.INSTANCE.index(luceneDocument, storedFieldName, o, indexedFieldName);
 			}
 			else if (FieldTypeUtil.isStringFieldType(fieldType)) {
-				StringFieldIndexer.INSTANCE.index(luceneDocument, storedFieldName, o, indexedFieldName);
+				StringFieldIndexer stringFieldIndexer = indexAs.getStoreOffsets() ? StringFieldIndexer.WITH_OFFSETS_INSTANCE : StringFieldIndexer.INSTANCE;
+				stringFieldIndexer.index(luceneDocument, storedFieldName, o, indexedFieldName);
 			}
 			else if (FieldTypeUtil.isVectorFieldType(fieldType)) {
 				if (o instanceof Collection collection) {
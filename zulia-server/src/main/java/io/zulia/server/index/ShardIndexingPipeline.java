@@ -0,0 +1,96 @@
+package io.zulia.server.index;
+
+import org.apache.lucene.document.Document;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+
+/**
+ * Converts documents to lucene documents on the shard's conversion executor and hands them to the index writer in the order they were submitted.
+ * At most maxInFlight documents are converted ahead of the writer, and only one while merges are saturated, so a fast producer blocks instead of
+ * buffering the stream in memory.
+ */
+public class ShardIndexingPipeline implements AutoCloseable {
+
+	private record PendingDocument(String uniqueId, Future<Document> luceneDocument) {
+
+	}
+
+	private final ShardWriteManager shardWriteManager;
+	private final int maxInFlight;
+	private final ArrayDeque<PendingDocument> pending;
+	private final Lock writeLock;
+	private final Predicate<String> writeFilter;
+
+	/**
+	 * @param writeLock   held while a document is checked with the write filter and written, null if every document is written
+	 * @param writeFilter checked for the unique id right before its document is written, documents it rejects are dropped
+	 */
+	ShardIndexingPipeline(ShardWriteManager shardWriteManager, int maxInFlight, Lock writeLock, Predicate<String> writeFilter) {
+		this.shardWriteManager = shardWriteManager;
+		this.maxInFlight = maxInFlight;
+		this.pending = new ArrayDeque<>(maxInFlight);
+		this.writeLock = writeLock;
+		this.writeFilter = writeFilter;
+	}
+
+	public void submit(ShardDocument shardDocument, long timestamp) throws Exception {
+		int inFlightLimit = shardWriteManager.mergeSaturated() ? 1 : maxInFlight;
+		while (pending.size() >= inFlightLimit) {
+			writeNext();
+		}
+
+		Future<Document> luceneDocument = shardWriteManager.getConversionExecutor()
+				.submit(() -> shardWriteManager.getIndexDocument(shardDocument, timestamp));
+		pending.add(new PendingDocument(shardDocument.uniqueId(), luceneDocument));
+	}
+
+	public void finish() throws Exception {
+		while (!pending.isEmpty()) {
+			writeNext();
+		}
+	}
+
+	private void writeNext() throws Exception {
+		PendingDocument pendingDocument = pending.poll();
+		Document luceneDocument;
+		try {
+			luceneDocument = pendingDocument.luceneDocument().get();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception ex) {
+				throw ex;
+			}
+			throw new Exception(cause);
+		}
+
+		if (writeLock == null) {
+			shardWriteManager.writeDocument(pendingDocument.uniqueId(), luceneDocument);
+			return;
+		}
+
+		// the document can change while it is converted so the filter is checked again with the write
+		writeLock.lock();
+		try {
+			if (writeFilter.test(pendingDocument.uniqueId())) {
+				shardWriteManager.writeDocument(pendingDocument.uniqueId(), luceneDocument);
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void close() {
+		// only non-empty when a conversion or write failed, remaining documents are abandoned without interrupting a conversion that is reading files
+		for (PendingDocument pendingDocument : pending) {
+			pendingDocument.luceneDocument().cancel(false);
+		}
+		pending.clear();
+	}
+}
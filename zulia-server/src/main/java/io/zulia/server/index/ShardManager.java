@@ -0,0 +1,150 @@
+package io.zulia.server.index;
+
+import io.zulia.server.analysis.ZuliaPerFieldAnalyzer;
+import io.zulia.server.config.ServerIndexConfig;
+import io.zulia.server.index.cache.SegmentFacetCountCache;
+import io.zulia.server.index.cache.SegmentQueryResultCache;
+import io.zulia.server.index.cache.ShardFilterCache;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
+import org.apache.lucene.index.DirectoryReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * State shared by primary shards that write their own index ({@link ShardWriteManager}) and replica shards that copy the commits of the primary
+ * ({@link ShardReplicaManager}): the shard readers, the caches used by the readers and the bookkeeping for search warming
+ */
+public abstract class ShardManager {
+
+	protected final ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer;
+	protected final ServerIndexConfig indexConfig;
+	protected final int shardNumber;
+	protected final String indexName;
+
+	protected final ExecutorService segmentOpenExecutor;
+	protected final SegmentQueryResultCache segmentQueryResultCache;
+	protected final SegmentFacetCountCache segmentFacetCountCache;
+	protected final ShardFilterCache shardFilterCache;
+	protected final Path pathToIndex;
+	protected final Path pathToTaxoIndex;
+
+	protected Long lastCommit;
+	protected Long lastChange;
+	protected Long lastWarm;
+
+	protected ShardManager(int shardNumber, Path pathToIndex, Path pathToTaxoIndex, ServerIndexConfig indexConfig,
+			ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer) {
+		this.shardNumber = shardNumber;
+		this.zuliaPerFieldAnalyzer = zuliaPerFieldAnalyzer;
+		this.indexConfig = indexConfig;
+		this.indexName = indexConfig.getIndexName();
+
+		this.lastCommit = null;
+		this.lastChange = null;
+		this.lastWarm = null;
+
+		this.pathToIndex = pathToIndex;
+		this.pathToTaxoIndex = pathToTaxoIndex;
+		this.segmentOpenExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(indexName + ":s" + shardNumber + "-segment-", 0).factory());
+		this.segmentQueryResultCache = new SegmentQueryResultCache(getSegmentQueryCacheSize());
+		this.segmentFacetCountCache = new SegmentFacetCountCache(getFacetCountCacheOrdinals());
+		this.shardFilterCache = new ShardFilterCache(getFilterCacheSizeMB());
+	}
+
+	public int getShardNumber() {
+		return shardNumber;
+	}
+
+	public ServerIndexConfig getIndexConfig() {
+		return indexConfig;
+	}
+
+	public abstract ShardReader createShardReader() throws IOException;
+
+	protected ShardReader createShardReader(DirectoryReader indexReader, DirectoryTaxonomyReader taxoReader) {
+		taxoReader.setCacheSize(128000);
+		return new ShardReader(shardNumber, indexReader, taxoReader, indexConfig, zuliaPerFieldAnalyzer, segmentOpenExecutor, segmentQueryResultCache,
+				segmentFacetCountCache, shardFilterCache);
+	}
+
+	public long getSizeOnDiskBytes() throws IOException {
+		try (var indexFiles = Files.list(pathToIndex); var taxoFiles = Files.list(pathToTaxoIndex)) {
+			long indexSize = indexFiles.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+			long taxoSize = taxoFiles.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+			return indexSize + taxoSize;
+		}
+	}
+
+	public void close() throws IOException {
+		segmentOpenExecutor.close();
+	}
+
+	WarmInfo needsSearchWarming(long lastestShardTime) {
+		long currentTime = System.currentTimeMillis();
+
+		//reassign so it can't change in the middle of the logic
+		Long lastChange = this.lastChange;
+		Long lastCommit = this.lastCommit;
+		Long lastWarm = this.lastWarm;
+
+		if (lastWarm == null) {
+			// never warmed so needs warmed and the index is idle
+			boolean idle = lastChange == null || (Math.abs(currentTime - lastChange) > 1000L && (lastCommit == null || (lastCommit > lastChange)));
+			return new WarmInfo(idle, lastChange, lastCommit);
+		}
+
+		if (lastCommit != null && lastChange != null) { // if there has been a change to the index and a commit
+			if (lastChange < lastCommit) { // no changes since last commit
+				if (lastWarm < lastestShardTime) { // Change is committed AND shard reader has been reopened
+					return new WarmInfo(true, lastChange, lastCommit);
+				}
+			}
+		}
+
+		return new WarmInfo(false, lastChange, lastCommit);
+	}
+
+	public Long getLastChanged() {
+		return lastChange;
+	}
+
+	public Long getLastCommit() {
+		return lastCommit;
+	}
+
+	public Long getLastWarm() {
+		return lastWarm;
+	}
+
+	public void searchesWarmed(long time) {
+		lastWarm = time;
+	}
+
+	public void updateIndexSettings() {
+		// cached results outlive reader refreshes and settings like field configs and similarities change results without changing the query
+		segmentQueryResultCache.invalidateAll();
+		segmentFacetCountCache.invalidateAll();
+		shardFilterCache.invalidateAll();
+		segmentQueryResultCache.setMaximumSize(getSegmentQueryCacheSize());
+		segmentFacetCountCache.setMaximumOrdinals(getFacetCountCacheOrdinals());
+		shardFilterCache.setMaximumSizeMB(getFilterCacheSizeMB());
+		lastWarm = null;
+	}
+
+	private int getSegmentQueryCacheSize() {
+		return indexConfig.getSegmentQueryCacheSize() != 0 ? indexConfig.getSegmentQueryCacheSize() : 4096;
+	}
+
+	private int getFacetCountCacheOrdinals() {
+		return indexConfig.getFacetCountCacheOrdinals() != 0 ? indexConfig.getFacetCountCacheOrdinals() : 2097152;
+	}
+
+	private int getFilterCacheSizeMB() {
+		return indexConfig.getFilterCacheSizeMB() != 0 ? indexConfig.getFilterCacheSizeMB() : 32;
+	}
+
+}
@@ -14,6 +14,8 @@ import io.zulia.message.ZuliaQuery;
 import io.zulia.message.ZuliaServiceOuterClass;
 import io.zulia.server.analysis.ZuliaFieldAnalyzer;
 import io.zulia.server.analysis.ZuliaPerFieldAnalyzer;
+import io.zulia.server.analysis.highlight.DocumentHighlighter;
+import io.zulia.server.analysis.highlight.PostingsOffsetHighlighter;
 import io.zulia.server.analysis.highlight.ZuliaHighlighter;
 import io.zulia.server.analysis.similarity.ConstantSimilarity;
 import io.zulia.server.analysis.similarity.TFSimilarity;
@@ -22,19 +24,28 @@ import io.zulia.server.config.ServerIndexConfig;
 import io.zulia.server.config.SortFieldInfo;
 import io.zulia.server.exceptions.WrappedCheckedException;
 import io.zulia.server.field.FieldTypeUtil;
+import io.zulia.server.index.cache.SegmentFacetCountCache;
+import io.zulia.server.index.cache.SegmentQueryResultCache;
+import io.zulia.server.index.cache.ShardFilterCache;
+import io.zulia.server.index.cache.SegmentQueryResultCache.SegmentQueryResult;
 import io.zulia.server.search.GeoDistUtil;
 import io.zulia.server.search.QueryCacheKey;
+import io.zulia.server.search.QueryConcurrencyController;
+import io.zulia.server.search.QueryDeadline;
+import io.zulia.server.search.RescoreKnnVectorQuery;
 import io.zulia.server.search.ShardQuery;
 import io.zulia.server.search.aggregation.AggregationHandler;
-import io.zulia.util.pool.SemaphoreLimitedVirtualPool;
-import io.zulia.util.pool.VirtualThreadPerTaskTaskExecutor;
+import io.zulia.server.search.aggregation.SegmentAggregation;
+import io.zulia.server.search.aggregation.facets.CountFacetInfo;
+import io.zulia.server.search.aggregation.stats.NumericFieldStatInfo;
+import io.zulia.util.pool.TaskExecutor;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.facet.FacetsCollector;
 import org.apache.lucene.facet.FacetsCollectorManager;
 import org.apache.lucene.facet.taxonomy.TaxonomyReader;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
-import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.ExitableDirectoryReader;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.LeafReader;
@@ -50,20 +61,22 @@ import org.apache.lucene.search.similarities.BM25Similarity;
 import org.apache.lucene.search.similarities.ClassicSimilarity;
 import org.apache.lucene.search.similarities.PerFieldSimilarityWrapper;
 import org.apache.lucene.util.Bits;
-import org.apache.lucene.util.BytesRef;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -78,6 +91,9 @@ public class ShardReader implements AutoCloseable {
 	private final long creationTime;
 	private final ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer;
 	private final ExecutorService segmentOpenExecutor;
+	private final SegmentQueryResultCache segmentQueryResultCache;
+	private final SegmentFacetCountCache segmentFacetCountCache;
+	private final ShardFilterCache shardFilterCache;
 	private final AsyncCache<@NotNull QueryCacheKey, ZuliaQuery.ShardQueryResponse> queryResultCache;
 	private final AsyncCache<@NotNull QueryCacheKey, ZuliaQuery.ShardQueryResponse> pinnedQueryResultCache;
 
@@ -87,7 +103,8 @@ public class ShardReader implements AutoCloseable {
 	private static final String[] EMPTY_STRING_ARRAY = new String[0];
 
 	public ShardReader(int shardNumber, DirectoryReader indexReader, DirectoryTaxonomyReader taxoReader, ServerIndexConfig indexConfig,
-			ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer, ExecutorService segmentOpenExecutor) {
+			ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer, ExecutorService segmentOpenExecutor, SegmentQueryResultCache segmentQueryResultCache,
+			SegmentFacetCountCache segmentFacetCountCache, ShardFilterCache shardFilterCache) {
 		this.creationTime = System.currentTimeMillis();
 		this.shardNumber = shardNumber;
 		this.indexReader = indexReader;
@@ -96,6 +113,9 @@ public class ShardReader implements AutoCloseable {
 		this.indexName = indexConfig.getIndexName();
 		this.zuliaPerFieldAnalyzer = zuliaPerFieldAnalyzer;
 		this.segmentOpenExecutor = segmentOpenExecutor;
+		this.segmentQueryResultCache = segmentQueryResultCache;
+		this.segmentFacetCountCache = segmentFacetCountCache;
+		this.shardFilterCache = shardFilterCache;
 		RemovalListener<@NotNull QueryCacheKey, ZuliaQuery.@NotNull ShardQueryResponse> removalListener = (key, value, cause) -> queryResultCacheSize.getAndAdd(
 				-value.getSerializedSize());
 		this.queryResultCache = Caffeine.newBuilder().maximumSize(indexConfig.getIndexSettings().getShardQueryCacheSize()).removalListener(removalListener)
@@ -212,7 +232,20 @@ public class ShardReader implements AutoCloseable {
 					throw new WrappedCheckedException(e);
 				}
 			});
-			return future.get();
+			ZuliaQuery.ShardQueryResponse shardQueryResponse = future.get();
+			if (shardQueryResponse.getTimedOut()) {
+				cache.asMap().remove(queryCacheKey, future);
+				// the shared result ran under the deadline and context of the query that started it, a query that still has time searches again
+				QueryDeadline queryDeadline = shardQuery.getQueryDeadline();
+				if (queryDeadline == null || !queryDeadline.shouldExit()) {
+					shardQueryResponse = getShardQueryResponse(shardQuery);
+					if (!shardQueryResponse.getTimedOut() && cache.asMap().putIfAbsent(queryCacheKey,
+							CompletableFuture.completedFuture(shardQueryResponse)) == null) {
+						cacheSize.getAndAdd(shardQueryResponse.getSerializedSize());
+					}
+				}
+			}
+			return shardQueryResponse;
 		}
 		catch (ExecutionException e) {
 			Throwable cause = e.getCause();
@@ -228,19 +261,70 @@ public class ShardReader implements AutoCloseable {
 
 	private ZuliaQuery.ShardQueryResponse getShardQueryResponse(ShardQuery shardQuery) throws Exception {
 
-		int concurrency = shardQuery.getConcurrency();
-		if (concurrency == 0) {
-			concurrency = 1;
+		QueryConcurrencyController queryConcurrencyController = shardQuery.getQueryConcurrencyController();
+		if (queryConcurrencyController != null) {
+			try (QueryConcurrencyController.QueryTaskExecutor searchExecutor = queryConcurrencyController.createExecutor(shardQuery.getConcurrency(),
+					indexReader)) {
+				IndexSearcher indexSearcher = new IndexSearcher(getSearchReader(shardQuery), searchExecutor);
+				shardFilterCache.configure(indexSearcher);
+				return getShardQueryResponseWithDeadline(shardQuery, indexSearcher, searchExecutor, searchExecutor.getConcurrency());
+			}
+		}
+
+		// queries built outside a search request run on the calling thread
+		IndexSearcher indexSearcher = new IndexSearcher(getSearchReader(shardQuery));
+		shardFilterCache.configure(indexSearcher);
+		return getShardQueryResponseWithDeadline(shardQuery, indexSearcher, null, 1);
+	}
+
+	/**
+	 * Searching stops at the query deadline inside the bulk scorers, a time limited query also checks the deadline while it reads the index so term
+	 * expansion (i.e. wildcard and fuzzy queries) and other work outside the bulk scorers stops too
+	 */
+	private DirectoryReader getSearchReader(ShardQuery shardQuery) throws IOException {
+		QueryDeadline queryDeadline = shardQuery.getQueryDeadline();
+		if (queryDeadline != null && queryDeadline.isLimited()) {
+			return ExitableDirectoryReader.wrap(indexReader, queryDeadline);
+		}
+		return indexReader;
+	}
+
+	private ZuliaQuery.ShardQueryResponse getShardQueryResponseWithDeadline(ShardQuery shardQuery, IndexSearcher indexSearcher, TaskExecutor searchExecutor,
+			int aggregationConcurrency) throws Exception {
+		QueryDeadline queryDeadline = shardQuery.getQueryDeadline();
+		if (queryDeadline == null) {
+			return getShardQueryResponse(shardQuery, indexSearcher, searchExecutor, aggregationConcurrency);
+		}
+
+		indexSearcher.setTimeout(queryDeadline);
+		try {
+			return getShardQueryResponse(shardQuery, indexSearcher, searchExecutor, aggregationConcurrency);
+		}
+		catch (Exception e) {
+			if (!isExitingReader(e)) {
+				throw e;
+			}
+			// stopped outside the bulk scorers so there are no hits collected to return
+			ZuliaQuery.ShardQueryResponse.Builder shardQueryReponseBuilder = ZuliaQuery.ShardQueryResponse.newBuilder();
+			ZuliaQuery.FacetRequest facetRequest = shardQuery.getFacetRequest();
+			addEmptyFacetAndStatGroups(shardQueryReponseBuilder, facetRequest.getCountRequestList(), facetRequest.getStatRequestList());
+			return shardQueryReponseBuilder.setIndexName(indexName).setShardNumber(shardNumber).setTimedOut(true).build();
 		}
+	}
 
-		try (VirtualThreadPerTaskTaskExecutor searchExecutor = new SemaphoreLimitedVirtualPool(concurrency)) {
-			IndexSearcher indexSearcher = new IndexSearcher(indexReader, searchExecutor);
-			return getShardQueryResponse(shardQuery, indexSearcher, concurrency);
+	private static boolean isExitingReader(Throwable t) {
+		// the search executor can wrap the exception thrown by the segment that stopped
+		while (t != null) {
+			if (t instanceof ExitableDirectoryReader.ExitingReaderException) {
+				return true;
+			}
+			t = t.getCause();
 		}
+		return false;
 	}
 
-	private ZuliaQuery.ShardQueryResponse getShardQueryResponse(ShardQuery shardQuery, IndexSearcher indexSearcher, int aggregationConcurrency)
-			throws Exception {
+	private ZuliaQuery.ShardQueryResponse getShardQueryResponse(ShardQuery shardQuery, IndexSearcher indexSearcher, TaskExecutor searchExecutor,
+			int aggregationConcurrency) throws Exception {
 
 		PerFieldSimilarityWrapper similarity = getSimilarity(shardQuery.getSimilarityOverrideMap());
 
@@ -256,6 +340,14 @@ public class ShardReader implements AutoCloseable {
 
 		int hasMoreAmount = shardQuery.getAmount() + 1;
 
+		ZuliaQuery.FacetRequest facetRequest = shardQuery.getFacetRequest();
+
+		List<ZuliaQuery.CountRequest> countRequestList = facetRequest.getCountRequestList();
+		List<ZuliaQuery.StatRequest> statRequestList = facetRequest.getStatRequestList();
+
+		boolean hasFacetRequests = !countRequestList.isEmpty();
+		boolean hasStatRequests = !statRequestList.isEmpty();
+
 		CollectorManager<?, ? extends TopDocs> collectorManager;
 
 		boolean sorting = (shardQuery.getSortRequest() != null) && !shardQuery.getSortRequest().getFieldSortList().isEmpty();
@@ -264,11 +356,19 @@ public class ShardReader implements AutoCloseable {
 
 		boolean sortingWithScores = false;
 
+		// past the threshold lucene stops counting and skips documents that cannot make the page, block-max WAND for scored queries and early
+		// termination on the index sort or skipping on competitive sort values for sorted queries.  Facets and stats need every hit
+		int totalHitsThreshold = Integer.MAX_VALUE;
+		if (shardQuery.getTotalHitsThreshold() > 0 && !hasFacetRequests && !hasStatRequests) {
+			totalHitsThreshold = Math.max(shardQuery.getTotalHitsThreshold(), hasMoreAmount);
+		}
+
+		Sort sort = null;
 		FieldDoc after = shardQuery.getAfter(shardNumber);
 		if (sorting) {
-			Sort sort = buildSortFromSortRequest(shardQuery.getSortRequest());
+			sort = buildSortFromSortRequest(shardQuery.getSortRequest());
 			sortingWithScores = sort.needsScores();
-			collectorManager = new TopFieldCollectorManager(sort, hasMoreAmount, after, Integer.MAX_VALUE);
+			collectorManager = new TopFieldCollectorManager(sort, hasMoreAmount, after, totalHitsThreshold);
 
 			for (ZuliaQuery.FieldSort fieldSort : shardQuery.getSortRequest().getFieldSortList()) {
 				String sf = fieldSort.getSortField();
@@ -282,24 +382,43 @@ public class ShardReader implements AutoCloseable {
 			}
 		}
 		else {
-			collectorManager = new TopScoreDocCollectorManager(hasMoreAmount, after, Integer.MAX_VALUE);
+			collectorManager = new TopScoreDocCollectorManager(hasMoreAmount, after, totalHitsThreshold);
 		}
 
 		ZuliaQuery.ShardQueryResponse.Builder shardQueryReponseBuilder = ZuliaQuery.ShardQueryResponse.newBuilder();
 
-		ZuliaQuery.FacetRequest facetRequest = shardQuery.getFacetRequest();
+		// segment searches stopped by the deadline are returned but not cached
+		AtomicBoolean segmentsTimedOut = new AtomicBoolean();
 
-		List<ZuliaQuery.CountRequest> countRequestList = facetRequest.getCountRequestList();
-		List<ZuliaQuery.StatRequest> statRequestList = facetRequest.getStatRequestList();
+		TopDocs topDocs;
+		if (sorting && totalHitsThreshold == Integer.MAX_VALUE && canUseSegmentCache(shardQuery, sortingWithScores, after, countRequestList, statRequestList)) {
+			AggregationHandler aggregationHandler = null;
+			if (hasFacetRequests || hasStatRequests) {
+				aggregationHandler = new AggregationHandler(taxoReader, statRequestList, countRequestList, indexConfig, aggregationConcurrency);
+			}
 
-		boolean hasFacetRequests = !countRequestList.isEmpty();
-		boolean hasStatRequests = !statRequestList.isEmpty();
+			topDocs = searchSegments(shardQuery, indexSearcher, sort, hasMoreAmount, aggregationHandler, segmentsTimedOut);
 
-		TopDocs topDocs;
-		if (hasFacetRequests || hasStatRequests) {
-			FacetsCollectorManager facetsCollectorManager = new FacetsCollectorManager();
-			Object[] results = indexSearcher.search(shardQuery.getQuery(), new MultiCollectorManager(collectorManager, facetsCollectorManager));
-			topDocs = (TopDocs) results[0];
+			if (aggregationHandler != null) {
+				if (topDocs.totalHits.value() == 0) {
+					addEmptyFacetAndStatGroups(shardQueryReponseBuilder, countRequestList, statRequestList);
+				}
+				else {
+					addAggregationResults(shardQueryReponseBuilder, statRequestList, countRequestList, aggregationHandler);
+				}
+			}
+		}
+		else if (hasFacetRequests || hasStatRequests) {
+			// counts of filter only queries are summed from cached segment counts so the matching documents do not need to be collected
+			FacetsCollector facetsCollector = null;
+			if (!hasStatRequests && canUseFacetCountCache(shardQuery)) {
+				topDocs = indexSearcher.search(shardQuery.getQuery(), collectorManager);
+			}
+			else {
+				Object[] results = indexSearcher.search(shardQuery.getQuery(), new MultiCollectorManager(collectorManager, new FacetsCollectorManager()));
+				topDocs = (TopDocs) results[0];
+				facetsCollector = (FacetsCollector) results[1];
+			}
 			int shardTotalHits = (int) topDocs.totalHits.value();
 
 			if (shardTotalHits == 0) {
@@ -315,9 +434,16 @@ public class ShardReader implements AutoCloseable {
 					return shardLimit == 0 || shardTotalHits <= shardLimit;
 				}).toList();
 
-				if (!filteredCountRequests.isEmpty() || !filteredStatRequests.isEmpty()) {
-					FacetsCollector facetsCollector = (FacetsCollector) results[1];
-					handleAggregations(shardQueryReponseBuilder, filteredStatRequests, filteredCountRequests, facetsCollector, aggregationConcurrency);
+				if (facetsCollector == null) {
+					if (!filteredCountRequests.isEmpty()) {
+						AggregationHandler aggregationHandler = countSegmentFacets(shardQuery, indexSearcher, filteredCountRequests, aggregationConcurrency,
+								segmentsTimedOut);
+						addAggregationResults(shardQueryReponseBuilder, filteredStatRequests, filteredCountRequests, aggregationHandler);
+					}
+				}
+				else if (!filteredCountRequests.isEmpty() || !filteredStatRequests.isEmpty()) {
+					handleAggregations(shardQueryReponseBuilder, filteredStatRequests, filteredCountRequests, facetsCollector, searchExecutor,
+							aggregationConcurrency);
 				}
 			}
 		}
@@ -334,12 +460,14 @@ public class ShardReader implements AutoCloseable {
 		int totalHits = (int) topDocs.totalHits.value();
 
 		shardQueryReponseBuilder.setTotalHits(totalHits);
+		shardQueryReponseBuilder.setTotalHitsLowerBound(topDocs.totalHits.relation() == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+		shardQueryReponseBuilder.setTimedOut(indexSearcher.timedOut() || segmentsTimedOut.get());
 
 		boolean moreAvailable = (results.length == hasMoreAmount);
 
 		int numResults = Math.min(results.length, shardQuery.getAmount());
 
-		List<ZuliaHighlighter> highlighterList = getHighlighterList(shardQuery.getHighlightList(), shardQuery.getQuery());
+		List<DocumentHighlighter> highlighterList = getHighlighterList(shardQuery.getHighlightList(), shardQuery.getQuery(), indexSearcher);
 
 		List<AnalysisHandler> analysisHandlerList = getAnalysisHandlerList(shardQuery.getAnalysisRequestList());
 
@@ -371,10 +499,16 @@ public class ShardReader implements AutoCloseable {
 	}
 
 	private void handleAggregations(ZuliaQuery.ShardQueryResponse.Builder shardQueryReponseBuilder, List<ZuliaQuery.StatRequest> statRequestList,
-			List<ZuliaQuery.CountRequest> countRequestList, FacetsCollector facetsCollector, int aggregrationConcurrency) throws IOException {
+			List<ZuliaQuery.CountRequest> countRequestList, FacetsCollector facetsCollector, TaskExecutor searchExecutor, int aggregationConcurrency)
+			throws IOException {
 
 		AggregationHandler aggregationHandler = new AggregationHandler(taxoReader, facetsCollector, statRequestList, countRequestList, indexConfig,
-				aggregrationConcurrency);
+				searchExecutor, aggregationConcurrency);
+		addAggregationResults(shardQueryReponseBuilder, statRequestList, countRequestList, aggregationHandler);
+	}
+
+	private void addAggregationResults(ZuliaQuery.ShardQueryResponse.Builder shardQueryReponseBuilder, List<ZuliaQuery.StatRequest> statRequestList,
+			List<ZuliaQuery.CountRequest> countRequestList, AggregationHandler aggregationHandler) throws IOException {
 
 		for (ZuliaQuery.CountRequest countRequest : countRequestList) {
 
@@ -426,6 +560,220 @@ public class ShardReader implements AutoCloseable {
 
 	}
 
+	private boolean canUseSegmentCache(ShardQuery shardQuery, boolean sortingWithScores, FieldDoc after, List<ZuliaQuery.CountRequest> countRequestList,
+			List<ZuliaQuery.StatRequest> statRequestList) {
+
+		// only score independent searches from the first page can be computed per segment and merged
+		QueryCacheKey queryCacheKey = shardQuery.getQueryCacheKey();
+		if (queryCacheKey == null || queryCacheKey.isPinned() || sortingWithScores || after != null) {
+			return false;
+		}
+
+		if (shardQuery.getAmount() > indexConfig.getIndexSettings().getShardQueryCacheMaxAmount()) {
+			return false;
+		}
+
+		// hit limits for facets and stats apply to the shard total so segment aggregations can not be reused
+		for (ZuliaQuery.CountRequest countRequest : countRequestList) {
+			if (countRequest.getMaxShardHitsForFacet() != 0 || countRequest.getMaxTotalHitsForFacet() != 0) {
+				return false;
+			}
+		}
+		for (ZuliaQuery.StatRequest statRequest : statRequestList) {
+			if (statRequest.getMaxShardHitsForFacet() != 0 || statRequest.getMaxTotalHitsForFacet() != 0) {
+				return false;
+			}
+		}
+
+		return canSearchPerSegment(shardQuery.getQuery());
+	}
+
+	private boolean canUseFacetCountCache(ShardQuery shardQuery) {
+		// scored queries rarely repeat, filter only queries are the match all and drill down only requests of landing and browse pages
+		return isFilterOnly(shardQuery.getQuery()) && canSearchPerSegment(shardQuery.getQuery());
+	}
+
+	private static boolean isFilterOnly(Query query) {
+		if (query instanceof MatchAllDocsQuery || query instanceof ConstantScoreQuery) {
+			return true;
+		}
+		if (query instanceof BoostQuery boostQuery) {
+			return isFilterOnly(boostQuery.getQuery());
+		}
+		if (query instanceof BooleanQuery booleanQuery) {
+			for (BooleanClause clause : booleanQuery.clauses()) {
+				if (clause.isScoring() && !isFilterOnly(clause.query())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private boolean canSearchPerSegment(Query shardQuery) {
+		for (LeafReaderContext leaf : indexReader.leaves()) {
+			if (!SegmentQueryResultCache.isCacheable(leaf.reader())) {
+				return false;
+			}
+		}
+
+		// vector queries select the top n for the whole shard so they can not be computed per segment
+		boolean[] vectorQuery = new boolean[1];
+		shardQuery.visit(new QueryVisitor() {
+			@Override
+			public void visitLeaf(Query query) {
+				if (query instanceof AbstractKnnVectorQuery || query instanceof RescoreKnnVectorQuery) {
+					vectorQuery[0] = true;
+				}
+			}
+
+			@Override
+			public QueryVisitor getSubVisitor(BooleanClause.Occur occur, Query parent) {
+				return this;
+			}
+		});
+		return !vectorQuery[0];
+	}
+
+	private AggregationHandler countSegmentFacets(ShardQuery shardQuery, IndexSearcher indexSearcher, List<ZuliaQuery.CountRequest> countRequestList,
+			int aggregationConcurrency, AtomicBoolean segmentsTimedOut) throws IOException {
+
+		// one counter per dimension so the cached counts can be reused by requests for any combination of dimensions
+		Map<String, ZuliaQuery.CountRequest> dimensions = new HashMap<>();
+		for (ZuliaQuery.CountRequest countRequest : countRequestList) {
+			dimensions.putIfAbsent(countRequest.getFacetField().getLabel(), countRequest);
+		}
+
+		List<LeafReaderContext> leaves = indexReader.leaves();
+		List<List<CountFacetInfo>> segmentCounts = new ArrayList<>(Collections.nCopies(leaves.size(), null));
+
+		List<Callable<Void>> segmentSearches = new ArrayList<>();
+		for (LeafReaderContext leaf : leaves) {
+			segmentSearches.add(() -> {
+				segmentCounts.set(leaf.ord, countSegmentFacets(shardQuery, leaf, dimensions, segmentsTimedOut));
+				return null;
+			});
+		}
+		indexSearcher.getTaskExecutor().invokeAll(segmentSearches);
+
+		AggregationHandler aggregationHandler = new AggregationHandler(taxoReader, List.of(), countRequestList, indexConfig, aggregationConcurrency);
+		for (List<CountFacetInfo> counts : segmentCounts) {
+			for (CountFacetInfo countFacetInfo : counts) {
+				aggregationHandler.merge(new SegmentAggregation(countFacetInfo, new NumericFieldStatInfo[0]));
+			}
+		}
+		return aggregationHandler;
+	}
+
+	private List<CountFacetInfo> countSegmentFacets(ShardQuery shardQuery, LeafReaderContext leaf, Map<String, ZuliaQuery.CountRequest> dimensions,
+			AtomicBoolean segmentsTimedOut) throws IOException {
+		Query query = shardQuery.getQuery();
+		boolean timedOut = false;
+		List<CountFacetInfo> counts = new ArrayList<>(dimensions.size());
+		List<FacetsCollector.MatchingDocs> matchingDocs = null;
+		for (Map.Entry<String, ZuliaQuery.CountRequest> dimension : dimensions.entrySet()) {
+			CountFacetInfo cachedCounts = segmentFacetCountCache.get(leaf.reader(), query, dimension.getKey());
+			if (cachedCounts != null) {
+				counts.add(cachedCounts);
+				continue;
+			}
+
+			if (matchingDocs == null) {
+				IndexSearcher segmentSearcher = getSegmentSearcher(leaf, shardQuery.getQueryDeadline());
+				matchingDocs = segmentSearcher.search(query, new FacetsCollectorManager()).getMatchingDocs();
+				timedOut = segmentSearcher.timedOut();
+			}
+
+			AggregationHandler dimensionHandler = new AggregationHandler(taxoReader, List.of(), List.of(dimension.getValue()), indexConfig, 1);
+			CountFacetInfo segmentCounts = dimensionHandler.aggregateSegment(matchingDocs).countFacetInfo();
+			if (timedOut) {
+				segmentsTimedOut.set(true);
+			}
+			else {
+				segmentFacetCountCache.put(leaf.reader(), query, dimension.getKey(), segmentCounts);
+			}
+			counts.add(segmentCounts);
+		}
+		return counts;
+	}
+
+	private TopFieldDocs searchSegments(ShardQuery shardQuery, IndexSearcher indexSearcher, Sort sort, int hasMoreAmount,
+			AggregationHandler aggregationHandler, AtomicBoolean segmentsTimedOut) throws IOException {
+
+		QueryCacheKey queryCacheKey = shardQuery.getQueryCacheKey();
+		List<LeafReaderContext> leaves = indexReader.leaves();
+		SegmentQueryResult[] segmentResults = new SegmentQueryResult[leaves.size()];
+
+		List<Callable<Void>> segmentSearches = new ArrayList<>();
+		for (LeafReaderContext leaf : leaves) {
+			SegmentQueryResult cachedResult = segmentQueryResultCache.get(leaf.reader(), hasMoreAmount, queryCacheKey);
+			if (cachedResult != null) {
+				segmentResults[leaf.ord] = cachedResult;
+			}
+			else {
+				segmentSearches.add(() -> {
+					IndexSearcher segmentSearcher = getSegmentSearcher(leaf, shardQuery.getQueryDeadline());
+					segmentSearcher.setSimilarity(indexSearcher.getSimilarity());
+					SegmentQueryResult segmentResult = searchSegment(shardQuery.getQuery(), segmentSearcher, sort, hasMoreAmount, aggregationHandler);
+					if (segmentSearcher.timedOut()) {
+						segmentsTimedOut.set(true);
+					}
+					else {
+						segmentQueryResultCache.put(leaf.reader(), hasMoreAmount, queryCacheKey, segmentResult);
+					}
+					segmentResults[leaf.ord] = segmentResult;
+					return null;
+				});
+			}
+		}
+		indexSearcher.getTaskExecutor().invokeAll(segmentSearches);
+
+		TopFieldDocs[] shardTopDocs = new TopFieldDocs[leaves.size()];
+		for (LeafReaderContext leaf : leaves) {
+			SegmentQueryResult segmentResult = segmentResults[leaf.ord];
+			shardTopDocs[leaf.ord] = toShardDocs(segmentResult.topFieldDocs(), leaf);
+			if (aggregationHandler != null) {
+				aggregationHandler.merge(segmentResult.segmentAggregation());
+			}
+		}
+
+		return TopDocs.merge(sort, hasMoreAmount, shardTopDocs);
+	}
+
+	private IndexSearcher getSegmentSearcher(LeafReaderContext leaf, QueryDeadline queryDeadline) {
+		IndexSearcher segmentSearcher = new IndexSearcher(leaf.reader());
+		shardFilterCache.configure(segmentSearcher);
+		if (queryDeadline != null) {
+			segmentSearcher.setTimeout(queryDeadline);
+		}
+		return segmentSearcher;
+	}
+
+	private SegmentQueryResult searchSegment(Query query, IndexSearcher segmentSearcher, Sort sort, int hasMoreAmount,
+			AggregationHandler aggregationHandler) throws IOException {
+		TopFieldCollectorManager topFieldCollectorManager = new TopFieldCollectorManager(sort, hasMoreAmount, null, Integer.MAX_VALUE);
+		if (aggregationHandler == null) {
+			return new SegmentQueryResult(segmentSearcher.search(query, topFieldCollectorManager), null);
+		}
+
+		Object[] results = segmentSearcher.search(query, new MultiCollectorManager(topFieldCollectorManager, new FacetsCollectorManager()));
+		FacetsCollector facetsCollector = (FacetsCollector) results[1];
+		SegmentAggregation segmentAggregation = aggregationHandler.aggregateSegment(facetsCollector.getMatchingDocs());
+		return new SegmentQueryResult((TopFieldDocs) results[0], segmentAggregation);
+	}
+
+	// cached segment results are shared so copy them with doc ids relative to the shard instead of modifying them
+	private static TopFieldDocs toShardDocs(TopFieldDocs segmentTopDocs, LeafReaderContext leaf) {
+		ScoreDoc[] segmentDocs = segmentTopDocs.scoreDocs;
+		FieldDoc[] shardDocs = new FieldDoc[segmentDocs.length];
+		for (int i = 0; i < segmentDocs.length; i++) {
+			FieldDoc segmentDoc = (FieldDoc) segmentDocs[i];
+			shardDocs[i] = new FieldDoc(leaf.docBase + segmentDoc.doc, segmentDoc.score, segmentDoc.fields, leaf.ord);
+		}
+		return new TopFieldDocs(segmentTopDocs.totalHits, shardDocs, segmentTopDocs.fields);
+	}
+
 	private static void addEmptyFacetAndStatGroups(ZuliaQuery.ShardQueryResponse.Builder shardQueryReponseBuilder,
 			List<ZuliaQuery.CountRequest> countRequestList, List<ZuliaQuery.StatRequest> statRequestList) {
 		for (ZuliaQuery.CountRequest countRequest : countRequestList) {
@@ -480,13 +828,13 @@ public class ShardReader implements AutoCloseable {
 
 	}
 
-	private List<ZuliaHighlighter> getHighlighterList(List<ZuliaQuery.HighlightRequest> highlightRequests, Query q) {
+	private List<DocumentHighlighter> getHighlighterList(List<ZuliaQuery.HighlightRequest> highlightRequests, Query q, IndexSearcher indexSearcher) {
 
 		if (highlightRequests.isEmpty()) {
 			return Collections.emptyList();
 		}
 
-		List<ZuliaHighlighter> highlighterList = new ArrayList<>();
+		List<DocumentHighlighter> highlighterList = new ArrayList<>();
 
 		for (ZuliaQuery.HighlightRequest highlightRequest : highlightRequests) {
 
@@ -498,6 +846,13 @@ public class ShardReader implements AutoCloseable {
 				throw new RuntimeException("Cannot highlight non-indexed field " + indexField);
 			}
 
+			if (indexFieldInfo.getIndexAs() != null && indexFieldInfo.getIndexAs().getStoreOffsets()) {
+				highlighterList.add(new PostingsOffsetHighlighter(indexSearcher, zuliaPerFieldAnalyzer, q, indexField, indexFieldInfo.getStoredFieldName(),
+						highlightRequest.getPreTag(), highlightRequest.getPostTag(), highlightRequest.getNumberOfFragments(),
+						highlightRequest.getFragmentLength()));
+				continue;
+			}
+
 			QueryScorer queryScorer = new QueryScorer(q, highlightRequest.getField());
 			queryScorer.setExpandMultiTermQuery(true);
 			Fragmenter fragmenter = new SimpleSpanFragmenter(queryScorer, highlightRequest.getFragmentLength());
@@ -615,73 +970,75 @@ public class ShardReader implements AutoCloseable {
 				continue;
 			}
 
-			SortFieldInfo sortFieldInfo = indexConfig.getSortFieldInfo(sortField);
+			sortFields.add(getSortField(indexConfig, sortField, reverse, fs.getMissingLast()));
+		}
 
-			if (sortFieldInfo == null) {
-				throw new IllegalArgumentException("Field " + sortField + " must be sortable");
-			}
+		return new Sort(sortFields.toArray(new SortField[0]));
+	}
+
+	/**
+	 * Sort field for a sortable field of the index, used for the sort of a request and for the index sort so they are equal when the request sorts on
+	 * the index sort
+	 */
+	static SortField getSortField(ServerIndexConfig indexConfig, String sortField, boolean reverse, boolean missingLast) throws Exception {
+		SortFieldInfo sortFieldInfo = indexConfig.getSortFieldInfo(sortField);
 
-			FieldType sortFieldType = sortFieldInfo.getFieldType();
-			String internalSortFieldName = sortFieldInfo.getInternalSortFieldName();
+		if (sortFieldInfo == null) {
+			throw new IllegalArgumentException("Field " + sortField + " must be sortable");
+		}
 
-			if (FieldTypeUtil.isStringFieldType(sortFieldType)) {
+		FieldType sortFieldType = sortFieldInfo.getFieldType();
+		String internalSortFieldName = sortFieldInfo.getInternalSortFieldName();
 
-				SortedSetSelector.Type sortedSetSelector = SortedSetSelector.Type.MIN;
-				if (reverse) {
-					sortedSetSelector = SortedSetSelector.Type.MAX;
-				}
+		if (FieldTypeUtil.isStringFieldType(sortFieldType)) {
 
-				SortedSetSortField setSortField = new SortedSetSortField(internalSortFieldName, reverse, sortedSetSelector,
-						!fs.getMissingLast() ? SortField.STRING_FIRST : SortField.STRING_LAST);
-				sortFields.add(setSortField);
+			SortedSetSelector.Type sortedSetSelector = SortedSetSelector.Type.MIN;
+			if (reverse) {
+				sortedSetSelector = SortedSetSelector.Type.MAX;
 			}
-			else {
 
-				SortedNumericSelector.Type sortedNumericSelector = SortedNumericSelector.Type.MIN;
-				if (reverse) {
-					sortedNumericSelector = SortedNumericSelector.Type.MAX;
-				}
+			return new SortedSetSortField(internalSortFieldName, reverse, sortedSetSelector, !missingLast ? SortField.STRING_FIRST : SortField.STRING_LAST);
+		}
+		else {
 
-				Object missingValue;
-				SortField.Type type;
-				if (FieldTypeUtil.isStoredAsInt(sortFieldType)) {
-					type = SortField.Type.INT;
-					missingValue = !fs.getMissingLast() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-				}
-				else if (FieldTypeUtil.isStoredAsLong(sortFieldType)) {
-					type = SortField.Type.LONG;
-					missingValue = !fs.getMissingLast() ? Long.MIN_VALUE : Long.MAX_VALUE;
-				}
-				else if (FieldTypeUtil.isNumericFloatFieldType(sortFieldType)) {
-					type = SortField.Type.FLOAT;
-					missingValue = !fs.getMissingLast() ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
-				}
-				else if (FieldTypeUtil.isNumericDoubleFieldType(sortFieldType)) {
-					type = SortField.Type.DOUBLE;
-					missingValue = !fs.getMissingLast() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
-				}
-				else {
-					throw new Exception("Invalid numeric sort type " + sortFieldType + " for sort field " + sortField);
-				}
+			SortedNumericSelector.Type sortedNumericSelector = SortedNumericSelector.Type.MIN;
+			if (reverse) {
+				sortedNumericSelector = SortedNumericSelector.Type.MAX;
+			}
 
-				sortFields.add(new SortedNumericSortField(internalSortFieldName, type, reverse, sortedNumericSelector, missingValue));
+			Object missingValue;
+			SortField.Type type;
+			if (FieldTypeUtil.isStoredAsInt(sortFieldType)) {
+				type = SortField.Type.INT;
+				missingValue = !missingLast ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+			}
+			else if (FieldTypeUtil.isStoredAsLong(sortFieldType)) {
+				type = SortField.Type.LONG;
+				missingValue = !missingLast ? Long.MIN_VALUE : Long.MAX_VALUE;
+			}
+			else if (FieldTypeUtil.isNumericFloatFieldType(sortFieldType)) {
+				type = SortField.Type.FLOAT;
+				missingValue = !missingLast ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+			}
+			else if (FieldTypeUtil.isNumericDoubleFieldType(sortFieldType)) {
+				type = SortField.Type.DOUBLE;
+				missingValue = !missingLast ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+			}
+			else {
+				throw new Exception("Invalid numeric sort type " + sortFieldType + " for sort field " + sortField);
 			}
 
+			return new SortedNumericSortField(internalSortFieldName, type, reverse, sortedNumericSelector, missingValue);
 		}
-
-		return new Sort(sortFields.toArray(new SortField[0]));
 	}
 
 	public ZuliaBase.ResultDocument getSourceDocument(String uniqueId, ZuliaQuery.FetchType resultFetchType, List<String> fieldsToReturn,
-			List<String> fieldsToMask, boolean realtime) throws Exception {
-
-		ShardQuery shardQuery = ShardQuery.queryById(uniqueId, resultFetchType, fieldsToReturn, fieldsToMask, realtime);
-
-		ZuliaQuery.ShardQueryResponse segmentResponse = this.queryShard(shardQuery);
+			List<String> fieldsToMask) throws Exception {
 
-		List<ZuliaQuery.ScoredResult> scoredResultList = segmentResponse.getScoredResultList();
-		if (!scoredResultList.isEmpty()) {
-			ZuliaQuery.ScoredResult scoredResult = scoredResultList.getFirst();
+		int docId = UniqueIdLookup.lookup(indexReader, uniqueId);
+		if (docId != -1) {
+			ZuliaQuery.ScoredResult scoredResult = getScoredResults(new ScoreDoc[] { new ScoreDoc(docId, 1.0f) }, resultFetchType, fieldsToReturn,
+					fieldsToMask)[0];
 			if (scoredResult.hasResultDocument()) {
 				return scoredResult.getResultDocument();
 			}
@@ -695,13 +1052,12 @@ public class ShardReader implements AutoCloseable {
 	}
 
 	public Map<String, ZuliaBase.ResultDocument> getSourceDocuments(List<String> uniqueIds, ZuliaQuery.FetchType resultFetchType, List<String> fieldsToReturn,
-			List<String> fieldsToMask, boolean realtime) throws Exception {
+			List<String> fieldsToMask) throws Exception {
 
-		ShardQuery shardQuery = ShardQuery.queryByIds(uniqueIds, resultFetchType, fieldsToReturn, fieldsToMask, realtime);
-		ZuliaQuery.ShardQueryResponse segmentResponse = this.queryShard(shardQuery);
+		ScoreDoc[] scoreDocs = UniqueIdLookup.lookup(indexReader, uniqueIds);
 
 		Map<String, ZuliaBase.ResultDocument> results = new HashMap<>(uniqueIds.size());
-		for (ZuliaQuery.ScoredResult scoredResult : segmentResponse.getScoredResultList()) {
+		for (ZuliaQuery.ScoredResult scoredResult : getScoredResults(scoreDocs, resultFetchType, fieldsToReturn, fieldsToMask)) {
 			if (scoredResult.hasResultDocument()) {
 				results.put(scoredResult.getUniqueId(), scoredResult.getResultDocument());
 			}
@@ -714,6 +1070,76 @@ public class ShardReader implements AutoCloseable {
 		return results;
 	}
 
+	/**
+	 * Streams the live documents matching the query in doc id order by walking the matches of each segment, there is no collector, sort or paging
+	 *
+	 * @param query the documents to return, all live documents when null
+	 */
+	public void scan(Query query, ZuliaQuery.FetchType resultFetchType, List<String> fieldsToReturn, List<String> fieldsToMask, int batchSize,
+			Consumer<List<ZuliaBase.ResultDocument>> batchConsumer) throws IOException {
+		Weight weight = null;
+		if (query != null) {
+			IndexSearcher indexSearcher = new IndexSearcher(indexReader);
+			indexSearcher.setQueryCache(null);
+			weight = indexSearcher.createWeight(indexSearcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+		}
+
+		ScoreDoc[] batch = new ScoreDoc[batchSize];
+		int batchCount = 0;
+		for (LeafReaderContext leaf : indexReader.leaves()) {
+			DocIdSetIterator matches;
+			if (weight != null) {
+				Scorer scorer = weight.scorer(leaf);
+				if (scorer == null) {
+					continue;
+				}
+				matches = scorer.iterator();
+			}
+			else {
+				matches = DocIdSetIterator.all(leaf.reader().maxDoc());
+			}
+
+			Bits liveDocs = leaf.reader().getLiveDocs();
+			for (int docId = matches.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = matches.nextDoc()) {
+				if (liveDocs == null || liveDocs.get(docId)) {
+					batch[batchCount++] = new ScoreDoc(leaf.docBase + docId, 1.0f);
+					if (batchCount == batchSize) {
+						batchConsumer.accept(getResultDocuments(batch, batchCount, resultFetchType, fieldsToReturn, fieldsToMask));
+						batchCount = 0;
+					}
+				}
+			}
+		}
+
+		if (batchCount > 0) {
+			batchConsumer.accept(getResultDocuments(batch, batchCount, resultFetchType, fieldsToReturn, fieldsToMask));
+		}
+	}
+
+	private List<ZuliaBase.ResultDocument> getResultDocuments(ScoreDoc[] batch, int batchCount, ZuliaQuery.FetchType resultFetchType,
+			List<String> fieldsToReturn, List<String> fieldsToMask) throws IOException {
+		ZuliaQuery.ScoredResult[] scoredResults = getScoredResults(Arrays.copyOf(batch, batchCount), resultFetchType, fieldsToReturn, fieldsToMask);
+		List<ZuliaBase.ResultDocument> resultDocuments = new ArrayList<>(scoredResults.length);
+		for (ZuliaQuery.ScoredResult scoredResult : scoredResults) {
+			if (scoredResult.hasResultDocument()) {
+				resultDocuments.add(scoredResult.getResultDocument());
+			}
+			else {
+				resultDocuments.add(ZuliaBase.ResultDocument.newBuilder().setUniqueId(scoredResult.getUniqueId()).setIndexName(indexName)
+						.setTimestamp(scoredResult.getTimestamp()).build());
+			}
+		}
+		return resultDocuments;
+	}
+
+	private ZuliaQuery.ScoredResult[] getScoredResults(ScoreDoc[] scoreDocs, ZuliaQuery.FetchType resultFetchType, List<String> fieldsToReturn,
+			List<String> fieldsToMask) throws IOException {
+		// reads the stored document doc values of the looked up documents directly, fetches by id do not go through the searcher or the query caches
+		DocumentScoredDocLeafHandler documentScoredDocLeafHandler = new DocumentScoredDocLeafHandler(indexName, shardNumber, resultFetchType, fieldsToReturn,
+				fieldsToMask, List.of(), List.of(), List.of());
+		return documentScoredDocLeafHandler.handle(indexReader, scoreDocs, ZuliaQuery.ScoredResult[]::new);
+	}
+
 	public int docFreq(String field, String term) throws IOException {
 		return indexReader.docFreq(new Term(field, term));
 	}
@@ -756,7 +1182,8 @@ public class ShardReader implements AutoCloseable {
 				tr = taxoReader;
 			}
 
-			return new ShardReader(shardNumber, r, tr, indexConfig, zuliaPerFieldAnalyzer, segmentOpenExecutor);
+			return new ShardReader(shardNumber, r, tr, indexConfig, zuliaPerFieldAnalyzer, segmentOpenExecutor, segmentQueryResultCache,
+					segmentFacetCountCache, shardFilterCache);
 		}
 
 	}
@@ -766,9 +1193,7 @@ public class ShardReader implements AutoCloseable {
 		for (LeafReaderContext leaf : indexReader.leaves()) {
 			LeafReader leafReader = leaf.reader();
 
-			BinaryDocValues idDocValues = leafReader.getBinaryDocValues(ZuliaFieldConstants.STORED_ID_FIELD);
-			BinaryDocValues metaDocValues = leafReader.getBinaryDocValues(ZuliaFieldConstants.STORED_META_FIELD);
-			BinaryDocValues fullDocValues = leafReader.getBinaryDocValues(ZuliaFieldConstants.STORED_DOC_FIELD);
+			StoredDocumentReader storedDocumentReader = new StoredDocumentReader(leafReader, true, true);
 
 			Bits leafLiveDocs = leafReader.getLiveDocs();
 			DocIdSetIterator allDocs = DocIdSetIterator.range(leaf.docBase, leaf.docBase + leafReader.maxDoc());
@@ -785,12 +1210,10 @@ public class ShardReader implements AutoCloseable {
 
 			while ((docId = allDocs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
 				docId = docId - leaf.docBase;
-				idDocValues.advanceExact(docId);
-
-				BytesRef meta = (metaDocValues != null && metaDocValues.advanceExact(docId)) ? metaDocValues.binaryValue() : null;
-				BytesRef fullDoc = (fullDocValues != null && fullDocValues.advanceExact(docId)) ? fullDocValues.binaryValue() : null;
+				storedDocumentReader.advanceExact(docId);
 
-				documentConsumer.accept(new ReIndexContainer(idDocValues.binaryValue(), meta, fullDoc));
+				documentConsumer.accept(
+						new ReIndexContainer(storedDocumentReader.getIdInfo(), storedDocumentReader.getMeta(), storedDocumentReader.getFullDoc()));
 			}
 
 		}
@@ -800,6 +1223,9 @@ public class ShardReader implements AutoCloseable {
 		ZuliaBase.ShardCacheStats.Builder b = ZuliaBase.ShardCacheStats.newBuilder();
 		b.setGeneralCache(getCacheStats(queryResultCache.synchronous()).setResultSize(queryResultCacheSize.get()));
 		b.setPinnedCache(getCacheStats(pinnedQueryResultCache.synchronous()).setResultSize(pinnedQueryResultCacheSize.get()));
+		b.setSegmentCache(segmentQueryResultCache.getCacheStats());
+		b.setFilterCache(shardFilterCache.getCacheStats());
+		b.setFacetCountCache(segmentFacetCountCache.getCacheStats());
 		return b;
 	}
 
@@ -0,0 +1,357 @@
+package io.zulia.server.index;
+
+import com.google.protobuf.ByteString;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardRequest;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardResponse;
+import io.zulia.message.ZuliaServiceOuterClass.ShardCommit;
+import io.zulia.message.ZuliaServiceOuterClass.ShardFile;
+import io.zulia.server.analysis.ZuliaPerFieldAnalyzer;
+import io.zulia.server.config.ServerIndexConfig;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Replica shard that does not index documents itself.  The files of the last commit of the primary shard are copied incrementally into the local
+ * directories and the shard reader is reopened on the copied commit.
+ */
+public class ShardReplicaManager extends ShardManager {
+
+	private final static Logger LOG = LoggerFactory.getLogger(ShardReplicaManager.class);
+
+	private static final String TEMP_SUFFIX = ".replicating";
+
+	/**
+	 * Requests the last commit of the primary shard and passes every response to the receiver
+	 */
+	@FunctionalInterface
+	public interface ShardCommitSource {
+		void replicate(InternalReplicateShardRequest request, ShardCommitReceiver receiver) throws Exception;
+	}
+
+	@FunctionalInterface
+	public interface ShardCommitReceiver {
+		void receive(InternalReplicateShardResponse response) throws IOException;
+	}
+
+	private final Directory indexDirectory;
+	private final Directory taxoDirectory;
+	private final ReentrantLock replicationLock;
+
+	private volatile Map<String, ShardFile> indexFiles;
+	private volatile Map<String, ShardFile> taxoFiles;
+
+	public ShardReplicaManager(int shardNumber, Path pathToIndex, Path pathToTaxoIndex, ServerIndexConfig indexConfig,
+			ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer) throws IOException {
+		super(shardNumber, pathToIndex, pathToTaxoIndex, indexConfig, zuliaPerFieldAnalyzer);
+
+		Files.createDirectories(pathToIndex);
+		Files.createDirectories(pathToTaxoIndex);
+		this.indexDirectory = MMapDirectory.open(pathToIndex);
+		this.taxoDirectory = MMapDirectory.open(pathToTaxoIndex);
+		this.replicationLock = new ReentrantLock();
+
+		deleteTempFiles();
+
+		// empty commits until the first replication so the shard can be searched right away
+		if (!DirectoryReader.indexExists(taxoDirectory)) {
+			try (DirectoryTaxonomyWriter taxoWriter = new DirectoryTaxonomyWriter(taxoDirectory)) {
+				taxoWriter.commit();
+			}
+		}
+		if (!DirectoryReader.indexExists(indexDirectory)) {
+			try (IndexWriter indexWriter = new IndexWriter(indexDirectory, new IndexWriterConfig().setOpenMode(IndexWriterConfig.OpenMode.CREATE))) {
+				indexWriter.commit();
+			}
+		}
+
+		this.taxoFiles = readCommitFiles(taxoDirectory, true);
+		this.indexFiles = readCommitFiles(indexDirectory, false);
+	}
+
+	private static Map<String, ShardFile> readCommitFiles(Directory directory, boolean taxonomy) throws IOException {
+		Map<String, ShardFile> commitFiles = new ConcurrentHashMap<>();
+		for (String fileName : SegmentInfos.readLatestCommit(directory).files(true)) {
+			try (IndexInput input = directory.openInput(fileName, IOContext.READONCE)) {
+				commitFiles.put(fileName, ShardFile.newBuilder().setFileName(fileName).setTaxonomy(taxonomy).setLength(input.length())
+						.setChecksum(CodecUtil.retrieveChecksum(input)).build());
+			}
+		}
+		return commitFiles;
+	}
+
+	@Override
+	public ShardReader createShardReader() throws IOException {
+		DirectoryReader indexReader = DirectoryReader.open(indexDirectory);
+		DirectoryTaxonomyReader taxoReader = new DirectoryTaxonomyReader(taxoDirectory);
+		return createShardReader(indexReader, taxoReader);
+	}
+
+	/**
+	 * Copies the files of the last primary commit that are missing locally and publishes the commit
+	 *
+	 * @return true if a new commit was published and the shard reader needs to be reopened, false if the replica is current or a replication is already running
+	 */
+	public boolean replicate(ShardCommitSource shardCommitSource) throws Exception {
+		if (!replicationLock.tryLock()) {
+			return false;
+		}
+
+		try {
+			InternalReplicateShardRequest.Builder request = InternalReplicateShardRequest.newBuilder().setIndexName(indexName).setShardNumber(shardNumber);
+			request.addAllExistingFile(taxoFiles.values());
+			request.addAllExistingFile(indexFiles.values());
+
+			ReplicationSession replicationSession = new ReplicationSession();
+			try {
+				shardCommitSource.replicate(request.build(), replicationSession::receive);
+				return replicationSession.publish();
+			}
+			finally {
+				replicationSession.cleanup();
+			}
+		}
+		finally {
+			replicationLock.unlock();
+		}
+	}
+
+	/**
+	 * Deletes the files that are no longer part of the local commit.  Should be called after the shard reader is reopened so files are not deleted from under
+	 * open readers.
+	 */
+	public void deleteObsoleteFiles() {
+		deleteObsoleteFiles(taxoDirectory, taxoFiles);
+		deleteObsoleteFiles(indexDirectory, indexFiles);
+	}
+
+	private void deleteObsoleteFiles(Directory directory, Map<String, ShardFile> commitFiles) {
+		try {
+			for (String fileName : directory.listAll()) {
+				if (!commitFiles.containsKey(fileName) && !fileName.endsWith(TEMP_SUFFIX) && !fileName.equals(IndexWriter.WRITE_LOCK_NAME)) {
+					try {
+						directory.deleteFile(fileName);
+					}
+					catch (IOException e) {
+						// can still be held by a reader that has not been closed yet, retried after the next replication
+						LOG.debug("Failed to delete obsolete file {} for index {}:s{}: {}", fileName, indexName, shardNumber, e.getMessage());
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			LOG.warn("Failed to list files for index {}:s{}: {}", indexName, shardNumber, e.getMessage());
+		}
+	}
+
+	private void deleteTempFiles() throws IOException {
+		for (Path directory : List.of(pathToIndex, pathToTaxoIndex)) {
+			try (var files = Files.list(directory)) {
+				for (Path file : files.filter(p -> p.getFileName().toString().endsWith(TEMP_SUFFIX)).toList()) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	private Path getPath(ShardFile shardFile) {
+		return shardFile.getTaxonomy() ? pathToTaxoIndex : pathToIndex;
+	}
+
+	private boolean isLocal(ShardFile shardFile) {
+		Map<String, ShardFile> localFiles = shardFile.getTaxonomy() ? taxoFiles : indexFiles;
+		return shardFile.equals(localFiles.get(shardFile.getFileName()));
+	}
+
+	@Override
+	public void close() throws IOException {
+		super.close();
+		indexDirectory.close();
+		taxoDirectory.close();
+	}
+
+	private class ReplicationSession {
+
+		private final Map<ShardFile, Path> copiedFiles;
+		private ShardCommit shardCommit;
+		private ShardFileCopy currentFile;
+
+		private ReplicationSession() {
+			this.copiedFiles = new LinkedHashMap<>();
+		}
+
+		private void receive(InternalReplicateShardResponse response) throws IOException {
+			if (response.hasShardCommit()) {
+				shardCommit = response.getShardCommit();
+				boolean current = shardCommit.getShardFileList().stream().allMatch(ShardReplicaManager.this::isLocal);
+				if (!current) {
+					lastChange = System.currentTimeMillis();
+				}
+			}
+
+			if (!response.getData().isEmpty()) {
+				ShardFile shardFile = response.getShardFile();
+				if (currentFile == null || !currentFile.getShardFile().equals(shardFile)) {
+					finishCurrentFile();
+					currentFile = new ShardFileCopy(getPath(shardFile), shardFile);
+				}
+				currentFile.write(response.getData());
+			}
+		}
+
+		private void finishCurrentFile() throws IOException {
+			if (currentFile != null) {
+				copiedFiles.put(currentFile.getShardFile(), currentFile.finish());
+				currentFile = null;
+			}
+		}
+
+		private boolean publish() throws IOException {
+			if (shardCommit == null) {
+				throw new IOException("No commit was received from the primary of index " + indexName + ":s" + shardNumber);
+			}
+
+			finishCurrentFile();
+
+			if (copiedFiles.isEmpty() && shardCommit.getShardFileList().stream().allMatch(ShardReplicaManager.this::isLocal)) {
+				return false;
+			}
+
+			for (ShardFile shardFile : shardCommit.getShardFileList()) {
+				if (!copiedFiles.containsKey(shardFile) && !isLocal(shardFile)) {
+					throw new IOException("File " + shardFile.getFileName() + " of the commit was not received for index " + indexName + ":s" + shardNumber);
+				}
+			}
+
+			// the segments files are moved last so a commit is only visible once all of its files are in place
+			List<ShardFile> segmentsFiles = new ArrayList<>();
+			for (Map.Entry<ShardFile, Path> copiedFile : copiedFiles.entrySet()) {
+				ShardFile shardFile = copiedFile.getKey();
+				String segmentsFileName = shardFile.getTaxonomy() ? shardCommit.getTaxoSegmentsFileName() : shardCommit.getIndexSegmentsFileName();
+				if (shardFile.getFileName().equals(segmentsFileName)) {
+					segmentsFiles.add(shardFile);
+				}
+				else {
+					moveIntoPlace(shardFile, copiedFile.getValue());
+				}
+			}
+			IOUtils.fsync(pathToTaxoIndex, true);
+			IOUtils.fsync(pathToIndex, true);
+
+			// taxonomy before index so the index never references ordinals that are missing from the taxonomy
+			segmentsFiles.sort(Comparator.comparing(ShardFile::getTaxonomy).reversed());
+			for (ShardFile segmentsFile : segmentsFiles) {
+				moveIntoPlace(segmentsFile, copiedFiles.get(segmentsFile));
+				IOUtils.fsync(getPath(segmentsFile), true);
+			}
+
+			Map<String, ShardFile> newTaxoFiles = new ConcurrentHashMap<>();
+			Map<String, ShardFile> newIndexFiles = new ConcurrentHashMap<>();
+			for (ShardFile shardFile : shardCommit.getShardFileList()) {
+				(shardFile.getTaxonomy() ? newTaxoFiles : newIndexFiles).put(shardFile.getFileName(), shardFile);
+			}
+			taxoFiles = newTaxoFiles;
+			indexFiles = newIndexFiles;
+			copiedFiles.clear();
+
+			lastCommit = System.currentTimeMillis();
+			return true;
+		}
+
+		private void moveIntoPlace(ShardFile shardFile, Path tempFile) throws IOException {
+			Files.move(tempFile, getPath(shardFile).resolve(shardFile.getFileName()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		private void cleanup() {
+			if (currentFile != null) {
+				currentFile.abort();
+			}
+			for (Path tempFile : copiedFiles.values()) {
+				try {
+					Files.deleteIfExists(tempFile);
+				}
+				catch (IOException e) {
+					LOG.warn("Failed to delete temp file {}: {}", tempFile, e.getMessage());
+				}
+			}
+		}
+	}
+
+	private static class ShardFileCopy {
+
+		private final ShardFile shardFile;
+		private final Path tempFile;
+		private final OutputStream outputStream;
+		private final CRC32 crc;
+		private long written;
+
+		private ShardFileCopy(Path directory, ShardFile shardFile) throws IOException {
+			this.shardFile = shardFile;
+			this.tempFile = directory.resolve(shardFile.getFileName() + TEMP_SUFFIX);
+			this.outputStream = Files.newOutputStream(tempFile);
+			this.crc = new CRC32();
+		}
+
+		public ShardFile getShardFile() {
+			return shardFile;
+		}
+
+		private void write(ByteString data) throws IOException {
+			// the checksum in the footer covers everything in the file except the checksum itself (last 8 bytes)
+			long checksummedLength = shardFile.getLength() - Long.BYTES;
+			if (written < checksummedLength) {
+				int checksummed = (int) Math.min(data.size(), checksummedLength - written);
+				crc.update(data.substring(0, checksummed).asReadOnlyByteBuffer());
+			}
+			data.writeTo(outputStream);
+			written += data.size();
+		}
+
+		private Path finish() throws IOException {
+			outputStream.close();
+			if (written != shardFile.getLength()) {
+				throw new IOException("Received " + written + " bytes for file " + shardFile.getFileName() + " but expected " + shardFile.getLength());
+			}
+			if (crc.getValue() != shardFile.getChecksum()) {
+				throw new IOException("Checksum mismatch for file " + shardFile.getFileName());
+			}
+			IOUtils.fsync(tempFile, false);
+			return tempFile;
+		}
+
+		private void abort() {
+			try {
+				outputStream.close();
+				Files.deleteIfExists(tempFile);
+			}
+			catch (IOException e) {
+				LOG.warn("Failed to delete temp file {}: {}", tempFile, e.getMessage());
+			}
+		}
+	}
+}
@@ -1,18 +1,30 @@
 package io.zulia.server.index;
 
 import io.zulia.ZuliaFieldConstants;
+import io.zulia.message.ZuliaBase;
+import io.zulia.message.ZuliaIndex;
+import io.zulia.message.ZuliaServiceOuterClass;
 import io.zulia.server.analysis.ZuliaPerFieldAnalyzer;
 import io.zulia.server.config.ServerIndexConfig;
 import io.zulia.server.index.cache.ZuliaTaxonomyWriterCache;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
-import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.index.CodecReader;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.KeepOnlyLastCommitDeletionPolicy;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SlowCodecReaderWrapper;
+import org.apache.lucene.index.SnapshotDeletionPolicy;
+import org.apache.lucene.index.SortingCodecReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.store.NRTCachingDirectory;
@@ -20,35 +32,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
 
-public class ShardWriteManager {
+public class ShardWriteManager extends ShardManager {
 
 	private final static Logger LOG = LoggerFactory.getLogger(ShardWriteManager.class);
 
-	private final ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer;
+	private final static int MAX_DOCUMENTS_IN_FLIGHT = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
 	private final ShardDocumentIndexer shardDocumentIndexer;
-	private final ServerIndexConfig indexConfig;
-	private final int shardNumber;
-	private final String indexName;
 	private final AtomicLong counter;
 	private final ZuliaConcurrentMergeScheduler mergeScheduler;
 	private final Semaphore indexingThrottle;
 
+	private final SnapshotDeletionPolicy indexDeletionPolicy;
 	private final IndexWriter indexWriter;
-	private final DirectoryTaxonomyWriter taxoWriter;
-	private final ExecutorService segmentOpenExecutor;
-	private final Path pathToIndex;
-	private final Path pathToTaxoIndex;
-
-	private Long lastCommit;
-	private Long lastChange;
-	private Long lastWarm;
+	private final SnapshotTaxonomyWriter taxoWriter;
+	private final ZuliaTaxonomyWriterCache taxonomyWriterCache;
+	private final ExecutorService conversionExecutor;
+	private final Map<String, ZuliaServiceOuterClass.ShardFile> indexFileCache;
+	private final Map<String, ZuliaServiceOuterClass.ShardFile> taxoFileCache;
 
 	private final AtomicLong totalIndexedUnthrottled;
 	private final AtomicLong totalIndexedThrottled;
@@ -56,41 +69,35 @@ public class ShardWriteManager {
 	public ShardWriteManager(int shardNumber, Path pathToIndex, Path pathToTaxoIndex, ServerIndexConfig indexConfig,
 			ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer) throws IOException {
 
-		this.shardNumber = shardNumber;
-		this.zuliaPerFieldAnalyzer = zuliaPerFieldAnalyzer;
-		this.indexConfig = indexConfig;
-		this.indexName = indexConfig.getIndexName();
+		super(shardNumber, pathToIndex, pathToTaxoIndex, indexConfig, zuliaPerFieldAnalyzer);
 
 		this.shardDocumentIndexer = new ShardDocumentIndexer(indexConfig);
 
 		this.counter = new AtomicLong();
-		this.lastCommit = null;
-		this.lastChange = null;
-		this.lastWarm = null;
 
 		this.totalIndexedUnthrottled = new AtomicLong();
 		this.totalIndexedThrottled = new AtomicLong();
 		this.indexingThrottle = new Semaphore(1);
 		this.mergeScheduler = new ZuliaConcurrentMergeScheduler();
 
-		this.pathToIndex = pathToIndex;
-		this.pathToTaxoIndex = pathToTaxoIndex;
+		this.indexDeletionPolicy = new SnapshotDeletionPolicy(new KeepOnlyLastCommitDeletionPolicy());
 		this.indexWriter = openIndexWriter(pathToIndex);
+		this.taxonomyWriterCache = new ZuliaTaxonomyWriterCache(indexConfig.getTaxonomyCacheSizeMB() * 1024L * 1024L);
 		this.taxoWriter = openTaxoWriter(pathToTaxoIndex);
-		this.segmentOpenExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(indexName + ":s" + shardNumber + "-segment-", 0).factory());
+		this.conversionExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(indexName + ":s" + shardNumber + "-convert-", 0).factory());
+		this.indexFileCache = new ConcurrentHashMap<>();
+		this.taxoFileCache = new ConcurrentHashMap<>();
+
+		// replicas copy the last commit so a new shard needs one before anything is indexed
+		if (!DirectoryReader.indexExists(indexWriter.getDirectory())) {
+			taxoWriter.commit();
+			indexWriter.commit();
+		}
 
 		updateIndexSettings();
 
 	}
 
-	public int getShardNumber() {
-		return shardNumber;
-	}
-
-	public ServerIndexConfig getIndexConfig() {
-		return indexConfig;
-	}
-
 	private IndexWriter openIndexWriter(Path pathToIndex) throws IOException {
 
 		Directory d = MMapDirectory.open(pathToIndex);
@@ -102,35 +109,101 @@ public class ShardWriteManager {
 		tieredMergePolicy.setMaxMergeAtOnce(4);
 		tieredMergePolicy.setDeletesPctAllowed(0.15);
 		config.setMergePolicy(tieredMergePolicy);
-		config.setIndexDeletionPolicy(new KeepOnlyLastCommitDeletionPolicy());
+		config.setIndexDeletionPolicy(indexDeletionPolicy);
 		config.setMaxBufferedDocs(Integer.MAX_VALUE);
 		config.setRAMBufferSizeMB(128); // should be overwritten by ZuliaShard.updateIndexSettings()
 		config.setUseCompoundFile(false);
 
 		config.setMergeScheduler(mergeScheduler);
+		config.setCodec(new ZuliaCodec(indexConfig));
+
+		Sort indexSort = getIndexSort();
+		if (indexSort != null) {
+			config.setIndexSort(indexSort);
+		}
 
 		NRTCachingDirectory nrtCachingDirectory = new NRTCachingDirectory(d, 50, 150);
 
+		if (indexSort != null && isSortedDifferently(nrtCachingDirectory, indexSort)) {
+			// segments of one index must share the same index sort so the last commit is rewritten in the new sort.  The old commit is kept until
+			// the rewritten one is committed so a failure part way leaves the shard as it was
+			LOG.info("Rewriting index {}:s{} in index sort {}", indexName, shardNumber, indexSort);
+			config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+			IndexWriter indexWriter = new IndexWriter(nrtCachingDirectory, config);
+			try (DirectoryReader directoryReader = DirectoryReader.open(nrtCachingDirectory)) {
+				List<LeafReaderContext> leaves = directoryReader.leaves();
+				CodecReader[] sortedReaders = new CodecReader[leaves.size()];
+				for (int i = 0; i < leaves.size(); i++) {
+					sortedReaders[i] = SortingCodecReader.wrap(SlowCodecReaderWrapper.wrap(leaves.get(i).reader()), indexSort);
+				}
+				indexWriter.addIndexes(sortedReaders);
+				indexWriter.commit();
+			}
+			catch (IOException | RuntimeException e) {
+				indexWriter.rollback();
+				throw e;
+			}
+			return indexWriter;
+		}
+
 		return new IndexWriter(nrtCachingDirectory, config);
 
 	}
 
-	private DirectoryTaxonomyWriter openTaxoWriter(Path pathToTaxo) throws IOException {
+	private Sort getIndexSort() throws IOException {
+		List<ZuliaIndex.IndexSortField> indexSortList = indexConfig.getIndexSettings().getIndexSortList();
+		if (indexSortList.isEmpty()) {
+			return null;
+		}
+
+		SortField[] sortFields = new SortField[indexSortList.size()];
+		for (int i = 0; i < indexSortList.size(); i++) {
+			ZuliaIndex.IndexSortField indexSortField = indexSortList.get(i);
+			try {
+				sortFields[i] = ShardReader.getSortField(indexConfig, indexSortField.getSortField(), indexSortField.getDescending(),
+						indexSortField.getMissingLast());
+			}
+			catch (Exception e) {
+				throw new IOException("Invalid index sort field <" + indexSortField.getSortField() + "> for index <" + indexName + ">", e);
+			}
+		}
+		return new Sort(sortFields);
+	}
+
+	private static boolean isSortedDifferently(Directory directory, Sort indexSort) throws IOException {
+		if (!DirectoryReader.indexExists(directory)) {
+			return false;
+		}
+		SegmentInfos segmentInfos = SegmentInfos.readLatestCommit(directory);
+		for (SegmentCommitInfo segmentCommitInfo : segmentInfos) {
+			if (!indexSort.equals(segmentCommitInfo.info.getIndexSort())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true when the index sort of the settings is not the sort the writer was opened with and the shard has to be reopened to apply it
+	 */
+	public boolean isIndexSortOutdated() throws IOException {
+		return !Objects.equals(getIndexSort(), indexWriter.getConfig().getIndexSort());
+	}
+
+	private SnapshotTaxonomyWriter openTaxoWriter(Path pathToTaxo) throws IOException {
 		Directory d = MMapDirectory.open(pathToTaxo);
 		NRTCachingDirectory nrtCachingDirectory = new NRTCachingDirectory(d, 5, 15);
-		return new DirectoryTaxonomyWriter(nrtCachingDirectory, IndexWriterConfig.OpenMode.CREATE_OR_APPEND, new ZuliaTaxonomyWriterCache());
+		return new SnapshotTaxonomyWriter(nrtCachingDirectory, taxonomyWriterCache);
 	}
 
-	public long getSizeOnDiskBytes() throws IOException {
-		try (var indexFiles = Files.list(pathToIndex); var taxoFiles = Files.list(pathToTaxoIndex)) {
-			long indexSize = indexFiles.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
-			long taxoSize = taxoFiles.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
-			return indexSize + taxoSize;
-		}
+	public ZuliaBase.CacheStats.Builder getTaxonomyCacheStats() {
+		return taxonomyWriterCache.getCacheStats();
 	}
 
+	@Override
 	public void close() throws IOException {
-		segmentOpenExecutor.close();
+		super.close();
+		conversionExecutor.close();
 		{
 			Directory directory = indexWriter.getDirectory();
 			indexWriter.close();
@@ -144,26 +217,64 @@ public class ShardWriteManager {
 		}
 	}
 
+	@Override
 	public ShardReader createShardReader() throws IOException {
 		DirectoryReader indexReader = DirectoryReader.open(indexWriter);
 		DirectoryTaxonomyReader taxoReader = new DirectoryTaxonomyReader(taxoWriter);
-		taxoReader.setCacheSize(128000);
-		return new ShardReader(shardNumber, indexReader, taxoReader, indexConfig, zuliaPerFieldAnalyzer, segmentOpenExecutor);
+		return createShardReader(indexReader, taxoReader);
 	}
 
-	public void commit() throws IOException {
+	public synchronized void commit() throws IOException {
 		long indexedThrottled = totalIndexedThrottled.get();
 		long indexedUntrottled = totalIndexedUnthrottled.get();
 		LOG.info("Committing index {}:s{} with {} total indexed ({} indexed throttled)", indexName, shardNumber, indexedUntrottled + indexedThrottled,
 				indexedThrottled);
 
 		long currentTime = System.currentTimeMillis();
-		indexWriter.commit();
+		// taxonomy first so a committed index never references ordinals missing from the committed taxonomy
 		taxoWriter.commit();
+		indexWriter.commit();
 
 		lastCommit = currentTime;
 	}
 
+	/**
+	 * Keeps the files of the last taxonomy and index commit from being deleted until the snapshot is closed so they can be copied to a replica
+	 */
+	public ShardCommitSnapshot snapshotCommit() throws IOException {
+		IndexCommit taxoCommit;
+		IndexCommit indexCommit;
+		synchronized (this) {
+			taxoCommit = taxoWriter.getDeletionPolicy().snapshot();
+			try {
+				indexCommit = indexDeletionPolicy.snapshot();
+			}
+			catch (IOException | RuntimeException e) {
+				releaseCommit(null, taxoCommit);
+				throw e;
+			}
+		}
+
+		try {
+			return new ShardCommitSnapshot(this, indexCommit, taxoCommit, indexFileCache, taxoFileCache);
+		}
+		catch (IOException | RuntimeException e) {
+			releaseCommit(indexCommit, taxoCommit);
+			throw e;
+		}
+	}
+
+	void releaseCommit(IndexCommit indexCommit, IndexCommit taxoCommit) throws IOException {
+		if (indexCommit != null) {
+			indexDeletionPolicy.release(indexCommit);
+			indexWriter.deleteUnusedFiles();
+		}
+		if (taxoCommit != null) {
+			taxoWriter.getDeletionPolicy().release(taxoCommit);
+			taxoWriter.deleteUnusedFiles();
+		}
+	}
+
 	public boolean needsIdleCommit() {
 		long currentTime = System.currentTimeMillis();
 
@@ -183,59 +294,25 @@ public class ShardWriteManager {
 		return false;
 	}
 
-	WarmInfo needsSearchWarming(long lastestShardTime) {
-		long currentTime = System.currentTimeMillis();
-
-		//reassign so it can't change in the middle of the logic
-		Long lastChange = this.lastChange;
-		Long lastCommit = this.lastCommit;
-		Long lastWarm = this.lastWarm;
-
-		if (lastWarm == null) {
-			// never warmed so needs warmed and the index is idle
-			boolean idle = lastChange == null || (Math.abs(currentTime - lastChange) > 1000L && (lastCommit == null || (lastCommit > lastChange)));
-			return new WarmInfo(idle, lastChange, lastCommit);
-		}
-
-		if (lastCommit != null && lastChange != null) { // if there has been a change to the index and a commit
-			if (lastChange < lastCommit) { // no changes since last commit
-				if (lastWarm < lastestShardTime) { // Change is committed AND shard reader has been reopened
-					return new WarmInfo(true, lastChange, lastCommit);
-				}
-			}
-		}
-
-		return new WarmInfo(false, lastChange, lastCommit);
-	}
-
-	public Long getLastChanged() {
-		return lastChange;
-	}
-
-	public Long getLastCommit() {
-		return lastCommit;
-	}
-
-	public Long getLastWarm() {
-		return lastWarm;
-	}
-
-	public void searchesWarmed(long time) {
-		lastWarm = time;
+	public boolean markedChangedCheckIfCommitNeeded() {
+		return markedChangedCheckIfCommitNeeded(1);
 	}
 
-	public boolean markedChangedCheckIfCommitNeeded() {
+	public boolean markedChangedCheckIfCommitNeeded(int changes) {
 		lastChange = System.currentTimeMillis();
 
-		long count = counter.incrementAndGet();
-		return (count % indexConfig.getIndexSettings().getShardCommitInterval()) == 0;
+		long count = counter.addAndGet(changes);
+		int shardCommitInterval = indexConfig.getIndexSettings().getShardCommitInterval();
+		// true when this batch of changes crossed a commit interval boundary
+		return (count / shardCommitInterval) != ((count - changes) / shardCommitInterval);
 
 	}
 
+	@Override
 	public void updateIndexSettings() {
 		int ramBufferMB = indexConfig.getRAMBufferMB() != 0 ? indexConfig.getRAMBufferMB() : 128;
 		indexWriter.getConfig().setRAMBufferSizeMB(ramBufferMB);
-		lastWarm = null;
+		super.updateIndexSettings();
 	}
 
 	public void deleteDocuments(String uniqueId) throws IOException {
@@ -254,6 +331,43 @@ public class ShardWriteManager {
 
 	public void indexDocument(String uniqueId, long timestamp, DocumentContainer mongoDocument, DocumentContainer metadata) throws Exception {
 		Document luceneDocument = shardDocumentIndexer.getIndexDocument(uniqueId, timestamp, mongoDocument, metadata, taxoWriter);
+		writeDocument(uniqueId, luceneDocument);
+	}
+
+	public void indexDocuments(List<ShardDocument> shardDocuments, long timestamp) throws Exception {
+		try (ShardIndexingPipeline indexingPipeline = createIndexingPipeline()) {
+			for (ShardDocument shardDocument : shardDocuments) {
+				indexingPipeline.submit(shardDocument, timestamp);
+			}
+			indexingPipeline.finish();
+		}
+	}
+
+	public ShardIndexingPipeline createIndexingPipeline() {
+		return new ShardIndexingPipeline(this, MAX_DOCUMENTS_IN_FLIGHT, null, null);
+	}
+
+	/**
+	 * @param writeLock   held while a document is checked with the write filter and written
+	 * @param writeFilter checked for the unique id right before its document is written, documents it rejects are dropped
+	 */
+	public ShardIndexingPipeline createIndexingPipeline(Lock writeLock, Predicate<String> writeFilter) {
+		return new ShardIndexingPipeline(this, MAX_DOCUMENTS_IN_FLIGHT, writeLock, writeFilter);
+	}
+
+	ExecutorService getConversionExecutor() {
+		return conversionExecutor;
+	}
+
+	boolean mergeSaturated() {
+		return mergeScheduler.mergeSaturated();
+	}
+
+	Document getIndexDocument(ShardDocument shardDocument, long timestamp) throws Exception {
+		return shardDocumentIndexer.getIndexDocument(shardDocument.uniqueId(), timestamp, shardDocument.document(), shardDocument.metadata(), taxoWriter);
+	}
+
+	void writeDocument(String uniqueId, Document luceneDocument) throws Exception {
 		Term updateQuery = new Term(ZuliaFieldConstants.ID_FIELD, uniqueId);
 
 		if (mergeScheduler.mergeSaturated()) {
@@ -270,7 +384,6 @@ public class ShardWriteManager {
 			indexWriter.updateDocument(updateQuery, luceneDocument);
 			totalIndexedUnthrottled.incrementAndGet();
 		}
-
 	}
 
 }
@@ -0,0 +1,46 @@
+package io.zulia.server.index;
+
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.facet.taxonomy.writercache.TaxonomyWriterCache;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SnapshotDeletionPolicy;
+import org.apache.lucene.store.Directory;
+
+import java.io.IOException;
+
+/**
+ * Taxonomy writer that allows its last commit to be snapshotted while the files are copied to a replica
+ */
+class SnapshotTaxonomyWriter extends DirectoryTaxonomyWriter {
+
+	// assigned from the super constructor so these must not have initializers
+	private SnapshotDeletionPolicy deletionPolicy;
+	private IndexWriter indexWriter;
+
+	SnapshotTaxonomyWriter(Directory directory, TaxonomyWriterCache cache) throws IOException {
+		super(directory, IndexWriterConfig.OpenMode.CREATE_OR_APPEND, cache);
+	}
+
+	@Override
+	protected IndexWriterConfig createIndexWriterConfig(IndexWriterConfig.OpenMode openMode) {
+		IndexWriterConfig config = super.createIndexWriterConfig(openMode);
+		deletionPolicy = new SnapshotDeletionPolicy(config.getIndexDeletionPolicy());
+		config.setIndexDeletionPolicy(deletionPolicy);
+		return config;
+	}
+
+	@Override
+	protected IndexWriter openIndexWriter(Directory directory, IndexWriterConfig config) throws IOException {
+		indexWriter = super.openIndexWriter(directory, config);
+		return indexWriter;
+	}
+
+	SnapshotDeletionPolicy getDeletionPolicy() {
+		return deletionPolicy;
+	}
+
+	void deleteUnusedFiles() throws IOException {
+		indexWriter.deleteUnusedFiles();
+	}
+}
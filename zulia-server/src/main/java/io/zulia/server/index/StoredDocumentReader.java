@@ -0,0 +1,124 @@
+package io.zulia.server.index;
+
+import io.zulia.message.ZuliaBase;
+import io.zulia.server.util.BytesRefUtil;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+
+import static io.zulia.ZuliaFieldConstants.STORED_DOC_FIELD;
+import static io.zulia.ZuliaFieldConstants.STORED_FIELDS_DOC_FIELD;
+import static io.zulia.ZuliaFieldConstants.STORED_FIELDS_META_FIELD;
+import static io.zulia.ZuliaFieldConstants.STORED_ID_FIELD;
+import static io.zulia.ZuliaFieldConstants.STORED_META_FIELD;
+
+/**
+ * Reads the id info, metadata and document stored for the documents of one segment.  The id info is always in doc values and records whether the
+ * metadata and document are in doc values or in stored fields (under their own field names), so a segment can hold documents of both formats until it
+ * is reindexed.  Documents must be read in increasing doc id order.
+ */
+public class StoredDocumentReader {
+
+	private final LeafReader leafReader;
+	private final boolean meta;
+	private final boolean full;
+
+	private final BinaryDocValues idDocValues;
+	private final BinaryDocValues metaDocValues;
+	private final BinaryDocValues fullDocValues;
+	private StoredFields storedFields;
+
+	private final StoredDocumentVisitor storedDocumentVisitor;
+
+	private ZuliaBase.IdInfo idInfo;
+	private BytesRef metaValue;
+	private BytesRef fullValue;
+
+	/**
+	 * @param meta read the metadata
+	 * @param full read the document
+	 */
+	public StoredDocumentReader(LeafReader leafReader, boolean meta, boolean full) throws IOException {
+		this.leafReader = leafReader;
+		this.meta = meta;
+		this.full = full;
+		this.idDocValues = leafReader.getBinaryDocValues(STORED_ID_FIELD);
+		this.metaDocValues = meta ? leafReader.getBinaryDocValues(STORED_META_FIELD) : null;
+		this.fullDocValues = full ? leafReader.getBinaryDocValues(STORED_DOC_FIELD) : null;
+		this.storedDocumentVisitor = new StoredDocumentVisitor();
+	}
+
+	/**
+	 * @param docId doc id within the segment
+	 * @return false if the document has no id info
+	 */
+	public boolean advanceExact(int docId) throws IOException {
+		if (idDocValues == null || !idDocValues.advanceExact(docId)) {
+			return false;
+		}
+		idInfo = ZuliaBase.IdInfo.parseFrom(BytesRefUtil.getByteArray(idDocValues.binaryValue()));
+
+		if (idInfo.getStoredFields()) {
+			metaValue = null;
+			fullValue = null;
+			if (meta || full) {
+				if (storedFields == null) {
+					storedFields = leafReader.storedFields();
+				}
+				storedFields.document(docId, storedDocumentVisitor);
+			}
+		}
+		else {
+			metaValue = (metaDocValues != null && metaDocValues.advanceExact(docId)) ? metaDocValues.binaryValue() : null;
+			fullValue = (fullDocValues != null && fullDocValues.advanceExact(docId)) ? fullDocValues.binaryValue() : null;
+		}
+		return true;
+	}
+
+	public ZuliaBase.IdInfo getIdInfo() {
+		return idInfo;
+	}
+
+	/**
+	 * @return the metadata of the current document, snappy compressed when the id info says the document is compressed, null if there is none
+	 */
+	public BytesRef getMeta() {
+		return metaValue;
+	}
+
+	/**
+	 * @return the document of the current document, snappy compressed when the id info says the document is compressed, null if there is none
+	 */
+	public BytesRef getFullDoc() {
+		return fullValue;
+	}
+
+	private class StoredDocumentVisitor extends StoredFieldVisitor {
+
+		@Override
+		public Status needsField(FieldInfo fieldInfo) {
+			if (meta && fieldInfo.name.equals(STORED_FIELDS_META_FIELD)) {
+				return Status.YES;
+			}
+			if (full && fieldInfo.name.equals(STORED_FIELDS_DOC_FIELD)) {
+				return Status.YES;
+			}
+			return Status.NO;
+		}
+
+		@Override
+		public void binaryField(FieldInfo fieldInfo, byte[] value) {
+			if (fieldInfo.name.equals(STORED_FIELDS_META_FIELD)) {
+				metaValue = new BytesRef(value);
+			}
+			else {
+				fullValue = new BytesRef(value);
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package io.zulia.server.index;
+
+import io.zulia.ZuliaFieldConstants;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves unique ids to lucene doc ids by seeking the id term in each segment instead of running a query (no searcher, collector or cache key).  A unique
+ * id has at most one live document in a shard so a lookup stops at the first live match.
+ */
+public class UniqueIdLookup {
+
+	private UniqueIdLookup() {
+
+	}
+
+	/**
+	 * @return the doc id of the live document with the unique id, -1 when there is none
+	 */
+	public static int lookup(IndexReader indexReader, String uniqueId) throws IOException {
+		BytesRef id = new BytesRef(uniqueId);
+		List<LeafReaderContext> leaves = indexReader.leaves();
+		// newer documents are in the later segments
+		for (int i = leaves.size() - 1; i >= 0; i--) {
+			LeafReaderContext leaf = leaves.get(i);
+			TermsEnum termsEnum = getIdTermsEnum(leaf.reader());
+			if (termsEnum != null && termsEnum.seekExact(id)) {
+				int docId = getLiveDoc(termsEnum.postings(null, PostingsEnum.NONE), leaf.reader().getLiveDocs());
+				if (docId != DocIdSetIterator.NO_MORE_DOCS) {
+					return leaf.docBase + docId;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Unique ids are sorted before seeking so every segment's terms dictionary is walked forward once
+	 *
+	 * @return the doc ids of the live documents found, unique ids without a live document are left out
+	 */
+	public static ScoreDoc[] lookup(IndexReader indexReader, List<String> uniqueIds) throws IOException {
+		BytesRef[] ids = uniqueIds.stream().distinct().map(BytesRef::new).sorted().toArray(BytesRef[]::new);
+		boolean[] found = new boolean[ids.length];
+		int remaining = ids.length;
+
+		List<ScoreDoc> scoreDocs = new ArrayList<>(ids.length);
+		List<LeafReaderContext> leaves = indexReader.leaves();
+		PostingsEnum postingsEnum = null;
+		for (int i = leaves.size() - 1; i >= 0 && remaining > 0; i--) {
+			LeafReaderContext leaf = leaves.get(i);
+			TermsEnum termsEnum = getIdTermsEnum(leaf.reader());
+			if (termsEnum == null) {
+				continue;
+			}
+
+			Bits liveDocs = leaf.reader().getLiveDocs();
+			for (int j = 0; j < ids.length; j++) {
+				if (!found[j] && termsEnum.seekExact(ids[j])) {
+					postingsEnum = termsEnum.postings(postingsEnum, PostingsEnum.NONE);
+					int docId = getLiveDoc(postingsEnum, liveDocs);
+					if (docId != DocIdSetIterator.NO_MORE_DOCS) {
+						found[j] = true;
+						remaining--;
+						scoreDocs.add(new ScoreDoc(leaf.docBase + docId, 1.0f));
+					}
+				}
+			}
+		}
+
+		return scoreDocs.toArray(new ScoreDoc[0]);
+	}
+
+	private static TermsEnum getIdTermsEnum(LeafReader leafReader) throws IOException {
+		Terms terms = leafReader.terms(ZuliaFieldConstants.ID_FIELD);
+		return terms != null ? terms.iterator() : null;
+	}
+
+	private static int getLiveDoc(PostingsEnum postingsEnum, Bits liveDocs) throws IOException {
+		// an updated document leaves its deleted versions under the same id until they are merged away
+		for (int docId = postingsEnum.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = postingsEnum.nextDoc()) {
+			if (liveDocs == null || liveDocs.get(docId)) {
+				return docId;
+			}
+		}
+		return DocIdSetIterator.NO_MORE_DOCS;
+	}
+}
@@ -0,0 +1,79 @@
+package io.zulia.server.index;
+
+import io.zulia.message.ZuliaIndex.StoredDocumentFormat;
+import io.zulia.message.ZuliaIndex.VectorConfig;
+import io.zulia.server.config.ServerIndexConfig;
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.lucene90.Lucene90StoredFieldsFormat;
+import org.apache.lucene.codecs.lucene102.Lucene102HnswBinaryQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.codecs.perfield.PerFieldKnnVectorsFormat;
+
+/**
+ * Default codec with the vector format of each field picked from its vector config and the stored fields compression picked from the stored document
+ * format.  Keeps the name of the default codec because the per field vector formats and the stored fields mode are recorded in the segment, so segments
+ * are read back by the default codec without registering this one.  The config is read when a segment is flushed or merged so a change in quantization
+ * or compression applies to new and merged segments.
+ */
+public class ZuliaCodec extends FilterCodec {
+
+	// lucene scalar quantization stores "int8" as 7 bits, 4 bits are packed two per byte
+	private static final KnnVectorsFormat INT8_FORMAT = new Lucene99HnswScalarQuantizedVectorsFormat(Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN,
+			Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH, 1, 7, false, null, null);
+	private static final KnnVectorsFormat INT4_FORMAT = new Lucene99HnswScalarQuantizedVectorsFormat(Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN,
+			Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH, 1, 4, true, null, null);
+	private static final KnnVectorsFormat BINARY_FORMAT = new Lucene102HnswBinaryQuantizedVectorsFormat();
+
+	// deflate with a preset dictionary shared across the documents of a block
+	private static final StoredFieldsFormat HIGH_COMPRESSION_FORMAT = new Lucene90StoredFieldsFormat(Lucene90StoredFieldsFormat.Mode.BEST_COMPRESSION);
+
+	private final ServerIndexConfig indexConfig;
+	private final KnnVectorsFormat knnVectorsFormat;
+
+	public ZuliaCodec(ServerIndexConfig indexConfig) {
+		super(Codec.getDefault().getName(), Codec.getDefault());
+		this.indexConfig = indexConfig;
+
+		KnnVectorsFormat defaultFormat = delegate.knnVectorsFormat();
+		this.knnVectorsFormat = new PerFieldKnnVectorsFormat() {
+			@Override
+			public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+				VectorConfig vectorConfig = indexConfig.getVectorConfig(field);
+				if (vectorConfig != null) {
+					KnnVectorsFormat quantizedFormat = switch (vectorConfig.getQuantization()) {
+						case INT8 -> INT8_FORMAT;
+						case INT4 -> INT4_FORMAT;
+						case BINARY -> BINARY_FORMAT;
+						case NONE, UNRECOGNIZED -> null;
+					};
+					if (quantizedFormat != null) {
+						return quantizedFormat;
+					}
+				}
+
+				if (defaultFormat instanceof PerFieldKnnVectorsFormat perFieldKnnVectorsFormat) {
+					return perFieldKnnVectorsFormat.getKnnVectorsFormatForField(field);
+				}
+				return defaultFormat;
+			}
+		};
+	}
+
+	@Override
+	public KnnVectorsFormat knnVectorsFormat() {
+		return knnVectorsFormat;
+	}
+
+	@Override
+	public StoredFieldsFormat storedFieldsFormat() {
+		if (indexConfig.getStoredDocumentFormat() == StoredDocumentFormat.STORED_FIELDS_HIGH_COMPRESSION) {
+			return HIGH_COMPRESSION_FORMAT;
+		}
+		return delegate.storedFieldsFormat();
+	}
+
+}
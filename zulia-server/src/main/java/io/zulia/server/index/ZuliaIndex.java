@@ -13,6 +13,7 @@ import io.zulia.message.ZuliaIndex.FieldConfig;
 import io.zulia.message.ZuliaIndex.IndexSettings;
 import io.zulia.message.ZuliaIndex.IndexShardMapping;
 import io.zulia.message.ZuliaIndex.ShardMapping;
+import io.zulia.message.ZuliaIndex.VectorConfig;
 import io.zulia.message.ZuliaQuery;
 import io.zulia.message.ZuliaQuery.Facet;
 import io.zulia.message.ZuliaQuery.FacetRequest;
@@ -37,6 +38,9 @@ import io.zulia.server.field.FieldTypeUtil;
 import io.zulia.server.filestorage.DocumentStorage;
 import io.zulia.server.search.GeoDistUtil;
 import io.zulia.server.search.QueryCacheKey;
+import io.zulia.server.search.QueryConcurrencyController;
+import io.zulia.server.search.QueryDeadline;
+import io.zulia.server.search.RescoreKnnVectorQuery;
 import io.zulia.server.search.ShardQuery;
 import io.zulia.server.search.queryparser.SetQueryHelper;
 import io.zulia.server.search.queryparser.ZuliaFlexibleQueryParser;
@@ -85,6 +89,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -95,6 +101,7 @@ public class ZuliaIndex {
 	private final ConcurrentLinkedDeque<ZuliaFlexibleQueryParser> parsers;
 	private final ConcurrentHashMap<Integer, ZuliaShard> primaryShardMap;
 	private final ConcurrentHashMap<Integer, ZuliaShard> replicaShardMap;
+	// shard maintenance (replication and clear) that is not a query and does not take query slots
 	private final ExecutorService shardPool;
 	private final int numberOfShards;
 	private final String indexName;
@@ -107,9 +114,10 @@ public class ZuliaIndex {
 	private final ZuliaPerFieldAnalyzer zuliaPerFieldAnalyzer;
 	private final IndexService indexService;
 	private final IndexShardMapping indexShardMapping;
+	private final QueryConcurrencyController queryConcurrencyController;
 
 	public ZuliaIndex(ZuliaConfig zuliaConfig, ServerIndexConfig indexConfig, DocumentStorage documentStorage, IndexService indexService,
-			IndexShardMapping indexShardMapping) {
+			IndexShardMapping indexShardMapping, QueryConcurrencyController queryConcurrencyController) {
 
 		this.zuliaConfig = zuliaConfig;
 		this.indexConfig = indexConfig;
@@ -117,6 +125,7 @@ public class ZuliaIndex {
 		this.numberOfShards = indexConfig.getNumberOfShards();
 		this.indexService = indexService;
 		this.indexShardMapping = indexShardMapping;
+		this.queryConcurrencyController = queryConcurrencyController;
 
 		this.documentStorage = documentStorage;
 
@@ -235,16 +244,17 @@ public class ZuliaIndex {
 
 	private void loadShard(int shardNumber, boolean primary) throws Exception {
 
-		ShardWriteManager shardWriteManager = new ShardWriteManager(shardNumber, getPathForIndex(shardNumber), getPathForFacetsIndex(shardNumber), indexConfig,
-				zuliaPerFieldAnalyzer);
-
-		ZuliaShard s = new ZuliaShard(shardWriteManager, primary);
-
 		if (primary) {
+			ShardWriteManager shardWriteManager = new ShardWriteManager(shardNumber, getPathForIndex(shardNumber), getPathForFacetsIndex(shardNumber),
+					indexConfig, zuliaPerFieldAnalyzer);
+			ZuliaShard s = new ZuliaShard(shardWriteManager);
 			LOG.info("Loaded primary shard {}:s{}", indexName, shardNumber);
 			primaryShardMap.put(shardNumber, s);
 		}
 		else {
+			ShardReplicaManager shardReplicaManager = new ShardReplicaManager(shardNumber, getPathForIndex(shardNumber), getPathForFacetsIndex(shardNumber),
+					indexConfig, zuliaPerFieldAnalyzer);
+			ZuliaShard s = new ZuliaShard(shardReplicaManager);
 			LOG.info("Loaded replica shard {}:s{}", indexName, shardNumber);
 			replicaShardMap.put(shardNumber, s);
 		}
@@ -310,6 +320,44 @@ public class ZuliaIndex {
 
 		}
 
+		storeAssociated(storeRequest, timestamp);
+
+		return StoreResponse.newBuilder().build();
+
+	}
+
+	public int internalShardBatchStore(InternalShardBatchStoreRequest shardRequest) throws Exception {
+		int shardNumber = shardRequest.getShardNumber();
+		ZuliaShard shard = primaryShardMap.get(shardNumber);
+		if (shard == null) {
+			throw new ShardDoesNotExistException(indexName, shardNumber);
+		}
+
+		long timestamp = System.currentTimeMillis();
+
+		List<StoreRequest> storeRequests = shardRequest.getStoreRequestList();
+		List<ShardDocument> shardDocuments = new ArrayList<>(storeRequests.size());
+		for (StoreRequest storeRequest : storeRequests) {
+			if (storeRequest.hasResultDocument()) {
+				ResultDocument resultDocument = storeRequest.getResultDocument();
+				DocumentContainer document = new DocumentContainer(resultDocument.getDocument());
+				DocumentContainer metadata = new DocumentContainer(resultDocument.getMetadata());
+				shardDocuments.add(new ShardDocument(storeRequest.getUniqueId(), document, metadata));
+			}
+		}
+
+		shard.index(shardDocuments, timestamp);
+
+		for (StoreRequest storeRequest : storeRequests) {
+			storeAssociated(storeRequest, timestamp);
+		}
+
+		return storeRequests.size();
+	}
+
+	private void storeAssociated(StoreRequest storeRequest, long timestamp) throws Exception {
+		String uniqueId = storeRequest.getUniqueId();
+
 		if (storeRequest.getClearExistingAssociated()) {
 			documentStorage.deleteAssociatedDocuments(uniqueId);
 		}
@@ -323,9 +371,6 @@ public class ZuliaIndex {
 			ed = ZuliaBase.ExternalDocument.newBuilder(ed).setTimestamp(timestamp).build();
 			documentStorage.registerExternalDocument(ed);
 		}
-
-		return StoreResponse.newBuilder().build();
-
 	}
 
 	private ZuliaShard findShardFromUniqueId(String uniqueId) throws ShardDoesNotExistException {
@@ -459,19 +504,27 @@ public class ZuliaIndex {
 			throw new IllegalArgumentException("Cosine sim query must give at least one query field (qf)");
 		}
 		else if (query.getQfList().size() == 1) {
-			return new KnnFloatVectorQuery(query.getQfList().getFirst(), vector, query.getVectorTopN(), getPreFilter(query.getVectorPreQueryList()));
+			return getKnnVectorQuery(query.getQfList().getFirst(), vector, query.getVectorTopN(), getPreFilter(query.getVectorPreQueryList()));
 		}
 		else {
 			BooleanQuery.Builder booleanQueryBuilder = new BooleanQuery.Builder();
 			BooleanQuery preFilter = getPreFilter(query.getVectorPreQueryList());
 			for (String field : query.getQfList()) {
-				KnnFloatVectorQuery knnVectorQuery = new KnnFloatVectorQuery(field, vector, query.getVectorTopN(), preFilter);
+				Query knnVectorQuery = getKnnVectorQuery(field, vector, query.getVectorTopN(), preFilter);
 				booleanQueryBuilder.add(knnVectorQuery, BooleanClause.Occur.SHOULD);
 			}
 			return booleanQueryBuilder.build();
 		}
 	}
 
+	private Query getKnnVectorQuery(String field, float[] vector, int topN, Query preFilter) {
+		VectorConfig vectorConfig = indexConfig.getVectorConfig(field);
+		if (vectorConfig != null && vectorConfig.getQuantization() != VectorConfig.Quantization.NONE && vectorConfig.getRescoreFactor() > 1) {
+			return new RescoreKnnVectorQuery(field, vector, topN, vectorConfig.getRescoreFactor(), preFilter);
+		}
+		return new KnnFloatVectorQuery(field, vector, topN, preFilter);
+	}
+
 	private BooleanQuery getPreFilter(List<ZuliaQuery.Query> vectorPreQueryList) throws Exception {
 		if (vectorPreQueryList.isEmpty()) {
 			return null;
@@ -746,7 +799,8 @@ public class ZuliaIndex {
 		return query;
 	}
 
-	public IndexShardResponse internalQuery(Query query, final InternalQueryRequest internalQueryRequest) throws Exception {
+	public IndexShardResponse internalQuery(Query query, final InternalQueryRequest internalQueryRequest, QueryDeadline queryDeadline)
+			throws Exception {
 
 		QueryRequest queryRequest = internalQueryRequest.getQueryRequest();
 		Set<ZuliaShard> shardsForQuery = new HashSet<>();
@@ -770,29 +824,34 @@ public class ZuliaIndex {
 			}
 
 		}
+		shardQuery.setQueryDeadline(queryDeadline);
 
 		IndexShardResponse.Builder builder = IndexShardResponse.newBuilder();
 
-		List<Future<ShardQueryResponse>> responses = new ArrayList<>();
+		// queries of all indexes on the node share the query slots, a query waits for a slot or is rejected when too many are already waiting
+		try (QueryConcurrencyController.QueryPermit queryPermit = queryConcurrencyController.admit(indexName, queryRequest.getSearchLabel(),
+				queryDeadline)) {
+			List<Future<ShardQueryResponse>> responses = new ArrayList<>();
 
-		for (final ZuliaShard shard : shardsForQuery) {
-			Future<ShardQueryResponse> response = shardPool.submit(() -> shard.queryShard(shardQuery));
-			responses.add(response);
-		}
-
-		for (Future<ShardQueryResponse> response : responses) {
-			try {
-				ShardQueryResponse rs = response.get();
-				builder.addShardQueryResponse(rs);
+			for (final ZuliaShard shard : shardsForQuery) {
+				Future<ShardQueryResponse> response = queryConcurrencyController.submit(() -> shard.queryShard(shardQuery));
+				responses.add(response);
 			}
-			catch (ExecutionException e) {
-				Throwable t = e.getCause();
 
-				if (t instanceof OutOfMemoryError) {
-					throw (OutOfMemoryError) t;
+			for (Future<ShardQueryResponse> response : responses) {
+				try {
+					ShardQueryResponse rs = response.get();
+					builder.addShardQueryResponse(rs);
 				}
+				catch (ExecutionException e) {
+					Throwable t = e.getCause();
 
-				throw ((Exception) e.getCause());
+					if (t instanceof OutOfMemoryError) {
+						throw (OutOfMemoryError) t;
+					}
+
+					throw ((Exception) e.getCause());
+				}
 			}
 		}
 
@@ -893,10 +952,15 @@ public class ZuliaIndex {
 
 		QueryCacheKey queryCacheKey = queryRequest.getDontCache() ? null : new QueryCacheKey(queryRequest);
 		boolean debug = queryRequest.getDebug();
-		return new ShardQuery(query, fieldSimilarityMap, requestedAmount, lastScoreDocMap, queryRequest.getFacetRequest(), queryRequest.getSortRequest(),
-				queryCacheKey, queryRequest.getResultFetchType(), queryRequest.getDocumentFieldsList(), queryRequest.getDocumentMaskedFieldsList(),
-				queryRequest.getHighlightRequestList(), queryRequest.getAnalysisRequestList(), debug, searchId, queryRequest.getSearchLabel(),
-				queryRequest.getRealtime(), queryRequest.getConcurrency());
+		ShardQuery shardQuery = new ShardQuery(query, fieldSimilarityMap, requestedAmount, lastScoreDocMap, queryRequest.getFacetRequest(),
+				queryRequest.getSortRequest(), queryCacheKey, queryRequest.getResultFetchType(), queryRequest.getDocumentFieldsList(),
+				queryRequest.getDocumentMaskedFieldsList(), queryRequest.getHighlightRequestList(), queryRequest.getAnalysisRequestList(), debug, searchId,
+				queryRequest.getSearchLabel(), queryRequest.getRealtime(), queryRequest.getConcurrency());
+		int totalHitsThreshold = queryRequest.getTotalHitsThreshold();
+		shardQuery.setTotalHitsThreshold(totalHitsThreshold != 0 ? totalHitsThreshold : indexConfig.getDefaultTotalHitsThreshold());
+		// the concurrency is an upper bound, the node picks the actual segment parallelism from the current load
+		shardQuery.setQueryConcurrencyController(queryConcurrencyController);
+		return shardQuery;
 	}
 
 	public Integer getNumberOfShards() {
@@ -949,7 +1013,16 @@ public class ZuliaIndex {
 		return OptimizeResponse.newBuilder().build();
 	}
 
-	public ReindexResponse reindex(@SuppressWarnings("unused") ReindexRequest request) throws IOException {
+	public ReindexResponse reindex(@SuppressWarnings("unused") ReindexRequest request) throws Exception {
+		for (Integer shardNumber : primaryShardMap.keySet()) {
+			ZuliaShard shard = primaryShardMap.get(shardNumber);
+			if (shard != null && shard.isIndexSortOutdated()) {
+				// the writer only takes an index sort when opened, reloading the shard rewrites it in the new sort
+				unloadShard(shardNumber);
+				loadShard(shardNumber, true);
+			}
+		}
+
 		for (final ZuliaShard shard : primaryShardMap.values()) {
 			shard.reindex();
 		}
@@ -965,7 +1038,7 @@ public class ZuliaIndex {
 		List<ZuliaShard> shardsForCommand = getShardsFromRouting(request.getIndexRouting(), getNumberOfDocsRequest.getMasterSlaveSettings());
 
 		for (ZuliaShard shard : shardsForCommand) {
-			Future<ShardCountResponse> response = shardPool.submit(() -> shard.getNumberOfDocs(getNumberOfDocsRequest.getRealtime()));
+			Future<ShardCountResponse> response = queryConcurrencyController.submit(() -> shard.getNumberOfDocs(getNumberOfDocsRequest.getRealtime()));
 			responses.add(response);
 		}
 
@@ -1035,7 +1108,7 @@ public class ZuliaIndex {
 
 		for (final ZuliaShard shard : shardsForCommand) {
 
-			Future<GetFieldNamesResponse> response = shardPool.submit(() -> shard.getFieldNames(getFieldNamesRequest.getRealtime()));
+			Future<GetFieldNamesResponse> response = queryConcurrencyController.submit(() -> shard.getFieldNames(getFieldNamesRequest.getRealtime()));
 
 			responses.add(response);
 
@@ -1064,6 +1137,8 @@ public class ZuliaIndex {
 		fields.remove(ZuliaFieldConstants.STORED_ID_FIELD);
 		fields.remove(ZuliaFieldConstants.STORED_DOC_FIELD);
 		fields.remove(ZuliaFieldConstants.STORED_META_FIELD);
+		fields.remove(ZuliaFieldConstants.STORED_FIELDS_DOC_FIELD);
+		fields.remove(ZuliaFieldConstants.STORED_FIELDS_META_FIELD);
 		fields.remove(ZuliaFieldConstants.ID_FIELD);
 		fields.remove(ZuliaFieldConstants.FIELDS_LIST_FIELD);
 
@@ -1137,7 +1212,7 @@ public class ZuliaIndex {
 
 		for (final ZuliaShard shard : shardsForCommand) {
 
-			Future<GetTermsResponse> response = shardPool.submit(() -> shard.getTerms(getTermsRequest));
+			Future<GetTermsResponse> response = queryConcurrencyController.submit(() -> shard.getTerms(getTermsRequest));
 
 			responses.add(response);
 
@@ -1190,6 +1265,56 @@ public class ZuliaIndex {
 
 	}
 
+	public void internalReplicateShard(InternalReplicateShardRequest request, ShardReplicaManager.ShardCommitReceiver receiver) throws Exception {
+		int shardNumber = request.getShardNumber();
+		ZuliaShard shard = primaryShardMap.get(shardNumber);
+		if (shard == null) {
+			throw new ShardDoesNotExistException(indexName, shardNumber);
+		}
+
+		shard.streamCommit(request, receiver);
+	}
+
+	public void scanShard(ScanRequest scanRequest, int shardNumber, Consumer<ScanResponse> responseConsumer) throws Exception {
+		IndexRouting indexRouting = IndexRouting.newBuilder().setIndex(indexName).addShard(shardNumber).build();
+		ZuliaShard shard = getShardsFromRouting(indexRouting, scanRequest.getMasterSlaveSettings()).getFirst();
+
+		Query query = null;
+		if (scanRequest.getQueryCount() > 0) {
+			query = getQuery(QueryRequest.newBuilder().addAllQuery(scanRequest.getQueryList()).build());
+		}
+
+		shard.scan(query, scanRequest.getResultFetchType(), scanRequest.getDocumentFieldsList(), scanRequest.getDocumentMaskedFieldsList(),
+				scanRequest.getBatchSize(),
+				documents -> responseConsumer.accept(ScanResponse.newBuilder().setShardNumber(shardNumber).addAllDocument(documents).build()));
+	}
+
+	/**
+	 * Copies the last commit of the primary of every replica shard loaded on this node
+	 *
+	 * @param primarySource gives the source for the commits of a primary node or null if the node is not available
+	 */
+	public void replicateShards(Function<Node, ShardReplicaManager.ShardCommitSource> primarySource) {
+		for (ShardMapping shardMapping : indexShardMapping.getShardMappingList()) {
+			ZuliaShard shard = replicaShardMap.get(shardMapping.getShardNumber());
+			if (shard != null) {
+				ShardReplicaManager.ShardCommitSource shardCommitSource = primarySource.apply(shardMapping.getPrimaryNode());
+				if (shardCommitSource != null) {
+					shardPool.submit(() -> {
+						try {
+							if (shard.replicate(shardCommitSource)) {
+								LOG.info("Replicated commit for replica shard {}:s{}", indexName, shard.getShardNumber());
+							}
+						}
+						catch (Exception e) {
+							LOG.error("Failed to replicate shard {}:s{}: {}", indexName, shard.getShardNumber(), e.getMessage());
+						}
+					});
+				}
+			}
+		}
+	}
+
 	public List<FetchResponse> internalShardBatchFetch(InternalShardBatchFetchRequest shardRequest) throws Exception {
 		int shardNumber = shardRequest.getShardNumber();
 		ZuliaShard shard = primaryShardMap.get(shardNumber);
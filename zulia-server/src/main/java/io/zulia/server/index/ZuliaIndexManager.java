@@ -31,6 +31,7 @@ import io.zulia.server.config.single.FSIndexService;
 import io.zulia.server.connection.client.InternalClient;
 import io.zulia.server.connection.server.validation.CreateIndexRequestValidator;
 import io.zulia.server.connection.server.validation.QueryRequestValidator;
+import io.zulia.server.connection.server.validation.ScanRequestValidator;
 import io.zulia.server.exceptions.IndexDoesNotExistException;
 import io.zulia.server.filestorage.DocumentStorage;
 import io.zulia.server.filestorage.FileDocumentStorage;
@@ -38,6 +39,7 @@ import io.zulia.server.filestorage.MongoDocumentStorage;
 import io.zulia.server.filestorage.S3DocumentStorage;
 import io.zulia.server.index.federator.BatchDeleteRequestFederator;
 import io.zulia.server.index.federator.BatchFetchRequestFederator;
+import io.zulia.server.index.federator.BatchStoreRequestFederator;
 import io.zulia.server.index.federator.ClearRequestFederator;
 import io.zulia.server.index.federator.CreateIndexAliasRequestFederator;
 import io.zulia.server.index.federator.CreateOrUpdateIndexRequestFederator;
@@ -53,6 +55,8 @@ import io.zulia.server.index.router.DeleteRequestRouter;
 import io.zulia.server.index.router.FetchRequestRouter;
 import io.zulia.server.index.router.StoreRequestRouter;
 import io.zulia.server.node.ZuliaNode;
+import io.zulia.server.search.QueryConcurrencyController;
+import io.zulia.server.search.QueryDeadline;
 import io.zulia.server.util.MongoProvider;
 import io.zulia.util.ZuliaUtil;
 import org.apache.lucene.search.Query;
@@ -73,6 +77,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -80,6 +86,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -87,6 +94,8 @@ import java.util.stream.Stream;
 public class ZuliaIndexManager {
 
 	private final static Logger LOG = LoggerFactory.getLogger(ZuliaIndexManager.class);
+	private final static long REPLICATION_INTERVAL_MS = 1000;
+	private final static int QUERY_STREAM_CHUNK_SIZE = 500;
 	private final IndexService indexService;
 	private final InternalClient internalClient;
 	private final ExecutorService pool;
@@ -97,6 +106,9 @@ public class ZuliaIndexManager {
 	private Collection<Node> currentOtherNodesActive = Collections.emptyList();
 	private ConcurrentHashMap<String, Lock> indexUpdateMap = new ConcurrentHashMap<>();
 	private final ConcurrentHashMap<String, String> indexAliasMap;
+	private final Timer replicationTimer;
+	private final QueryConcurrencyController queryConcurrencyController;
+	private final NodeLatencyTracker nodeLatencyTracker;
 
 	public ZuliaIndexManager(ZuliaConfig zuliaConfig, NodeService nodeService) throws Exception {
 
@@ -123,6 +135,33 @@ public class ZuliaIndexManager {
 
 		this.pool = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("manager-", 0).factory());
 
+		int maxSegmentTasks = zuliaConfig.getMaxSegmentTasks() > 0 ? zuliaConfig.getMaxSegmentTasks() : Runtime.getRuntime().availableProcessors();
+		this.queryConcurrencyController = new QueryConcurrencyController(maxSegmentTasks, zuliaConfig.getMaxConcurrentQueries(),
+				zuliaConfig.getMaxQueuedQueries());
+		this.nodeLatencyTracker = new NodeLatencyTracker();
+
+		this.replicationTimer = new Timer(true);
+		this.replicationTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				replicateShards();
+			}
+		}, REPLICATION_INTERVAL_MS, REPLICATION_INTERVAL_MS);
+
+	}
+
+	private void replicateShards() {
+		Collection<Node> otherNodesActive = currentOtherNodesActive;
+		Function<Node, ShardReplicaManager.ShardCommitSource> primarySource = primaryNode -> {
+			if (otherNodesActive.stream().anyMatch(node -> ZuliaNode.isEqual(node, primaryNode))) {
+				return (request, receiver) -> internalClient.replicateShard(primaryNode, request, receiver);
+			}
+			return null;
+		};
+
+		for (ZuliaIndex zuliaIndex : indexMap.values()) {
+			zuliaIndex.replicateShards(primarySource);
+		}
 	}
 
 	public void handleNodeAdded(Collection<Node> currentOtherNodesActive, Node nodeAdded) {
@@ -142,6 +181,8 @@ public class ZuliaIndexManager {
 
 	public void shutdown() {
 
+		replicationTimer.cancel();
+
 		internalClient.close();
 
 		pool.shutdownNow();
@@ -155,6 +196,8 @@ public class ZuliaIndexManager {
 			}
 		});
 
+		queryConcurrencyController.close();
+
 	}
 
 	public void init() throws Exception {
@@ -193,7 +236,8 @@ public class ZuliaIndexManager {
 
 		DocumentStorage documentStorage = getDocumentStorage(serverIndexConfig);
 
-		ZuliaIndex zuliaIndex = new ZuliaIndex(zuliaConfig, serverIndexConfig, documentStorage, indexService, indexShardMapping);
+		ZuliaIndex zuliaIndex = new ZuliaIndex(zuliaConfig, serverIndexConfig, documentStorage, indexService, indexShardMapping,
+				queryConcurrencyController);
 
 		indexMap.put(indexSettings.getIndexName(), zuliaIndex);
 
@@ -343,7 +387,8 @@ public class ZuliaIndexManager {
 
 		populateIndexesAndIndexMap(request.getQueryRequest(), queryMap, indexes);
 
-		return QueryRequestFederator.internalQuery(indexes, request, queryMap);
+		// the deadline is also cancelled when the coordinating node cancels the request or its gRPC deadline passes
+		return QueryRequestFederator.internalQuery(indexes, request, queryMap, new QueryDeadline(request.getTimeoutMs()));
 	}
 
 	public QueryResponse query(QueryRequest request) throws Exception {
@@ -359,11 +404,90 @@ public class ZuliaIndexManager {
 		populateIndexesAndIndexMap(request, queryMap, indexes);
 
 		QueryRequestFederator federator = new QueryRequestFederator(thisNode, currentOtherNodesActive, request.getMasterSlaveSettings(), indexes, pool,
-				internalClient, queryMap);
+				internalClient, queryMap, nodeLatencyTracker);
 
 		return federator.getResponse(request);
 	}
 
+	public void queryStream(QueryRequest request, StreamObserver<QueryStreamResponse> responseObserver) throws Exception {
+		request = new QueryRequestValidator().validateAndSetDefault(request);
+
+		if (zuliaConfig.isDebug() && !request.getDebug()) {
+			request = request.toBuilder().setDebug(true).build();
+		}
+
+		Map<String, Query> queryMap = new HashMap<>();
+		Set<ZuliaIndex> indexes = new HashSet<>();
+
+		populateIndexesAndIndexMap(request, queryMap, indexes);
+
+		// the shards only return ids and sort values and the documents are fetched a chunk at a time after the merge
+		// highlighting and analysis need the document on the shard so those still fetch during the query
+		ZuliaQuery.FetchType resultFetchType = request.getResultFetchType();
+		boolean fetchAfterMerge = !ZuliaQuery.FetchType.NONE.equals(resultFetchType) && request.getHighlightRequestList().isEmpty()
+				&& request.getAnalysisRequestList().isEmpty();
+		QueryRequest shardRequest = fetchAfterMerge ? request.toBuilder().setResultFetchType(ZuliaQuery.FetchType.NONE).build() : request;
+
+		QueryRequestFederator federator = new QueryRequestFederator(thisNode, currentOtherNodesActive, shardRequest.getMasterSlaveSettings(), indexes, pool,
+				internalClient, queryMap, nodeLatencyTracker);
+		QueryResponse queryResponse = federator.getResponse(shardRequest);
+
+		responseObserver.onNext(QueryStreamResponse.newBuilder().setQueryResponse(queryResponse.toBuilder().clearResults()).build());
+
+		Map<String, ZuliaIndex> indexCache = new HashMap<>();
+		for (ZuliaIndex index : indexes) {
+			indexCache.put(index.getIndexName(), index);
+		}
+
+		List<ZuliaQuery.ScoredResult> results = queryResponse.getResultsList();
+		for (int i = 0; i < results.size(); i += QUERY_STREAM_CHUNK_SIZE) {
+			List<ZuliaQuery.ScoredResult> chunk = results.subList(i, Math.min(results.size(), i + QUERY_STREAM_CHUNK_SIZE));
+			if (fetchAfterMerge) {
+				chunk = fetchResultDocuments(request, chunk, indexCache);
+			}
+			responseObserver.onNext(QueryStreamResponse.newBuilder().addAllResults(chunk).build());
+		}
+	}
+
+	private List<ZuliaQuery.ScoredResult> fetchResultDocuments(QueryRequest request, List<ZuliaQuery.ScoredResult> results,
+			Map<String, ZuliaIndex> indexCache) throws Exception {
+		Map<String, BatchFetchGroup.Builder> fetchGroups = new LinkedHashMap<>();
+		for (ZuliaQuery.ScoredResult scoredResult : results) {
+			fetchGroups.computeIfAbsent(scoredResult.getIndexName(),
+							indexName -> BatchFetchGroup.newBuilder().setIndexName(indexName).setResultFetchType(request.getResultFetchType())
+									.addAllDocumentFields(request.getDocumentFieldsList()).addAllDocumentMaskedFields(request.getDocumentMaskedFieldsList())
+									.setRealtime(request.getRealtime()).setAssociatedFetchType(ZuliaQuery.FetchType.NONE))
+					.addUniqueId(scoredResult.getUniqueId());
+		}
+
+		BatchFetchRequest.Builder batchFetchRequest = BatchFetchRequest.newBuilder();
+		for (BatchFetchGroup.Builder fetchGroup : fetchGroups.values()) {
+			batchFetchRequest.addBatchFetchGroup(fetchGroup);
+		}
+
+		BatchFetchRequestFederator federator = new BatchFetchRequestFederator(thisNode, currentOtherNodesActive, pool, internalClient, indexCache);
+		Map<String, Map<String, ZuliaBase.ResultDocument>> indexToDocuments = new HashMap<>();
+		for (FetchResponse fetchResponse : federator.send(batchFetchRequest.build())) {
+			if (fetchResponse.hasResultDocument()) {
+				ZuliaBase.ResultDocument resultDocument = fetchResponse.getResultDocument();
+				indexToDocuments.computeIfAbsent(resultDocument.getIndexName(), k -> new HashMap<>()).put(resultDocument.getUniqueId(), resultDocument);
+			}
+		}
+
+		List<ZuliaQuery.ScoredResult> fetchedResults = new ArrayList<>(results.size());
+		for (ZuliaQuery.ScoredResult scoredResult : results) {
+			ZuliaBase.ResultDocument resultDocument = indexToDocuments.getOrDefault(scoredResult.getIndexName(), Map.of()).get(scoredResult.getUniqueId());
+			if (resultDocument != null) {
+				fetchedResults.add(scoredResult.toBuilder().setResultDocument(resultDocument).build());
+			}
+			else {
+				// deleted between the query and the fetch
+				fetchedResults.add(scoredResult);
+			}
+		}
+		return fetchedResults;
+	}
+
 	private void populateIndexesAndIndexMap(QueryRequest queryRequest, Map<String, Query> queryMap, Set<ZuliaIndex> indexes) throws Exception {
 
 		for (String indexName : queryRequest.getIndexList()) {
@@ -387,6 +511,45 @@ public class ZuliaIndexManager {
 		return StoreRequestRouter.internalStore(i, request);
 	}
 
+	public int batchStore(List<StoreRequest> storeRequests) throws Exception {
+		if (storeRequests.isEmpty()) {
+			return 0;
+		}
+
+		Map<String, ZuliaIndex> indexCache = new HashMap<>();
+		for (StoreRequest storeRequest : storeRequests) {
+			String indexName = storeRequest.getIndexName();
+			if (!indexCache.containsKey(indexName)) {
+				indexCache.put(indexName, getIndexFromName(indexName));
+			}
+		}
+
+		BatchStoreRequestFederator federator = new BatchStoreRequestFederator(thisNode, currentOtherNodesActive, pool, internalClient, this, indexCache);
+		return federator.send(storeRequests);
+	}
+
+	public int internalBatchStore(InternalBatchStoreRequest request) throws Exception {
+		List<InternalShardBatchStoreRequest> shardRequests = request.getShardBatchStoreRequestList();
+		if (shardRequests.size() == 1) {
+			ZuliaIndex index = getIndexFromName(shardRequests.getFirst().getIndexName());
+			return index.internalShardBatchStore(shardRequests.getFirst());
+		}
+
+		List<Future<Integer>> futures = new ArrayList<>(shardRequests.size());
+		for (InternalShardBatchStoreRequest shardRequest : shardRequests) {
+			futures.add(pool.submit(() -> {
+				ZuliaIndex index = getIndexFromName(shardRequest.getIndexName());
+				return index.internalShardBatchStore(shardRequest);
+			}));
+		}
+
+		int storedCount = 0;
+		for (Future<Integer> future : futures) {
+			storedCount += future.get();
+		}
+		return storedCount;
+	}
+
 	public DeleteResponse delete(DeleteRequest request) throws Exception {
 		ZuliaIndex i = getIndexFromName(request.getIndexName());
 		DeleteRequestRouter router = new DeleteRequestRouter(thisNode, currentOtherNodesActive, i, request.getUniqueId(), internalClient);
@@ -514,6 +677,8 @@ public class ZuliaIndexManager {
 				throw new IllegalArgumentException("Cannot change replication factor for existing index yet");
 			}
 
+			CreateIndexRequestValidator.validateIndexAsChanges(existingIndex, indexSettings);
+
 		}
 
 		IndexSettings.Builder timestampBuilder = indexSettings.toBuilder().setUpdateTime(currentTimeMillis);
@@ -684,6 +849,34 @@ public class ZuliaIndexManager {
 				existingSettings.setDefaultConcurrency(updateIndexSettings.getDefaultConcurrency());
 			}
 
+			if (updateIndexSettings.getSetSegmentQueryCacheSize()) {
+				existingSettings.setSegmentQueryCacheSize(updateIndexSettings.getSegmentQueryCacheSize());
+			}
+
+			if (updateIndexSettings.getSetFilterCacheSizeMB()) {
+				existingSettings.setFilterCacheSizeMB(updateIndexSettings.getFilterCacheSizeMB());
+			}
+
+			if (updateIndexSettings.getSetFacetCountCacheOrdinals()) {
+				existingSettings.setFacetCountCacheOrdinals(updateIndexSettings.getFacetCountCacheOrdinals());
+			}
+
+			if (updateIndexSettings.getSetIndexSort()) {
+				existingSettings.clearIndexSort().addAllIndexSort(updateIndexSettings.getIndexSortList());
+			}
+
+			if (updateIndexSettings.getSetDefaultTotalHitsThreshold()) {
+				existingSettings.setDefaultTotalHitsThreshold(updateIndexSettings.getDefaultTotalHitsThreshold());
+			}
+
+			if (updateIndexSettings.getSetTaxonomyCacheSizeMB()) {
+				existingSettings.setTaxonomyCacheSizeMB(updateIndexSettings.getTaxonomyCacheSizeMB());
+			}
+
+			if (updateIndexSettings.getSetStoredDocumentFormat()) {
+				existingSettings.setStoredDocumentFormat(updateIndexSettings.getStoredDocumentFormat());
+			}
+
 			Operation metaUpdateOperation = updateIndexSettings.getMetaUpdateOperation();
 			if (metaUpdateOperation.getEnable()) {
 				Document existingMeta = ZuliaUtil.byteStringToMongoDocument(existingSettings.getMeta());
@@ -710,6 +903,7 @@ public class ZuliaIndexManager {
 			}
 
 			CreateIndexRequestValidator.validateIndexSettingsAndSetDefaults(existingSettings);
+			CreateIndexRequestValidator.validateIndexAsChanges(originalIndexSettings, existingSettings);
 			indexSettings = existingSettings.build();
 
 			if (indexSettings.equals(originalIndexSettings)) {
@@ -881,6 +1075,49 @@ public class ZuliaIndexManager {
 		return ReindexRequestFederator.internalReindex(i, request);
 	}
 
+	public void internalReplicateShard(InternalReplicateShardRequest request, ShardReplicaManager.ShardCommitReceiver receiver) throws Exception {
+		ZuliaIndex i = getIndexFromName(request.getIndexName());
+		i.internalReplicateShard(request, receiver);
+	}
+
+	/**
+	 * Streams the documents of the requested shards one shard after another, each shard from the node picked by the master slave settings
+	 */
+	public void scan(ScanRequest request, Consumer<ScanResponse> responseConsumer) throws Exception {
+		request = new ScanRequestValidator().validateAndSetDefault(request);
+
+		ZuliaIndex i = getIndexFromName(request.getIndexName());
+
+		List<Node> nodesAvailable = new ArrayList<>();
+		nodesAvailable.add(thisNode);
+		nodesAvailable.addAll(currentOtherNodesActive);
+		MasterSlaveSelector masterSlaveSelector = new MasterSlaveSelector(request.getMasterSlaveSettings(), nodesAvailable, i.getIndexShardMapping(),
+				nodeLatencyTracker);
+
+		List<Integer> shardNumbers = request.getShardNumberList();
+		if (shardNumbers.isEmpty()) {
+			shardNumbers = i.getIndexShardMapping().getShardMappingList().stream().map(ShardMapping::getShardNumber).sorted().toList();
+		}
+
+		for (int shardNumber : shardNumbers) {
+			Node node = masterSlaveSelector.getNodeForShard(shardNumber);
+			ScanRequest shardRequest = request.toBuilder().clearShardNumber().addShardNumber(shardNumber).build();
+			if (ZuliaNode.isEqual(thisNode, node)) {
+				i.scanShard(shardRequest, shardNumber, responseConsumer);
+			}
+			else {
+				internalClient.scan(node, shardRequest, responseConsumer);
+			}
+		}
+	}
+
+	public void internalScan(ScanRequest request, Consumer<ScanResponse> responseConsumer) throws Exception {
+		ZuliaIndex i = getIndexFromName(request.getIndexName());
+		for (int shardNumber : request.getShardNumberList()) {
+			i.scanShard(request, shardNumber, responseConsumer);
+		}
+	}
+
 	public GetFieldNamesResponse getFieldNames(GetFieldNamesRequest request) throws Exception {
 		MasterSlaveSettings masterSlaveSettings = request.getMasterSlaveSettings();
 		ZuliaIndex i = getIndexFromName(request.getIndexName());
@@ -1018,4 +1255,8 @@ public class ZuliaIndexManager {
 		}
 		return list;
 	}
+
+	public ZuliaBase.QueryExecutionStats.Builder getQueryExecutionStats() {
+		return queryConcurrencyController.getQueryExecutionStats();
+	}
 }
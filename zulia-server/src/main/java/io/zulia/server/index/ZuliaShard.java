@@ -1,5 +1,6 @@
 package io.zulia.server.index;
 
+import com.google.protobuf.ByteString;
 import io.zulia.message.ZuliaBase;
 import io.zulia.message.ZuliaBase.MasterSlaveSettings;
 import io.zulia.message.ZuliaBase.ShardCountResponse;
@@ -9,9 +10,14 @@ import io.zulia.message.ZuliaServiceOuterClass;
 import io.zulia.message.ZuliaServiceOuterClass.GetFieldNamesResponse;
 import io.zulia.message.ZuliaServiceOuterClass.GetTermsRequest;
 import io.zulia.message.ZuliaServiceOuterClass.GetTermsResponse;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardRequest;
+import io.zulia.message.ZuliaServiceOuterClass.InternalReplicateShardResponse;
+import io.zulia.message.ZuliaServiceOuterClass.ShardCommit;
+import io.zulia.message.ZuliaServiceOuterClass.ShardFile;
 import io.zulia.server.search.ShardQuery;
 import io.zulia.server.util.BytesRefUtil;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.store.IndexInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xerial.snappy.Snappy;
@@ -22,8 +28,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 public class ZuliaShard {
 
@@ -31,24 +42,41 @@ public class ZuliaShard {
 
 	private final int shardNumber;
 
+	private final static int REPLICATION_CHUNK_SIZE = 1024 * 1024;
+
 	private final ShardReaderManager shardReaderManager;
+	private final ShardManager shardManager;
 	private final ShardWriteManager shardWriteManager;
+	private final ShardReplicaManager shardReplicaManager;
 	private final String indexName;
 
 	private final boolean primary;
 
-	private String trackingId;
-	private HashSet<String> trackedIds;
+	// ids changed while a reindex runs, the reindex must not overwrite them with the copy from its reader
+	private volatile String trackingId;
+	private volatile Set<String> trackedIds;
+	// ids are tracked under the read lock so a reindex holding the write lock can check an id and write its document without a change in between
+	private final ReadWriteLock trackedIdsLock = new ReentrantReadWriteLock();
 
 	private boolean unloaded;
 
-	public ZuliaShard(ShardWriteManager shardWriteManager, boolean primary) throws Exception {
+	public ZuliaShard(ShardWriteManager shardWriteManager) throws Exception {
+		this(shardWriteManager, shardWriteManager, null);
+	}
+
+	public ZuliaShard(ShardReplicaManager shardReplicaManager) throws Exception {
+		this(shardReplicaManager, null, shardReplicaManager);
+	}
+
+	private ZuliaShard(ShardManager shardManager, ShardWriteManager shardWriteManager, ShardReplicaManager shardReplicaManager) throws Exception {
 
-		this.primary = primary;
+		this.primary = shardWriteManager != null;
+		this.shardManager = shardManager;
 		this.shardWriteManager = shardWriteManager;
-		this.shardNumber = shardWriteManager.getShardNumber();
-		this.indexName = shardWriteManager.getIndexConfig().getIndexName();
-		this.shardReaderManager = new ShardReaderManager(shardWriteManager.createShardReader());
+		this.shardReplicaManager = shardReplicaManager;
+		this.shardNumber = shardManager.getShardNumber();
+		this.indexName = shardManager.getIndexConfig().getIndexName();
+		this.shardReaderManager = new ShardReaderManager(shardManager.createShardReader());
 
 	}
 
@@ -57,11 +85,11 @@ public class ZuliaShard {
 	}
 
 	public void updateIndexSettings() {
-		shardWriteManager.updateIndexSettings();
+		shardManager.updateIndexSettings();
 	}
 
 	public int getShardNumber() {
-		return shardWriteManager.getShardNumber();
+		return shardManager.getShardNumber();
 	}
 
 	public ShardQueryResponse queryShard(ShardQuery shardQuery) throws Exception {
@@ -90,7 +118,7 @@ public class ZuliaShard {
 
 	public void tryIdleCommit() throws IOException {
 
-		if (shardWriteManager.needsIdleCommit()) {
+		if (primary && shardWriteManager.needsIdleCommit()) {
 			LOG.info("Index {}:s{} is idle, triggering commit", indexName, shardNumber);
 			forceCommit();
 		}
@@ -99,7 +127,7 @@ public class ZuliaShard {
 	public void tryWarmSearches(ZuliaIndex zuliaIndex, boolean primary) {
 
 		long lastestShardTime = shardReaderManager.getLatestShardTime();
-		WarmInfo warmInfo = shardWriteManager.needsSearchWarming(lastestShardTime);
+		WarmInfo warmInfo = shardManager.needsSearchWarming(lastestShardTime);
 		if (warmInfo.needsWarming()) {
 
 			try {
@@ -110,7 +138,7 @@ public class ZuliaShard {
 				throw new RuntimeException(e);
 			}
 
-			List<ZuliaServiceOuterClass.QueryRequest> warmingSearches = shardWriteManager.getIndexConfig().getWarmingSearches();
+			List<ZuliaServiceOuterClass.QueryRequest> warmingSearches = shardManager.getIndexConfig().getWarmingSearches();
 			if (!warmingSearches.isEmpty()) {
 				warmSearches(zuliaIndex, primary, warmingSearches, warmInfo, lastestShardTime);
 			}
@@ -120,8 +148,10 @@ public class ZuliaShard {
 	private void warmSearches(ZuliaIndex zuliaIndex, boolean primary, List<ZuliaServiceOuterClass.QueryRequest> warmingSearches, WarmInfo warmInfo,
 			long lastestShardTime) {
 		LOG.info("Started warming searching for index {}:s{}", indexName, shardNumber);
-		EnumSet<MasterSlaveSettings> usesPrimary = EnumSet.of(MasterSlaveSettings.MASTER_ONLY, MasterSlaveSettings.MASTER_IF_AVAILABLE);
-		EnumSet<MasterSlaveSettings> usesReplica = EnumSet.of(MasterSlaveSettings.SLAVE_ONLY, MasterSlaveSettings.MASTER_IF_AVAILABLE);
+		EnumSet<MasterSlaveSettings> usesPrimary = EnumSet.of(MasterSlaveSettings.MASTER_ONLY, MasterSlaveSettings.MASTER_IF_AVAILABLE,
+				MasterSlaveSettings.FASTEST_AVAILABLE);
+		EnumSet<MasterSlaveSettings> usesReplica = EnumSet.of(MasterSlaveSettings.SLAVE_ONLY, MasterSlaveSettings.MASTER_IF_AVAILABLE,
+				MasterSlaveSettings.FASTEST_AVAILABLE);
 		for (ZuliaServiceOuterClass.QueryRequest warmingSearch : warmingSearches) {
 			MasterSlaveSettings primaryReplicaSettings = warmingSearch.getMasterSlaveSettings();
 			boolean shardNeedsWarmForSearch = (primary ? usesPrimary : usesReplica).contains(primaryReplicaSettings);
@@ -131,11 +161,11 @@ public class ZuliaShard {
 			}
 
 			// has the index changed since we made the decision to start warming ?
-			if (!Objects.equals(warmInfo.lastChanged(), shardWriteManager.getLastChanged())) {
+			if (!Objects.equals(warmInfo.lastChanged(), shardManager.getLastChanged())) {
 				LOG.info("Index {}:s{} changed: canceling warming", indexName, shardNumber);
 				return;
 			}
-			if (!Objects.equals(warmInfo.lastCommit(), shardWriteManager.getLastCommit())) {
+			if (!Objects.equals(warmInfo.lastCommit(), shardManager.getLastCommit())) {
 				LOG.info("Index {}:s{} commited: canceling warming", indexName, shardNumber);
 				return;
 			}
@@ -159,11 +189,11 @@ public class ZuliaShard {
 		}
 
 		// has the index changed since we made the decision to start warming ?
-		if (!Objects.equals(warmInfo.lastChanged(), shardWriteManager.getLastChanged())) {
+		if (!Objects.equals(warmInfo.lastChanged(), shardManager.getLastChanged())) {
 			LOG.info("Index {}:s{} changed: canceling warming", indexName, shardNumber);
 			return;
 		}
-		if (!Objects.equals(warmInfo.lastCommit(), shardWriteManager.getLastCommit())) {
+		if (!Objects.equals(warmInfo.lastCommit(), shardManager.getLastCommit())) {
 			LOG.info("Index {}:s{} commited: canceling warming", indexName, shardNumber);
 			return;
 		}
@@ -174,22 +204,30 @@ public class ZuliaShard {
 			return;
 		}
 
-		shardWriteManager.searchesWarmed(warmTime);
+		shardManager.searchesWarmed(warmTime);
 		LOG.info("Finished warming searching for index {}:s{}", indexName, shardNumber);
 	}
 
-	public void reindex() throws IOException {
+	public boolean isIndexSortOutdated() throws IOException {
+		return primary && shardWriteManager.isIndexSortOutdated();
+	}
+
+	public void reindex() throws Exception {
+		if (!primary) {
+			throw new IllegalStateException("Cannot reindex replica for index " + indexName + ":s" + shardNumber);
+		}
 
 		final String myTrackingId = UUID.randomUUID().toString();
 		synchronized (this) {
 			trackingId = myTrackingId;
-			trackedIds = new HashSet<>();
+			trackedIds = ConcurrentHashMap.newKeySet();
 		}
 
 		shardReaderManager.maybeRefreshBlocking();
 		ShardReader shardReader = shardReaderManager.acquire();
 
-		try {
+		try (ShardIndexingPipeline indexingPipeline = shardWriteManager.createIndexingPipeline(trackedIdsLock.writeLock(),
+				uniqueId -> !trackedIds.contains(uniqueId))) {
 			AtomicInteger count = new AtomicInteger();
 			shardReader.streamAllDocs(d -> {
 				if (!myTrackingId.equals(trackingId)) {
@@ -198,8 +236,7 @@ public class ZuliaShard {
 
 				try {
 
-					byte[] idInfoBytes = BytesRefUtil.getByteArray(d.idInfo());
-					ZuliaBase.IdInfo idInfo = ZuliaBase.IdInfo.parseFrom(idInfoBytes);
+					ZuliaBase.IdInfo idInfo = d.idInfo();
 
 					long timestamp = idInfo.getTimestamp();
 
@@ -217,7 +254,7 @@ public class ZuliaShard {
 					}
 
 					if (!trackedIds.contains(uniqueId)) {
-						shardWriteManager.indexDocument(uniqueId, timestamp, mongoDocument, metadata);
+						indexingPipeline.submit(new ShardDocument(uniqueId, mongoDocument, metadata), timestamp);
 					}
 					count.getAndIncrement();
 				}
@@ -225,10 +262,11 @@ public class ZuliaShard {
 					throw new RuntimeException(e);
 				}
 			});
+			indexingPipeline.finish();
 			synchronized (this) {
 				if (myTrackingId.equals(trackingId)) {
 					trackingId = null;
-					trackedIds = new HashSet<>();
+					trackedIds = ConcurrentHashMap.newKeySet();
 				}
 			}
 			LOG.info("Re-indexed {} documents for index {}:s{}", count.get(), indexName, shardNumber);
@@ -242,7 +280,55 @@ public class ZuliaShard {
 	public void close() throws IOException {
 		unloaded = true;
 		shardReaderManager.close();
-		shardWriteManager.close();
+		shardManager.close();
+	}
+
+	/**
+	 * Sends the last commit of this primary shard followed by the contents of every file of the commit the replica does not already have
+	 */
+	public void streamCommit(InternalReplicateShardRequest request, ShardReplicaManager.ShardCommitReceiver receiver) throws IOException {
+		if (!primary) {
+			throw new IllegalStateException("Cannot replicate from replica for index " + indexName + ":s" + shardNumber);
+		}
+
+		Set<ShardFile> existingFiles = new HashSet<>(request.getExistingFileList());
+		try (ShardCommitSnapshot shardCommitSnapshot = shardWriteManager.snapshotCommit()) {
+			ShardCommit shardCommit = shardCommitSnapshot.getShardCommit();
+			receiver.receive(InternalReplicateShardResponse.newBuilder().setShardCommit(shardCommit).build());
+
+			byte[] buffer = new byte[REPLICATION_CHUNK_SIZE];
+			for (ShardFile shardFile : shardCommit.getShardFileList()) {
+				if (existingFiles.contains(shardFile)) {
+					continue;
+				}
+
+				try (IndexInput input = shardCommitSnapshot.openInput(shardFile)) {
+					long remaining = input.length();
+					while (remaining > 0) {
+						int length = (int) Math.min(buffer.length, remaining);
+						input.readBytes(buffer, 0, length);
+						receiver.receive(InternalReplicateShardResponse.newBuilder().setShardFile(shardFile).setData(ByteString.copyFrom(buffer, 0, length)).build());
+						remaining -= length;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies the last commit of the primary shard to this replica and reopens the shard reader if the commit changed
+	 */
+	public boolean replicate(ShardReplicaManager.ShardCommitSource shardCommitSource) throws Exception {
+		if (primary) {
+			throw new IllegalStateException("Cannot replicate to primary for index " + indexName + ":s" + shardNumber);
+		}
+
+		if (shardReplicaManager.replicate(shardCommitSource)) {
+			shardReaderManager.maybeRefreshBlocking();
+			shardReplicaManager.deleteObsoleteFiles();
+			return true;
+		}
+		return false;
 	}
 
 	public void index(String uniqueId, long timestamp, DocumentContainer mongoDocument, DocumentContainer metadata) throws Exception {
@@ -250,9 +336,7 @@ public class ZuliaShard {
 			throw new IllegalStateException("Cannot index document " + uniqueId + " from replica:  index " + indexName + ":s" + shardNumber);
 		}
 
-		if (trackingId != null) {
-			trackedIds.add(uniqueId);
-		}
+		trackId(uniqueId);
 
 		shardWriteManager.indexDocument(uniqueId, timestamp, mongoDocument, metadata);
 		if (shardWriteManager.markedChangedCheckIfCommitNeeded()) {
@@ -261,14 +345,56 @@ public class ZuliaShard {
 
 	}
 
-	public void deleteDocument(String uniqueId) throws Exception {
+	public void index(List<ShardDocument> shardDocuments, long timestamp) throws Exception {
 		if (!primary) {
-			throw new IllegalStateException("Cannot delete document " + uniqueId + " from replica:  index " + indexName + ":s" + shardNumber);
+			throw new IllegalStateException("Cannot index documents from replica:  index " + indexName + ":s" + shardNumber);
+		}
+
+		if (shardDocuments.isEmpty()) {
+			return;
 		}
 
 		if (trackingId != null) {
-			trackedIds.add(uniqueId);
+			trackedIdsLock.readLock().lock();
+			try {
+				if (trackingId != null) {
+					for (ShardDocument shardDocument : shardDocuments) {
+						trackedIds.add(shardDocument.uniqueId());
+					}
+				}
+			}
+			finally {
+				trackedIdsLock.readLock().unlock();
+			}
+		}
+
+		shardWriteManager.indexDocuments(shardDocuments, timestamp);
+		if (shardWriteManager.markedChangedCheckIfCommitNeeded(shardDocuments.size())) {
+			forceCommit();
+		}
+
+	}
+
+	private void trackId(String uniqueId) {
+		if (trackingId != null) {
+			trackedIdsLock.readLock().lock();
+			try {
+				if (trackingId != null) {
+					trackedIds.add(uniqueId);
+				}
+			}
+			finally {
+				trackedIdsLock.readLock().unlock();
+			}
 		}
+	}
+
+	public void deleteDocument(String uniqueId) throws Exception {
+		if (!primary) {
+			throw new IllegalStateException("Cannot delete document " + uniqueId + " from replica:  index " + indexName + ":s" + shardNumber);
+		}
+
+		trackId(uniqueId);
 
 		shardWriteManager.deleteDocuments(uniqueId);
 		if (shardWriteManager.markedChangedCheckIfCommitNeeded()) {
@@ -338,9 +464,7 @@ public class ZuliaShard {
 		try {
 			int count = shardReader.numDocs();
 			ShardCountResponse.Builder builder = ShardCountResponse.newBuilder().setNumberOfDocs(count).setShardNumber(shardNumber);
-			if (shardWriteManager != null) {
-				builder.setSizeOnDiskBytes(shardWriteManager.getSizeOnDiskBytes());
-			}
+			builder.setSizeOnDiskBytes(shardManager.getSizeOnDiskBytes());
 			return builder.build();
 		}
 		finally {
@@ -357,7 +481,7 @@ public class ZuliaShard {
 		ShardReader shardReader = shardReaderManager.acquire();
 
 		try {
-			return shardReader.getSourceDocument(uniqueId, resultFetchType, fieldsToReturn, fieldsToMask, realtime);
+			return shardReader.getSourceDocument(uniqueId, resultFetchType, fieldsToReturn, fieldsToMask);
 		}
 		finally {
 			shardReaderManager.decRef(shardReader);
@@ -372,7 +496,22 @@ public class ZuliaShard {
 		ShardReader shardReader = shardReaderManager.acquire();
 
 		try {
-			return shardReader.getSourceDocuments(uniqueIds, resultFetchType, fieldsToReturn, fieldsToMask, realtime);
+			return shardReader.getSourceDocuments(uniqueIds, resultFetchType, fieldsToReturn, fieldsToMask);
+		}
+		finally {
+			shardReaderManager.decRef(shardReader);
+		}
+	}
+
+	/**
+	 * Holds one reader for the whole scan so the documents come from a single point in time no matter how long the scan takes
+	 */
+	public void scan(Query query, FetchType resultFetchType, List<String> fieldsToReturn, List<String> fieldsToMask, int batchSize,
+			Consumer<List<ZuliaBase.ResultDocument>> batchConsumer) throws IOException {
+		ShardReader shardReader = shardReaderManager.acquire();
+
+		try {
+			shardReader.scan(query, resultFetchType, fieldsToReturn, fieldsToMask, batchSize, batchConsumer);
 		}
 		finally {
 			shardReaderManager.decRef(shardReader);
@@ -384,7 +523,11 @@ public class ZuliaShard {
 		ShardReader shardReader = shardReaderManager.acquire();
 
 		try {
-			return shardReader.getShardCacheStats().setPrimary(primary).build();
+			ZuliaBase.ShardCacheStats.Builder shardCacheStats = shardReader.getShardCacheStats().setPrimary(primary);
+			if (primary) {
+				shardCacheStats.setTaxonomyCache(shardWriteManager.getTaxonomyCacheStats());
+			}
+			return shardCacheStats.build();
 		}
 		finally {
 			shardReaderManager.decRef(shardReader);
@@ -0,0 +1,103 @@
+package io.zulia.server.index.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.zulia.message.ZuliaBase;
+import io.zulia.server.search.aggregation.facets.CountFacetInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.Query;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the facet counts of one dimension for the documents of a segment matching a filter only query (i.e. match all or drill downs) so the counts of
+ * repeated queries are summed from the per segment tables instead of reading the ordinals of every matching document.  Entries are keyed by the segment
+ * core and its number of deletions like {@link SegmentQueryResultCache} and are weighed by the number of ordinals counted.  The keys of each core are
+ * tracked so the entries of a closed core are dropped without scanning the cache.
+ */
+public class SegmentFacetCountCache {
+
+	public record SegmentFacetCountKey(IndexReader.CacheKey coreKey, int numDeletedDocs, Query query, String dimension) {
+
+	}
+
+	// an entry costs about as much as the ordinals it counts in a map, 1M counted ordinals is ~16MB
+	private static final int ENTRY_WEIGHT = 16;
+
+	private final Cache<@NotNull SegmentFacetCountKey, CountFacetInfo> cache;
+	private final Map<IndexReader.CacheKey, Set<SegmentFacetCountKey>> keysByCore;
+
+	public SegmentFacetCountCache(int maximumOrdinals) {
+		this.keysByCore = new ConcurrentHashMap<>();
+		this.cache = Caffeine.newBuilder().maximumWeight(maximumOrdinals).weigher(SegmentFacetCountCache::weigh)
+				.removalListener(this::onRemoval).recordStats().build();
+	}
+
+	private static int weigh(SegmentFacetCountKey key, CountFacetInfo countFacetInfo) {
+		return ENTRY_WEIGHT + countFacetInfo.getCountedOrdinals();
+	}
+
+	public CountFacetInfo get(LeafReader leafReader, Query query, String dimension) {
+		return cache.getIfPresent(getKey(leafReader, query, dimension));
+	}
+
+	/**
+	 * @param countFacetInfo compacted counts that are not modified after they are cached
+	 */
+	public void put(LeafReader leafReader, Query query, String dimension, CountFacetInfo countFacetInfo) {
+		IndexReader.CacheHelper coreCacheHelper = leafReader.getCoreCacheHelper();
+		SegmentFacetCountKey key = getKey(leafReader, query, dimension);
+		keysByCore.computeIfAbsent(key.coreKey(), coreKey -> {
+			coreCacheHelper.addClosedListener(this::evictCore);
+			return ConcurrentHashMap.newKeySet();
+		}).add(key);
+		cache.put(key, countFacetInfo);
+	}
+
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public void setMaximumOrdinals(int maximumOrdinals) {
+		cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximumOrdinals));
+	}
+
+	public ZuliaBase.CacheStats.Builder getCacheStats() {
+		CacheStats stats = cache.stats();
+		ZuliaBase.CacheStats.Builder b = ZuliaBase.CacheStats.newBuilder();
+		b.setEstimatedSize(cache.estimatedSize());
+		b.setHitCount(stats.hitCount());
+		b.setMissCount(stats.missCount());
+		b.setEvictionCount(stats.evictionCount());
+		cache.policy().eviction().ifPresent(eviction -> b.setResultSize(eviction.weightedSize().orElse(0)));
+		return b;
+	}
+
+	private void onRemoval(SegmentFacetCountKey key, CountFacetInfo countFacetInfo, RemovalCause cause) {
+		// a replaced entry is still cached under the key
+		if (key != null && cause != RemovalCause.REPLACED) {
+			Set<SegmentFacetCountKey> coreKeys = keysByCore.get(key.coreKey());
+			if (coreKeys != null) {
+				coreKeys.remove(key);
+			}
+		}
+	}
+
+	private void evictCore(IndexReader.CacheKey coreKey) {
+		Set<SegmentFacetCountKey> coreKeys = keysByCore.remove(coreKey);
+		if (coreKeys != null) {
+			cache.invalidateAll(coreKeys);
+		}
+	}
+
+	private static SegmentFacetCountKey getKey(LeafReader leafReader, Query query, String dimension) {
+		return new SegmentFacetCountKey(leafReader.getCoreCacheHelper().getKey(), leafReader.numDeletedDocs(), query, dimension);
+	}
+
+}
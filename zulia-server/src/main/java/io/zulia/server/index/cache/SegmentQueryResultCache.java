@@ -0,0 +1,88 @@
+package io.zulia.server.index.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.zulia.message.ZuliaBase;
+import io.zulia.server.search.QueryCacheKey;
+import io.zulia.server.search.aggregation.SegmentAggregation;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.search.TopFieldDocs;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches query results per segment so that a reopened shard reader only has to search new or changed segments.
+ * Entries are keyed by the segment core and its number of deletions, and are dropped when the segment core is closed.
+ */
+public class SegmentQueryResultCache {
+
+	public record SegmentQueryKey(IndexReader.CacheKey coreKey, int numDeletedDocs, int amount, QueryCacheKey queryCacheKey) {
+
+	}
+
+	// doc ids in topFieldDocs are local to the segment, segmentAggregation is null when no facets or stats were requested
+	public record SegmentQueryResult(TopFieldDocs topFieldDocs, SegmentAggregation segmentAggregation) {
+
+	}
+
+	private final Cache<@NotNull SegmentQueryKey, SegmentQueryResult> cache;
+	private final Set<IndexReader.CacheKey> trackedCores;
+
+	public SegmentQueryResultCache(int maximumSize) {
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+		this.trackedCores = ConcurrentHashMap.newKeySet();
+	}
+
+	public static boolean isCacheable(LeafReader leafReader) {
+		return leafReader.getCoreCacheHelper() != null;
+	}
+
+	public SegmentQueryResult get(LeafReader leafReader, int amount, QueryCacheKey queryCacheKey) {
+		return cache.getIfPresent(getKey(leafReader, amount, queryCacheKey));
+	}
+
+	public void put(LeafReader leafReader, int amount, QueryCacheKey queryCacheKey, SegmentQueryResult segmentQueryResult) {
+		IndexReader.CacheHelper coreCacheHelper = leafReader.getCoreCacheHelper();
+		IndexReader.CacheKey coreKey = coreCacheHelper.getKey();
+		if (trackedCores.add(coreKey)) {
+			coreCacheHelper.addClosedListener(this::evictCore);
+		}
+		cache.put(getKey(leafReader, amount, queryCacheKey), segmentQueryResult);
+	}
+
+	/**
+	 * Drops every cached result, entries survive reader refreshes so they have to be dropped when a settings change can change the results of a query
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	public void setMaximumSize(int maximumSize) {
+		cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maximumSize));
+	}
+
+	public ZuliaBase.CacheStats.Builder getCacheStats() {
+		CacheStats stats = cache.stats();
+		ZuliaBase.CacheStats.Builder b = ZuliaBase.CacheStats.newBuilder();
+		b.setEstimatedSize(cache.estimatedSize());
+		b.setHitCount(stats.hitCount());
+		b.setMissCount(stats.missCount());
+		b.setTotalLoadTime(stats.totalLoadTime() / 1_000_000);
+		b.setEvictionCount(stats.evictionCount());
+		return b;
+	}
+
+	private void evictCore(IndexReader.CacheKey coreKey) {
+		trackedCores.remove(coreKey);
+		cache.asMap().keySet().removeIf(segmentQueryKey -> segmentQueryKey.coreKey() == coreKey);
+	}
+
+	private static SegmentQueryKey getKey(LeafReader leafReader, int amount, QueryCacheKey queryCacheKey) {
+		return new SegmentQueryKey(leafReader.getCoreCacheHelper().getKey(), leafReader.numDeletedDocs(), amount, queryCacheKey);
+	}
+
+}
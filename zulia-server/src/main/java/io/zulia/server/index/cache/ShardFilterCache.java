@@ -0,0 +1,102 @@
+package io.zulia.server.index.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.zulia.message.ZuliaBase;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.TermQuery;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the matching doc ids of non-scoring clauses (FILTER, FILTER_NOT, TERMS, ...) per segment so repeated filters can be reused when combined with
+ * a different scoring query.  Unlike lucene's default cache it is sized per shard, caches segments of any size and builds the cached doc id set even when
+ * the scoring query is far more selective than the filter.
+ */
+public class ShardFilterCache {
+
+	private static final int MAX_CACHED_QUERIES = 4096;
+	private static final int RECENT_QUERY_HISTORY = 256;
+	private static final int MIN_USES_TO_CACHE = 2;
+
+	private final QueryCachingPolicy cachingPolicy;
+	private volatile LRUQueryCache queryCache;
+	private volatile int maximumSizeMB;
+
+	public ShardFilterCache(int maximumSizeMB) {
+		this.cachingPolicy = new FilterCachingPolicy();
+		this.maximumSizeMB = maximumSizeMB;
+		this.queryCache = createQueryCache(maximumSizeMB);
+	}
+
+	private static LRUQueryCache createQueryCache(int maximumSizeMB) {
+		return new LRUQueryCache(MAX_CACHED_QUERIES, maximumSizeMB * 1024L * 1024L, leaf -> true, Float.POSITIVE_INFINITY);
+	}
+
+	public void configure(IndexSearcher indexSearcher) {
+		indexSearcher.setQueryCache(queryCache);
+		indexSearcher.setQueryCachingPolicy(cachingPolicy);
+	}
+
+	public void setMaximumSizeMB(int maximumSizeMB) {
+		// lucene's query cache can not be resized so replace it, searchers pick up the new cache when they are created
+		if (this.maximumSizeMB != maximumSizeMB) {
+			this.maximumSizeMB = maximumSizeMB;
+			this.queryCache = createQueryCache(maximumSizeMB);
+		}
+	}
+
+	public void invalidateAll() {
+		queryCache.clear();
+	}
+
+	public ZuliaBase.CacheStats.Builder getCacheStats() {
+		LRUQueryCache queryCache = this.queryCache;
+		ZuliaBase.CacheStats.Builder b = ZuliaBase.CacheStats.newBuilder();
+		b.setEstimatedSize(queryCache.getCacheSize());
+		b.setHitCount(queryCache.getHitCount());
+		b.setMissCount(queryCache.getMissCount());
+		b.setEvictionCount(queryCache.getEvictionCount());
+		b.setResultSize(queryCache.ramBytesUsed());
+		return b;
+	}
+
+	/**
+	 * Caches a filter once it was used at least twice in the recent query history.  Queries that are already as cheap as reading a cached doc id set are
+	 * never cached.
+	 */
+	private static class FilterCachingPolicy implements QueryCachingPolicy {
+
+		private final Cache<@NotNull Query, AtomicInteger> recentUses = Caffeine.newBuilder().maximumSize(RECENT_QUERY_HISTORY).build();
+
+		@Override
+		public void onUse(Query query) {
+			if (!neverCache(query)) {
+				recentUses.get(query, k -> new AtomicInteger()).incrementAndGet();
+			}
+		}
+
+		@Override
+		public boolean shouldCache(Query query) {
+			if (neverCache(query)) {
+				return false;
+			}
+			AtomicInteger uses = recentUses.getIfPresent(query);
+			return uses != null && uses.get() >= MIN_USES_TO_CACHE;
+		}
+
+		private static boolean neverCache(Query query) {
+			if (query instanceof TermQuery || query instanceof MatchAllDocsQuery || query instanceof MatchNoDocsQuery) {
+				return true;
+			}
+			return query instanceof BooleanQuery booleanQuery && booleanQuery.clauses().isEmpty();
+		}
+	}
+}
@@ -1,65 +1,103 @@
 package io.zulia.server.index.cache;
 
-import com.koloboke.collect.map.ObjIntMap;
-import com.koloboke.collect.map.hash.HashObjIntMaps;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.zulia.message.ZuliaBase;
 import org.apache.lucene.facet.taxonomy.FacetLabel;
 import org.apache.lucene.facet.taxonomy.writercache.TaxonomyWriterCache;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Facet label to ordinal cache of the taxonomy writer of a shard.  Lookups do not lock so concurrent indexing threads do not serialize on it.  The cache
+ * is unbounded by default, when given a maximum size the least recently and frequently used labels are evicted by their estimated heap size and the
+ * taxonomy writer looks up evicted labels in the taxonomy index.  The maximum size is fixed when the cache is created because the taxonomy writer only
+ * learns about evictions from {@link #put(FacetLabel, int)}.
+ */
 public class ZuliaTaxonomyWriterCache implements TaxonomyWriterCache {
 
-	private ObjIntMap<FacetLabel> cache;
-	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-	private final Lock r = lock.readLock();
-	private final Lock w = lock.writeLock();
+	private static final int ENTRY_OVERHEAD_BYTES = 96;
+	private static final int COMPONENT_OVERHEAD_BYTES = 56;
+
+	private final Cache<@NotNull FacetLabel, Integer> cache;
+	private final AtomicBoolean evicted;
+	private final boolean bounded;
 
 	public ZuliaTaxonomyWriterCache() {
-		cache = HashObjIntMaps.getDefaultFactory().withDefaultValue(-1).newMutableMap();
+		this(0);
+	}
+
+	/**
+	 * @param maximumSizeBytes estimated heap size the cached labels can use, 0 for unbounded
+	 */
+	public ZuliaTaxonomyWriterCache(long maximumSizeBytes) {
+		this.evicted = new AtomicBoolean();
+		this.bounded = maximumSizeBytes > 0;
+		if (bounded) {
+			// evict on the calling thread so put can report evictions to the taxonomy writer before it returns
+			this.cache = Caffeine.newBuilder().maximumWeight(maximumSizeBytes).weigher(ZuliaTaxonomyWriterCache::weigh)
+					.evictionListener((label, ordinal, cause) -> evicted.set(true)).executor(Runnable::run).recordStats().build();
+		}
+		else {
+			this.cache = Caffeine.newBuilder().recordStats().build();
+		}
+	}
+
+	private static int weigh(FacetLabel label, Integer ordinal) {
+		int weight = ENTRY_OVERHEAD_BYTES;
+		for (int i = 0; i < label.length; i++) {
+			weight += COMPONENT_OVERHEAD_BYTES + 2 * label.components[i].length();
+		}
+		return weight;
 	}
 
 	@Override
 	public void close() {
 		clear();
-		cache = null;
 	}
 
 	@Override
 	public int get(FacetLabel categoryPath) {
-		r.lock();
-		try {
-			return cache.getInt(categoryPath);
-		}
-		finally {
-			r.unlock();
-		}
+		Integer ordinal = cache.getIfPresent(categoryPath);
+		return ordinal != null ? ordinal : -1;
 	}
 
 	@Override
 	public boolean put(FacetLabel categoryPath, int ordinal) {
-		w.lock();
-		try {
-			cache.put(categoryPath, ordinal);
+		cache.put(categoryPath, ordinal);
+		if (!bounded) {
+			return false;
 		}
-		finally {
-			w.unlock();
-		}
-		return false;
+		// the taxonomy writer stops trusting a miss once this returns true, so pending evictions must run before returning
+		cache.cleanUp();
+		return evicted.getAndSet(false);
 	}
 
 	@Override
 	public boolean isFull() {
-		return false;
+		return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0) >= eviction.getMaximum()).orElse(false);
 	}
 
 	@Override
 	public void clear() {
-		cache.clear();
+		cache.invalidateAll();
 	}
 
 	@Override
 	public int size() {
-		return cache.size();
+		return (int) cache.estimatedSize();
+	}
+
+	public ZuliaBase.CacheStats.Builder getCacheStats() {
+		CacheStats stats = cache.stats();
+		ZuliaBase.CacheStats.Builder b = ZuliaBase.CacheStats.newBuilder();
+		b.setEstimatedSize(cache.estimatedSize());
+		b.setHitCount(stats.hitCount());
+		b.setMissCount(stats.missCount());
+		b.setEvictionCount(stats.evictionCount());
+		cache.policy().eviction().ifPresent(eviction -> b.setResultSize(eviction.weightedSize().orElse(0)));
+		return b;
 	}
 }
@@ -0,0 +1,120 @@
+package io.zulia.server.index.federator;
+
+import io.zulia.message.ZuliaBase.MasterSlaveSettings;
+import io.zulia.message.ZuliaBase.Node;
+import io.zulia.message.ZuliaServiceOuterClass.BatchStoreResponse;
+import io.zulia.message.ZuliaServiceOuterClass.InternalBatchStoreRequest;
+import io.zulia.message.ZuliaServiceOuterClass.InternalShardBatchStoreRequest;
+import io.zulia.message.ZuliaServiceOuterClass.StoreRequest;
+import io.zulia.server.connection.client.InternalClient;
+import io.zulia.server.index.MasterSlaveSelector;
+import io.zulia.server.index.NodeRequestBase;
+import io.zulia.server.index.ZuliaIndex;
+import io.zulia.server.index.ZuliaIndexManager;
+import io.zulia.util.ShardUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class BatchStoreRequestFederator extends NodeRequestBase<InternalBatchStoreRequest, BatchStoreResponse> {
+
+	private final ExecutorService pool;
+	private final InternalClient internalClient;
+	private final ZuliaIndexManager indexManager;
+	private final Map<String, ZuliaIndex> indexCache;
+
+	public BatchStoreRequestFederator(Node thisNode, Collection<Node> otherNodesActive, ExecutorService pool, InternalClient internalClient,
+			ZuliaIndexManager indexManager, Map<String, ZuliaIndex> indexCache) {
+		super(thisNode, otherNodesActive);
+		this.pool = pool;
+		this.internalClient = internalClient;
+		this.indexManager = indexManager;
+		this.indexCache = indexCache;
+	}
+
+	@Override
+	protected BatchStoreResponse processInternal(Node node, InternalBatchStoreRequest request) throws Exception {
+		return BatchStoreResponse.newBuilder().setStoredCount(indexManager.internalBatchStore(request)).build();
+	}
+
+	@Override
+	protected BatchStoreResponse processExternal(Node node, InternalBatchStoreRequest request) throws Exception {
+		return internalClient.executeBatchStore(node, request);
+	}
+
+	public int send(List<StoreRequest> storeRequests) throws Exception {
+
+		if (storeRequests.isEmpty()) {
+			return 0;
+		}
+
+		List<Node> nodesAvailable = new ArrayList<>();
+		nodesAvailable.add(thisNode);
+		nodesAvailable.addAll(otherNodesActive);
+
+		// Group into shard-level batches keyed by (node, indexName, shardNumber), keeping the order of the stores within each shard
+		record ShardKey(Node node, String indexName, int shardNumber) {
+		}
+		Map<ShardKey, List<StoreRequest>> shardGroups = new LinkedHashMap<>();
+
+		Map<String, MasterSlaveSelector> selectorCache = new HashMap<>();
+
+		for (StoreRequest storeRequest : storeRequests) {
+			String indexName = storeRequest.getIndexName();
+			MasterSlaveSelector selector = selectorCache.computeIfAbsent(indexName, name -> {
+				ZuliaIndex index = indexCache.get(name);
+				return new MasterSlaveSelector(MasterSlaveSettings.MASTER_ONLY, nodesAvailable, index.getIndexShardMapping());
+			});
+			Node targetNode = selector.getNodeForUniqueId(storeRequest.getUniqueId());
+			int shardNumber = ShardUtil.findShardForUniqueId(storeRequest.getUniqueId(), indexCache.get(indexName).getNumberOfShards());
+			ShardKey key = new ShardKey(targetNode, indexName, shardNumber);
+			shardGroups.computeIfAbsent(key, k -> new ArrayList<>()).add(storeRequest);
+		}
+
+		// Group shard batches by node into InternalBatchStoreRequests
+		Map<Node, InternalBatchStoreRequest.Builder> nodeRequests = new LinkedHashMap<>();
+		for (Map.Entry<ShardKey, List<StoreRequest>> entry : shardGroups.entrySet()) {
+			ShardKey key = entry.getKey();
+			InternalShardBatchStoreRequest shardRequest = InternalShardBatchStoreRequest.newBuilder().setIndexName(key.indexName())
+					.setShardNumber(key.shardNumber()).addAllStoreRequest(entry.getValue()).build();
+			nodeRequests.computeIfAbsent(key.node(), k -> InternalBatchStoreRequest.newBuilder()).addShardBatchStoreRequest(shardRequest);
+		}
+
+		// Submit work per node in parallel
+		List<Future<BatchStoreResponse>> futures = new ArrayList<>(nodeRequests.size());
+
+		for (Map.Entry<Node, InternalBatchStoreRequest.Builder> entry : nodeRequests.entrySet()) {
+			Node node = entry.getKey();
+			InternalBatchStoreRequest nodeRequest = entry.getValue().build();
+
+			if (nodeIsLocal(node)) {
+				futures.add(pool.submit(() -> processInternal(node, nodeRequest)));
+			}
+			else {
+				futures.add(pool.submit(() -> processExternal(node, nodeRequest)));
+			}
+		}
+
+		int storedCount = 0;
+		for (Future<BatchStoreResponse> future : futures) {
+			try {
+				storedCount += future.get().getStoredCount();
+			}
+			catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Exception ex) {
+					throw ex;
+				}
+				throw new Exception(cause);
+			}
+		}
+		return storedCount;
+	}
+}
@@ -3,9 +3,12 @@ package io.zulia.server.index.federator;
 import io.zulia.message.ZuliaBase;
 import io.zulia.message.ZuliaBase.Node;
 import io.zulia.message.ZuliaServiceOuterClass.IndexRouting;
+import io.zulia.server.exceptions.ShardDoesNotExistException;
 import io.zulia.server.exceptions.ShardOfflineException;
 import io.zulia.server.index.MasterSlaveSelector;
+import io.zulia.server.index.NodeLatencyTracker;
 import io.zulia.server.index.ZuliaIndex;
+import io.zulia.server.node.ZuliaNode;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,6 +21,8 @@ import java.util.concurrent.ExecutorService;
 public abstract class MasterSlaveNodeRequestFederator<I, O> extends NodeRequestFederator<I, O> {
 
 	private Map<Node, List<IndexRouting>> nodeToRouting = new HashMap<>();
+	private final Map<String, MasterSlaveSelector> indexToSelector = new HashMap<>();
+	private final NodeLatencyTracker nodeLatencyTracker;
 
 	public MasterSlaveNodeRequestFederator(Node thisNode, Collection<Node> otherNodesActive, ZuliaBase.MasterSlaveSettings masterSlaveSettings,
 			ZuliaIndex index, ExecutorService pool) throws ShardOfflineException {
@@ -26,7 +31,13 @@ public abstract class MasterSlaveNodeRequestFederator<I, O> extends NodeRequestF
 
 	public MasterSlaveNodeRequestFederator(Node thisNode, Collection<Node> otherNodesActive, ZuliaBase.MasterSlaveSettings masterSlaveSettings,
 			Collection<ZuliaIndex> indexes, ExecutorService pool) throws ShardOfflineException {
+		this(thisNode, otherNodesActive, masterSlaveSettings, indexes, pool, null);
+	}
+
+	public MasterSlaveNodeRequestFederator(Node thisNode, Collection<Node> otherNodesActive, ZuliaBase.MasterSlaveSettings masterSlaveSettings,
+			Collection<ZuliaIndex> indexes, ExecutorService pool, NodeLatencyTracker nodeLatencyTracker) throws ShardOfflineException {
 		super(thisNode, otherNodesActive, pool);
+		this.nodeLatencyTracker = nodeLatencyTracker;
 
 		List<Node> nodesAvailable = new ArrayList<>();
 		nodesAvailable.add(thisNode);
@@ -34,7 +45,8 @@ public abstract class MasterSlaveNodeRequestFederator<I, O> extends NodeRequestF
 
 		for (ZuliaIndex index : indexes) {
 			io.zulia.message.ZuliaIndex.IndexShardMapping indexShardMapping = index.getIndexShardMapping();
-			MasterSlaveSelector masterSlaveSelector = new MasterSlaveSelector(masterSlaveSettings, nodesAvailable, indexShardMapping);
+			MasterSlaveSelector masterSlaveSelector = new MasterSlaveSelector(masterSlaveSettings, nodesAvailable, indexShardMapping, nodeLatencyTracker);
+			indexToSelector.put(index.getIndexName(), masterSlaveSelector);
 
 			Map<Node, IndexRouting.Builder> nodesForIndex = masterSlaveSelector.getNodesForIndex();
 
@@ -50,4 +62,33 @@ public abstract class MasterSlaveNodeRequestFederator<I, O> extends NodeRequestF
 	public List<IndexRouting> getIndexRouting(Node node) {
 		return nodeToRouting.get(node);
 	}
+
+	/**
+	 * Routes the shards sent to a node to the fastest other copy of each shard
+	 *
+	 * @return the routing for each node, empty when a shard has no other copy online
+	 */
+	protected Map<Node, List<IndexRouting>> getAlternateRouting(Node node) throws ShardDoesNotExistException {
+		Map<Node, Map<String, IndexRouting.Builder>> alternateRouting = new HashMap<>();
+		for (IndexRouting indexRouting : nodeToRouting.get(node)) {
+			MasterSlaveSelector masterSlaveSelector = indexToSelector.get(indexRouting.getIndex());
+			for (int shardNumber : indexRouting.getShardList()) {
+				List<Node> otherCopies = masterSlaveSelector.getOnlineCopies(shardNumber);
+				otherCopies.removeIf(copy -> ZuliaNode.isEqual(copy, node));
+				if (otherCopies.isEmpty()) {
+					return Collections.emptyMap();
+				}
+
+				Node alternateNode = nodeLatencyTracker != null ? nodeLatencyTracker.selectFastest(otherCopies) : otherCopies.getFirst();
+				alternateRouting.computeIfAbsent(alternateNode, k -> new HashMap<>())
+						.computeIfAbsent(indexRouting.getIndex(), index -> IndexRouting.newBuilder().setIndex(index)).addShard(shardNumber);
+			}
+		}
+
+		Map<Node, List<IndexRouting>> routing = new HashMap<>();
+		for (Map.Entry<Node, Map<String, IndexRouting.Builder>> entry : alternateRouting.entrySet()) {
+			routing.put(entry.getKey(), entry.getValue().values().stream().map(IndexRouting.Builder::build).toList());
+		}
+		return routing;
+	}
 }
@@ -1,13 +1,17 @@
 package io.zulia.server.index.federator;
 
+import io.grpc.Context;
 import io.zulia.message.ZuliaBase.Node;
 import io.zulia.server.index.NodeRequestBase;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -25,20 +29,7 @@ public abstract class NodeRequestFederator<I, O> extends NodeRequestBase<I, O> {
 
 	public List<O> send(final I request) throws Exception {
 
-		List<Future<O>> futureResponses = new ArrayList<>();
-
-		for (final Node node : nodes) {
-
-			Future<O> futureResponse = pool.submit(() -> {
-				if (nodeIsLocal(node)) {
-					return processInternal(node, request);
-				}
-				return processExternal(node, request);
-
-			});
-
-			futureResponses.add(futureResponse);
-		}
+		Collection<Future<O>> futureResponses = submit(request).values();
 
 		ArrayList<O> results = new ArrayList<>();
 		for (Future<O> response : futureResponses) {
@@ -62,4 +53,29 @@ public abstract class NodeRequestFederator<I, O> extends NodeRequestBase<I, O> {
 		return results;
 
 	}
+
+	protected Map<Node, Future<O>> submit(final I request) {
+
+		Map<Node, Future<O>> futureResponses = new LinkedHashMap<>();
+
+		for (final Node node : nodes) {
+
+			Callable<O> nodeRequest = () -> {
+				if (nodeIsLocal(node)) {
+					return processInternal(node, request);
+				}
+				return processExternal(node, request);
+
+			};
+
+			futureResponses.put(node, submit(nodeRequest));
+		}
+
+		return futureResponses;
+	}
+
+	protected <T> Future<T> submit(Callable<T> task) {
+		// run in the context of the caller so a cancelled request also cancels the requests it sends to other nodes
+		return pool.submit(Context.current().wrap(task));
+	}
 }
@@ -1,25 +1,41 @@
 package io.zulia.server.index.federator;
 
 import com.google.protobuf.util.JsonFormat;
+import io.grpc.Context;
 import io.zulia.message.ZuliaBase.MasterSlaveSettings;
 import io.zulia.message.ZuliaBase.Node;
 import io.zulia.message.ZuliaQuery.IndexShardResponse;
+import io.zulia.message.ZuliaServiceOuterClass.IndexRouting;
 import io.zulia.message.ZuliaServiceOuterClass.InternalQueryRequest;
 import io.zulia.message.ZuliaServiceOuterClass.InternalQueryResponse;
 import io.zulia.message.ZuliaServiceOuterClass.QueryRequest;
 import io.zulia.message.ZuliaServiceOuterClass.QueryResponse;
 import io.zulia.server.connection.client.InternalClient;
+import io.zulia.server.exceptions.ShardDoesNotExistException;
+import io.zulia.server.index.NodeLatencyTracker;
 import io.zulia.server.index.ZuliaIndex;
 import io.zulia.server.search.QueryCombiner;
+import io.zulia.server.search.QueryDeadline;
 import org.apache.lucene.search.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class QueryRequestFederator extends MasterSlaveNodeRequestFederator<QueryRequest, InternalQueryResponse> {
@@ -30,36 +46,63 @@ public class QueryRequestFederator extends MasterSlaveNodeRequestFederator<Query
 	private final Collection<ZuliaIndex> indexes;
 	private final Map<String, Query> queryMap;
 	private final long searchId;
+	private final NodeLatencyTracker nodeLatencyTracker;
+	private QueryDeadline queryDeadline;
 
 	public QueryRequestFederator(Node thisNode, Collection<Node> otherNodesActive, MasterSlaveSettings masterSlaveSettings, Collection<ZuliaIndex> indexes,
-			ExecutorService pool, InternalClient internalClient, Map<String, Query> queryMap) throws IOException {
-		super(thisNode, otherNodesActive, masterSlaveSettings, indexes, pool);
+			ExecutorService pool, InternalClient internalClient, Map<String, Query> queryMap, NodeLatencyTracker nodeLatencyTracker) throws IOException {
+		super(thisNode, otherNodesActive, masterSlaveSettings, indexes, pool, nodeLatencyTracker);
 		this.internalClient = internalClient;
 		this.indexes = indexes;
 		this.queryMap = queryMap;
 		this.searchId = QUERY_NUMBER.incrementAndGet();
+		this.nodeLatencyTracker = nodeLatencyTracker;
 	}
 
 	@Override
 	protected InternalQueryResponse processExternal(Node node, QueryRequest request) throws Exception {
-		InternalQueryRequest internalQueryRequest = InternalQueryRequest.newBuilder().addAllIndexRouting(getIndexRouting(node)).setQueryRequest(request)
-				.setSearchId(searchId).build();
-		return internalClient.executeQuery(node, internalQueryRequest);
+		return queryNode(node, getIndexRouting(node), request);
 	}
 
 	@Override
 	protected InternalQueryResponse processInternal(Node node, QueryRequest request) throws Exception {
-		InternalQueryRequest internalQueryRequest = InternalQueryRequest.newBuilder().addAllIndexRouting(getIndexRouting(node)).setQueryRequest(request)
-				.setSearchId(searchId).build();
-		return internalQuery(indexes, internalQueryRequest, queryMap);
+		return queryNode(node, getIndexRouting(node), request);
 	}
 
-	public static InternalQueryResponse internalQuery(Collection<ZuliaIndex> indexes, InternalQueryRequest request, Map<String, Query> queryMap)
-			throws Exception {
+	private InternalQueryResponse queryNode(Node node, List<IndexRouting> indexRouting, QueryRequest request) throws Exception {
+		InternalQueryRequest.Builder internalQueryRequest = InternalQueryRequest.newBuilder().addAllIndexRouting(indexRouting).setQueryRequest(request)
+				.setSearchId(searchId);
+
+		long start = nodeLatencyTracker.start(node);
+		boolean succeeded = false;
+		try {
+			InternalQueryResponse response;
+			if (nodeIsLocal(node)) {
+				response = internalQuery(indexes, internalQueryRequest.build(), queryMap, queryDeadline);
+			}
+			else {
+				response = internalClient.executeQuery(node, internalQueryRequest.setTimeoutMs(queryDeadline.getRemainingMs()).build());
+			}
+			succeeded = true;
+			return response;
+		}
+		finally {
+			// a cancelled hedge is interrupted and did not run to completion
+			if (succeeded && !Thread.currentThread().isInterrupted()) {
+				nodeLatencyTracker.finish(node, start);
+			}
+			else {
+				nodeLatencyTracker.fail(node);
+			}
+		}
+	}
+
+	public static InternalQueryResponse internalQuery(Collection<ZuliaIndex> indexes, InternalQueryRequest request, Map<String, Query> queryMap,
+			QueryDeadline queryDeadline) throws Exception {
 		InternalQueryResponse.Builder internalQueryResponseBuilder = InternalQueryResponse.newBuilder();
 		for (ZuliaIndex index : indexes) {
 			Query query = queryMap.get(index.getIndexName());
-			IndexShardResponse isr = index.internalQuery(query, request);
+			IndexShardResponse isr = index.internalQuery(query, request, queryDeadline);
 			internalQueryResponseBuilder.addIndexShardResponse(isr);
 		}
 		return internalQueryResponseBuilder.build();
@@ -69,6 +112,11 @@ public class QueryRequestFederator extends MasterSlaveNodeRequestFederator<Query
 
 		long start = System.currentTimeMillis();
 
+		// the full fetch retry shares the time limit of the original request
+		if (queryDeadline == null) {
+			queryDeadline = new QueryDeadline(request.getTimeoutMs());
+		}
+
 		String queryJson = JsonFormat.printer().print(request);
 
 		queryJson = queryJson.replace('\n', ' ').replaceAll("\\s+", " ");
@@ -82,7 +130,7 @@ public class QueryRequestFederator extends MasterSlaveNodeRequestFederator<Query
 			LOG.info("Running id {} with label {} query {}", searchId, searchLabel, queryJson);
 		}
 
-		List<InternalQueryResponse> results = send(request);
+		List<InternalQueryResponse> results = sendQuery(request);
 
 		long mergeStart = System.currentTimeMillis();
 
@@ -92,7 +140,8 @@ public class QueryRequestFederator extends MasterSlaveNodeRequestFederator<Query
 
 		long end = System.currentTimeMillis();
 		handleLog(searchId, searchLabel, request.getDebug(), qr, results, end - start, end - mergeStart);
-		if (!queryCombiner.isShort()) {
+		// a timed out response can be short because the shards stopped early, retrying would not have time to do better
+		if (!queryCombiner.isShort() || qr.getTimedOut()) {
 			return qr;
 		}
 		else {
@@ -105,6 +154,152 @@ public class QueryRequestFederator extends MasterSlaveNodeRequestFederator<Query
 
 	}
 
+	/**
+	 * Waits for every node unless the request allows missing shards or hedging.  Nodes that fail or do not respond before the query deadline (plus time
+	 * to return partial results) are left out when missing shards are allowed, the query combiner lists their shards as missing and checks that enough
+	 * shards of every index responded.  Missing shards are only allowed with a timeout (see QueryRequestValidator) so a slow node cannot hold up the
+	 * query.  Nodes slower than the hedge percentile of recent node latencies also have their shards requested from other copies and the first answer
+	 * is used.
+	 */
+	private List<InternalQueryResponse> sendQuery(QueryRequest request) throws Exception {
+		boolean allowMissingShards = request.getMinShardResponseRatio() > 0;
+		long hedgeAfterNanos = getHedgeAfterNanos(request);
+		if (!allowMissingShards && hedgeAfterNanos < 0) {
+			return send(request);
+		}
+
+		long start = System.nanoTime();
+		long waitUntil = Long.MAX_VALUE;
+		if (allowMissingShards && queryDeadline.isLimited()) {
+			waitUntil = start + TimeUnit.MILLISECONDS.toNanos(queryDeadline.getRemainingMs() + QueryDeadline.RESPONSE_GRACE_MS);
+		}
+
+		Map<Node, Future<InternalQueryResponse>> responses = submit(request);
+
+		// the hedge timers of all nodes start now so waiting on a slow node does not delay the hedge of the next one
+		Map<Node, Future<List<InternalQueryResponse>>> hedgedResponses = new HashMap<>();
+		if (hedgeAfterNanos >= 0 && start + hedgeAfterNanos < waitUntil) {
+			for (Map.Entry<Node, Future<InternalQueryResponse>> entry : responses.entrySet()) {
+				hedgedResponses.put(entry.getKey(), getHedgedResponse(entry.getKey(), entry.getValue(), request, hedgeAfterNanos));
+			}
+		}
+
+		List<InternalQueryResponse> results = new ArrayList<>();
+		for (Map.Entry<Node, Future<InternalQueryResponse>> entry : responses.entrySet()) {
+			Node node = entry.getKey();
+			Future<InternalQueryResponse> response = entry.getValue();
+			Future<List<InternalQueryResponse>> hedgedResponse = hedgedResponses.get(node);
+			try {
+				if (hedgedResponse != null) {
+					results.addAll(await(hedgedResponse, waitUntil));
+				}
+				else {
+					results.add(await(response, waitUntil));
+				}
+			}
+			catch (ExecutionException | TimeoutException e) {
+				response.cancel(true);
+				if (hedgedResponse != null) {
+					hedgedResponse.cancel(true);
+				}
+				Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+				if (!allowMissingShards) {
+					throw cause instanceof Exception ex ? ex : e;
+				}
+				LOG.warn("Query id {} continuing without the shards of node {}:{}: {}", searchId, node.getServerAddress(), node.getServicePort(),
+						cause.toString());
+			}
+		}
+		return results;
+	}
+
+	private long getHedgeAfterNanos(QueryRequest request) {
+		// the other copies of a shard are only interchangeable when the request does not ask for the primary or replicas specifically
+		if (request.getHedgePercentile() == 0 || !MasterSlaveSettings.FASTEST_AVAILABLE.equals(request.getMasterSlaveSettings())) {
+			return -1;
+		}
+		return nodeLatencyTracker.getLatencyPercentileNanos(request.getHedgePercentile());
+	}
+
+	/**
+	 * @return the response of the node or, if the node has not responded after the hedge delay, the responses of the other copies of its shards,
+	 * whichever completes first.  The slower requests are cancelled once it completes or is cancelled
+	 */
+	private CompletableFuture<List<InternalQueryResponse>> getHedgedResponse(Node node, Future<InternalQueryResponse> response, QueryRequest request,
+			long hedgeAfterNanos) {
+		CompletableFuture<List<InternalQueryResponse>> firstResponse = new CompletableFuture<>();
+		// the hedge adds itself when it starts so a node that fails before the hedge delay fails the response like an unhedged node
+		AtomicInteger remaining = new AtomicInteger(1);
+		List<Future<InternalQueryResponse>> hedgeResponses = new CopyOnWriteArrayList<>();
+
+		submit(() -> completeFirst(firstResponse, remaining, () -> List.of(response.get())));
+
+		Executor hedgeTimer = CompletableFuture.delayedExecutor(hedgeAfterNanos, TimeUnit.NANOSECONDS);
+		hedgeTimer.execute(Context.current().wrap(() -> {
+			if (firstResponse.isDone()) {
+				return;
+			}
+
+			Map<Node, List<IndexRouting>> alternateRouting;
+			try {
+				alternateRouting = getAlternateRouting(node);
+			}
+			catch (ShardDoesNotExistException e) {
+				return;
+			}
+			if (alternateRouting.isEmpty()) {
+				return;
+			}
+
+			LOG.info("Query id {} hedging node {}:{} with {} other nodes", searchId, node.getServerAddress(), node.getServicePort(), alternateRouting.size());
+
+			remaining.incrementAndGet();
+			for (Map.Entry<Node, List<IndexRouting>> entry : alternateRouting.entrySet()) {
+				hedgeResponses.add(submit(() -> queryNode(entry.getKey(), entry.getValue(), request)));
+			}
+			submit(() -> completeFirst(firstResponse, remaining, () -> {
+				List<InternalQueryResponse> hedgedResults = new ArrayList<>();
+				for (Future<InternalQueryResponse> hedgeResponse : hedgeResponses) {
+					hedgedResults.add(hedgeResponse.get());
+				}
+				return hedgedResults;
+			}));
+
+			// the response can complete while the hedges are sent
+			if (firstResponse.isDone()) {
+				hedgeResponses.forEach(hedgeResponse -> hedgeResponse.cancel(true));
+			}
+		}));
+
+		// cancelling the slower requests also cancels their internal queries on the other nodes
+		firstResponse.whenComplete((responses, throwable) -> {
+			response.cancel(true);
+			hedgeResponses.forEach(hedgeResponse -> hedgeResponse.cancel(true));
+		});
+		return firstResponse;
+	}
+
+	private static Void completeFirst(CompletableFuture<List<InternalQueryResponse>> firstResponse, AtomicInteger remaining,
+			Callable<List<InternalQueryResponse>> responses) {
+		try {
+			firstResponse.complete(responses.call());
+		}
+		catch (Exception e) {
+			// fails only when the node and its hedge both failed
+			if (remaining.decrementAndGet() == 0) {
+				firstResponse.completeExceptionally(e instanceof ExecutionException ? e.getCause() : e);
+			}
+		}
+		return null;
+	}
+
+	private static <T> T await(Future<T> future, long waitUntil) throws Exception {
+		if (waitUntil == Long.MAX_VALUE) {
+			return future.get();
+		}
+		return future.get(Math.max(0, waitUntil - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
 	private static void handleLog(long queryId, String searchLabel, boolean debug, QueryResponse qr, List<InternalQueryResponse> results, long time,
 			long mergeTime) {
 		String prefix = "Finished query";
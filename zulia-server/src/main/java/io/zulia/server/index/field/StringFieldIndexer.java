@@ -8,20 +8,30 @@ import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
 
 public class StringFieldIndexer extends FieldIndexer {
 
 	private final static FieldType notStoredTextField;
+	private final static FieldType notStoredTextFieldWithOffsets;
 
 	static {
 		notStoredTextField = new FieldType(TextField.TYPE_NOT_STORED);
 		notStoredTextField.freeze();
+
+		notStoredTextFieldWithOffsets = new FieldType(TextField.TYPE_NOT_STORED);
+		notStoredTextFieldWithOffsets.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+		notStoredTextFieldWithOffsets.freeze();
 	}
 
-	public static final StringFieldIndexer INSTANCE = new StringFieldIndexer();
+	public static final StringFieldIndexer INSTANCE = new StringFieldIndexer(notStoredTextField);
+
+	public static final StringFieldIndexer WITH_OFFSETS_INSTANCE = new StringFieldIndexer(notStoredTextFieldWithOffsets);
 
-	protected StringFieldIndexer() {
+	private final FieldType fieldType;
 
+	protected StringFieldIndexer(FieldType fieldType) {
+		this.fieldType = fieldType;
 	}
 
 	@Override
@@ -29,7 +39,7 @@ public class StringFieldIndexer extends FieldIndexer {
 
 		if (value != null) {
 			String val = value.toString();
-			d.add((new Field(FieldTypeUtil.getIndexField(indexedFieldName, FieldConfig.FieldType.STRING), val, notStoredTextField)));
+			d.add((new Field(FieldTypeUtil.getIndexField(indexedFieldName, FieldConfig.FieldType.STRING), val, fieldType)));
 			int length = val.length();
 			d.add(new IntPoint(FieldTypeUtil.getCharLengthIndexField(indexedFieldName), length));
 			d.add(new SortedNumericDocValuesField(FieldTypeUtil.getCharLengthSortField(indexedFieldName), length));
@@ -38,6 +38,7 @@ import jakarta.inject.Singleton;
 @SerdeImport(value = ZuliaBase.ShardCacheStats.class, mixin = ShardCacheStatsModifier.class)
 @SerdeImport(value = ZuliaBase.ShardCacheStats.class, mixin = ProtoIgnoredGetters.class)
 @SerdeImport(value = ZuliaBase.CacheStats.class, mixin = ProtoIgnoredGetters.class)
+@SerdeImport(value = ZuliaBase.QueryExecutionStats.class, mixin = ProtoIgnoredGetters.class)
 @SerdeImport(TermDTO.class)
 @SerdeImport(TermsResponseDTO.class)
 @SerdeImport(HealthResultDTO.class)
@@ -44,7 +44,7 @@ public class StatsController {
 
 	@Get(ZuliaRESTConstants.STATS_URL)
 	@Produces(ZuliaRESTConstants.UTF8_JSON)
-	@Operation(summary = "Get node statistics", description = "Returns JVM memory usage, disk space, Zulia version, and per-index statistics for the current node")
+	@Operation(summary = "Get node statistics", description = "Returns JVM memory usage, disk space, Zulia version, query execution and per-index statistics for the current node")
 	public NodeStats getStats() throws IOException {
 
 		ZuliaIndexManager indexManager = zuliaNode.getIndexManager();
@@ -69,6 +69,7 @@ public class StatsController {
 
 		List<ZuliaBase.IndexStats> stats = indexManager.getIndexStats();
 		nodeStats.addAllIndexStat(stats);
+		nodeStats.setQueryExecutionStats(indexManager.getQueryExecutionStats());
 
 		return nodeStats.build();
 
@@ -12,14 +12,16 @@ public class QueryCacheKey {
 
 		// make sure it has the same signature as an unpinned search
 
-		// remove the search label and concurrency from caching consideration as well
+		// remove the search label, concurrency and timeout from caching consideration as well, timed out responses are not cached and a query that
+		// shares the computation of a query that timed out searches again if it still has time
 
 		// clear out all indexes from the request except for this index
 		// this allows caching to happen at the index level, i.e. ->
 		//  * the caching for identical queries searched again two indexes could be used for a combined query against two indexes
 		//  * the two identical queries against different aliases pointed at the same index would be cache hits for each other
 
-		this.queryRequest = queryRequest.toBuilder().clearIndex().setPinToCache(false).setSearchLabel("").setConcurrency(1).build();
+		this.queryRequest = queryRequest.toBuilder().clearIndex().setPinToCache(false).setSearchLabel("").setConcurrency(1).setTimeoutMs(0)
+				.build();
 	}
 
 	public boolean isPinned() {
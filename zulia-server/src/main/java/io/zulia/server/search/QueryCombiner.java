@@ -11,6 +11,7 @@ import io.zulia.message.ZuliaQuery.FieldSort;
 import io.zulia.message.ZuliaQuery.IndexShardResponse;
 import io.zulia.message.ZuliaQuery.LastIndexResult;
 import io.zulia.message.ZuliaQuery.LastResult;
+import io.zulia.message.ZuliaQuery.MissingShard;
 import io.zulia.message.ZuliaQuery.ScoredResult;
 import io.zulia.message.ZuliaQuery.ShardQueryResponse;
 import io.zulia.message.ZuliaQuery.SortRequest;
@@ -35,6 +36,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 public class QueryCombiner {
 
@@ -49,6 +51,8 @@ public class QueryCombiner {
 	private final SortRequest sortRequest;
 	private final Collection<ZuliaIndex> indexes;
 	private final Map<String, Integer> indexToShardCount;
+	private final double minShardResponseRatio;
+	private final List<MissingShard> missingShards;
 	private boolean isShort;
 
 	public QueryCombiner(Collection<ZuliaIndex> indexes, QueryRequest request, List<InternalQueryResponse> responses) {
@@ -68,6 +72,8 @@ public class QueryCombiner {
 		this.sortRequest = request.getSortRequest();
 		this.start = request.getStart();
 		this.analysisRequestList = request.getAnalysisRequestList();
+		this.minShardResponseRatio = request.getMinShardResponseRatio();
+		this.missingShards = new ArrayList<>();
 
 		this.isShort = false;
 
@@ -99,6 +105,12 @@ public class QueryCombiner {
 
 		for (ZuliaIndex index : indexes) {
 			int numberOfShards = index.getNumberOfShards();
+
+			if (minShardResponseRatio > 0) {
+				validateAllowingMissingShards(index.getIndexName(), numberOfShards);
+				continue;
+			}
+
 			Map<Integer, ShardQueryResponse> shardResponseMap = indexToShardQueryResponseMap.get(index.getIndexName());
 
 			if (shardResponseMap == null) {
@@ -117,17 +129,36 @@ public class QueryCombiner {
 		}
 	}
 
+	private void validateAllowingMissingShards(String indexName, int numberOfShards) throws Exception {
+		Map<Integer, ShardQueryResponse> shardResponseMap = indexToShardQueryResponseMap.computeIfAbsent(indexName, k -> new HashMap<>());
+
+		for (int shardNumber = 0; shardNumber < numberOfShards; shardNumber++) {
+			if (!shardResponseMap.containsKey(shardNumber)) {
+				missingShards.add(MissingShard.newBuilder().setIndexName(indexName).setShardNumber(shardNumber).build());
+			}
+		}
+
+		if ((double) shardResponseMap.size() / numberOfShards < minShardResponseRatio) {
+			throw new Exception("Found " + shardResponseMap.size() + " of " + numberOfShards + " shards for " + indexName + " below minimum shard response ratio "
+					+ minShardResponseRatio);
+		}
+	}
+
 	public QueryResponse getQueryResponse() throws Exception {
 
 		validate();
 
 		long totalHits = 0;
+		boolean totalHitsLowerBound = false;
+		boolean timedOut = false;
 		long returnedHits = 0;
 		int shardsCached = 0;
 		int shardsPinned = 0;
 
 		for (ShardQueryResponse sr : shardResponses) {
 			totalHits += sr.getTotalHits();
+			totalHitsLowerBound |= sr.getTotalHitsLowerBound();
+			timedOut |= sr.getTimedOut();
 			returnedHits += sr.getScoredResultList().size();
 			if (sr.getCached()) {
 				shardsCached++;
@@ -142,10 +173,13 @@ public class QueryCombiner {
 
 		QueryResponse.Builder builder = QueryResponse.newBuilder();
 		builder.setTotalHits(totalHits);
+		builder.setTotalHitsLowerBound(totalHitsLowerBound);
+		builder.setTimedOut(timedOut);
 		builder.setFullyCached(fullyCached);
 		builder.setShardsCached(shardsCached);
 		builder.setShardsPinned(shardsPinned);
 		builder.setShardsQueried(shardResponses.size());
+		builder.addAllMissingShard(missingShards);
 
 		int resultsSize = Math.min(amount, (int) returnedHits);
 
@@ -207,7 +241,12 @@ public class QueryCombiner {
 
 		for (FacetCombiner facetCombiner : facetCombinerMap.values()) {
 			if (facetCombiner.isComplete()) {
-				builder.addFacetGroup(facetCombiner.getCombinedFacetGroup());
+				FacetGroup facetGroup = facetCombiner.getCombinedFacetGroup();
+				if (!missingShards.isEmpty()) {
+					// nothing is known about the counts of shards that did not respond so the counts and errors cannot include them
+					facetGroup = facetGroup.toBuilder().setMissingShards(missingShards.size()).build();
+				}
+				builder.addFacetGroup(facetGroup);
 			}
 		}
 
@@ -248,20 +287,14 @@ public class QueryCombiner {
 
 		boolean sorting = (sortRequest != null && !sortRequest.getFieldSortList().isEmpty());
 
-		List<ScoredResult> mergedResults = new ArrayList<>(returnedHits);
-		for (ShardQueryResponse sr : shardResponses) {
-			mergedResults.addAll(sr.getScoredResultList());
-		}
-
-		if (!mergedResults.isEmpty()) {
+		if (returnedHits > 0) {
 
 			List<FieldSort> fieldSortList = sortRequest != null ? sortRequest.getFieldSortList() : Collections.emptyList();
 			HashMap<String, FieldConfig.FieldType> sortTypeMap = createSortTypeMap(fieldSortList);
 
 			Comparator<ScoredResult> comparator = new ZuliaPostSortingComparator(fieldSortList, sortTypeMap);
-			mergedResults.sort(comparator);
 
-			results = mergedResults.subList(0, resultsSize);
+			results = mergeSortedShardResults(comparator, resultsSize);
 
 			for (ScoredResult sr : results) {
 				ScoredResult[] lastForShardArr = lastIndexResultMap.get(sr.getIndexName());
@@ -297,7 +330,7 @@ public class QueryCombiner {
 				Map<Integer, ShardQueryResponse> shardResponseMap = indexToShardQueryResponseMap.get(indexName);
 				for (int shardNumber = 0; shardNumber < numberOfShards; shardNumber++) {
 					ShardQueryResponse sr = shardResponseMap.get(shardNumber);
-					if (sr.hasNext()) {
+					if (sr != null && sr.hasNext()) {
 						ScoredResult next = sr.getNext();
 						int compare = comparator.compare(lastForIndex, next);
 						if (compare > 0) {
@@ -345,6 +378,54 @@ public class QueryCombiner {
 		return results;
 	}
 
+	/**
+	 * Each shard returns its results already in order so only the head result of every shard is compared.  Ties go to the shard that responded first
+	 * which gives the same order as a stable sort of all the shard results.
+	 */
+	private List<ScoredResult> mergeSortedShardResults(Comparator<ScoredResult> comparator, int resultsSize) {
+		PriorityQueue<ShardResultCursor> heads = new PriorityQueue<>(shardResponses.size(), (c1, c2) -> {
+			int compare = comparator.compare(c1.current(), c2.current());
+			return compare != 0 ? compare : Integer.compare(c1.shardIndex, c2.shardIndex);
+		});
+
+		int shardIndex = 0;
+		for (ShardQueryResponse sr : shardResponses) {
+			if (sr.getScoredResultCount() > 0) {
+				heads.add(new ShardResultCursor(shardIndex, sr.getScoredResultList()));
+			}
+			shardIndex++;
+		}
+
+		List<ScoredResult> results = new ArrayList<>(resultsSize);
+		while (results.size() < resultsSize && !heads.isEmpty()) {
+			ShardResultCursor cursor = heads.poll();
+			results.add(cursor.current());
+			if (cursor.advance()) {
+				heads.add(cursor);
+			}
+		}
+		return results;
+	}
+
+	private static class ShardResultCursor {
+		private final int shardIndex;
+		private final List<ScoredResult> scoredResults;
+		private int position;
+
+		private ShardResultCursor(int shardIndex, List<ScoredResult> scoredResults) {
+			this.shardIndex = shardIndex;
+			this.scoredResults = scoredResults;
+		}
+
+		private ScoredResult current() {
+			return scoredResults.get(position);
+		}
+
+		private boolean advance() {
+			return ++position < scoredResults.size();
+		}
+	}
+
 	private HashMap<String, FieldConfig.FieldType> createSortTypeMap(List<FieldSort> fieldSortList) throws Exception {
 		HashMap<String, FieldConfig.FieldType> sortTypeMap = new HashMap<>();
 
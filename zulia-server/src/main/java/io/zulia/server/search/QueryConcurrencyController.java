@@ -0,0 +1,326 @@
+package io.zulia.server.search;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.zulia.message.ZuliaBase;
+import io.zulia.server.exceptions.QueryRejectedException;
+import io.zulia.util.pool.TaskExecutor;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node wide execution of queries across all indexes.  Queries are admitted up to a limit of concurrent queries, the rest wait in a bounded queue that is
+ * drained round robin across index and search label so a busy index does not starve a quiet one, and a query is rejected early when the queue is full.
+ * <p>
+ * The segment search, aggregation and shard tasks of all queries run on one shared executor.  The segment parallelism of each query is picked when the
+ * query starts from the number of slices of the shard, the size of the shard, the number of queries running and the free task slots.  When the node is
+ * saturated a segment task runs on the thread of the query instead of waiting for a free slot
+ */
+public class QueryConcurrencyController implements AutoCloseable {
+
+	// lucene defaults for grouping segments into the slices that are searched in parallel
+	private static final int MAX_DOCS_PER_SLICE = 250_000;
+	private static final int MAX_SEGMENTS_PER_SLICE = 5;
+
+	// below this many documents per task the cost of handing off a slice outweighs searching it on the query thread
+	private static final int MIN_DOCS_PER_TASK = 50_000;
+
+	// defaults relative to the segment task limit, queries spend part of their time outside the segment tasks (i.e. fetching documents)
+	private static final int DEFAULT_CONCURRENT_QUERIES_PER_SEGMENT_TASK = 4;
+	private static final int DEFAULT_QUEUED_QUERIES_PER_CONCURRENT_QUERY = 16;
+
+	private record QueueKey(String indexName, String searchLabel) {
+
+	}
+
+	private static class QueuedQuery {
+		private final QueueKey queueKey;
+		private final CountDownLatch admittedLatch;
+		private boolean admitted;
+
+		private QueuedQuery(QueueKey queueKey) {
+			this.queueKey = queueKey;
+			this.admittedLatch = new CountDownLatch(1);
+		}
+	}
+
+	private final int maxSegmentTasks;
+	private final Semaphore segmentTasks;
+	private final AtomicInteger runningQueries;
+	private final ListeningExecutorService executorService;
+
+	private final int maxConcurrentQueries;
+	private final int maxQueuedQueries;
+	private final LinkedHashMap<QueueKey, ArrayDeque<QueuedQuery>> queryQueues;
+	private int activeQueries;
+	private int queuedQueries;
+
+	private final LongAdder admittedCount;
+	private final LongAdder rejectedCount;
+	private final LongAdder waitNanos;
+	private final LongAdder runNanos;
+
+	public QueryConcurrencyController(int maxSegmentTasks) {
+		this(maxSegmentTasks, 0, 0);
+	}
+
+	/**
+	 * @param maxSegmentTasks      segment search tasks running at once across all shards
+	 * @param maxConcurrentQueries queries running at once across all indexes, 0 defaults to a multiple of the segment tasks
+	 * @param maxQueuedQueries     queries waiting to run before new queries are rejected, 0 defaults to a multiple of the concurrent queries
+	 */
+	public QueryConcurrencyController(int maxSegmentTasks, int maxConcurrentQueries, int maxQueuedQueries) {
+		this.maxSegmentTasks = maxSegmentTasks;
+		this.segmentTasks = new Semaphore(maxSegmentTasks);
+		this.runningQueries = new AtomicInteger();
+		this.executorService = MoreExecutors.listeningDecorator(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("query-", 0).factory()));
+
+		this.maxConcurrentQueries = maxConcurrentQueries > 0 ? maxConcurrentQueries : maxSegmentTasks * DEFAULT_CONCURRENT_QUERIES_PER_SEGMENT_TASK;
+		this.maxQueuedQueries = maxQueuedQueries > 0 ? maxQueuedQueries : this.maxConcurrentQueries * DEFAULT_QUEUED_QUERIES_PER_CONCURRENT_QUERY;
+		this.queryQueues = new LinkedHashMap<>();
+
+		this.admittedCount = new LongAdder();
+		this.rejectedCount = new LongAdder();
+		this.waitNanos = new LongAdder();
+		this.runNanos = new LongAdder();
+	}
+
+	public int getMaxSegmentTasks() {
+		return maxSegmentTasks;
+	}
+
+	public int getRunningQueries() {
+		return runningQueries.get();
+	}
+
+	public int getRunningSegmentTasks() {
+		return maxSegmentTasks - segmentTasks.availablePermits();
+	}
+
+	public synchronized int getActiveQueries() {
+		return activeQueries;
+	}
+
+	public synchronized int getQueuedQueries() {
+		return queuedQueries;
+	}
+
+	public ZuliaBase.QueryExecutionStats.Builder getQueryExecutionStats() {
+		ZuliaBase.QueryExecutionStats.Builder b = ZuliaBase.QueryExecutionStats.newBuilder();
+		synchronized (this) {
+			b.setActiveQueries(activeQueries);
+			b.setQueuedQueries(queuedQueries);
+		}
+		b.setMaxConcurrentQueries(maxConcurrentQueries);
+		b.setMaxQueuedQueries(maxQueuedQueries);
+		b.setAdmittedCount(admittedCount.sum());
+		b.setRejectedCount(rejectedCount.sum());
+		b.setTotalWaitMs(TimeUnit.NANOSECONDS.toMillis(waitNanos.sum()));
+		b.setTotalRunMs(TimeUnit.NANOSECONDS.toMillis(runNanos.sum()));
+		b.setRunningSegmentTasks(getRunningSegmentTasks());
+		b.setMaxSegmentTasks(maxSegmentTasks);
+		return b;
+	}
+
+	/**
+	 * Runs a task on the shared executor (i.e. one task per shard of a query or command)
+	 */
+	public <T> ListenableFuture<T> submit(Callable<T> task) {
+		return executorService.submit(task);
+	}
+
+	/**
+	 * Waits for a free query slot, queries waiting for the same index and search label are admitted in order and queries of different indexes or search
+	 * labels take turns
+	 *
+	 * @param queryDeadline deadline of the query, the query stops waiting and is rejected when it passes
+	 * @return permit that must be closed when the query finishes
+	 * @throws QueryRejectedException when the queue is full or the deadline passes while waiting
+	 */
+	public QueryPermit admit(String indexName, String searchLabel, QueryDeadline queryDeadline) throws QueryRejectedException {
+		QueuedQuery queuedQuery;
+		synchronized (this) {
+			if (activeQueries < maxConcurrentQueries && queuedQueries == 0) {
+				activeQueries++;
+				admittedCount.increment();
+				return new QueryPermit(System.nanoTime());
+			}
+			if (queuedQueries >= maxQueuedQueries) {
+				rejectedCount.increment();
+				throw new QueryRejectedException(indexName, "<" + queuedQueries + "> queries are already queued");
+			}
+			queuedQuery = new QueuedQuery(new QueueKey(indexName, searchLabel));
+			queryQueues.computeIfAbsent(queuedQuery.queueKey, k -> new ArrayDeque<>()).add(queuedQuery);
+			queuedQueries++;
+		}
+
+		long waitStart = System.nanoTime();
+		try {
+			if (queryDeadline != null && queryDeadline.isLimited()) {
+				queuedQuery.admittedLatch.await(queryDeadline.getRemainingMs(), TimeUnit.MILLISECONDS);
+			}
+			else {
+				queuedQuery.admittedLatch.await();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		synchronized (this) {
+			if (!queuedQuery.admitted) {
+				ArrayDeque<QueuedQuery> queue = queryQueues.get(queuedQuery.queueKey);
+				queue.remove(queuedQuery);
+				if (queue.isEmpty()) {
+					queryQueues.remove(queuedQuery.queueKey);
+				}
+				queuedQueries--;
+				rejectedCount.increment();
+				throw new QueryRejectedException(indexName, "query deadline passed waiting in the queue");
+			}
+		}
+
+		long now = System.nanoTime();
+		waitNanos.add(now - waitStart);
+		return new QueryPermit(now);
+	}
+
+	private synchronized void finishQuery(long runTime) {
+		runNanos.add(runTime);
+		activeQueries--;
+
+		while (activeQueries < maxConcurrentQueries && queuedQueries > 0) {
+			// the queue taking the next turn moves to the end so queues with waiting queries are served round robin
+			Iterator<Map.Entry<QueueKey, ArrayDeque<QueuedQuery>>> queueIterator = queryQueues.entrySet().iterator();
+			Map.Entry<QueueKey, ArrayDeque<QueuedQuery>> next = queueIterator.next();
+			queueIterator.remove();
+
+			ArrayDeque<QueuedQuery> queue = next.getValue();
+			QueuedQuery queuedQuery = queue.poll();
+			if (!queue.isEmpty()) {
+				queryQueues.put(next.getKey(), queue);
+			}
+
+			queuedQueries--;
+			activeQueries++;
+			admittedCount.increment();
+			queuedQuery.admitted = true;
+			queuedQuery.admittedLatch.countDown();
+		}
+	}
+
+	/**
+	 * @param maxConcurrency concurrency requested by the query or the index or node default, 0 lets the load decide up to the node limit
+	 * @param indexReader    reader the query will search
+	 * @return an executor for the segment tasks of one query on one shard that must be closed when the query finishes
+	 */
+	public QueryTaskExecutor createExecutor(int maxConcurrency, IndexReader indexReader) {
+		int runningQueries = this.runningQueries.incrementAndGet();
+		int slices = IndexSearcher.slices(indexReader.leaves(), MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE, false).length;
+		int concurrency = getConcurrency(maxConcurrency, slices, indexReader.maxDoc(), runningQueries, segmentTasks.availablePermits());
+		return new QueryTaskExecutor(concurrency);
+	}
+
+	public int getConcurrency(int maxConcurrency, int slices, long docCount, int runningQueries, int freeSegmentTasks) {
+		int concurrency = maxConcurrency > 0 ? maxConcurrency : maxSegmentTasks;
+		concurrency = Math.min(concurrency, slices);
+		concurrency = (int) Math.min(concurrency, (docCount / MIN_DOCS_PER_TASK) + 1);
+
+		// a fair share of the node so a burst of queries does not oversubscribe the cores while a quiet node lets a single query use all of them
+		int fairShare = maxSegmentTasks / Math.max(runningQueries, 1);
+		concurrency = Math.min(concurrency, Math.max(fairShare, freeSegmentTasks));
+		return Math.max(concurrency, 1);
+	}
+
+	@Override
+	public void close() {
+		executorService.shutdownNow();
+	}
+
+	public class QueryPermit implements AutoCloseable {
+
+		private final long startNanos;
+		private boolean closed;
+
+		private QueryPermit(long startNanos) {
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				finishQuery(System.nanoTime() - startNanos);
+			}
+		}
+	}
+
+	public class QueryTaskExecutor implements TaskExecutor {
+
+		private final int concurrency;
+		private final Semaphore pool;
+
+		private QueryTaskExecutor(int concurrency) {
+			this.concurrency = concurrency;
+			this.pool = new Semaphore(concurrency);
+		}
+
+		public int getConcurrency() {
+			return concurrency;
+		}
+
+		@Override
+		public <T> ListenableFuture<T> executeAsync(Callable<T> task) {
+			try {
+				pool.acquire();
+			}
+			catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+
+			if (!segmentTasks.tryAcquire()) {
+				try {
+					return Futures.immediateFuture(task.call());
+				}
+				catch (Exception e) {
+					return Futures.immediateFailedFuture(e);
+				}
+				finally {
+					pool.release();
+				}
+			}
+
+			return executorService.submit(() -> {
+				try {
+					return task.call();
+				}
+				finally {
+					segmentTasks.release();
+					pool.release();
+				}
+			});
+		}
+
+		@Override
+		public void close() {
+			// the executor is shared so wait for the tasks of this query still running (i.e. after a failed task) instead of shutting it down
+			pool.acquireUninterruptibly(concurrency);
+			pool.release(concurrency);
+			runningQueries.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package io.zulia.server.search;
+
+import io.grpc.Context;
+import org.apache.lucene.index.QueryTimeout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time limit of a query and the gRPC context of the request that started it.  Shards check it cooperatively while searching (see
+ * {@link org.apache.lucene.search.IndexSearcher#setTimeout(QueryTimeout)}) and stop once the time limit passes or the caller cancels the request.
+ */
+public class QueryDeadline implements QueryTimeout {
+
+	// time a node has after the deadline to return the partial results of its shards
+	public static final long RESPONSE_GRACE_MS = 1000;
+
+	private final long deadlineNanos;
+	private final boolean limited;
+	private final Context context;
+
+	/**
+	 * @param timeoutMs time limit from now, 0 for no limit
+	 */
+	public QueryDeadline(long timeoutMs) {
+		this(timeoutMs, Context.current());
+	}
+
+	public QueryDeadline(long timeoutMs, Context context) {
+		this.limited = timeoutMs > 0;
+		this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		this.context = context;
+	}
+
+	@Override
+	public boolean shouldExit() {
+		return (limited && System.nanoTime() - deadlineNanos >= 0) || context.isCancelled();
+	}
+
+	public boolean isLimited() {
+		return limited;
+	}
+
+	/**
+	 * @return milliseconds left before the time limit (at least 1 so a forwarded limit is never read as no limit), 0 when there is no limit
+	 */
+	public int getRemainingMs() {
+		if (!limited) {
+			return 0;
+		}
+		long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+		return (int) Math.min(Integer.MAX_VALUE, Math.max(1, remainingMs));
+	}
+
+}
@@ -0,0 +1,258 @@
+package io.zulia.server.search;
+
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.KnnVectorValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Finds topN * rescoreFactor nearest neighbors in the quantized vector graph of a field then re-ranks them with the full precision vectors that are
+ * kept alongside the quantized ones, matching the top N by their full precision similarity
+ */
+public class RescoreKnnVectorQuery extends Query {
+
+	private final String field;
+	private final float[] target;
+	private final int topN;
+	private final KnnFloatVectorQuery candidateQuery;
+
+	public RescoreKnnVectorQuery(String field, float[] target, int topN, int rescoreFactor, Query filter) {
+		this.field = field;
+		this.target = target;
+		this.topN = topN;
+		this.candidateQuery = new KnnFloatVectorQuery(field, target, Math.multiplyExact(topN, rescoreFactor), filter);
+	}
+
+	@Override
+	public Query rewrite(IndexSearcher indexSearcher) throws IOException {
+		ScoreDoc[] candidates = indexSearcher.search(candidateQuery, candidateQuery.getK()).scoreDocs;
+		if (candidates.length == 0) {
+			return new MatchNoDocsQuery();
+		}
+
+		Arrays.sort(candidates, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+
+		List<LeafReaderContext> leaves = indexSearcher.getIndexReader().leaves();
+		LeafReaderContext leaf = null;
+		FloatVectorValues vectorValues = null;
+		KnnVectorValues.DocIndexIterator iterator = null;
+		VectorSimilarityFunction similarityFunction = null;
+		for (ScoreDoc candidate : candidates) {
+			if (leaf == null || candidate.doc >= leaf.docBase + leaf.reader().maxDoc()) {
+				leaf = leaves.get(ReaderUtil.subIndex(candidate.doc, leaves));
+				vectorValues = leaf.reader().getFloatVectorValues(field);
+				iterator = vectorValues.iterator();
+				similarityFunction = leaf.reader().getFieldInfos().fieldInfo(field).getVectorSimilarityFunction();
+			}
+			iterator.advance(candidate.doc - leaf.docBase);
+			candidate.score = similarityFunction.compare(target, vectorValues.vectorValue(iterator.index()));
+		}
+
+		Arrays.sort(candidates, (a, b) -> a.score != b.score ? Float.compare(b.score, a.score) : Integer.compare(a.doc, b.doc));
+		ScoreDoc[] top = Arrays.copyOf(candidates, Math.min(topN, candidates.length));
+		Arrays.sort(top, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+
+		int[] docs = new int[top.length];
+		float[] scores = new float[top.length];
+		for (int i = 0; i < top.length; i++) {
+			docs[i] = top[i].doc;
+			scores[i] = top[i].score;
+		}
+		return new DocScoreQuery(docs, scores, indexSearcher.getIndexReader().getContext().id());
+	}
+
+	@Override
+	public void visit(QueryVisitor visitor) {
+		if (visitor.acceptField(field)) {
+			visitor.visitLeaf(this);
+		}
+	}
+
+	@Override
+	public String toString(String field) {
+		return getClass().getSimpleName() + ":" + candidateQuery.toString(field) + "[" + topN + "]";
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!sameClassAs(obj)) {
+			return false;
+		}
+		RescoreKnnVectorQuery other = (RescoreKnnVectorQuery) obj;
+		return topN == other.topN && field.equals(other.field) && Arrays.equals(target, other.target) && candidateQuery.equals(other.candidateQuery);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(classHash(), field, Arrays.hashCode(target), topN, candidateQuery);
+	}
+
+	/**
+	 * Matches the re-ranked documents of one reader (global doc ids in ascending order) with their full precision scores
+	 */
+	private static class DocScoreQuery extends Query {
+
+		private final int[] docs;
+		private final float[] scores;
+		private final Object contextId;
+
+		private DocScoreQuery(int[] docs, float[] scores, Object contextId) {
+			this.docs = docs;
+			this.scores = scores;
+			this.contextId = contextId;
+		}
+
+		private int lowerBound(int doc) {
+			int index = Arrays.binarySearch(docs, doc);
+			return index >= 0 ? index : -index - 1;
+		}
+
+		@Override
+		public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+			if (searcher.getIndexReader().getContext().id() != contextId) {
+				throw new IllegalStateException("Rescored vector query was rewritten against a different reader");
+			}
+
+			return new Weight(this) {
+				@Override
+				public Explanation explain(LeafReaderContext context, int doc) {
+					int index = Arrays.binarySearch(docs, context.docBase + doc);
+					if (index < 0) {
+						return Explanation.noMatch("not in the re-ranked nearest neighbors");
+					}
+					return Explanation.match(scores[index] * boost, "full precision vector similarity");
+				}
+
+				@Override
+				public ScorerSupplier scorerSupplier(LeafReaderContext context) {
+					int lower = lowerBound(context.docBase);
+					int upper = lowerBound(context.docBase + context.reader().maxDoc());
+					if (lower == upper) {
+						return null;
+					}
+					return new DefaultScorerSupplier(new DocScoreScorer(lower, upper, context.docBase, boost));
+				}
+
+				@Override
+				public boolean isCacheable(LeafReaderContext ctx) {
+					return true;
+				}
+			};
+		}
+
+		private class DocScoreScorer extends Scorer {
+
+			private final int lower;
+			private final int upper;
+			private final int docBase;
+			private final float boost;
+			private final float maxScore;
+			private int index;
+
+			private DocScoreScorer(int lower, int upper, int docBase, float boost) {
+				this.lower = lower;
+				this.upper = upper;
+				this.docBase = docBase;
+				this.boost = boost;
+				this.index = lower - 1;
+
+				float maxScore = Float.NEGATIVE_INFINITY;
+				for (int i = lower; i < upper; i++) {
+					maxScore = Math.max(maxScore, scores[i]);
+				}
+				this.maxScore = maxScore * boost;
+			}
+
+			@Override
+			public int docID() {
+				if (index < lower) {
+					return -1;
+				}
+				if (index >= upper) {
+					return DocIdSetIterator.NO_MORE_DOCS;
+				}
+				return docs[index] - docBase;
+			}
+
+			@Override
+			public DocIdSetIterator iterator() {
+				return new DocIdSetIterator() {
+					@Override
+					public int docID() {
+						return DocScoreScorer.this.docID();
+					}
+
+					@Override
+					public int nextDoc() {
+						index = Math.min(index + 1, upper);
+						return docID();
+					}
+
+					@Override
+					public int advance(int target) {
+						index = Math.min(Math.max(index + 1, lowerBound(docBase + target)), upper);
+						return docID();
+					}
+
+					@Override
+					public long cost() {
+						return upper - lower;
+					}
+				};
+			}
+
+			@Override
+			public float getMaxScore(int upTo) {
+				return maxScore;
+			}
+
+			@Override
+			public float score() {
+				return scores[index] * boost;
+			}
+		}
+
+		@Override
+		public void visit(QueryVisitor visitor) {
+			visitor.visitLeaf(this);
+		}
+
+		@Override
+		public String toString(String field) {
+			return "DocScoreQuery[" + docs.length + " docs]";
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!sameClassAs(obj)) {
+				return false;
+			}
+			DocScoreQuery other = (DocScoreQuery) obj;
+			return contextId == other.contextId && Arrays.equals(docs, other.docs) && Arrays.equals(scores, other.scores);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(classHash(), contextId, Arrays.hashCode(docs), Arrays.hashCode(scores));
+		}
+	}
+}
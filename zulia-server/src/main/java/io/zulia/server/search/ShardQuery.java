@@ -1,17 +1,10 @@
 package io.zulia.server.search;
 
-import io.zulia.ZuliaFieldConstants;
 import io.zulia.message.ZuliaBase;
 import io.zulia.message.ZuliaQuery;
-import org.apache.lucene.index.Term;
-import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.TermInSetQuery;
-import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.util.BytesRef;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +26,9 @@ public class ShardQuery {
 	String searchLabel;
 	boolean realtime;
 	int concurrency;
+	int totalHitsThreshold;
+	QueryConcurrencyController queryConcurrencyController;
+	QueryDeadline queryDeadline;
 
 	public ShardQuery(Query query, Map<String, ZuliaBase.Similarity> similarityOverrideMap, int amount, Map<Integer, FieldDoc> shardToAfter,
 			ZuliaQuery.FacetRequest facetRequest, ZuliaQuery.SortRequest sortRequest, QueryCacheKey queryCacheKey, ZuliaQuery.FetchType resultFetchType,
@@ -57,21 +53,6 @@ public class ShardQuery {
 		this.concurrency = concurrency;
 	}
 
-	public static ShardQuery queryById(String uniqueId, ZuliaQuery.FetchType resultFetchType, List<String> fieldsToReturn, List<String> fieldsToMask,
-			boolean realtime) {
-		Query query = new ConstantScoreQuery(new TermQuery(new Term(ZuliaFieldConstants.ID_FIELD, uniqueId)));
-		return new ShardQuery(query, null, 1, Collections.emptyMap(), ZuliaQuery.FacetRequest.newBuilder().build(), null, null, resultFetchType, fieldsToReturn,
-				fieldsToMask, Collections.emptyList(), Collections.emptyList(), false, 0, "", realtime, 1);
-	}
-
-	public static ShardQuery queryByIds(List<String> uniqueIds, ZuliaQuery.FetchType resultFetchType, List<String> fieldsToReturn, List<String> fieldsToMask,
-			boolean realtime) {
-		List<BytesRef> bytesRefs = uniqueIds.stream().map(BytesRef::new).toList();
-		Query query = new ConstantScoreQuery(new TermInSetQuery(ZuliaFieldConstants.ID_FIELD, bytesRefs));
-		return new ShardQuery(query, null, uniqueIds.size(), Collections.emptyMap(), ZuliaQuery.FacetRequest.newBuilder().build(), null, null, resultFetchType,
-				fieldsToReturn, fieldsToMask, Collections.emptyList(), Collections.emptyList(), false, 0, "", realtime, 1);
-	}
-
 	public Query getQuery() {
 		return query;
 	}
@@ -143,4 +124,28 @@ public class ShardQuery {
 	public void setConcurrency(int concurrency) {
 		this.concurrency = concurrency;
 	}
+
+	public int getTotalHitsThreshold() {
+		return totalHitsThreshold;
+	}
+
+	public void setTotalHitsThreshold(int totalHitsThreshold) {
+		this.totalHitsThreshold = totalHitsThreshold;
+	}
+
+	public QueryConcurrencyController getQueryConcurrencyController() {
+		return queryConcurrencyController;
+	}
+
+	public void setQueryConcurrencyController(QueryConcurrencyController queryConcurrencyController) {
+		this.queryConcurrencyController = queryConcurrencyController;
+	}
+
+	public QueryDeadline getQueryDeadline() {
+		return queryDeadline;
+	}
+
+	public void setQueryDeadline(QueryDeadline queryDeadline) {
+		this.queryDeadline = queryDeadline;
+	}
 }
@@ -29,11 +29,10 @@ import io.zulia.server.search.aggregation.facets.CountFacetInfo;
 import io.zulia.server.search.aggregation.facets.FacetsReader;
 import io.zulia.server.search.aggregation.facets.NoOpReader;
 import io.zulia.server.search.aggregation.ordinal.FacetHandler;
-import io.zulia.server.search.aggregation.ordinal.MapStatOrdinalStorage;
+import io.zulia.server.search.aggregation.ordinal.ColumnarStatOrdinalStorage;
 import io.zulia.server.search.aggregation.stats.NumericFieldStatContext;
 import io.zulia.server.search.aggregation.stats.NumericFieldStatInfo;
 import io.zulia.util.pool.TaskExecutor;
-import io.zulia.util.pool.WorkPool;
 import org.apache.lucene.facet.FacetsCollector;
 import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
 import org.apache.lucene.facet.TopOrdAndIntQueue;
@@ -47,6 +46,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
@@ -66,7 +66,20 @@ public class AggregationHandler {
 	private final boolean individualFacet;
 
 	public AggregationHandler(TaxonomyReader taxoReader, FacetsCollector fc, List<ZuliaQuery.StatRequest> statRequests,
-			List<ZuliaQuery.CountRequest> countRequests, ServerIndexConfig serverIndexConfig, int requestedConcurrency) throws IOException {
+			List<ZuliaQuery.CountRequest> countRequests, ServerIndexConfig serverIndexConfig, TaskExecutor taskExecutor, int requestedConcurrency)
+			throws IOException {
+		this(taxoReader, statRequests, countRequests, serverIndexConfig, requestedConcurrency, getTotalHits(fc.getMatchingDocs()));
+		sumValues(fc.getMatchingDocs(), taskExecutor);
+	}
+
+	public AggregationHandler(TaxonomyReader taxoReader, List<ZuliaQuery.StatRequest> statRequests, List<ZuliaQuery.CountRequest> countRequests,
+			ServerIndexConfig serverIndexConfig, int requestedConcurrency) throws IOException {
+		// only merges segment aggregations that are already counted so a map is enough for the global counts
+		this(taxoReader, statRequests, countRequests, serverIndexConfig, requestedConcurrency, 0);
+	}
+
+	private AggregationHandler(TaxonomyReader taxoReader, List<ZuliaQuery.StatRequest> statRequests, List<ZuliaQuery.CountRequest> countRequests,
+			ServerIndexConfig serverIndexConfig, int requestedConcurrency, long expectedHits) throws IOException {
 
 		this.taxoReader = taxoReader;
 		this.requestedConcurrency = requestedConcurrency;
@@ -106,12 +119,12 @@ public class AggregationHandler {
 			}
 			else {
 				fieldStatInfo.addFacet(facetLabel, taxoReader.getOrdinal(new FacetLabel(facetLabel)));
-				fieldStatInfo.enableFacetWithPrecision(statRequest.getPrecision());
+				fieldStatInfo.enableFacetWithPrecision(statRequest.getPrecision(), taxoReader.getSize(), expectedHits);
 				needsFacetLocal = true;
 			}
 		}
 
-		globalFacetInfo = new CountFacetInfo();
+		globalFacetInfo = new CountFacetInfo(taxoReader.getSize(), expectedHits);
 		for (ZuliaQuery.CountRequest countRequest : countRequests) {
 			ZuliaQuery.Facet facetField = countRequest.getFacetField();
 			String facetFieldLabel = facetField.getLabel();
@@ -143,37 +156,63 @@ public class AggregationHandler {
 			this.individualFacet = false;
 		}
 
-		sumValues(fc.getMatchingDocs());
+	}
+
+	// counts into new counters so the result can be cached and merged later without touching the counters of this handler
+	public SegmentAggregation aggregateSegment(Collection<MatchingDocs> matchingDocsList) throws IOException {
+		SegmentAggregation segmentAggregation = aggregate(matchingDocsList);
+		return new SegmentAggregation(segmentAggregation.countFacetInfo().compact(), segmentAggregation.numericFieldStatInfos());
+	}
 
+	private SegmentAggregation aggregate(Collection<MatchingDocs> matchingDocsList) throws IOException {
+		long expectedHits = getTotalHits(matchingDocsList);
+		CountFacetInfo localGlobalFacetInfo = globalFacetInfo.cloneNewCounter(expectedHits);
+		NumericFieldStatInfo[] localFields = new NumericFieldStatInfo[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			localFields[i] = fields[i].cloneNewStatCount(expectedHits);
+		}
+
+		handleSegments(matchingDocsList, localFields, localGlobalFacetInfo);
+		return new SegmentAggregation(localGlobalFacetInfo, localFields);
+	}
+
+	private static long getTotalHits(Collection<MatchingDocs> matchingDocsList) {
+		long totalHits = 0;
+		for (MatchingDocs matchingDocs : matchingDocsList) {
+			totalHits += matchingDocs.totalHits();
+		}
+		return totalHits;
 	}
 
-	private void sumValues(List<MatchingDocs> matchingDocs) throws IOException {
+	public void merge(SegmentAggregation segmentAggregation) {
+		globalFacetInfo.merge(segmentAggregation.countFacetInfo());
+		for (NumericFieldStatInfo segmentField : segmentAggregation.numericFieldStatInfos()) {
+			getFieldStatByName(segmentField.getNumericFieldName()).merge(segmentField);
+		}
+	}
+
+	private void sumValues(List<MatchingDocs> matchingDocs, TaskExecutor taskExecutor) throws IOException {
 		if (matchingDocs.isEmpty()) {
 			return;
 		}
 
 		int concurrency = requestedConcurrency;
 		if (concurrency > 1) {
-			int totalHits = 0;
-			for (MatchingDocs matchingDoc : matchingDocs) {
-				totalHits += matchingDoc.totalHits();
-			}
-			int maxConcurrencyBasedOnHits = (totalHits / 10000) + 1; // max concurrency of 1 per 10,0000
+			long totalHits = getTotalHits(matchingDocs);
+			int maxConcurrencyBasedOnHits = (int) Math.min((totalHits / 10000) + 1, Integer.MAX_VALUE); // max concurrency of 1 per 10,0000
 			concurrency = Math.min(maxConcurrencyBasedOnHits, requestedConcurrency);
 			concurrency = Math.min(concurrency, matchingDocs.size()); // do not allow more concurrency than the number of segments
 		}
 		concurrency = Math.min(concurrency, requestedConcurrency);
 
 		if (concurrency > 1) {
+			// the executor of the query is shared with its segment searches and bounds the groups running at once to the concurrency of the query
 			List<ListenableFuture<Object>> futures = new ArrayList<>();
-			try (TaskExecutor taskExecutor = WorkPool.virtualBounded(concurrency)) {
-
-				for (MatchingDocs segment : matchingDocs) {
-					futures.add(taskExecutor.executeAsync(() -> {
-						handleSegmentsThreadSafe(List.of(segment));
-						return null;
-					}));
-				}
+			for (List<MatchingDocs> segmentGroup : groupSegments(matchingDocs, concurrency)) {
+				futures.add(taskExecutor.executeAsync(() -> {
+					handleSegmentsThreadSafe(segmentGroup);
+					return null;
+				}));
 			}
 			for (ListenableFuture<Object> future : futures) {
 				try {
@@ -196,17 +235,35 @@ public class AggregationHandler {
 
 	}
 
-	private void handleSegmentsThreadSafe(Collection<MatchingDocs> matchingDocsList) throws IOException {
+	// one group of segments per task so each task allocates its counters once, largest segments first to balance the hits across the groups
+	private static List<List<MatchingDocs>> groupSegments(List<MatchingDocs> matchingDocs, int groups) {
+		List<MatchingDocs> bySize = new ArrayList<>(matchingDocs);
+		bySize.sort(Comparator.comparingInt(MatchingDocs::totalHits).reversed());
 
-		CountFacetInfo localGlobalFacetInfo = globalFacetInfo.cloneNewCounter();
-		NumericFieldStatInfo[] localFields = new NumericFieldStatInfo[fields.length];
-		for (int i = 0; i < fields.length; i++) {
-			localFields[i] = fields[i].cloneNewStatCount();
+		List<List<MatchingDocs>> segmentGroups = new ArrayList<>(groups);
+		long[] groupHits = new long[groups];
+		for (int i = 0; i < groups; i++) {
+			segmentGroups.add(new ArrayList<>());
+		}
+		for (MatchingDocs segment : bySize) {
+			int smallest = 0;
+			for (int i = 1; i < groups; i++) {
+				if (groupHits[i] < groupHits[smallest]) {
+					smallest = i;
+				}
+			}
+			segmentGroups.get(smallest).add(segment);
+			groupHits[smallest] += segment.totalHits();
 		}
+		return segmentGroups;
+	}
 
-		handleSegments(matchingDocsList, localFields, localGlobalFacetInfo);
+	private void handleSegmentsThreadSafe(Collection<MatchingDocs> matchingDocsList) throws IOException {
+
+		SegmentAggregation segmentAggregation = aggregate(matchingDocsList);
 
-		globalFacetInfo.merge(localGlobalFacetInfo);
+		globalFacetInfo.merge(segmentAggregation.countFacetInfo());
+		NumericFieldStatInfo[] localFields = segmentAggregation.numericFieldStatInfos();
 		for (int i = 0; i < fields.length; i++) {
 			fields[i].merge(localFields[i]);
 		}
@@ -341,7 +398,7 @@ public class AggregationHandler {
 			throw new IllegalArgumentException("Field " + field + " has not requested as a facet stat in the constructor");
 		}
 
-		MapStatOrdinalStorage<?> facetStatStorage = fieldStats.getFacetStatStorage();
+		ColumnarStatOrdinalStorage facetStatStorage = fieldStats.getFacetStatStorage();
 
 		if (topN <= 0) {
 			throw new IllegalArgumentException("topN must be > 0 (got: " + topN + ")");
@@ -0,0 +1,8 @@
+package io.zulia.server.search.aggregation;
+
+import io.zulia.server.search.aggregation.facets.CountFacetInfo;
+import io.zulia.server.search.aggregation.stats.NumericFieldStatInfo;
+
+public record SegmentAggregation(CountFacetInfo countFacetInfo, NumericFieldStatInfo[] numericFieldStatInfos) {
+
+}
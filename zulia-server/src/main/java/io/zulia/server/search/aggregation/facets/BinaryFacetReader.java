@@ -1,5 +1,8 @@
 package io.zulia.server.search.aggregation.facets;
 
+import io.zulia.server.search.aggregation.ordinal.CompactMultiDimensionOrdinalBuffer;
+import io.zulia.server.search.aggregation.ordinal.CompactOrdinalEncoding;
+import io.zulia.server.search.aggregation.ordinal.CompactSingleDimensionOrdinalBuffer;
 import io.zulia.server.search.aggregation.ordinal.FacetHandler;
 import io.zulia.server.search.aggregation.ordinal.MultiDimensionOrdinalBuffer;
 import io.zulia.server.search.aggregation.ordinal.NoOpHandler;
@@ -8,6 +11,7 @@ import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.search.ConjunctionUtils;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -15,10 +19,14 @@ import java.util.Arrays;
 public class BinaryFacetReader implements FacetsReader {
 	private final BinaryDocValues ordinalBinaryValues;
 	private final boolean individualFacet;
+	private final CompactSingleDimensionOrdinalBuffer compactSingleDimensionOrdinalBuffer;
+	private final CompactMultiDimensionOrdinalBuffer compactMultiDimensionOrdinalBuffer;
 
 	public BinaryFacetReader(LeafReader reader, String facetField, boolean individualFacet) throws IOException {
 		this.ordinalBinaryValues = reader.getBinaryDocValues(facetField);
 		this.individualFacet = individualFacet;
+		this.compactSingleDimensionOrdinalBuffer = new CompactSingleDimensionOrdinalBuffer();
+		this.compactMultiDimensionOrdinalBuffer = new CompactMultiDimensionOrdinalBuffer();
 	}
 
 	@Override
@@ -34,11 +42,23 @@ public class BinaryFacetReader implements FacetsReader {
 		if (ordinalBinaryValues == null) {
 			return NoOpHandler.INSTANCE;
 		}
-		else if (individualFacet) {
-			return new SingleDimensionOrdinalBuffer(ordinalBinaryValues.binaryValue());
+
+		BytesRef bytesRef = ordinalBinaryValues.binaryValue();
+		if (CompactOrdinalEncoding.isCompact(bytesRef)) {
+			if (individualFacet) {
+				compactSingleDimensionOrdinalBuffer.reset(bytesRef);
+				return compactSingleDimensionOrdinalBuffer;
+			}
+			compactMultiDimensionOrdinalBuffer.reset(bytesRef);
+			return compactMultiDimensionOrdinalBuffer;
+		}
+
+		// segments indexed before the compact encoding until they are reindexed
+		if (individualFacet) {
+			return new SingleDimensionOrdinalBuffer(bytesRef);
 		}
 		else {
-			return new MultiDimensionOrdinalBuffer(ordinalBinaryValues.binaryValue());
+			return new MultiDimensionOrdinalBuffer(bytesRef);
 		}
 	}
 
@@ -1,42 +1,141 @@
 package io.zulia.server.search.aggregation.facets;
 
+import com.koloboke.collect.map.IntIntCursor;
 import com.koloboke.collect.map.IntIntMap;
 import com.koloboke.collect.map.hash.HashIntIntMaps;
 import io.zulia.server.search.aggregation.ordinal.FacetHandler;
 import io.zulia.server.search.aggregation.ordinal.OrdinalConsumer;
 
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 public class CountFacetInfo extends FacetInfo implements OrdinalConsumer {
 
-	private final IntIntMap countFacetInfo;
+	// largest taxonomy counted into an int[] indexed by ordinal (4MB per counter), larger taxonomies are counted into a map
+	public static final int MAX_DENSE_ORDINALS = 1 << 20;
 
+	// a counter only uses the dense array when it is expected to count at least one hit per this many ordinals
+	private static final int MIN_HITS_PER_ORDINAL_DIVISOR = 16;
 
-	public CountFacetInfo() {
-		countFacetInfo = HashIntIntMaps.newMutableMap();
+	private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private final int ordinalCount;
+	private final int[] denseCounts;
+	private final IntIntMap sparseCounts;
+
+	/**
+	 * @param ordinalCount the size of the taxonomy, every ordinal in the documents counted is below it
+	 * @param expectedHits the number of documents expected to be counted, counts are kept in an int[] indexed by ordinal when there are enough hits for
+	 *                     the array to be cheaper than a map and in a map otherwise
+	 */
+	public CountFacetInfo(int ordinalCount, long expectedHits) {
+		this.ordinalCount = ordinalCount;
+		this.denseCounts = useDenseCounts(ordinalCount, expectedHits) ? new int[ordinalCount] : null;
+		this.sparseCounts = denseCounts == null ? HashIntIntMaps.newMutableMap() : null;
 	}
 
-	private CountFacetInfo(CountFacetInfo copyFacetInfo) {
+	private CountFacetInfo(CountFacetInfo copyFacetInfo, long expectedHits) {
 		super(copyFacetInfo);
-		countFacetInfo = HashIntIntMaps.newMutableMap();
+		this.ordinalCount = copyFacetInfo.ordinalCount;
+		this.denseCounts = useDenseCounts(ordinalCount, expectedHits) ? new int[ordinalCount] : null;
+		this.sparseCounts = denseCounts == null ? HashIntIntMaps.newMutableMap() : null;
+	}
+
+	/**
+	 * @return true if counting by ordinal in an array sized to the taxonomy is expected to be cheaper than a map of the ordinals seen
+	 */
+	public static boolean useDenseCounts(int ordinalCount, long expectedHits) {
+		return ordinalCount > 0 && ordinalCount <= MAX_DENSE_ORDINALS && expectedHits >= ordinalCount / MIN_HITS_PER_ORDINAL_DIVISOR;
+	}
+
+	/**
+	 * Creates an empty counter for the same facets
+	 */
+	public CountFacetInfo cloneNewCounter(long expectedHits) {
+		return new CountFacetInfo(this, expectedHits);
 	}
 
-	public CountFacetInfo cloneNewCounter() {
-		return new CountFacetInfo(this);
+	/**
+	 * Returns a copy of the counts in a map sized to the number of non-zero ordinals, for keeping counts around (i.e. in a cache)
+	 */
+	public CountFacetInfo compact() {
+		if (denseCounts == null) {
+			return this;
+		}
+
+		CountFacetInfo compacted = new CountFacetInfo(this, 0);
+		for (int ordinal = 0; ordinal < denseCounts.length; ordinal++) {
+			int count = denseCounts[ordinal];
+			if (count != 0) {
+				compacted.sparseCounts.put(ordinal, count);
+			}
+		}
+		return compacted;
+	}
+
+	/**
+	 * Number of ordinals this counter holds a count for, the size of the array for dense counts
+	 */
+	public int getCountedOrdinals() {
+		return denseCounts != null ? denseCounts.length : sparseCounts.size();
 	}
 
 	public int getOrdinalCount(int child) {
-		return countFacetInfo.get(child);
+		if (denseCounts != null) {
+			return child < denseCounts.length ? denseCounts[child] : 0;
+		}
+		return sparseCounts.get(child);
 	}
 
 	@Override
 	public void handleOrdinal(int ordinal) {
-		countFacetInfo.addValue(ordinal, 1);
+		if (denseCounts != null) {
+			denseCounts[ordinal]++;
+		}
+		else {
+			sparseCounts.addValue(ordinal, 1);
+		}
 	}
 
-	public synchronized void merge(CountFacetInfo other) {
-		for (Map.Entry<Integer, Integer> localKeyToValue : other.countFacetInfo.entrySet()) {
-			countFacetInfo.addValue(localKeyToValue.getKey(), localKeyToValue.getValue());
+	public void merge(CountFacetInfo other) {
+		if (denseCounts != null) {
+			// atomic adds so counters of segments counted in parallel can be merged without locking
+			if (other.denseCounts != null) {
+				int[] otherCounts = other.denseCounts;
+				for (int ordinal = 0; ordinal < otherCounts.length; ordinal++) {
+					int count = otherCounts[ordinal];
+					if (count != 0) {
+						COUNTS.getAndAdd(denseCounts, ordinal, count);
+					}
+				}
+			}
+			else {
+				IntIntCursor cursor = other.sparseCounts.cursor();
+				while (cursor.moveNext()) {
+					COUNTS.getAndAdd(denseCounts, cursor.key(), cursor.value());
+				}
+			}
+		}
+		else {
+			mergeSparse(other);
+		}
+	}
+
+	private synchronized void mergeSparse(CountFacetInfo other) {
+		if (other.denseCounts != null) {
+			int[] otherCounts = other.denseCounts;
+			for (int ordinal = 0; ordinal < otherCounts.length; ordinal++) {
+				int count = otherCounts[ordinal];
+				if (count != 0) {
+					sparseCounts.addValue(ordinal, count);
+				}
+			}
+		}
+		else {
+			IntIntCursor cursor = other.sparseCounts.cursor();
+			while (cursor.moveNext()) {
+				sparseCounts.addValue(cursor.key(), cursor.value());
+			}
 		}
 	}
 
@@ -0,0 +1,227 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import com.datadoghq.sketch.ddsketch.DDSketch;
+import com.datadoghq.sketch.ddsketch.DDSketchProtoBinding;
+import com.datadoghq.sketch.ddsketch.DDSketches;
+import com.koloboke.collect.map.IntIntMap;
+import com.koloboke.collect.map.hash.HashIntIntMaps;
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.search.aggregation.facets.CountFacetInfo;
+import org.apache.lucene.facet.taxonomy.FacetLabel;
+import org.apache.lucene.facet.taxonomy.TaxonomyReader;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.PriorityQueue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Facet stats of a numeric field kept in parallel arrays instead of an object per ordinal.  Each ordinal is given the next slot the first time it is
+ * seen and every stat is a column indexed by the slot, so a value is tallied with an array lookup and a few array writes.  A sketch is only created for
+ * a slot when the stats are requested with a precision.
+ */
+public abstract class ColumnarStatOrdinalStorage {
+
+	private final double precision;
+
+	// slot + 1 by ordinal so the default of 0 means no slot, ordinals past the dense limit are mapped
+	private final int denseOrdinalLimit;
+	private int[] denseOrdinalToSlot;
+	private IntIntMap sparseOrdinalToSlot;
+
+	private int slots;
+	private int[] slotOrdinals;
+	private long[] docCounts;
+	private long[] allDocCounts;
+	private long[] valueCounts;
+	private DDSketch[] sketches;
+
+	/**
+	 * @param ordinalCount size of the taxonomy
+	 * @param expectedHits documents expected to be tallied, ordinals are only looked up in an array indexed by ordinal when there are enough hits (see
+	 *                     {@link CountFacetInfo#useDenseCounts(int, long)}), otherwise they are mapped
+	 */
+	public ColumnarStatOrdinalStorage(double precision, int ordinalCount, long expectedHits) {
+		this.precision = precision;
+		this.denseOrdinalLimit = CountFacetInfo.useDenseCounts(ordinalCount, expectedHits) ? CountFacetInfo.MAX_DENSE_ORDINALS : 0;
+		this.denseOrdinalToSlot = new int[0];
+		this.slotOrdinals = new int[0];
+		this.docCounts = new long[0];
+		this.allDocCounts = new long[0];
+		this.valueCounts = new long[0];
+		// Cannot perform DDSketch with perfect precision.
+		this.sketches = precision > 0.0 ? new DDSketch[0] : null;
+	}
+
+	/**
+	 * @return the slot of the ordinal, -1 if no value has been tallied for it
+	 */
+	public int getSlot(int ordinal) {
+		if (ordinal < denseOrdinalLimit) {
+			return ordinal < denseOrdinalToSlot.length ? denseOrdinalToSlot[ordinal] - 1 : -1;
+		}
+		return sparseOrdinalToSlot != null ? sparseOrdinalToSlot.getOrDefault(ordinal, -1) : -1;
+	}
+
+	private int getOrCreateSlot(int ordinal) {
+		int slot = getSlot(ordinal);
+		if (slot != -1) {
+			return slot;
+		}
+
+		slot = slots++;
+		if (slot == slotOrdinals.length) {
+			int size = ArrayUtil.oversize(slot + 1, Long.BYTES);
+			slotOrdinals = Arrays.copyOf(slotOrdinals, size);
+			docCounts = Arrays.copyOf(docCounts, size);
+			allDocCounts = Arrays.copyOf(allDocCounts, size);
+			valueCounts = Arrays.copyOf(valueCounts, size);
+			if (sketches != null) {
+				sketches = Arrays.copyOf(sketches, size);
+			}
+			growColumns(size);
+		}
+		slotOrdinals[slot] = ordinal;
+		initSlot(slot);
+
+		if (ordinal < denseOrdinalLimit) {
+			if (ordinal >= denseOrdinalToSlot.length) {
+				denseOrdinalToSlot = ArrayUtil.grow(denseOrdinalToSlot, ordinal + 1);
+			}
+			denseOrdinalToSlot[ordinal] = slot + 1;
+		}
+		else {
+			if (sparseOrdinalToSlot == null) {
+				sparseOrdinalToSlot = HashIntIntMaps.newMutableMap();
+			}
+			sparseOrdinalToSlot.put(ordinal, slot);
+		}
+		return slot;
+	}
+
+	/**
+	 * Tallies the values of a document for the ordinal
+	 *
+	 * @param numericValueCount number of values of the document, -1 if the document has no values
+	 */
+	public void handleNumericValues(int ordinal, long[] numericValues, int numericValueCount) {
+		int slot = getOrCreateSlot(ordinal);
+		allDocCounts[slot]++;
+		if (numericValueCount != -1) {
+			docCounts[slot]++;
+		}
+		for (int j = 0; j < numericValueCount; j++) {
+			handleDocValue(slot, numericValues[j]);
+		}
+	}
+
+	protected void tallyValue(int slot, double value) {
+		valueCounts[slot]++;
+		if (sketches != null) {
+			DDSketch sketch = sketches[slot];
+			if (sketch == null) {
+				sketch = DDSketches.unboundedDense(precision);
+				sketches[slot] = sketch;
+			}
+			sketch.accept(value);
+		}
+	}
+
+	/**
+	 * Resizes the columns of the subclass to the size given, called before a slot past the end of the columns is initialized
+	 */
+	protected abstract void growColumns(int size);
+
+	protected abstract void initSlot(int slot);
+
+	protected abstract void handleDocValue(int slot, long docValue);
+
+	/**
+	 * Compares the sums of the slots, the stats with the largest sums are returned first
+	 */
+	protected abstract int compareSums(int slot, int otherSlot);
+
+	protected abstract void mergeColumns(int slot, ColumnarStatOrdinalStorage other, int otherSlot);
+
+	protected ZuliaQuery.FacetStatsInternal.Builder buildResponse(int slot) {
+		ZuliaQuery.FacetStatsInternal.Builder builder = ZuliaQuery.FacetStatsInternal.newBuilder().setDocCount(docCounts[slot])
+				.setAllDocCount(allDocCounts[slot]).setValueCount(valueCounts[slot]);
+		if (sketches != null) {
+			DDSketch sketch = sketches[slot] != null ? sketches[slot] : DDSketches.unboundedDense(precision);
+			builder.setStatSketch(DDSketchProtoBinding.toProto(sketch));
+		}
+		return builder;
+	}
+
+	private int compareSlots(int slot, int otherSlot) {
+		int compare = compareSums(slot, otherSlot);
+		if (compare == 0) {
+			// the lower ordinal wins a tie
+			return Integer.compare(slotOrdinals[otherSlot], slotOrdinals[slot]);
+		}
+		return compare;
+	}
+
+	public List<ZuliaQuery.FacetStatsInternal> getFacetStats(TaxonomyReader taxonomyReader, FacetLabel countPath, int topN) throws IOException {
+		int dimOrd = taxonomyReader.getOrdinal(countPath);
+		if (dimOrd == -1) {
+			return null;
+		}
+
+		int queueSize = Math.min(taxonomyReader.getSize(), topN);
+		PriorityQueue<Integer> q = new PriorityQueue<>(queueSize) {
+			@Override
+			protected boolean lessThan(Integer a, Integer b) {
+				return compareSlots(a, b) < 0;
+			}
+		};
+
+		TaxonomyReader.ChildrenIterator childrenIterator = taxonomyReader.getChildren(dimOrd);
+		int child;
+		while ((child = childrenIterator.next()) != TaxonomyReader.INVALID_ORDINAL) {
+			int slot = getSlot(child);
+			if (slot != -1 && (q.size() < queueSize || compareSlots(slot, q.top()) > 0)) {
+				q.insertWithOverflow(slot);
+			}
+		}
+
+		int qSize = q.size();
+		int[] topSlots = new int[qSize];
+		int[] ords = new int[qSize];
+		for (int i = qSize - 1; i >= 0; i--) {
+			topSlots[i] = q.pop();
+			ords[i] = slotOrdinals[topSlots[i]];
+		}
+
+		FacetLabel[] paths = taxonomyReader.getBulkPath(ords);
+
+		List<ZuliaQuery.FacetStatsInternal> facetStats = new ArrayList<>(qSize);
+		for (int i = 0; i < qSize; i++) {
+			String label = paths[i].components[countPath.length];
+			facetStats.add(buildResponse(topSlots[i]).setFacet(label).build());
+		}
+
+		return facetStats;
+	}
+
+	public synchronized void merge(ColumnarStatOrdinalStorage other) {
+		for (int otherSlot = 0; otherSlot < other.slots; otherSlot++) {
+			int slot = getOrCreateSlot(other.slotOrdinals[otherSlot]);
+			docCounts[slot] += other.docCounts[otherSlot];
+			allDocCounts[slot] += other.allDocCounts[otherSlot];
+			valueCounts[slot] += other.valueCounts[otherSlot];
+
+			// the other storage can be cached and merged again so its sketches are copied into this storage instead of being taken over
+			if (sketches != null && other.sketches != null && other.sketches[otherSlot] != null) {
+				if (sketches[slot] == null) {
+					sketches[slot] = DDSketches.unboundedDense(precision);
+				}
+				sketches[slot].mergeWith(other.sketches[otherSlot]);
+			}
+			mergeColumns(slot, other, otherSlot);
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Decodes a multi dimension value written by {@link CompactOrdinalEncoding#encodeDimensions(int[], int[][])}.  Reset for each document so a segment
+ * reuses one instance
+ */
+public class CompactMultiDimensionOrdinalBuffer implements FacetHandler {
+
+	private final ByteArrayDataInput input;
+	private BytesRef bytesRef;
+
+	public CompactMultiDimensionOrdinalBuffer() {
+		this.input = new ByteArrayDataInput();
+	}
+
+	public void reset(BytesRef bytesRef) {
+		this.bytesRef = bytesRef;
+	}
+
+	public void handleFacets(OrdinalConsumer ordinalConsumer) {
+		int[] requestDimensionOrdinals = ordinalConsumer.requestedDimensionOrdinals();
+		input.reset(bytesRef.bytes, bytesRef.offset + 1, bytesRef.length - 1);
+
+		int storedDimOrdinal = -1;
+		int storedOrdinalLengthForDim = 0;
+		int storedOrdinalBytesForDim = 0;
+
+		for (int requestedDimOrdinal : requestDimensionOrdinals) {
+
+			while (storedDimOrdinal < requestedDimOrdinal) {
+				if (storedOrdinalBytesForDim != 0) {
+					input.skipBytes(storedOrdinalBytesForDim);
+				}
+
+				if (input.eof()) {
+					return;
+				}
+
+				storedDimOrdinal = Math.max(storedDimOrdinal, 0) + input.readVInt();
+				storedOrdinalLengthForDim = input.readVInt();
+				storedOrdinalBytesForDim = input.readVInt();
+			}
+
+			if (requestedDimOrdinal == storedDimOrdinal) {
+				int ordinal = 0;
+				for (int i = 0; i < storedOrdinalLengthForDim; i++) {
+					ordinal += input.readVInt();
+					ordinalConsumer.handleOrdinal(ordinal);
+				}
+				storedOrdinalBytesForDim = 0;
+			}
+
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.Arrays;
+
+/**
+ * Compact encoding of the facet ordinals stored in binary doc values.  Ordinals are sorted and written as vInt deltas, each dimension of a multi
+ * dimension value also stores the byte length of its ordinals so dimensions that are not requested are skipped without decoding them.
+ * <p>
+ * Values start with a version byte.  The original encoding is big endian ints that are never negative so its first byte never has the high bit set,
+ * which lets segments written before the compact encoding be read as they are until the index is reindexed.
+ */
+public class CompactOrdinalEncoding {
+
+	public static final byte VERSION_1 = (byte) 0x81;
+
+	private CompactOrdinalEncoding() {
+
+	}
+
+	public static boolean isCompact(BytesRef bytesRef) {
+		return bytesRef.length > 0 && bytesRef.bytes[bytesRef.offset] == VERSION_1;
+	}
+
+	/**
+	 * @param ordinals ordinals of a single dimension, sorted in place
+	 */
+	public static BytesRef encodeOrdinals(int[] ordinals) {
+		Arrays.sort(ordinals);
+
+		byte[] bytes = new byte[1 + 5 + ordinals.length * 5];
+		ByteArrayDataOutput output = new ByteArrayDataOutput(bytes);
+		output.writeByte(VERSION_1);
+		output.writeVInt(ordinals.length);
+		writeOrdinals(output, ordinals);
+		return new BytesRef(bytes, 0, output.getPosition());
+	}
+
+	/**
+	 * @param dimOrdinals ordinals of the dimensions in ascending order
+	 * @param ordinals    ordinals of each dimension (null or empty when the document has none), each sorted in place
+	 */
+	public static BytesRef encodeDimensions(int[] dimOrdinals, int[][] ordinals) {
+		int maxLength = 1;
+		for (int i = 0; i < dimOrdinals.length; i++) {
+			maxLength += 15 + (ordinals[i] != null ? ordinals[i].length * 5 : 0);
+		}
+
+		byte[] bytes = new byte[maxLength];
+		ByteArrayDataOutput output = new ByteArrayDataOutput(bytes);
+		output.writeByte(VERSION_1);
+
+		int lastDimOrdinal = 0;
+		for (int i = 0; i < dimOrdinals.length; i++) {
+			int[] dimensionOrdinals = ordinals[i] != null ? ordinals[i] : new int[0];
+			Arrays.sort(dimensionOrdinals);
+
+			output.writeVInt(dimOrdinals[i] - lastDimOrdinal);
+			output.writeVInt(dimensionOrdinals.length);
+			output.writeVInt(getOrdinalsLength(dimensionOrdinals));
+			writeOrdinals(output, dimensionOrdinals);
+			lastDimOrdinal = dimOrdinals[i];
+		}
+
+		return new BytesRef(bytes, 0, output.getPosition());
+	}
+
+	private static void writeOrdinals(ByteArrayDataOutput output, int[] sortedOrdinals) {
+		int lastOrdinal = 0;
+		for (int ordinal : sortedOrdinals) {
+			output.writeVInt(ordinal - lastOrdinal);
+			lastOrdinal = ordinal;
+		}
+	}
+
+	private static int getOrdinalsLength(int[] sortedOrdinals) {
+		int length = 0;
+		int lastOrdinal = 0;
+		for (int ordinal : sortedOrdinals) {
+			length += getVIntLength(ordinal - lastOrdinal);
+			lastOrdinal = ordinal;
+		}
+		return length;
+	}
+
+	private static int getVIntLength(int value) {
+		return (38 - Integer.numberOfLeadingZeros(value | 1)) / 7;
+	}
+
+}
@@ -0,0 +1,34 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * Decodes a single dimension value written by {@link CompactOrdinalEncoding#encodeOrdinals(int[])}.  Reset for each document so a segment reuses
+ * one instance
+ */
+public class CompactSingleDimensionOrdinalBuffer implements FacetHandler {
+
+	private final ByteArrayDataInput input;
+	private BytesRef bytesRef;
+
+	public CompactSingleDimensionOrdinalBuffer() {
+		this.input = new ByteArrayDataInput();
+	}
+
+	public void reset(BytesRef bytesRef) {
+		this.bytesRef = bytesRef;
+	}
+
+	public void handleFacets(OrdinalConsumer ordinalConsumer) {
+		input.reset(bytesRef.bytes, bytesRef.offset + 1, bytesRef.length - 1);
+
+		int storedOrdinalLength = input.readVInt();
+		int ordinal = 0;
+		for (int i = 0; i < storedOrdinalLength; i++) {
+			ordinal += input.readVInt();
+			ordinalConsumer.handleOrdinal(ordinal);
+		}
+	}
+
+}
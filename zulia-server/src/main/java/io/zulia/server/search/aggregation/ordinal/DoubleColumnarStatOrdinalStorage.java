@@ -0,0 +1,71 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import io.zulia.message.ZuliaQuery;
+import org.apache.lucene.util.NumericUtils;
+
+import java.util.Arrays;
+
+public class DoubleColumnarStatOrdinalStorage extends ColumnarStatOrdinalStorage {
+
+	private final boolean floatValues;
+
+	private double[] doubleSums = new double[0];
+	private double[] doubleMinValues = new double[0];
+	private double[] doubleMaxValues = new double[0];
+
+	/**
+	 * @param floatValues the doc values are sortable float bits instead of sortable double bits
+	 */
+	public DoubleColumnarStatOrdinalStorage(double precision, boolean floatValues, int ordinalCount, long expectedHits) {
+		super(precision, ordinalCount, expectedHits);
+		this.floatValues = floatValues;
+	}
+
+	@Override
+	protected void growColumns(int size) {
+		doubleSums = Arrays.copyOf(doubleSums, size);
+		doubleMinValues = Arrays.copyOf(doubleMinValues, size);
+		doubleMaxValues = Arrays.copyOf(doubleMaxValues, size);
+	}
+
+	@Override
+	protected void initSlot(int slot) {
+		doubleMinValues[slot] = Double.POSITIVE_INFINITY;
+		doubleMaxValues[slot] = Double.NEGATIVE_INFINITY;
+	}
+
+	@Override
+	protected void handleDocValue(int slot, long docValue) {
+		double value = floatValues ? NumericUtils.sortableIntToFloat((int) docValue) : NumericUtils.sortableLongToDouble(docValue);
+		doubleSums[slot] += value;
+		if (value < doubleMinValues[slot]) {
+			doubleMinValues[slot] = value;
+		}
+		if (value > doubleMaxValues[slot]) {
+			doubleMaxValues[slot] = value;
+		}
+		tallyValue(slot, value);
+	}
+
+	@Override
+	protected int compareSums(int slot, int otherSlot) {
+		return Double.compare(doubleSums[slot], doubleSums[otherSlot]);
+	}
+
+	@Override
+	protected void mergeColumns(int slot, ColumnarStatOrdinalStorage other, int otherSlot) {
+		DoubleColumnarStatOrdinalStorage otherDouble = (DoubleColumnarStatOrdinalStorage) other;
+		doubleSums[slot] += otherDouble.doubleSums[otherSlot];
+		doubleMinValues[slot] = Math.min(doubleMinValues[slot], otherDouble.doubleMinValues[otherSlot]);
+		doubleMaxValues[slot] = Math.max(doubleMaxValues[slot], otherDouble.doubleMaxValues[otherSlot]);
+	}
+
+	@Override
+	protected ZuliaQuery.FacetStatsInternal.Builder buildResponse(int slot) {
+		ZuliaQuery.FacetStatsInternal.Builder builder = super.buildResponse(slot);
+		ZuliaQuery.SortValue sum = ZuliaQuery.SortValue.newBuilder().setDoubleValue(doubleSums[slot]).build();
+		ZuliaQuery.SortValue min = ZuliaQuery.SortValue.newBuilder().setDoubleValue(doubleMinValues[slot]).build();
+		ZuliaQuery.SortValue max = ZuliaQuery.SortValue.newBuilder().setDoubleValue(doubleMaxValues[slot]).build();
+		return builder.setSum(sum).setMin(min).setMax(max);
+	}
+}
@@ -0,0 +1,70 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import io.zulia.message.ZuliaQuery;
+
+import java.util.Arrays;
+
+public class LongColumnarStatOrdinalStorage extends ColumnarStatOrdinalStorage {
+
+	private final boolean intValues;
+
+	private long[] longSums = new long[0];
+	private long[] longMinValues = new long[0];
+	private long[] longMaxValues = new long[0];
+
+	/**
+	 * @param intValues the doc values are ints stored as longs
+	 */
+	public LongColumnarStatOrdinalStorage(double precision, boolean intValues, int ordinalCount, long expectedHits) {
+		super(precision, ordinalCount, expectedHits);
+		this.intValues = intValues;
+	}
+
+	@Override
+	protected void growColumns(int size) {
+		longSums = Arrays.copyOf(longSums, size);
+		longMinValues = Arrays.copyOf(longMinValues, size);
+		longMaxValues = Arrays.copyOf(longMaxValues, size);
+	}
+
+	@Override
+	protected void initSlot(int slot) {
+		longMinValues[slot] = Long.MAX_VALUE;
+		longMaxValues[slot] = Long.MIN_VALUE;
+	}
+
+	@Override
+	protected void handleDocValue(int slot, long docValue) {
+		long value = intValues ? (int) docValue : docValue;
+		longSums[slot] += value;
+		if (value < longMinValues[slot]) {
+			longMinValues[slot] = value;
+		}
+		if (value > longMaxValues[slot]) {
+			longMaxValues[slot] = value;
+		}
+		tallyValue(slot, value);
+	}
+
+	@Override
+	protected int compareSums(int slot, int otherSlot) {
+		return Long.compare(longSums[slot], longSums[otherSlot]);
+	}
+
+	@Override
+	protected void mergeColumns(int slot, ColumnarStatOrdinalStorage other, int otherSlot) {
+		LongColumnarStatOrdinalStorage otherLong = (LongColumnarStatOrdinalStorage) other;
+		longSums[slot] += otherLong.longSums[otherSlot];
+		longMinValues[slot] = Math.min(longMinValues[slot], otherLong.longMinValues[otherSlot]);
+		longMaxValues[slot] = Math.max(longMaxValues[slot], otherLong.longMaxValues[otherSlot]);
+	}
+
+	@Override
+	protected ZuliaQuery.FacetStatsInternal.Builder buildResponse(int slot) {
+		ZuliaQuery.FacetStatsInternal.Builder builder = super.buildResponse(slot);
+		ZuliaQuery.SortValue sum = ZuliaQuery.SortValue.newBuilder().setLongValue(longSums[slot]).build();
+		ZuliaQuery.SortValue min = ZuliaQuery.SortValue.newBuilder().setLongValue(longMinValues[slot]).build();
+		ZuliaQuery.SortValue max = ZuliaQuery.SortValue.newBuilder().setLongValue(longMaxValues[slot]).build();
+		return builder.setSum(sum).setMin(min).setMax(max);
+	}
+}
@@ -2,7 +2,7 @@ package io.zulia.server.search.aggregation.stats;
 
 import io.zulia.message.ZuliaQuery;
 
-public abstract class DoubleStats extends Stats<DoubleStats> implements Comparable<DoubleStats> {
+public abstract class DoubleStats extends Stats<DoubleStats> {
 	private double doubleSum;
 	private double doubleMinValue = Double.POSITIVE_INFINITY;
 	private double doubleMaxValue = Double.NEGATIVE_INFINITY;
@@ -35,15 +35,6 @@ public abstract class DoubleStats extends Stats<DoubleStats> implements Comparab
 		return builder.setSum(sum).setMin(min).setMax(max);
 	}
 
-	@Override
-	public int compareTo(DoubleStats o) {
-		int compare = Double.compare(doubleSum, o.doubleSum);
-		if (compare == 0) {
-			return compareOrdinal(o);
-		}
-		return compare;
-	}
-
 	public void mergeExtra(DoubleStats other) {
 		this.doubleSum += other.doubleSum;
 		this.doubleMinValue = Math.min(this.doubleMinValue, other.doubleMinValue);
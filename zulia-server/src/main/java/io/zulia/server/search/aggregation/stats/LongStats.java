@@ -2,7 +2,7 @@ package io.zulia.server.search.aggregation.stats;
 
 import io.zulia.message.ZuliaQuery;
 
-public abstract class LongStats extends Stats<LongStats> implements Comparable<LongStats> {
+public abstract class LongStats extends Stats<LongStats> {
 	private long longSum;
 	private long longMinValue = Long.MAX_VALUE;
 	private long longMaxValue = Long.MIN_VALUE;
@@ -35,14 +35,6 @@ public abstract class LongStats extends Stats<LongStats> implements Comparable<L
 		return builder.setSum(sum).setMin(min).setMax(max);
 	}
 
-	public int compareTo(LongStats o) {
-		int compare = Double.compare(longSum, o.longSum);
-		if (compare == 0) {
-			return compareOrdinal(o);
-		}
-		return compare;
-	}
-
 	public void mergeExtra(LongStats other) {
 		this.longSum += other.longSum;
 		this.longMinValue = Math.min(this.longMinValue, other.longMinValue);
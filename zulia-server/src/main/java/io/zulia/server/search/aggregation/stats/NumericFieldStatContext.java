@@ -37,8 +37,7 @@ public class NumericFieldStatContext implements OrdinalConsumer {
 
 	@Override
 	public void handleOrdinal(int ordinal) {
-		Stats<?> stats = numericFieldStatInfo.getFacetStatStorage().getOrCreateStat(ordinal);
-		stats.handleNumericValues(numericValues, numericValueCount);
+		numericFieldStatInfo.getFacetStatStorage().handleNumericValues(ordinal, numericValues, numericValueCount);
 	}
 
 	@Override
@@ -3,9 +3,9 @@ package io.zulia.server.search.aggregation.stats;
 import io.zulia.message.ZuliaIndex;
 import io.zulia.server.field.FieldTypeUtil;
 import io.zulia.server.search.aggregation.facets.FacetInfo;
-import io.zulia.server.search.aggregation.ordinal.DoubleMapStatOrdinalStorage;
-import io.zulia.server.search.aggregation.ordinal.LongMapStatOrdinalStorage;
-import io.zulia.server.search.aggregation.ordinal.MapStatOrdinalStorage;
+import io.zulia.server.search.aggregation.ordinal.ColumnarStatOrdinalStorage;
+import io.zulia.server.search.aggregation.ordinal.DoubleColumnarStatOrdinalStorage;
+import io.zulia.server.search.aggregation.ordinal.LongColumnarStatOrdinalStorage;
 
 public class NumericFieldStatInfo extends FacetInfo {
 
@@ -13,16 +13,17 @@ public class NumericFieldStatInfo extends FacetInfo {
 	private String sortFieldName;
 
 	private Double facetPrecision;
+	private int ordinalCount;
 
 	private ZuliaIndex.FieldConfig.FieldType numericFieldType;
 	private Stats<?> globalStats;
-	private MapStatOrdinalStorage<?> facetStatStorage;
+	private ColumnarStatOrdinalStorage facetStatStorage;
 
 	public NumericFieldStatInfo(String numericFieldName) {
 		this.numericFieldName = numericFieldName;
 	}
 
-	private NumericFieldStatInfo(NumericFieldStatInfo copyNumericFieldStatInfo) {
+	private NumericFieldStatInfo(NumericFieldStatInfo copyNumericFieldStatInfo, long expectedHits) {
 		super(copyNumericFieldStatInfo);
 		this.numericFieldName = copyNumericFieldStatInfo.numericFieldName;
 		this.sortFieldName = copyNumericFieldStatInfo.sortFieldName;
@@ -32,12 +33,15 @@ public class NumericFieldStatInfo extends FacetInfo {
 			enableGlobal(copyNumericFieldStatInfo.globalStats.getPrecision());
 		}
 		if (copyNumericFieldStatInfo.hasFacets()) {
-			enableFacetWithPrecision(copyNumericFieldStatInfo.facetPrecision);
+			enableFacetWithPrecision(copyNumericFieldStatInfo.facetPrecision, copyNumericFieldStatInfo.ordinalCount, expectedHits);
 		}
 	}
 
-	public NumericFieldStatInfo cloneNewStatCount() {
-		return new NumericFieldStatInfo(this);
+	/**
+	 * Creates empty stats for the same field and facets
+	 */
+	public NumericFieldStatInfo cloneNewStatCount(long expectedHits) {
+		return new NumericFieldStatInfo(this, expectedHits);
 	}
 
 	public void setNumericFieldType(ZuliaIndex.FieldConfig.FieldType numericFieldType) {
@@ -48,23 +52,28 @@ public class NumericFieldStatInfo extends FacetInfo {
 		return globalStats != null;
 	}
 
-	public void enableFacetWithPrecision(double facetPrecision) {
+	/**
+	 * @param ordinalCount size of the taxonomy
+	 * @param expectedHits documents expected to be tallied by the facet stats
+	 */
+	public void enableFacetWithPrecision(double facetPrecision, int ordinalCount, long expectedHits) {
 		if (this.facetPrecision != null && Double.compare(this.facetPrecision, facetPrecision) != 0) {
 			throw new IllegalArgumentException("Facet precision for field <" + numericFieldName + "> must be the same for all facets.");
 		}
 		this.facetPrecision = facetPrecision;
+		this.ordinalCount = ordinalCount;
 
 		if (FieldTypeUtil.isNumericDoubleFieldType(numericFieldType)) {
-			facetStatStorage = new DoubleMapStatOrdinalStorage(() -> new DoubleDoubleStats(facetPrecision));
+			facetStatStorage = new DoubleColumnarStatOrdinalStorage(facetPrecision, false, ordinalCount, expectedHits);
 		}
 		else if (FieldTypeUtil.isNumericFloatFieldType(numericFieldType)) {
-			facetStatStorage = new DoubleMapStatOrdinalStorage(() -> new FloatDoubleStats(facetPrecision));
+			facetStatStorage = new DoubleColumnarStatOrdinalStorage(facetPrecision, true, ordinalCount, expectedHits);
 		}
 		else if (FieldTypeUtil.isStoredAsLong(numericFieldType)) {
-			facetStatStorage = new LongMapStatOrdinalStorage(() -> new LongLongStats(facetPrecision));
+			facetStatStorage = new LongColumnarStatOrdinalStorage(facetPrecision, false, ordinalCount, expectedHits);
 		}
 		else if (FieldTypeUtil.isStoredAsInt(numericFieldType)) {
-			facetStatStorage = new LongMapStatOrdinalStorage(() -> new IntLongStats(facetPrecision));
+			facetStatStorage = new LongColumnarStatOrdinalStorage(facetPrecision, true, ordinalCount, expectedHits);
 		}
 		else {
 			throw new IllegalArgumentException("Can not generate stat storage for field type <" + numericFieldType + ">");
@@ -102,7 +111,7 @@ public class NumericFieldStatInfo extends FacetInfo {
 		return globalStats;
 	}
 
-	public MapStatOrdinalStorage<?> getFacetStatStorage() {
+	public ColumnarStatOrdinalStorage getFacetStatStorage() {
 		return facetStatStorage;
 	}
 
@@ -5,12 +5,11 @@ import com.datadoghq.sketch.ddsketch.DDSketchProtoBinding;
 import com.datadoghq.sketch.ddsketch.DDSketches;
 import io.zulia.message.ZuliaQuery;
 
-public abstract class Stats<T extends Stats<T>> implements Comparable<T> {
+public abstract class Stats<T extends Stats<T>> {
 
 	private final double precision;
 	private final DDSketch sketch;
 
-	private int ordinal;
 	private long docCount;
 	private long allDocCount;
 	private long valueCount;
@@ -64,18 +63,6 @@ public abstract class Stats<T extends Stats<T>> implements Comparable<T> {
 		}
 	}
 
-	public void setOrdinal(int ordinal) {
-		this.ordinal = ordinal;
-	}
-
-	public int getOrdinal() {
-		return ordinal;
-	}
-
-	public int compareOrdinal(Stats<T> o) {
-		return Integer.compare(o.ordinal, ordinal);
-	}
-
 	public ZuliaQuery.FacetStatsInternal.Builder buildResponse() {
 		ZuliaQuery.FacetStatsInternal.Builder builder = ZuliaQuery.FacetStatsInternal.newBuilder().setDocCount(docCount).setAllDocCount(allDocCount)
 				.setValueCount(valueCount);
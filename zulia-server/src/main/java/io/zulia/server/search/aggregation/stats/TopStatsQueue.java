@@ -1,16 +0,0 @@
-package io.zulia.server.search.aggregation.stats;
-
-import org.apache.lucene.util.PriorityQueue;
-
-public class TopStatsQueue<T extends Stats<T>> extends PriorityQueue<T> {
-
-	public TopStatsQueue(int topN) {
-		super(topN);
-	}
-
-	@Override
-	protected boolean lessThan(T a, T b) {
-		return a.compareTo(b) < 0;
-	}
-
-}
\ No newline at end of file
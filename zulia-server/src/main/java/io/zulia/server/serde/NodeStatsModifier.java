@@ -18,4 +18,7 @@ public interface NodeStatsModifier {
 	@JsonIgnore
 	com.google.protobuf.ByteString getZuliaVersionBytes();
 
+	@JsonIgnore
+	io.zulia.message.ZuliaBase.QueryExecutionStatsOrBuilder getQueryExecutionStatsOrBuilder();
+
 }
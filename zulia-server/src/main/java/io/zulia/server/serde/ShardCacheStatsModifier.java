@@ -9,4 +9,16 @@ public interface ShardCacheStatsModifier {
 
 	@JsonIgnore
 	io.zulia.message.ZuliaBase.CacheStatsOrBuilder getPinnedCacheOrBuilder();
+
+	@JsonIgnore
+	io.zulia.message.ZuliaBase.CacheStatsOrBuilder getSegmentCacheOrBuilder();
+
+	@JsonIgnore
+	io.zulia.message.ZuliaBase.CacheStatsOrBuilder getFilterCacheOrBuilder();
+
+	@JsonIgnore
+	io.zulia.message.ZuliaBase.CacheStatsOrBuilder getTaxonomyCacheOrBuilder();
+
+	@JsonIgnore
+	io.zulia.message.ZuliaBase.CacheStatsOrBuilder getFacetCountCacheOrBuilder();
 }
@@ -0,0 +1,187 @@
+package io.zulia.server.util;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import org.bson.BsonSerializationException;
+import org.bson.BsonType;
+import org.bson.io.BasicOutputBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies fields to return and fields to mask to a stored BSON document by walking the raw bytes and copying the kept elements as is.  Only the
+ * element names are decoded, values are skipped by their length unless a nested field of a subdocument (or an array of subdocuments) is projected.
+ * Follows the same rules as filtering a parsed {@link org.bson.Document}: a top level field is kept when it is returned (or has masked children) and
+ * not masked as a whole, and arrays are never shortened, only the subdocuments inside of them are projected.
+ */
+public class BsonFieldProjection {
+
+	private final boolean maskOnly;
+	private final Set<String> topLevelFieldsToReturn;
+	private final Set<String> topLevelFieldsToMask;
+	private final Set<String> topLevelFieldsWithMaskedChildren;
+	private final Map<String, BsonFieldProjection> childProjections;
+
+	public BsonFieldProjection(Collection<String> fieldsToReturn, Collection<String> fieldsToMask) {
+		FieldAndSubFields fieldsToReturnObj = new FieldAndSubFields(fieldsToReturn);
+		FieldAndSubFields fieldsToMaskObj = new FieldAndSubFields(fieldsToMask);
+
+		Map<String, Set<String>> topLevelToChildrenToReturn = fieldsToReturnObj.getTopLevelToChildren();
+		Map<String, Set<String>> topLevelToChildrenToMask = fieldsToMaskObj.getTopLevelToChildren();
+
+		this.maskOnly = fieldsToReturn.isEmpty();
+		this.topLevelFieldsToReturn = fieldsToReturnObj.getTopLevelFields();
+		this.topLevelFieldsToMask = fieldsToMaskObj.getTopLevelFields();
+		this.topLevelFieldsWithMaskedChildren = topLevelToChildrenToMask.keySet();
+
+		this.childProjections = new HashMap<>();
+		Set<String> topLevelFieldsWithChildren = new HashSet<>(topLevelToChildrenToMask.keySet());
+		if (!maskOnly) {
+			topLevelFieldsWithChildren.addAll(topLevelToChildrenToReturn.keySet());
+		}
+		for (String topLevelField : topLevelFieldsWithChildren) {
+			Collection<String> subFieldsToReturn =
+					maskOnly ? Collections.emptySet() : topLevelToChildrenToReturn.getOrDefault(topLevelField, Collections.emptySet());
+			Collection<String> subFieldsToMask = topLevelToChildrenToMask.getOrDefault(topLevelField, Collections.emptySet());
+			childProjections.put(topLevelField, new BsonFieldProjection(subFieldsToReturn, subFieldsToMask));
+		}
+	}
+
+	public ByteString project(byte[] bytes, int offset, int length) {
+		if (length < 5 || readInt(bytes, offset) != length) {
+			throw new BsonSerializationException("Invalid stored document of length <" + length + ">");
+		}
+
+		BasicOutputBuffer outputBuffer = new BasicOutputBuffer(Math.min(length, 4096));
+		projectDocument(bytes, offset, outputBuffer);
+		// the buffer is not reused so it can back the byte string without another copy
+		return UnsafeByteOperations.unsafeWrap(outputBuffer.getInternalBuffer(), 0, outputBuffer.getPosition());
+	}
+
+	private void projectDocument(byte[] bytes, int start, BasicOutputBuffer outputBuffer) {
+		int end = start + readInt(bytes, start) - 1;
+		int sizePosition = outputBuffer.getPosition();
+		outputBuffer.writeInt32(0);
+
+		int position = start + 4;
+		while (position < end) {
+			byte type = bytes[position];
+			int nameEnd = position + 1;
+			while (bytes[nameEnd] != 0) {
+				nameEnd++;
+			}
+			int valueStart = nameEnd + 1;
+			int valueEnd = valueStart + getValueLength(type, bytes, valueStart);
+
+			String name = new String(bytes, position + 1, nameEnd - position - 1, StandardCharsets.UTF_8);
+			if (isKept(name)) {
+				BsonFieldProjection childProjection = childProjections.get(name);
+				if (childProjection != null && isContainer(type)) {
+					outputBuffer.writeBytes(bytes, position, valueStart - position);
+					childProjection.projectValue(type, bytes, valueStart, outputBuffer);
+				}
+				else {
+					outputBuffer.writeBytes(bytes, position, valueEnd - position);
+				}
+			}
+			position = valueEnd;
+		}
+
+		outputBuffer.writeByte(0);
+		outputBuffer.writeInt32(sizePosition, outputBuffer.getPosition() - sizePosition);
+	}
+
+	private void projectArray(byte[] bytes, int start, BasicOutputBuffer outputBuffer) {
+		int end = start + readInt(bytes, start) - 1;
+		int sizePosition = outputBuffer.getPosition();
+		outputBuffer.writeInt32(0);
+
+		int position = start + 4;
+		while (position < end) {
+			byte type = bytes[position];
+			int nameEnd = position + 1;
+			while (bytes[nameEnd] != 0) {
+				nameEnd++;
+			}
+			int valueStart = nameEnd + 1;
+
+			if (isContainer(type)) {
+				outputBuffer.writeBytes(bytes, position, valueStart - position);
+				projectValue(type, bytes, valueStart, outputBuffer);
+				position = valueStart + readInt(bytes, valueStart);
+			}
+			else {
+				int valueEnd = valueStart + getValueLength(type, bytes, valueStart);
+				outputBuffer.writeBytes(bytes, position, valueEnd - position);
+				position = valueEnd;
+			}
+		}
+
+		outputBuffer.writeByte(0);
+		outputBuffer.writeInt32(sizePosition, outputBuffer.getPosition() - sizePosition);
+	}
+
+	private void projectValue(byte type, byte[] bytes, int valueStart, BasicOutputBuffer outputBuffer) {
+		if (type == BsonType.DOCUMENT.getValue()) {
+			projectDocument(bytes, valueStart, outputBuffer);
+		}
+		else {
+			// lists of lists are flattened when filtering a parsed document so the subdocuments at any depth are projected
+			projectArray(bytes, valueStart, outputBuffer);
+		}
+	}
+
+	private boolean isKept(String name) {
+		if (maskOnly) {
+			return !topLevelFieldsToMask.contains(name) || topLevelFieldsWithMaskedChildren.contains(name);
+		}
+		if (topLevelFieldsWithMaskedChildren.contains(name)) {
+			return true;
+		}
+		return topLevelFieldsToReturn.contains(name) && !topLevelFieldsToMask.contains(name);
+	}
+
+	private static boolean isContainer(byte type) {
+		return type == BsonType.DOCUMENT.getValue() || type == BsonType.ARRAY.getValue();
+	}
+
+	private static int getValueLength(byte type, byte[] bytes, int valueStart) {
+		BsonType bsonType = BsonType.findByValue(type);
+		if (bsonType == null) {
+			throw new BsonSerializationException("Unknown bson type <" + type + ">");
+		}
+		return switch (bsonType) {
+			case DOUBLE, DATE_TIME, TIMESTAMP, INT64 -> 8;
+			case STRING, JAVASCRIPT, SYMBOL -> 4 + readInt(bytes, valueStart);
+			case DOCUMENT, ARRAY, JAVASCRIPT_WITH_SCOPE -> readInt(bytes, valueStart);
+			case BINARY -> 5 + readInt(bytes, valueStart);
+			case OBJECT_ID -> 12;
+			case BOOLEAN -> 1;
+			case INT32 -> 4;
+			case DECIMAL128 -> 16;
+			case DB_POINTER -> 4 + readInt(bytes, valueStart) + 12;
+			case REGULAR_EXPRESSION -> {
+				int position = valueStart;
+				while (bytes[position] != 0) {
+					position++;
+				}
+				position++;
+				while (bytes[position] != 0) {
+					position++;
+				}
+				yield position + 1 - valueStart;
+			}
+			case UNDEFINED, NULL, MIN_KEY, MAX_KEY, END_OF_DOCUMENT -> 0;
+		};
+	}
+
+	private static int readInt(byte[] bytes, int position) {
+		return (bytes[position] & 0xff) | (bytes[position + 1] & 0xff) << 8 | (bytes[position + 2] & 0xff) << 16 | (bytes[position + 3] & 0xff) << 24;
+	}
+}
@@ -0,0 +1,76 @@
+package io.zulia.server.index;
+
+import io.zulia.message.ZuliaBase.Node;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class NodeLatencyTrackerTest {
+
+	private static final Node NODE_1 = Node.newBuilder().setServerAddress("node1").setServicePort(32191).build();
+	private static final Node NODE_2 = Node.newBuilder().setServerAddress("node2").setServicePort(32191).build();
+
+	private static void request(NodeLatencyTracker tracker, Node node, long latencyMs) {
+		tracker.start(node);
+		tracker.finish(node, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(latencyMs));
+	}
+
+	@Test
+	public void selectFastest() {
+		NodeLatencyTracker tracker = new NodeLatencyTracker();
+
+		// unmeasured nodes tie and the first is preferred
+		Assertions.assertEquals(NODE_1, tracker.selectFastest(List.of(NODE_1, NODE_2)));
+
+		request(tracker, NODE_1, 100);
+		// a node without a latency is measured before the slower measured one
+		Assertions.assertEquals(NODE_2, tracker.selectFastest(List.of(NODE_1, NODE_2)));
+
+		request(tracker, NODE_2, 10);
+		Assertions.assertEquals(NODE_2, tracker.selectFastest(List.of(NODE_1, NODE_2)));
+
+		// the node with the lower average loses once enough requests are waiting on it
+		for (int i = 0; i < 20; i++) {
+			tracker.start(NODE_2);
+		}
+		Assertions.assertEquals(NODE_1, tracker.selectFastest(List.of(NODE_1, NODE_2)));
+
+		// node keys only use the address and port
+		Node node2WithHeartbeat = NODE_2.toBuilder().setHeartbeat(1).build();
+		Assertions.assertEquals(NODE_1, tracker.selectFastest(List.of(node2WithHeartbeat, NODE_1)));
+	}
+
+	@Test
+	public void latencyPercentile() {
+		NodeLatencyTracker tracker = new NodeLatencyTracker();
+		Assertions.assertEquals(-1, tracker.getLatencyPercentileNanos(0.95));
+
+		for (int i = 1; i <= 100; i++) {
+			request(tracker, i % 2 == 0 ? NODE_1 : NODE_2, i);
+		}
+
+		long p95 = tracker.getLatencyPercentileNanos(0.95);
+		Assertions.assertTrue(p95 >= TimeUnit.MILLISECONDS.toNanos(95));
+		Assertions.assertTrue(p95 < TimeUnit.MILLISECONDS.toNanos(97));
+		Assertions.assertTrue(tracker.getLatencyPercentileNanos(1.0) >= TimeUnit.MILLISECONDS.toNanos(100));
+	}
+
+	@Test
+	public void failedRequestsNotRecorded() {
+		NodeLatencyTracker tracker = new NodeLatencyTracker();
+		request(tracker, NODE_1, 10);
+		request(tracker, NODE_2, 50);
+
+		// fast failures on the slower node do not lower its average
+		for (int i = 0; i < 40; i++) {
+			tracker.start(NODE_2);
+			tracker.fail(NODE_2);
+		}
+		Assertions.assertEquals(NODE_1, tracker.selectFastest(List.of(NODE_2, NODE_1)));
+
+		// or count towards the recent latencies
+		Assertions.assertEquals(-1, tracker.getLatencyPercentileNanos(0.95));
+	}
+}
@@ -0,0 +1,82 @@
+package io.zulia.server.index;
+
+import io.zulia.ZuliaFieldConstants;
+import io.zulia.message.ZuliaBase;
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class StoredDocumentReaderTest {
+
+	private static Document document(String uniqueId, boolean storedFields, boolean withMeta) {
+		Document document = new Document();
+		ZuliaBase.IdInfo idInfo = ZuliaBase.IdInfo.newBuilder().setId(uniqueId).setStoredFields(storedFields).build();
+		document.add(new BinaryDocValuesField(ZuliaFieldConstants.STORED_ID_FIELD, new BytesRef(idInfo.toByteArray())));
+
+		byte[] doc = ("doc-" + uniqueId).getBytes(StandardCharsets.UTF_8);
+		byte[] meta = ("meta-" + uniqueId).getBytes(StandardCharsets.UTF_8);
+		if (storedFields) {
+			document.add(new StoredField(ZuliaFieldConstants.STORED_FIELDS_DOC_FIELD, doc));
+			if (withMeta) {
+				document.add(new StoredField(ZuliaFieldConstants.STORED_FIELDS_META_FIELD, meta));
+			}
+		}
+		else {
+			document.add(new BinaryDocValuesField(ZuliaFieldConstants.STORED_DOC_FIELD, new BytesRef(doc)));
+			if (withMeta) {
+				document.add(new BinaryDocValuesField(ZuliaFieldConstants.STORED_META_FIELD, new BytesRef(meta)));
+			}
+		}
+		return document;
+	}
+
+	private static String toString(BytesRef bytesRef) {
+		return bytesRef != null ? bytesRef.utf8ToString() : null;
+	}
+
+	@Test
+	public void mixedFormats() throws Exception {
+		try (ByteBuffersDirectory directory = new ByteBuffersDirectory();
+				IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig())) {
+
+			// documents written before and after the stored document format changed end up in the same segment
+			indexWriter.addDocument(document("id0", false, true));
+			indexWriter.addDocument(document("id1", true, true));
+			indexWriter.addDocument(document("id2", false, false));
+			indexWriter.addDocument(document("id3", true, false));
+			indexWriter.forceMerge(1);
+			indexWriter.commit();
+
+			try (DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+				LeafReader leafReader = directoryReader.leaves().get(0).reader();
+
+				StoredDocumentReader storedDocumentReader = new StoredDocumentReader(leafReader, true, true);
+				for (int i = 0; i < 4; i++) {
+					Assertions.assertTrue(storedDocumentReader.advanceExact(i));
+					String uniqueId = storedDocumentReader.getIdInfo().getId();
+					Assertions.assertEquals("id" + i, uniqueId);
+					Assertions.assertEquals(i % 2 == 1, storedDocumentReader.getIdInfo().getStoredFields());
+					Assertions.assertEquals("doc-" + uniqueId, toString(storedDocumentReader.getFullDoc()));
+					Assertions.assertEquals(i < 2 ? "meta-" + uniqueId : null, toString(storedDocumentReader.getMeta()));
+				}
+
+				StoredDocumentReader metaOnlyReader = new StoredDocumentReader(leafReader, true, false);
+				for (int i = 0; i < 2; i++) {
+					Assertions.assertTrue(metaOnlyReader.advanceExact(i));
+					Assertions.assertEquals("meta-id" + i, toString(metaOnlyReader.getMeta()));
+					Assertions.assertNull(metaOnlyReader.getFullDoc());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package io.zulia.server.index;
+
+import io.zulia.ZuliaFieldConstants;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UniqueIdLookupTest {
+
+	private static Document document(String uniqueId, int version) {
+		Document document = new Document();
+		document.add(new StringField(ZuliaFieldConstants.ID_FIELD, uniqueId, Field.Store.NO));
+		document.add(new StoredField("version", version));
+		return document;
+	}
+
+	private static int getVersion(DirectoryReader directoryReader, int docId) throws Exception {
+		return directoryReader.storedFields().document(docId).getField("version").numericValue().intValue();
+	}
+
+	@Test
+	public void lookup() throws Exception {
+		try (ByteBuffersDirectory directory = new ByteBuffersDirectory();
+				IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+
+			// one segment per commit so the ids are spread across segments
+			for (int i = 0; i < 10; i++) {
+				indexWriter.addDocument(document("id" + i, 1));
+				indexWriter.commit();
+			}
+			// an updated document leaves a deleted version under the same id in an older segment
+			indexWriter.updateDocument(new Term(ZuliaFieldConstants.ID_FIELD, "id3"), document("id3", 2));
+			indexWriter.deleteDocuments(new Term(ZuliaFieldConstants.ID_FIELD, "id5"));
+			indexWriter.commit();
+
+			try (DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+				Assertions.assertTrue(directoryReader.leaves().size() > 1);
+
+				Assertions.assertEquals(1, getVersion(directoryReader, UniqueIdLookup.lookup(directoryReader, "id0")));
+				Assertions.assertEquals(2, getVersion(directoryReader, UniqueIdLookup.lookup(directoryReader, "id3")));
+				Assertions.assertEquals(-1, UniqueIdLookup.lookup(directoryReader, "id5"));
+				Assertions.assertEquals(-1, UniqueIdLookup.lookup(directoryReader, "missing"));
+
+				ScoreDoc[] scoreDocs = UniqueIdLookup.lookup(directoryReader, List.of("id9", "id3", "missing", "id5", "id0", "id3"));
+				Map<Integer, Integer> versions = new HashMap<>();
+				for (ScoreDoc scoreDoc : scoreDocs) {
+					versions.put(scoreDoc.doc, getVersion(directoryReader, scoreDoc.doc));
+				}
+				Assertions.assertEquals(3, versions.size());
+				Assertions.assertEquals(2, versions.get(UniqueIdLookup.lookup(directoryReader, "id3")));
+				Assertions.assertTrue(versions.containsKey(UniqueIdLookup.lookup(directoryReader, "id9")));
+				Assertions.assertTrue(versions.containsKey(UniqueIdLookup.lookup(directoryReader, "id0")));
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package io.zulia.server.index.cache;
+
+import org.apache.lucene.facet.taxonomy.FacetLabel;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ZuliaTaxonomyWriterCacheTest {
+
+	private static final int LABEL_COUNT = 5000;
+
+	private static FacetLabel label(int i) {
+		return new FacetLabel("author", "Author Name " + i);
+	}
+
+	@Test
+	public void unbounded() {
+		ZuliaTaxonomyWriterCache cache = new ZuliaTaxonomyWriterCache();
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			Assertions.assertFalse(cache.put(label(i), i));
+		}
+		Assertions.assertFalse(cache.isFull());
+		Assertions.assertEquals(LABEL_COUNT, cache.size());
+
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			Assertions.assertEquals(i, cache.get(label(i)));
+		}
+		Assertions.assertEquals(-1, cache.get(label(LABEL_COUNT)));
+		Assertions.assertEquals(LABEL_COUNT, cache.getCacheStats().getHitCount());
+		Assertions.assertEquals(1, cache.getCacheStats().getMissCount());
+
+		cache.clear();
+		Assertions.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void boundedReportsEvictions() {
+		ZuliaTaxonomyWriterCache cache = new ZuliaTaxonomyWriterCache(64 * 1024);
+		boolean evicted = false;
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			evicted |= cache.put(label(i), i);
+		}
+		Assertions.assertTrue(evicted);
+		Assertions.assertTrue(cache.size() < LABEL_COUNT);
+		Assertions.assertTrue(cache.getCacheStats().getEvictionCount() > 0);
+		Assertions.assertTrue(cache.getCacheStats().getResultSize() <= 64 * 1024);
+	}
+
+	@Test
+	public void boundedTaxonomyKeepsOrdinals() throws Exception {
+		try (DirectoryTaxonomyWriter taxoWriter = new DirectoryTaxonomyWriter(new ByteBuffersDirectory(), IndexWriterConfig.OpenMode.CREATE,
+				new ZuliaTaxonomyWriterCache(16 * 1024))) {
+
+			int[] ordinals = new int[LABEL_COUNT];
+			for (int i = 0; i < LABEL_COUNT; i++) {
+				ordinals[i] = taxoWriter.addCategory(label(i));
+			}
+			int size = taxoWriter.getSize();
+
+			// labels evicted from the cache are found in the taxonomy index instead of being added again
+			try (ExecutorService executorService = Executors.newFixedThreadPool(4)) {
+				List<Future<?>> futures = new ArrayList<>();
+				for (int t = 0; t < 4; t++) {
+					futures.add(executorService.submit(() -> {
+						for (int i = LABEL_COUNT - 1; i >= 0; i--) {
+							Assertions.assertEquals(ordinals[i], taxoWriter.addCategory(label(i)));
+						}
+						return null;
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			}
+			Assertions.assertEquals(size, taxoWriter.getSize());
+		}
+	}
+}
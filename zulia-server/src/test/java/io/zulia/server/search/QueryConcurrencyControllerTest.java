@@ -0,0 +1,137 @@
+package io.zulia.server.search;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.zulia.message.ZuliaBase;
+import io.zulia.server.exceptions.QueryRejectedException;
+import org.apache.lucene.index.MultiReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+public class QueryConcurrencyControllerTest {
+
+	@Test
+	public void concurrencyFromLoad() {
+		QueryConcurrencyController queryConcurrencyController = new QueryConcurrencyController(16);
+
+		// quiet node, large shard: limited by the slices
+		Assertions.assertEquals(8, queryConcurrencyController.getConcurrency(0, 8, 10_000_000, 1, 16));
+		// requested concurrency is an upper bound
+		Assertions.assertEquals(4, queryConcurrencyController.getConcurrency(4, 8, 10_000_000, 1, 16));
+		// small shards are searched on the query thread
+		Assertions.assertEquals(1, queryConcurrencyController.getConcurrency(0, 8, 1_000, 1, 16));
+		Assertions.assertEquals(3, queryConcurrencyController.getConcurrency(0, 8, 120_000, 1, 16));
+		// a burst of queries gets a fair share of the node
+		Assertions.assertEquals(2, queryConcurrencyController.getConcurrency(0, 8, 10_000_000, 8, 0));
+		Assertions.assertEquals(1, queryConcurrencyController.getConcurrency(8, 8, 10_000_000, 64, 0));
+		// free slots left by the other queries can still be used
+		Assertions.assertEquals(6, queryConcurrencyController.getConcurrency(0, 8, 10_000_000, 8, 6));
+	}
+
+	@Test
+	public void segmentTasksLimitedAcrossQueries() throws Exception {
+		QueryConcurrencyController queryConcurrencyController = new QueryConcurrencyController(2);
+
+		try (MultiReader multiReader = new MultiReader()) {
+			CountDownLatch release = new CountDownLatch(1);
+			try (QueryConcurrencyController.QueryTaskExecutor first = queryConcurrencyController.createExecutor(0, multiReader);
+					QueryConcurrencyController.QueryTaskExecutor second = queryConcurrencyController.createExecutor(0, multiReader)) {
+				Assertions.assertEquals(2, queryConcurrencyController.getRunningQueries());
+
+				List<ListenableFuture<Thread>> blocked = new ArrayList<>();
+				for (QueryConcurrencyController.QueryTaskExecutor executor : List.of(first, second)) {
+					blocked.add(executor.executeAsync(() -> {
+						release.await();
+						return Thread.currentThread();
+					}));
+				}
+				Assertions.assertEquals(2, queryConcurrencyController.getRunningSegmentTasks());
+
+				// node is saturated so the task runs on the calling thread instead of waiting
+				QueryConcurrencyController.QueryTaskExecutor third = queryConcurrencyController.createExecutor(0, multiReader);
+				Assertions.assertEquals(Thread.currentThread(), third.executeAsync(Thread::currentThread).get());
+				third.close();
+
+				release.countDown();
+				for (ListenableFuture<Thread> future : blocked) {
+					Assertions.assertNotEquals(Thread.currentThread(), future.get());
+				}
+			}
+			Assertions.assertEquals(0, queryConcurrencyController.getRunningQueries());
+			Assertions.assertEquals(0, queryConcurrencyController.getRunningSegmentTasks());
+		}
+	}
+
+	@Test
+	public void queuedQueriesTakeTurnsAcrossIndexes() throws Exception {
+		try (QueryConcurrencyController queryConcurrencyController = new QueryConcurrencyController(1, 1, 10)) {
+			QueryConcurrencyController.QueryPermit running = queryConcurrencyController.admit("busy", "", null);
+
+			// a busy index queues several queries before a quiet index queues one
+			List<String> admittedOrder = Collections.synchronizedList(new ArrayList<>());
+			List<Future<Object>> waiting = new ArrayList<>();
+			for (String indexName : List.of("busy", "busy", "busy", "quiet")) {
+				int queued = queryConcurrencyController.getQueuedQueries();
+				waiting.add(queryConcurrencyController.submit(() -> {
+					try (QueryConcurrencyController.QueryPermit queryPermit = queryConcurrencyController.admit(indexName, "", null)) {
+						admittedOrder.add(indexName);
+					}
+					return null;
+				}));
+				while (queryConcurrencyController.getQueuedQueries() == queued) {
+					Thread.sleep(1);
+				}
+			}
+			Assertions.assertEquals(1, queryConcurrencyController.getActiveQueries());
+			Assertions.assertEquals(4, queryConcurrencyController.getQueuedQueries());
+
+			running.close();
+			for (Future<Object> future : waiting) {
+				future.get();
+			}
+
+			Assertions.assertEquals(List.of("busy", "quiet", "busy", "busy"), admittedOrder);
+			Assertions.assertEquals(0, queryConcurrencyController.getActiveQueries());
+			Assertions.assertEquals(0, queryConcurrencyController.getQueuedQueries());
+
+			ZuliaBase.QueryExecutionStats queryExecutionStats = queryConcurrencyController.getQueryExecutionStats().build();
+			Assertions.assertEquals(5, queryExecutionStats.getAdmittedCount());
+			Assertions.assertEquals(0, queryExecutionStats.getRejectedCount());
+		}
+	}
+
+	@Test
+	public void rejectedWhenSaturated() throws Exception {
+		try (QueryConcurrencyController queryConcurrencyController = new QueryConcurrencyController(1, 1, 1)) {
+			try (QueryConcurrencyController.QueryPermit running = queryConcurrencyController.admit("index", "", null)) {
+				// waits until its deadline for the running query to finish
+				Assertions.assertThrows(QueryRejectedException.class, () -> queryConcurrencyController.admit("index", "", new QueryDeadline(20)));
+				Assertions.assertEquals(0, queryConcurrencyController.getQueuedQueries());
+
+				ListenableFuture<Object> queued = queryConcurrencyController.submit(() -> {
+					queryConcurrencyController.admit("index", "", null).close();
+					return null;
+				});
+				while (queryConcurrencyController.getQueuedQueries() == 0) {
+					Thread.sleep(1);
+				}
+
+				// the queue is full so the query is rejected without waiting
+				Assertions.assertThrows(QueryRejectedException.class, () -> queryConcurrencyController.admit("other", "", null));
+
+				running.close();
+				queued.get();
+			}
+
+			ZuliaBase.QueryExecutionStats queryExecutionStats = queryConcurrencyController.getQueryExecutionStats().build();
+			Assertions.assertEquals(2, queryExecutionStats.getAdmittedCount());
+			Assertions.assertEquals(2, queryExecutionStats.getRejectedCount());
+			Assertions.assertEquals(0, queryExecutionStats.getActiveQueries());
+		}
+	}
+}
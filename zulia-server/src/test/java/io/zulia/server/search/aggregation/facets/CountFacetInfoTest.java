@@ -0,0 +1,90 @@
+package io.zulia.server.search.aggregation.facets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CountFacetInfoTest {
+
+	@Test
+	public void testDenseAndSparseCountsMatch() {
+		// enough hits for the taxonomy size to count into an array
+		CountFacetInfo dense = new CountFacetInfo(100, 1000);
+		// too few hits for the taxonomy size so counts go into a map
+		CountFacetInfo sparse = new CountFacetInfo(100, 1);
+
+		for (int ordinal : new int[] { 1, 5, 5, 99, 5, 1 }) {
+			dense.handleOrdinal(ordinal);
+			sparse.handleOrdinal(ordinal);
+		}
+
+		for (int ordinal = 0; ordinal < 100; ordinal++) {
+			Assertions.assertEquals(sparse.getOrdinalCount(ordinal), dense.getOrdinalCount(ordinal));
+		}
+		Assertions.assertEquals(2, dense.getOrdinalCount(1));
+		Assertions.assertEquals(3, dense.getOrdinalCount(5));
+		Assertions.assertEquals(1, dense.getOrdinalCount(99));
+		Assertions.assertEquals(0, dense.getOrdinalCount(50));
+	}
+
+	@Test
+	public void testMergeAcrossCountingModes() {
+		CountFacetInfo global = new CountFacetInfo(100, 1000);
+
+		CountFacetInfo dense = global.cloneNewCounter(1000);
+		dense.handleOrdinal(3);
+		dense.handleOrdinal(7);
+
+		CountFacetInfo sparse = global.cloneNewCounter(1);
+		sparse.handleOrdinal(7);
+		sparse.handleOrdinal(42);
+
+		global.merge(dense);
+		global.merge(sparse);
+		global.merge(dense.compact());
+
+		Assertions.assertEquals(2, global.getOrdinalCount(3));
+		Assertions.assertEquals(3, global.getOrdinalCount(7));
+		Assertions.assertEquals(1, global.getOrdinalCount(42));
+
+		CountFacetInfo sparseGlobal = new CountFacetInfo(100, 0);
+		sparseGlobal.merge(dense);
+		sparseGlobal.merge(sparse);
+
+		Assertions.assertEquals(1, sparseGlobal.getOrdinalCount(3));
+		Assertions.assertEquals(2, sparseGlobal.getOrdinalCount(7));
+		Assertions.assertEquals(1, sparseGlobal.getOrdinalCount(42));
+	}
+
+	@Test
+	public void testParallelMerge() throws Exception {
+		int ordinalCount = 1000;
+		int counters = 16;
+		CountFacetInfo global = new CountFacetInfo(ordinalCount, ordinalCount);
+
+		List<Future<?>> futures = new ArrayList<>();
+		try (ExecutorService executorService = Executors.newFixedThreadPool(4)) {
+			for (int c = 0; c < counters; c++) {
+				futures.add(executorService.submit(() -> {
+					CountFacetInfo local = global.cloneNewCounter(ordinalCount);
+					for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+						local.handleOrdinal(ordinal);
+					}
+					global.merge(local);
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+
+		for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+			Assertions.assertEquals(counters, global.getOrdinalCount(ordinal));
+		}
+	}
+}
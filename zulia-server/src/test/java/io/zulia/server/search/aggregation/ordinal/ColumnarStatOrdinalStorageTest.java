@@ -0,0 +1,119 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.search.aggregation.facets.CountFacetInfo;
+import org.apache.lucene.facet.taxonomy.FacetLabel;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.NumericUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ColumnarStatOrdinalStorageTest {
+
+	private static List<ZuliaQuery.FacetStatsInternal> withoutSketches(List<ZuliaQuery.FacetStatsInternal> facetStats) {
+		return facetStats.stream().map(f -> f.toBuilder().clearStatSketch().build()).toList();
+	}
+
+	@Test
+	public void testTopStats() throws Exception {
+		try (ByteBuffersDirectory directory = new ByteBuffersDirectory()) {
+			int red;
+			int green;
+			int blue;
+			try (DirectoryTaxonomyWriter taxonomyWriter = new DirectoryTaxonomyWriter(directory)) {
+				red = taxonomyWriter.addCategory(new FacetLabel("color", "red"));
+				green = taxonomyWriter.addCategory(new FacetLabel("color", "green"));
+				blue = taxonomyWriter.addCategory(new FacetLabel("color", "blue"));
+				taxonomyWriter.commit();
+			}
+
+			try (DirectoryTaxonomyReader taxonomyReader = new DirectoryTaxonomyReader(directory)) {
+				// a small taxonomy maps ordinals to slots in an array, a large one with few hits in a map
+				assertTopStats(taxonomyReader, new LongColumnarStatOrdinalStorage(0.0, false, taxonomyReader.getSize(), 3), red, green, blue);
+				assertTopStats(taxonomyReader, new LongColumnarStatOrdinalStorage(0.0, false, CountFacetInfo.MAX_DENSE_ORDINALS, 3), red, green, blue);
+			}
+		}
+	}
+
+	private static void assertTopStats(DirectoryTaxonomyReader taxonomyReader, LongColumnarStatOrdinalStorage storage, int red, int green, int blue)
+			throws Exception {
+		storage.handleNumericValues(blue, new long[] { 5, 7 }, 2);
+		storage.handleNumericValues(red, new long[] { 12 }, 1);
+		storage.handleNumericValues(red, new long[0], -1);
+
+		Assertions.assertEquals(-1, storage.getSlot(green));
+
+		List<ZuliaQuery.FacetStatsInternal> facetStats = storage.getFacetStats(taxonomyReader, new FacetLabel("color"), 10);
+		// equal sums are ordered by the lower ordinal first
+		Assertions.assertEquals(2, facetStats.size());
+		Assertions.assertEquals("red", facetStats.get(0).getFacet());
+		Assertions.assertEquals(12, facetStats.get(0).getSum().getLongValue());
+		Assertions.assertEquals(1, facetStats.get(0).getDocCount());
+		Assertions.assertEquals(2, facetStats.get(0).getAllDocCount());
+		Assertions.assertEquals(1, facetStats.get(0).getValueCount());
+		Assertions.assertFalse(facetStats.get(0).hasStatSketch());
+
+		Assertions.assertEquals("blue", facetStats.get(1).getFacet());
+		Assertions.assertEquals(5, facetStats.get(1).getMin().getLongValue());
+		Assertions.assertEquals(7, facetStats.get(1).getMax().getLongValue());
+		Assertions.assertEquals(2, facetStats.get(1).getValueCount());
+
+		facetStats = storage.getFacetStats(taxonomyReader, new FacetLabel("color"), 1);
+		Assertions.assertEquals(1, facetStats.size());
+		Assertions.assertEquals("red", facetStats.getFirst().getFacet());
+
+		Assertions.assertNull(storage.getFacetStats(taxonomyReader, new FacetLabel("size"), 10));
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		try (ByteBuffersDirectory directory = new ByteBuffersDirectory()) {
+			int[] ordinals = new int[100];
+			try (DirectoryTaxonomyWriter taxonomyWriter = new DirectoryTaxonomyWriter(directory)) {
+				for (int i = 0; i < ordinals.length; i++) {
+					ordinals[i] = taxonomyWriter.addCategory(new FacetLabel("value", String.valueOf(i)));
+				}
+				taxonomyWriter.commit();
+			}
+
+			try (DirectoryTaxonomyReader taxonomyReader = new DirectoryTaxonomyReader(directory)) {
+				int ordinalCount = taxonomyReader.getSize();
+				DoubleColumnarStatOrdinalStorage all = new DoubleColumnarStatOrdinalStorage(0.01, true, ordinalCount, 200);
+				// merged into a storage that maps the ordinals from storages that look them up in an array
+				DoubleColumnarStatOrdinalStorage merged = new DoubleColumnarStatOrdinalStorage(0.01, true, ordinalCount, 0);
+				DoubleColumnarStatOrdinalStorage first = new DoubleColumnarStatOrdinalStorage(0.01, true, ordinalCount, 100);
+				DoubleColumnarStatOrdinalStorage second = new DoubleColumnarStatOrdinalStorage(0.01, true, ordinalCount, 100);
+
+				for (int i = 0; i < ordinals.length; i++) {
+					long[] values = new long[] { NumericUtils.floatToSortableInt(i + 0.5f) };
+					all.handleNumericValues(ordinals[i], values, 1);
+					all.handleNumericValues(ordinals[ordinals.length - 1 - i], values, 1);
+					first.handleNumericValues(ordinals[i], values, 1);
+					second.handleNumericValues(ordinals[ordinals.length - 1 - i], values, 1);
+				}
+
+				merged.merge(first);
+				merged.merge(second);
+				// a storage merged again (i.e. from the cache) is not changed by the first merge
+				DoubleColumnarStatOrdinalStorage mergedAgain = new DoubleColumnarStatOrdinalStorage(0.01, true, ordinalCount, 0);
+				mergedAgain.merge(first);
+				mergedAgain.merge(second);
+
+				List<ZuliaQuery.FacetStatsInternal> expected = all.getFacetStats(taxonomyReader, new FacetLabel("value"), 10);
+				Assertions.assertEquals(10, expected.size());
+				Assertions.assertEquals(100.0, expected.getFirst().getSum().getDoubleValue(), 0.0001);
+				Assertions.assertEquals(0.5, expected.getFirst().getMin().getDoubleValue(), 0.0001);
+				Assertions.assertEquals(99.5, expected.getFirst().getMax().getDoubleValue(), 0.0001);
+				Assertions.assertTrue(expected.getFirst().hasStatSketch());
+
+				Assertions.assertEquals(withoutSketches(expected), withoutSketches(merged.getFacetStats(taxonomyReader, new FacetLabel("value"), 10)));
+				Assertions.assertEquals(withoutSketches(expected), withoutSketches(mergedAgain.getFacetStats(taxonomyReader, new FacetLabel("value"), 10)));
+				Assertions.assertTrue(merged.getFacetStats(taxonomyReader, new FacetLabel("value"), 1).getFirst().hasStatSketch());
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package io.zulia.server.search.aggregation.ordinal;
+
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompactOrdinalEncodingTest {
+
+	private record CollectingConsumer(int[] requestedDimensionOrdinals, List<Integer> ordinals) implements OrdinalConsumer {
+
+		private CollectingConsumer(int... requestedDimensionOrdinals) {
+			this(requestedDimensionOrdinals, new ArrayList<>());
+		}
+
+		@Override
+		public void handleOrdinal(int ordinal) {
+			ordinals.add(ordinal);
+		}
+	}
+
+	private static BytesRef offset(BytesRef bytesRef) {
+		// doc values hand out values that share a larger block
+		byte[] block = new byte[bytesRef.length + 9];
+		System.arraycopy(bytesRef.bytes, bytesRef.offset, block, 5, bytesRef.length);
+		return new BytesRef(block, 5, bytesRef.length);
+	}
+
+	@Test
+	public void singleDimension() {
+		BytesRef bytesRef = offset(CompactOrdinalEncoding.encodeOrdinals(new int[] { 70000, 5, 300, 6, 128 }));
+		Assertions.assertTrue(CompactOrdinalEncoding.isCompact(bytesRef));
+		Assertions.assertTrue(bytesRef.length < 6 * 4);
+
+		CompactSingleDimensionOrdinalBuffer buffer = new CompactSingleDimensionOrdinalBuffer();
+		buffer.reset(bytesRef);
+
+		CollectingConsumer consumer = new CollectingConsumer();
+		buffer.handleFacets(consumer);
+		Assertions.assertEquals(List.of(5, 6, 128, 300, 70000), consumer.ordinals());
+
+		// the same document can be handled again for another stat or count
+		consumer = new CollectingConsumer();
+		buffer.handleFacets(consumer);
+		Assertions.assertEquals(List.of(5, 6, 128, 300, 70000), consumer.ordinals());
+
+		buffer.reset(offset(CompactOrdinalEncoding.encodeOrdinals(new int[0])));
+		consumer = new CollectingConsumer();
+		buffer.handleFacets(consumer);
+		Assertions.assertTrue(consumer.ordinals().isEmpty());
+	}
+
+	@Test
+	public void multiDimension() {
+		int[] dimOrdinals = { 1, 4, 200, 1000 };
+		int[][] ordinals = { { 3, 2 }, null, { 100000, 201, 5000 }, { 1001 } };
+		BytesRef bytesRef = offset(CompactOrdinalEncoding.encodeDimensions(dimOrdinals, ordinals));
+		Assertions.assertTrue(CompactOrdinalEncoding.isCompact(bytesRef));
+
+		CompactMultiDimensionOrdinalBuffer buffer = new CompactMultiDimensionOrdinalBuffer();
+		buffer.reset(bytesRef);
+
+		CollectingConsumer consumer = new CollectingConsumer(1, 4, 200, 1000);
+		buffer.handleFacets(consumer);
+		Assertions.assertEquals(List.of(2, 3, 201, 5000, 100000, 1001), consumer.ordinals());
+
+		// dimensions that are not requested are skipped
+		consumer = new CollectingConsumer(200);
+		buffer.handleFacets(consumer);
+		Assertions.assertEquals(List.of(201, 5000, 100000), consumer.ordinals());
+
+		consumer = new CollectingConsumer(4, 1000);
+		buffer.handleFacets(consumer);
+		Assertions.assertEquals(List.of(1001), consumer.ordinals());
+
+		consumer = new CollectingConsumer(2, 3, 1001);
+		buffer.handleFacets(consumer);
+		Assertions.assertTrue(consumer.ordinals().isEmpty());
+	}
+
+	@Test
+	public void originalEncodingIsNotCompact() {
+		ByteBuffer byteBuffer = ByteBuffer.allocate(3 * 4);
+		byteBuffer.asIntBuffer().put(new int[] { 1, 1, 2 });
+		BytesRef original = new BytesRef(byteBuffer.array());
+		Assertions.assertFalse(CompactOrdinalEncoding.isCompact(original));
+		Assertions.assertFalse(CompactOrdinalEncoding.isCompact(new BytesRef()));
+
+		CollectingConsumer consumer = new CollectingConsumer(1);
+		new MultiDimensionOrdinalBuffer(original).handleFacets(consumer);
+		Assertions.assertEquals(List.of(2), consumer.ordinals());
+	}
+}
@@ -7,11 +7,13 @@ import io.zulia.client.command.builder.CountFacet;
 import io.zulia.client.command.builder.FilterQuery;
 import io.zulia.client.command.builder.ScoredQuery;
 import io.zulia.client.command.builder.Search;
+import io.zulia.client.command.builder.Sort;
 import io.zulia.client.config.ClientIndexConfig;
 import io.zulia.client.pool.ZuliaWorkPool;
 import io.zulia.client.result.SearchResult;
 import io.zulia.doc.ResultDocBuilder;
 import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.message.ZuliaBase.IndexStats;
 import io.zulia.server.test.node.shared.NodeExtension;
 import org.bson.Document;
 import org.junit.jupiter.api.Assertions;
@@ -287,14 +289,69 @@ public class CacheTest {
 
 	}
 
+	@Test
+	@Order(4)
+	public void segmentCacheTest() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(CACHE_TEST).setRealtime(true).setAmount(5);
+		search.addQuery(new FilterQuery("rating:[4.0 TO *]"));
+		search.addSort(new Sort("rating").descending());
+		search.addCountFacet(new CountFacet("rating"));
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		long totalHits = searchResult.getTotalHits();
+		Assertions.assertEquals("1000", searchResult.getFirstDocument().getString("id"));
+
+		indexRecord(CACHE_TEST, 1001, "another amazing title", "green", 2000.0);
+
+		// only the new segment has to be searched, the other segments are served from the segment cache
+		searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(totalHits + 1, searchResult.getTotalHits());
+		Assertions.assertEquals(0, searchResult.getShardsCached());
+		Assertions.assertEquals("1001", searchResult.getFirstDocument().getString("id"));
+		Assertions.assertEquals("1000", searchResult.getDocuments().get(1).getString("id"));
+		Assertions.assertEquals(totalHits + 1, searchResult.getFacetCounts("rating").stream().mapToLong(fc -> fc.getCount()).sum());
+
+		long segmentCacheHits = 0;
+		for (IndexStats indexStats : zuliaWorkPool.getStats().getNodeStats().getIndexStatList()) {
+			if (indexStats.getIndexName().equals(CACHE_TEST)) {
+				segmentCacheHits += indexStats.getShardCacheStatList().stream().mapToLong(s -> s.getSegmentCache().getHitCount()).sum();
+			}
+		}
+		Assertions.assertTrue(segmentCacheHits > 0);
+	}
+
 	@Test
 	@Order(5)
+	public void filterCacheTest() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		// the same filter combined with a different scored query each time never hits the query result cache
+		for (String text : new String[] { "special", "blue", "small", "big", "red", "pink" }) {
+			Search search = new Search(CACHE_TEST);
+			search.addQuery(new FilterQuery("rating:[1.0 TO 4.5]"));
+			search.addQuery(new ScoredQuery(text).addQueryFields("title", "description"));
+			SearchResult searchResult = zuliaWorkPool.search(search);
+			Assertions.assertEquals(0, searchResult.getShardsCached());
+		}
+
+		long filterCacheHits = 0;
+		for (IndexStats indexStats : zuliaWorkPool.getStats().getNodeStats().getIndexStatList()) {
+			if (indexStats.getIndexName().equals(CACHE_TEST)) {
+				filterCacheHits += indexStats.getShardCacheStatList().stream().mapToLong(s -> s.getFilterCache().getHitCount()).sum();
+			}
+		}
+		Assertions.assertTrue(filterCacheHits > 0);
+	}
+
+	@Test
+	@Order(6)
 	public void restart() throws Exception {
 		nodeExtension.restartNodes();
 	}
 
 	@Test
-	@Order(6)
+	@Order(7)
 	public void confirm() throws Exception {
 		// Sleep needed because post-update warming takes a long time now since it can (and does) reset after writes based on file io
 		Thread.sleep(10000);
@@ -0,0 +1,147 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.DeleteFull;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.builder.CountFacet;
+import io.zulia.client.command.builder.DrillDown;
+import io.zulia.client.command.builder.FilterQuery;
+import io.zulia.client.command.builder.ScoredQuery;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.SearchResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class FacetCountCacheTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(3);
+
+	private static final String INDEX_NAME = "facetCountCacheTest";
+	private static final int DOC_COUNT = 1000;
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("category").indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("color").indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(2);
+		indexConfig.setShardCommitInterval(100); //force some segments
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void indexData() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i++) {
+			Document doc = new Document();
+			doc.put("title", "common doc" + i);
+			doc.put("category", "category_" + (i % 4));
+			doc.put("color", i % 10 == 0 ? "red" : "blue");
+
+			Store store = new Store(String.valueOf(i), INDEX_NAME);
+			store.setResultDocument(ResultDocBuilder.from(doc));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void matchAll() throws Exception {
+		// twice so the second search is answered from the cached segment counts
+		for (int i = 0; i < 2; i++) {
+			SearchResult searchResult = facetSearch(new Search(INDEX_NAME));
+			Assertions.assertEquals(DOC_COUNT, searchResult.getTotalHits());
+			assertCounts(searchResult, "category", DOC_COUNT / 4, DOC_COUNT / 4, DOC_COUNT / 4, DOC_COUNT / 4);
+			assertCounts(searchResult, "color", DOC_COUNT - DOC_COUNT / 10, DOC_COUNT / 10);
+		}
+
+		// scored queries count the collected hits and must agree with the cached counts
+		SearchResult scored = facetSearch(new Search(INDEX_NAME).addQuery(new ScoredQuery("common")));
+		Assertions.assertEquals(DOC_COUNT, scored.getTotalHits());
+		assertCounts(scored, "category", DOC_COUNT / 4, DOC_COUNT / 4, DOC_COUNT / 4, DOC_COUNT / 4);
+		assertCounts(scored, "color", DOC_COUNT - DOC_COUNT / 10, DOC_COUNT / 10);
+	}
+
+	@Test
+	@Order(4)
+	public void drillDownOnly() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			Search search = new Search(INDEX_NAME);
+			search.addFacetDrillDown(new DrillDown("color").addValue("red"));
+			SearchResult searchResult = facetSearch(search);
+			Assertions.assertEquals(DOC_COUNT / 10, searchResult.getTotalHits());
+			// every tenth doc is red, so only the even categories
+			assertCounts(searchResult, "category", DOC_COUNT / 20, DOC_COUNT / 20);
+			assertCounts(searchResult, "color", DOC_COUNT / 10);
+
+			search = new Search(INDEX_NAME);
+			search.addQuery(new FilterQuery("category_1").addQueryField("category"));
+			searchResult = facetSearch(search);
+			Assertions.assertEquals(DOC_COUNT / 4, searchResult.getTotalHits());
+			assertCounts(searchResult, "category", DOC_COUNT / 4);
+			assertCounts(searchResult, "color", DOC_COUNT / 4);
+		}
+	}
+
+	@Test
+	@Order(5)
+	public void deletesUpdateCounts() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		// removes 10 red documents, 5 from category_0 and 5 from category_2
+		for (int i = 0; i < 100; i += 10) {
+			zuliaWorkPool.delete(new DeleteFull(String.valueOf(i), INDEX_NAME));
+		}
+
+		SearchResult searchResult = facetSearch(new Search(INDEX_NAME));
+		Assertions.assertEquals(DOC_COUNT - 10, searchResult.getTotalHits());
+		assertCounts(searchResult, "category", DOC_COUNT / 4, DOC_COUNT / 4, DOC_COUNT / 4 - 5, DOC_COUNT / 4 - 5);
+		assertCounts(searchResult, "color", DOC_COUNT - DOC_COUNT / 10, DOC_COUNT / 10 - 10);
+	}
+
+	@Test
+	@Order(6)
+	public void restart() throws Exception {
+		nodeExtension.restartNodes();
+		deletesUpdateCounts();
+	}
+
+	private static SearchResult facetSearch(Search search) throws Exception {
+		search.setAmount(1).setRealtime(true);
+		search.addCountFacet(new CountFacet("category"));
+		search.addCountFacet(new CountFacet("color"));
+		return nodeExtension.getClient().search(search);
+	}
+
+	private static void assertCounts(SearchResult searchResult, String facetField, long... expectedCounts) {
+		List<ZuliaQuery.FacetCount> facetCounts = searchResult.getFacetCounts(facetField);
+		Assertions.assertEquals(expectedCounts.length, facetCounts.size(), facetField);
+		for (int i = 0; i < expectedCounts.length; i++) {
+			Assertions.assertEquals(expectedCounts[i], facetCounts.get(i).getCount(), facetField);
+		}
+	}
+}
@@ -3,6 +3,7 @@ package io.zulia.server.test.node;
 import io.zulia.DefaultAnalyzers;
 import io.zulia.client.command.BatchDelete;
 import io.zulia.client.command.BatchFetch;
+import io.zulia.client.command.BatchStore;
 import io.zulia.client.command.DeleteFull;
 import io.zulia.client.command.FetchAllAssociated;
 import io.zulia.client.command.DeleteFromIndex;
@@ -19,6 +20,7 @@ import io.zulia.client.pool.ZuliaWorkPool;
 import io.zulia.client.result.AssociatedResult;
 import io.zulia.client.result.BatchDeleteResult;
 import io.zulia.client.result.BatchFetchResult;
+import io.zulia.client.result.BatchStoreResult;
 import io.zulia.client.result.FetchResult;
 import io.zulia.client.result.SearchResult;
 import io.zulia.doc.AssociatedBuilder;
@@ -35,6 +37,7 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 
 import io.zulia.message.ZuliaQuery.FetchType;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -90,6 +93,10 @@ public class GeneralFeaturesTest {
 
 	private void indexRecord(int id, String title, String category, String type, double rating) throws Exception {
 		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+		zuliaWorkPool.store(createStore(id, title, category, type, rating));
+	}
+
+	private Store createStore(int id, String title, String category, String type, double rating) {
 		String uniqueId = String.valueOf(id);
 
 		Document mongoDocument = new Document();
@@ -101,7 +108,7 @@ public class GeneralFeaturesTest {
 
 		Store s = new Store(uniqueId, INDEX_NAME);
 		s.setResultDocument(ResultDocBuilder.newBuilder().setDocument(mongoDocument));
-		zuliaWorkPool.store(s);
+		return s;
 	}
 
 	@Test
@@ -486,6 +493,39 @@ public class GeneralFeaturesTest {
 
 	@Test
 	@Order(7)
+	public void batchStoreTest() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		List<String> uniqueIds = new ArrayList<>();
+		BatchStore batchStore = new BatchStore();
+		for (int i = 700; i < 750; i++) {
+			uniqueIds.add(String.valueOf(i));
+			batchStore.addStore(createStore(i, "Batch Stored " + i, "batch", "article", 2.0));
+		}
+		// a later store of the same id in the batch wins
+		batchStore.addStore(createStore(700, "Batch Stored Again", "batch", "book", 3.0));
+
+		BatchStoreResult batchStoreResult = zuliaWorkPool.batchStore(batchStore);
+		Assertions.assertEquals(51, batchStoreResult.getStoredCount());
+
+		Search search = new Search(INDEX_NAME).setRealtime(true);
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(UNIQUE_DOCS + 50, searchResult.getTotalHits());
+
+		search = new Search(INDEX_NAME).setRealtime(true).addQuery(new FilterQuery("type:book AND category:batch"));
+		searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(1, searchResult.getTotalHits());
+
+		BatchDeleteResult result = zuliaWorkPool.batchDelete(new BatchDelete().addDeleteDocumentsFromUniqueIds(uniqueIds, INDEX_NAME));
+		Assertions.assertEquals(50, result.getDeleteCount());
+
+		search = new Search(INDEX_NAME).setRealtime(true);
+		searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(UNIQUE_DOCS, searchResult.getTotalHits());
+	}
+
+	@Test
+	@Order(8)
 	public void clearIndexTest() throws Exception {
 		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
 
@@ -507,7 +547,7 @@ public class GeneralFeaturesTest {
 	}
 
 	@Test
-	@Order(8)
+	@Order(9)
 	public void optimizeAndReindexTest() throws Exception {
 		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
 
@@ -538,7 +578,7 @@ public class GeneralFeaturesTest {
 	}
 
 	@Test
-	@Order(9)
+	@Order(10)
 	public void conditionalFacetsTest() throws Exception {
 		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
 
@@ -593,13 +633,13 @@ public class GeneralFeaturesTest {
 	}
 
 	@Test
-	@Order(10)
+	@Order(11)
 	public void restart() throws Exception {
 		nodeExtension.restartNodes();
 	}
 
 	@Test
-	@Order(11)
+	@Order(12)
 	public void confirm() throws Exception {
 		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
 
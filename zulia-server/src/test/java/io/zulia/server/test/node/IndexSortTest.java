@@ -0,0 +1,133 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.UpdateIndex;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.command.builder.Sort;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.CompleteResult;
+import io.zulia.client.result.SearchResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.message.ZuliaIndex;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class IndexSortTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(3);
+
+	private static final String INDEX_NAME = "indexSortTest";
+	private static final int SHARD_COUNT = 3;
+	private static final int DOC_COUNT = 2000;
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("id").indexAs(DefaultAnalyzers.LC_KEYWORD).sort());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createInt("rating").index().sort());
+		indexConfig.addIndexSort("rating", true);
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(SHARD_COUNT);
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void indexData() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i++) {
+			Document doc = new Document();
+			doc.put("id", String.format("%05d", (i * 7919) % DOC_COUNT));
+			doc.put("title", "Document " + i);
+			doc.put("rating", (i * 31) % 500);
+
+			Store store = new Store(String.valueOf(i), INDEX_NAME);
+			store.setResultDocument(ResultDocBuilder.from(doc));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void earlyTerminatedSort() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(20).setRealtime(true);
+		search.addSort(new Sort("rating").descending());
+		SearchResult exact = zuliaWorkPool.search(search);
+		Assertions.assertEquals(DOC_COUNT, exact.getTotalHits());
+		Assertions.assertFalse(exact.isTotalHitsLowerBound());
+
+		search.setTotalHitsThreshold(20);
+		SearchResult earlyTerminated = zuliaWorkPool.search(search);
+		Assertions.assertTrue(earlyTerminated.isTotalHitsLowerBound());
+		Assertions.assertTrue(earlyTerminated.getTotalHits() <= DOC_COUNT);
+		Assertions.assertTrue(earlyTerminated.getTotalHits() >= 20);
+		assertSameRatings(exact.getCompleteResults(), earlyTerminated.getCompleteResults());
+	}
+
+	@Test
+	@Order(4)
+	public void changeIndexSort() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		UpdateIndex updateIndex = new UpdateIndex(INDEX_NAME);
+		updateIndex.setIndexSort(List.of(ZuliaIndex.IndexSortField.newBuilder().setSortField("id").build()));
+		zuliaWorkPool.updateIndex(updateIndex);
+		zuliaWorkPool.reindex(INDEX_NAME);
+
+		Search search = new Search(INDEX_NAME).setAmount(20).setRealtime(true);
+		search.addSort(new Sort("id"));
+		SearchResult exact = zuliaWorkPool.search(search);
+		Assertions.assertEquals(DOC_COUNT, exact.getTotalHits());
+
+		search.setTotalHitsThreshold(20);
+		SearchResult earlyTerminated = zuliaWorkPool.search(search);
+		List<CompleteResult> results = earlyTerminated.getCompleteResults();
+		Assertions.assertEquals(20, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			Assertions.assertEquals(String.format("%05d", i), results.get(i).getDocument().getString("id"));
+		}
+	}
+
+	@Test
+	@Order(5)
+	public void restart() throws Exception {
+		nodeExtension.restartNodes();
+
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(DOC_COUNT);
+		search.addSort(new Sort("rating").descending());
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(DOC_COUNT, searchResult.getTotalHits());
+		Assertions.assertEquals(DOC_COUNT, searchResult.getCompleteResults().size());
+	}
+
+	private static void assertSameRatings(List<CompleteResult> expected, List<CompleteResult> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assertions.assertEquals(expected.get(i).getDocument().getInteger("rating"), actual.get(i).getDocument().getInteger("rating"));
+		}
+	}
+}
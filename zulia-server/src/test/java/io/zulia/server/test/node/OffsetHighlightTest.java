@@ -0,0 +1,134 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.UpdateIndex;
+import io.zulia.client.command.builder.Highlight;
+import io.zulia.client.command.builder.ScoredQuery;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.CompleteResult;
+import io.zulia.client.result.SearchResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class OffsetHighlightTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(1);
+
+	private static final String OFFSET_HIGHLIGHT_TEST_INDEX = "offsetHighlightTest";
+
+	private static final String TEXT = "The parties agree to the terms below. The lessee shall pay rent monthly. Late rent is subject to a fee.";
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("text");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("text").indexWithOffsets(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("analyzedText").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("clauses").indexWithOffsets(DefaultAnalyzers.STANDARD));
+		indexConfig.setIndexName(OFFSET_HIGHLIGHT_TEST_INDEX);
+		indexConfig.setNumberOfShards(1);
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void index() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Document document = new Document();
+		document.put("text", TEXT);
+		document.put("analyzedText", TEXT);
+		document.put("clauses", List.of("No pets are allowed.", "Rent is due on the first."));
+
+		Store store = new Store("1", OFFSET_HIGHLIGHT_TEST_INDEX);
+		store.setResultDocument(ResultDocBuilder.newBuilder().setDocument(document));
+		zuliaWorkPool.store(store);
+	}
+
+	@Test
+	@Order(3)
+	public void highlight() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(OFFSET_HIGHLIGHT_TEST_INDEX).setAmount(1);
+		search.addQuery(new ScoredQuery("rent").addQueryFields("text", "analyzedText"));
+		search.addHighlight(new Highlight("text").setFragmentLength(20).setNumberOfFragments(2));
+		search.addHighlight(new Highlight("analyzedText"));
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		CompleteResult completeResult = searchResult.getFirstCompleteResult();
+
+		List<String> fragments = completeResult.getHighlightsForField("text");
+		// passages are built around each match from the sentence boundaries
+		Assertions.assertEquals(2, fragments.size());
+		Assertions.assertTrue(fragments.get(0).contains("pay <em>rent</em> monthly."));
+		Assertions.assertTrue(fragments.get(1).startsWith("Late <em>rent</em> is subject"));
+		Assertions.assertFalse(fragments.get(1).contains("parties"));
+
+		List<String> analyzedFragments = completeResult.getHighlightsForField("analyzedText");
+		Assertions.assertEquals(1, analyzedFragments.size());
+		Assertions.assertTrue(analyzedFragments.getFirst().contains("<em>rent</em>"));
+
+		search = new Search(OFFSET_HIGHLIGHT_TEST_INDEX).setAmount(1);
+		search.addQuery(new ScoredQuery("rent").addQueryFields("clauses"));
+		search.addHighlight(new Highlight("clauses").setPreTag("<b>").setPostTag("</b>").setNumberOfFragments(2));
+		searchResult = zuliaWorkPool.search(search);
+		fragments = searchResult.getFirstCompleteResult().getHighlightsForField("clauses");
+		// the offsets of the second value line up with the stored value
+		Assertions.assertEquals(List.of("<b>Rent</b> is due on the first."), fragments);
+
+		search = new Search(OFFSET_HIGHLIGHT_TEST_INDEX).setAmount(1);
+		search.addQuery(new ScoredQuery("pets OR parties").addQueryFields("text", "clauses"));
+		search.addHighlight(new Highlight("text"));
+		searchResult = zuliaWorkPool.search(search);
+		fragments = searchResult.getFirstCompleteResult().getHighlightsForField("text");
+		Assertions.assertEquals(1, fragments.size());
+		Assertions.assertTrue(fragments.getFirst().startsWith("The <em>parties</em> agree"));
+	}
+
+	@Test
+	@Order(4)
+	public void changeOffsetsRejected() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		// lucene cannot change the index options of a field that is already indexed
+		UpdateIndex updateIndex = new UpdateIndex(OFFSET_HIGHLIGHT_TEST_INDEX);
+		updateIndex.mergeFieldConfig(FieldConfigBuilder.createString("analyzedText").indexWithOffsets(DefaultAnalyzers.STANDARD));
+		Assertions.assertThrows(Exception.class, () -> zuliaWorkPool.updateIndex(updateIndex));
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("text");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("text").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("analyzedText").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("clauses").indexWithOffsets(DefaultAnalyzers.STANDARD));
+		indexConfig.setIndexName(OFFSET_HIGHLIGHT_TEST_INDEX);
+		indexConfig.setNumberOfShards(1);
+		Assertions.assertThrows(Exception.class, () -> zuliaWorkPool.createIndex(indexConfig));
+
+		Document document = new Document();
+		document.put("text", TEXT);
+		document.put("analyzedText", TEXT);
+
+		Store store = new Store("2", OFFSET_HIGHLIGHT_TEST_INDEX);
+		store.setResultDocument(ResultDocBuilder.newBuilder().setDocument(document));
+		zuliaWorkPool.store(store);
+	}
+}
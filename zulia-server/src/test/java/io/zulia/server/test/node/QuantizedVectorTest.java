@@ -0,0 +1,158 @@
+package io.zulia.server.test.node;
+
+import com.google.common.primitives.Floats;
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.builder.FilterQuery;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.command.builder.Sort;
+import io.zulia.client.command.builder.VectorTopNQuery;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.CompleteResult;
+import io.zulia.client.result.SearchResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.message.ZuliaIndex.VectorConfig;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+import java.util.Random;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class QuantizedVectorTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(3);
+
+	private static final String INDEX_NAME = "quantizedVectorTest";
+	private static final int DOC_COUNT = 300;
+	private static final int DIMENSIONS = 32;
+
+	private static final List<String> VECTOR_FIELDS = List.of("full", "int8", "int4", "binary");
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createInt("rank").index().sort());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createVector("full").index());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createVector("int8").index().vectorQuantization(VectorConfig.Quantization.INT8));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createVector("int4").index().vectorQuantization(VectorConfig.Quantization.INT4, 4));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createVector("binary").index().vectorQuantization(VectorConfig.Quantization.BINARY, 10));
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(2);
+		indexConfig.setShardCommitInterval(50); //force some commits
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void index() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i++) {
+			List<Float> vector = Floats.asList(createVector(i));
+
+			Document document = new Document();
+			document.put("title", i % 2 == 0 ? "even" : "odd");
+			document.put("rank", i);
+			for (String vectorField : VECTOR_FIELDS) {
+				document.put(vectorField, vector);
+			}
+
+			Store store = new Store(String.valueOf(i), INDEX_NAME);
+			store.setResultDocument(ResultDocBuilder.from(document));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void searchTest() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i += 37) {
+			for (String vectorField : VECTOR_FIELDS) {
+				Search search = new Search(INDEX_NAME).setAmount(5).setRealtime(true);
+				search.addQuery(new VectorTopNQuery(createVector(i), 5, vectorField));
+				SearchResult searchResult = zuliaWorkPool.search(search);
+
+				List<CompleteResult> results = searchResult.getCompleteResults();
+				Assertions.assertEquals(5, results.size(), vectorField);
+				Assertions.assertEquals(String.valueOf(i), results.getFirst().getUniqueId(), vectorField);
+			}
+
+			// odd documents only so the query vector itself is filtered out
+			for (String vectorField : VECTOR_FIELDS) {
+				Search search = new Search(INDEX_NAME).setAmount(5).setRealtime(true);
+				search.addQuery(new VectorTopNQuery(createVector(i), 5, vectorField).addPreFilterQuery(new FilterQuery("odd").addQueryField("title")));
+				SearchResult searchResult = zuliaWorkPool.search(search);
+
+				List<CompleteResult> results = searchResult.getCompleteResults();
+				Assertions.assertEquals(5, results.size(), vectorField);
+				for (CompleteResult result : results) {
+					Assertions.assertEquals(1, Integer.parseInt(result.getUniqueId()) % 2, vectorField);
+				}
+			}
+		}
+	}
+
+	@Test
+	@Order(4)
+	public void sortedSearchTest() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		// a sorted query can be searched per segment, the top n must still be selected for the whole shard
+		for (String vectorField : VECTOR_FIELDS) {
+			Search search = new Search(INDEX_NAME).setAmount(20).setRealtime(true);
+			search.addQuery(new VectorTopNQuery(createVector(0), 5, vectorField));
+			search.addSort(new Sort("rank"));
+			SearchResult searchResult = zuliaWorkPool.search(search);
+
+			// top 5 of each shard
+			Assertions.assertEquals(10, searchResult.getTotalHits(), vectorField);
+			Assertions.assertEquals(10, searchResult.getCompleteResults().size(), vectorField);
+		}
+	}
+
+	@Test
+	@Order(5)
+	public void restart() throws Exception {
+		nodeExtension.restartNodes();
+	}
+
+	@Test
+	@Order(6)
+	public void confirm() throws Exception {
+		searchTest();
+		sortedSearchTest();
+	}
+
+	private static float[] createVector(int id) {
+		Random random = new Random(id);
+		float[] vector = new float[DIMENSIONS];
+		float norm = 0;
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] = (float) random.nextGaussian();
+			norm += vector[i] * vector[i];
+		}
+		norm = (float) Math.sqrt(norm);
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] /= norm;
+		}
+		return vector;
+	}
+}
@@ -0,0 +1,156 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.builder.CountFacet;
+import io.zulia.client.command.builder.ScoredQuery;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.SearchResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class QueryTimeoutTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(3);
+
+	private static final String INDEX_NAME = "queryTimeoutTest";
+	private static final int SHARD_COUNT = 3;
+	private static final int DOC_COUNT = 2000;
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("category").indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(SHARD_COUNT);
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void indexData() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i++) {
+			Document doc = new Document();
+			doc.put("title", "term" + i + " common");
+			doc.put("category", "category_" + (i % 4));
+
+			Store store = new Store(String.valueOf(i), INDEX_NAME);
+			store.setResultDocument(ResultDocBuilder.from(doc));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void withinTimeout() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(true);
+		search.addQuery(new ScoredQuery("term*"));
+		search.addCountFacet(new CountFacet("category"));
+		search.setTimeoutMs(60000);
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertFalse(searchResult.isTimedOut());
+		Assertions.assertEquals(DOC_COUNT, searchResult.getTotalHits());
+		Assertions.assertEquals(10, searchResult.getCompleteResults().size());
+		Assertions.assertEquals(4, searchResult.getFacetCounts("category").size());
+	}
+
+	@Test
+	@Order(4)
+	public void timedOutIsNotCached() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(false);
+		search.addQuery(new ScoredQuery("term1* OR term2* OR common"));
+		search.addCountFacet(new CountFacet("category"));
+		search.setTimeoutMs(1);
+		SearchResult timedOutResult = zuliaWorkPool.search(search);
+		Assertions.assertTrue(timedOutResult.getTotalHits() <= DOC_COUNT);
+		if (!timedOutResult.isTimedOut()) {
+			Assertions.assertEquals(DOC_COUNT, timedOutResult.getTotalHits());
+		}
+
+		// the same query without a limit must not be answered from partial results of the timed out one
+		search.setTimeoutMs(0);
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertFalse(searchResult.isTimedOut());
+		Assertions.assertEquals(DOC_COUNT, searchResult.getTotalHits());
+	}
+
+	@Test
+	@Order(5)
+	public void concurrentWithTimedOut() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		try (ExecutorService executorService = Executors.newFixedThreadPool(2)) {
+			for (int i = 0; i < 20; i++) {
+				// a different query each time so the pair is not answered from the cache of the previous one
+				Search timedOutSearch = new Search(INDEX_NAME).setAmount(10).setRealtime(false);
+				timedOutSearch.addQuery(new ScoredQuery("term" + i + "* OR term3* OR common"));
+				timedOutSearch.addCountFacet(new CountFacet("category"));
+				timedOutSearch.setTimeoutMs(1);
+
+				Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(false);
+				search.addQuery(new ScoredQuery("term" + i + "* OR term3* OR common"));
+				search.addCountFacet(new CountFacet("category"));
+
+				Future<SearchResult> timedOutResult = executorService.submit(() -> zuliaWorkPool.search(timedOutSearch));
+				Future<SearchResult> searchResult = executorService.submit(() -> zuliaWorkPool.search(search));
+
+				// identical queries share a search on the shard, the query without a limit must not get the partial results of the timed out one
+				Assertions.assertFalse(searchResult.get().isTimedOut());
+				Assertions.assertEquals(DOC_COUNT, searchResult.get().getTotalHits());
+				Assertions.assertTrue(timedOutResult.get().getTotalHits() <= DOC_COUNT);
+			}
+		}
+	}
+
+	@Test
+	@Order(6)
+	public void minShardResponseRatio() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(true);
+		search.addQuery(new ScoredQuery("common"));
+		search.addCountFacet(new CountFacet("category"));
+		search.setTimeoutMs(60000);
+		search.setMinShardResponseRatio(0.5);
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertFalse(searchResult.isPartial());
+		Assertions.assertTrue(searchResult.getMissingShards().isEmpty());
+		Assertions.assertEquals(DOC_COUNT, searchResult.getTotalHits());
+		Assertions.assertEquals(0, searchResult.getFacetGroups().getFirst().getMissingShards());
+
+		search.setMinShardResponseRatio(1.5);
+		Assertions.assertThrows(Exception.class, () -> zuliaWorkPool.search(search));
+
+		search.setMinShardResponseRatio(0.5);
+		search.setTimeoutMs(0);
+		Assertions.assertThrows(Exception.class, () -> zuliaWorkPool.search(search));
+	}
+}
@@ -0,0 +1,109 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Scan;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.builder.FilterQuery;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ScanTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(1);
+
+	private static final String SCAN_TEST_INDEX = "scanTest";
+
+	private static final int DOCUMENTS = 1234;
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createInt("rank").index());
+		indexConfig.setIndexName(SCAN_TEST_INDEX);
+		indexConfig.setNumberOfShards(3);
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void index() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOCUMENTS; i++) {
+			Document document = new Document();
+			document.put("title", i % 2 == 0 ? "even" : "odd");
+			document.put("rank", i);
+
+			Store store = new Store(String.valueOf(i), SCAN_TEST_INDEX);
+			store.setResultDocument(ResultDocBuilder.newBuilder().setDocument(document));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void scan() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Set<String> uniqueIds = ConcurrentHashMap.newKeySet();
+		zuliaWorkPool.scan(new Scan(SCAN_TEST_INDEX).setBatchSize(100)).getResultDocuments(resultDocument -> uniqueIds.add(resultDocument.getUniqueId()));
+		Assertions.assertEquals(DOCUMENTS, uniqueIds.size());
+
+		List<Document> documents = new ArrayList<>();
+		zuliaWorkPool.scan(new Scan(SCAN_TEST_INDEX).addQuery(new FilterQuery("title:even")).addDocumentFields("rank")).getDocuments(documents::add);
+		Assertions.assertEquals(DOCUMENTS / 2, documents.size());
+		for (Document document : documents) {
+			Assertions.assertEquals(0, document.getInteger("rank") % 2);
+			Assertions.assertFalse(document.containsKey("title"));
+		}
+
+		Set<String> shardUniqueIds = ConcurrentHashMap.newKeySet();
+		int total = 0;
+		for (int shardNumber = 0; shardNumber < 3; shardNumber++) {
+			int[] count = new int[1];
+			zuliaWorkPool.scan(new Scan(SCAN_TEST_INDEX).addShardNumber(shardNumber)).getResultDocuments(resultDocument -> {
+				shardUniqueIds.add(resultDocument.getUniqueId());
+				count[0]++;
+			});
+			// documents are spread across the shards
+			Assertions.assertTrue(count[0] > 0);
+			total += count[0];
+		}
+		Assertions.assertEquals(DOCUMENTS, total);
+		Assertions.assertEquals(DOCUMENTS, shardUniqueIds.size());
+	}
+
+	@Test
+	@Order(4)
+	public void scanShardsInParallel() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Set<String> uniqueIds = ConcurrentHashMap.newKeySet();
+		zuliaWorkPool.scanShardsInParallel(new Scan(SCAN_TEST_INDEX).addQuery(new FilterQuery("title:odd")),
+				resultDocument -> uniqueIds.add(resultDocument.getUniqueId()));
+		Assertions.assertEquals(DOCUMENTS / 2, uniqueIds.size());
+	}
+}
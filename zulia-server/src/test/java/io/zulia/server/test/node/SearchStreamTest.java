@@ -0,0 +1,118 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.builder.CountFacet;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.command.builder.Sort;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.CompleteResult;
+import io.zulia.client.result.SearchResult;
+import io.zulia.client.result.SearchStreamResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.message.ZuliaQuery;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SearchStreamTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(3);
+
+	private static final String INDEX_NAME = "searchStreamTest";
+	private static final int SHARD_COUNT = 5;
+	private static final int DOC_COUNT = 1500;
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("id").indexAs(DefaultAnalyzers.LC_KEYWORD).sort());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("category").indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.addFieldConfig(FieldConfigBuilder.createInt("rating").index().sort());
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(SHARD_COUNT);
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void indexData() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i++) {
+			Document doc = new Document();
+			doc.put("id", String.valueOf(i));
+			doc.put("title", "Document " + i);
+			doc.put("category", "category_" + (i % 10));
+			doc.put("rating", i % 100);
+
+			Store store = new Store(String.valueOf(i), INDEX_NAME);
+			store.setResultDocument(ResultDocBuilder.from(doc));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void streamMatchesSearch() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(DOC_COUNT).setRealtime(true);
+		search.addSort(new Sort("rating").descending());
+		search.addSort(new Sort("id"));
+		search.addCountFacet(new CountFacet("category"));
+
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		SearchStreamResult searchStreamResult = zuliaWorkPool.searchStream(search);
+
+		Assertions.assertEquals(DOC_COUNT, searchStreamResult.getTotalHits());
+		Assertions.assertEquals(searchResult.getFacetCounts("category"), searchStreamResult.getSearchResult().getFacetCounts("category"));
+		Assertions.assertFalse(searchStreamResult.getSearchResult().hasResults());
+
+		List<CompleteResult> streamed = new ArrayList<>();
+		searchStreamResult.getCompleteResults(streamed::add);
+
+		List<CompleteResult> expected = searchResult.getCompleteResults();
+		Assertions.assertEquals(expected.size(), streamed.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assertions.assertEquals(expected.get(i).getUniqueId(), streamed.get(i).getUniqueId());
+			Assertions.assertEquals(expected.get(i).getDocument().getString("title"), streamed.get(i).getDocument().getString("title"));
+		}
+	}
+
+	@Test
+	@Order(4)
+	public void streamWithoutDocuments() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(100).setRealtime(true).setResultFetchType(ZuliaQuery.FetchType.NONE);
+		search.addSort(new Sort("id"));
+
+		SearchStreamResult searchStreamResult = zuliaWorkPool.searchStream(search);
+
+		List<CompleteResult> streamed = new ArrayList<>();
+		searchStreamResult.getCompleteResults(streamed::add);
+		Assertions.assertEquals(100, streamed.size());
+		for (CompleteResult completeResult : streamed) {
+			Assertions.assertNull(completeResult.getDocument());
+		}
+	}
+}
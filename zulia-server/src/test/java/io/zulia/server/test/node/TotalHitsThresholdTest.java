@@ -0,0 +1,122 @@
+package io.zulia.server.test.node;
+
+import io.zulia.DefaultAnalyzers;
+import io.zulia.client.command.Store;
+import io.zulia.client.command.builder.CountFacet;
+import io.zulia.client.command.builder.FilterQuery;
+import io.zulia.client.command.builder.ScoredQuery;
+import io.zulia.client.command.builder.Search;
+import io.zulia.client.config.ClientIndexConfig;
+import io.zulia.client.pool.ZuliaWorkPool;
+import io.zulia.client.result.CompleteResult;
+import io.zulia.client.result.SearchResult;
+import io.zulia.doc.ResultDocBuilder;
+import io.zulia.fields.FieldConfigBuilder;
+import io.zulia.server.test.node.shared.NodeExtension;
+import org.bson.Document;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TotalHitsThresholdTest {
+
+	@RegisterExtension
+	static final NodeExtension nodeExtension = new NodeExtension(3);
+
+	private static final String INDEX_NAME = "totalHitsThresholdTest";
+	private static final int SHARD_COUNT = 2;
+	private static final int DOC_COUNT = 3000;
+
+	@Test
+	@Order(1)
+	public void createIndex() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		ClientIndexConfig indexConfig = new ClientIndexConfig();
+		indexConfig.addDefaultSearchField("title");
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("title").indexAs(DefaultAnalyzers.STANDARD));
+		indexConfig.addFieldConfig(FieldConfigBuilder.createString("category").indexAs(DefaultAnalyzers.LC_KEYWORD).facet());
+		indexConfig.setDefaultTotalHitsThreshold(100);
+		indexConfig.setIndexName(INDEX_NAME);
+		indexConfig.setNumberOfShards(SHARD_COUNT);
+
+		zuliaWorkPool.createIndex(indexConfig);
+	}
+
+	@Test
+	@Order(2)
+	public void indexData() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		for (int i = 0; i < DOC_COUNT; i++) {
+			Document doc = new Document();
+			doc.put("title", "common " + "rare ".repeat(i % 7) + "filler ".repeat(i % 11) + "doc" + i);
+			doc.put("category", "category_" + (i % 5));
+
+			Store store = new Store(String.valueOf(i), INDEX_NAME);
+			store.setResultDocument(ResultDocBuilder.from(doc));
+			zuliaWorkPool.store(store);
+		}
+	}
+
+	@Test
+	@Order(3)
+	public void scoredQuery() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(true);
+		search.addQuery(new ScoredQuery("common rare"));
+		search.setTotalHitsThreshold(Integer.MAX_VALUE);
+		SearchResult exact = zuliaWorkPool.search(search);
+		Assertions.assertEquals(DOC_COUNT, exact.getTotalHits());
+		Assertions.assertFalse(exact.isTotalHitsLowerBound());
+
+		// index default
+		search.setTotalHitsThreshold(0);
+		SearchResult approximate = zuliaWorkPool.search(search);
+		Assertions.assertTrue(approximate.isTotalHitsLowerBound());
+		Assertions.assertTrue(approximate.getTotalHits() >= 100);
+		Assertions.assertTrue(approximate.getTotalHits() <= DOC_COUNT);
+		assertSameResults(exact.getCompleteResults(), approximate.getCompleteResults());
+	}
+
+	@Test
+	@Order(4)
+	public void exactBelowThreshold() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(true);
+		search.addQuery(new ScoredQuery("doc1 doc2 doc3"));
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(3, searchResult.getTotalHits());
+		Assertions.assertFalse(searchResult.isTotalHitsLowerBound());
+	}
+
+	@Test
+	@Order(5)
+	public void facetsCountEveryHit() throws Exception {
+		ZuliaWorkPool zuliaWorkPool = nodeExtension.getClient();
+
+		Search search = new Search(INDEX_NAME).setAmount(10).setRealtime(true);
+		search.addQuery(new FilterQuery("category:category_1"));
+		search.addQuery(new ScoredQuery("common"));
+		search.addCountFacet(new CountFacet("category"));
+		SearchResult searchResult = zuliaWorkPool.search(search);
+		Assertions.assertEquals(DOC_COUNT / 5, searchResult.getTotalHits());
+		Assertions.assertFalse(searchResult.isTotalHitsLowerBound());
+		Assertions.assertEquals(DOC_COUNT / 5, searchResult.getFacetCounts("category").getFirst().getCount());
+	}
+
+	private static void assertSameResults(List<CompleteResult> expected, List<CompleteResult> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assertions.assertEquals(expected.get(i).getUniqueId(), actual.get(i).getUniqueId());
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package io.zulia.server.test.util;
+
+import io.zulia.server.util.BsonFieldProjection;
+import io.zulia.util.ZuliaUtil;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class BsonFieldProjectionTest {
+
+	private static Document createDocument() {
+		Document document = new Document();
+		document.put("title", "some title");
+		document.put("rating", 4.5);
+		document.put("year", 2001);
+		document.put("count", 10000000000L);
+		document.put("flag", true);
+		document.put("created", new Date(1000L));
+		document.put("objectId", new ObjectId("5f1d7a3e9b1e8a3c4d5e6f70"));
+		document.put("pattern", Pattern.compile("a.*b"));
+		document.put("empty", null);
+		document.put("bytes", new byte[] { 1, 2, 3 });
+		document.put("author", new Document("first", "Jane").append("last", "Doe").append("address", new Document("city", "Here").append("zip", "12345")));
+		document.put("tags", List.of("one", "two"));
+		document.put("chapters", List.of(new Document("name", "intro").append("pages", 10), "notADocument",
+				List.of(new Document("name", "nested").append("pages", 3))));
+		return document;
+	}
+
+	private static Document project(Document document, List<String> fieldsToReturn, List<String> fieldsToMask) {
+		byte[] bytes = ZuliaUtil.mongoDocumentToByteArray(document);
+		// offset the stored bytes like a doc values value that shares a larger block
+		byte[] block = new byte[bytes.length + 7];
+		System.arraycopy(bytes, 0, block, 3, bytes.length);
+		BsonFieldProjection bsonFieldProjection = new BsonFieldProjection(fieldsToReturn, fieldsToMask);
+		return ZuliaUtil.byteArrayToMongoDocument(bsonFieldProjection.project(block, 3, bytes.length).toByteArray());
+	}
+
+	@Test
+	public void fieldsToReturn() {
+		Document projected = project(createDocument(), List.of("title", "rating", "pattern"), List.of());
+		Assertions.assertEquals(List.of("title", "rating", "pattern"), List.copyOf(projected.keySet()));
+		Assertions.assertEquals("some title", projected.getString("title"));
+		Assertions.assertEquals(4.5, projected.getDouble("rating"));
+
+		projected = project(createDocument(), List.of("author.last", "author.address.city", "year"), List.of());
+		Assertions.assertEquals(List.of("year", "author"), List.copyOf(projected.keySet()));
+		Document author = projected.get("author", Document.class);
+		Assertions.assertEquals(List.of("last", "address"), List.copyOf(author.keySet()));
+		Assertions.assertEquals(new Document("city", "Here"), author.get("address", Document.class));
+
+		projected = project(createDocument(), List.of("author", "author.first"), List.of());
+		Assertions.assertEquals(new Document("first", "Jane"), projected.get("author", Document.class));
+	}
+
+	@Test
+	public void fieldsToMask() {
+		Document original = createDocument();
+
+		Document projected = project(original, List.of(), List.of("title", "author.address", "bytes"));
+		Assertions.assertFalse(projected.containsKey("title"));
+		Assertions.assertFalse(projected.containsKey("bytes"));
+		Assertions.assertEquals(new Document("first", "Jane").append("last", "Doe"), projected.get("author", Document.class));
+		Assertions.assertEquals(original.get("objectId"), projected.get("objectId"));
+		Assertions.assertEquals(original.get("created"), projected.get("created"));
+		Assertions.assertEquals(original.get("count"), projected.get("count"));
+		Assertions.assertTrue(projected.containsKey("empty"));
+		Assertions.assertEquals(original.size() - 2, projected.size());
+
+		projected = project(original, List.of("title", "author"), List.of("title", "author.first"));
+		Assertions.assertEquals(List.of("author"), List.copyOf(projected.keySet()));
+		Assertions.assertEquals(List.of("last", "address"), List.copyOf(projected.get("author", Document.class).keySet()));
+	}
+
+	@Test
+	public void arraysOfDocuments() {
+		Document projected = project(createDocument(), List.of("chapters.name"), List.of());
+		List<?> chapters = projected.get("chapters", List.class);
+		Assertions.assertEquals(3, chapters.size());
+		Assertions.assertEquals(new Document("name", "intro"), chapters.get(0));
+		Assertions.assertEquals("notADocument", chapters.get(1));
+		Assertions.assertEquals(List.of(new Document("name", "nested")), chapters.get(2));
+
+		projected = project(createDocument(), List.of(), List.of("chapters.pages"));
+		chapters = projected.get("chapters", List.class);
+		Assertions.assertEquals(new Document("name", "intro"), chapters.get(0));
+		Assertions.assertEquals(List.of("one", "two"), projected.get("tags"));
+	}
+
+	@Test
+	public void noMatchingFields() {
+		Document projected = project(createDocument(), List.of("missing", "other.missing"), List.of());
+		Assertions.assertTrue(projected.isEmpty());
+	}
+}
@@ -1,18 +1,17 @@
 package io.zulia.tools.cmd.common;
 
 import com.google.common.base.Charsets;
-import io.zulia.ZuliaConstants;
 import io.zulia.client.command.Fetch;
 import io.zulia.client.command.FetchAllAssociated;
+import io.zulia.client.command.Scan;
 import io.zulia.client.command.Store;
 import io.zulia.client.command.StoreLargeAssociated;
 import io.zulia.client.command.builder.FilterQuery;
-import io.zulia.client.command.builder.Search;
-import io.zulia.client.command.builder.Sort;
 import io.zulia.client.pool.ZuliaWorkPool;
 import io.zulia.client.result.AssociatedResult;
 import io.zulia.client.result.FetchResult;
 import io.zulia.doc.ResultDocBuilder;
+import io.zulia.util.ResultHelper;
 import io.zulia.util.pool.TaskExecutor;
 import io.zulia.util.pool.WorkPool;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
@@ -56,40 +55,41 @@ public class ZuliaCmdUtil {
 			throws Exception {
 		try (FileWriter fileWriter = new FileWriter(recordsFilename, Charsets.UTF_8)) {
 
-			Search zuliaQuery = new Search(index).addQuery(new FilterQuery(q)).setAmount(rows);
-			zuliaQuery.addSort(new Sort(ZuliaConstants.ID_SORT_FIELD));
+			// streams each shard from a point in time in index order instead of paging a sorted search
+			// the server rejects scan batches over 5000 documents
+			Scan scan = new Scan(index).setBatchSize(Math.min(rows, 5000));
+			if (q != null && !q.equals("*:*")) {
+				scan.addQuery(new FilterQuery(q));
+			}
 
 			try {
-				workPool.searchAll(zuliaQuery, queryResult -> {
-
-					long totalHits = queryResult.getTotalHits();
-
-					queryResult.getCompleteResults().forEach(completeResult -> {
+				workPool.scanShardsInParallel(scan, resultDocument -> {
+					// shards are scanned in parallel so writes are serialized on the writer
+					synchronized (fileWriter) {
 						try {
 							if (uniqueIds != null) {
-								uniqueIds.add(completeResult.getUniqueId());
+								uniqueIds.add(resultDocument.getUniqueId());
 							}
-							fileWriter.write(completeResult.getDocument().toJson());
+							fileWriter.write(ResultHelper.getDocumentFromResultDocument(resultDocument).toJson());
 							fileWriter.write(System.lineSeparator());
 
 							int c = count.incrementAndGet();
 							if (c % 1000 == 0) {
-								LOG.info("So far written {} of {} for index {}", c, totalHits, index);
+								LOG.info("So far written {} for index {}", c, index);
 							}
 
 						}
 						catch (IOException e) {
-							LOG.error("Could not write record {} for index {}", completeResult.getUniqueId(), index, e);
+							LOG.error("Could not write record {} for index {}", resultDocument.getUniqueId(), index, e);
 						}
 						catch (Throwable e) {
 							LOG.error("Could not write output for index {}", index, e);
 						}
-
-					});
+					}
 				});
 			}
 			catch (Throwable t) {
-				LOG.error("Query failed for index {}", index, t);
+				LOG.error("Scan failed for index {}", index, t);
 			}
 
 		}
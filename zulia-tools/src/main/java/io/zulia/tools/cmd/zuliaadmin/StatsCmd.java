@@ -44,16 +44,23 @@ public class StatsCmd implements Callable<Integer> {
 		if (!nodeStats.getIndexStatList().isEmpty()) {
 			System.out.println();
 			ZuliaCommonCmd.printMagenta(String.format("%30s", "Index Cache Stats"));
-			ZuliaCommonCmd.printBlue(String.format("%20s | %7s | %7s | %14s | %14s | %10s | %10s%n", "Index", "Shard", "Primary", "Pinned Size", "General Size", "Pinned Hits",
-					"General Hits"));
+			ZuliaCommonCmd.printBlue(
+					String.format("%20s | %7s | %7s | %14s | %14s | %14s | %14s | %14s | %10s | %10s | %12s | %12s | %12s%n", "Index", "Shard", "Primary",
+							"Pinned Size", "General Size", "Segment Size", "Filter Size", "Taxonomy Size", "Pinned Hits", "General Hits", "Segment Hits",
+							"Filter Hits", "Taxonomy Hits"));
 
 			for (IndexStats indexStats : nodeStats.getIndexStatList()) {
 				int shard = 0;
 				for (ShardCacheStats shardCacheStats : indexStats.getShardCacheStatList()) {
 					CacheStats pinned = shardCacheStats.getPinnedCache();
 					CacheStats general = shardCacheStats.getGeneralCache();
-					System.out.printf("%20s | %7d | %7s | %14d | %14d | %10d | %10d%n", indexStats.getIndexName(), shard, shardCacheStats.getPrimary(),
-							pinned.getEstimatedSize(), general.getEstimatedSize(), pinned.getHitCount(), general.getHitCount());
+					CacheStats segment = shardCacheStats.getSegmentCache();
+					CacheStats filter = shardCacheStats.getFilterCache();
+					CacheStats taxonomy = shardCacheStats.getTaxonomyCache();
+					System.out.printf("%20s | %7d | %7s | %14d | %14d | %14d | %14d | %14d | %10d | %10d | %12d | %12d | %12d%n", indexStats.getIndexName(),
+							shard, shardCacheStats.getPrimary(), pinned.getEstimatedSize(), general.getEstimatedSize(), segment.getEstimatedSize(),
+							filter.getEstimatedSize(), taxonomy.getEstimatedSize(), pinned.getHitCount(), general.getHitCount(), segment.getHitCount(),
+							filter.getHitCount(), taxonomy.getHitCount());
 					shard++;
 				}
 			}